@@ -0,0 +1,67 @@
+#!/usr/bin/env bash
+# Measures time to the first successful GET /api/stations for each startup mode.
+#
+#   mvn -Pfast-startup package -DskipTests          # jar, AOT classes and CDS archive
+#   mvn -Pnative native:compile -DskipTests         # optional, native image
+#   scripts/startup-benchmark.sh [runs]
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+RUNS=${1:-5}
+PORT=${PORT:-18080}
+JAR=target/transport-backend-1.0.0.jar
+CDS_ARCHIVE=target/app-cds.jsa
+NATIVE=target/transport-backend
+AOT_FLAGS="-Dspring.aot.enabled=true"
+APP_ARGS="--server.port=$PORT --spring.jpa.show-sql=false --logging.level.root=WARN"
+
+if [[ ! -f $JAR || ! -d target/lib ]]; then
+    echo "Build first: mvn -Pfast-startup package -DskipTests" >&2
+    exit 1
+fi
+
+now_ms() {
+    date +%s%3N
+}
+
+# Starts the command, polls the endpoint and prints the elapsed milliseconds
+measure() {
+    local start pid
+    start=$(now_ms)
+    "$@" $APP_ARGS > /dev/null 2>&1 &
+    pid=$!
+    until curl -sf -o /dev/null "http://localhost:$PORT/api/stations"; do
+        if ! kill -0 "$pid" 2> /dev/null; then
+            echo "process exited before serving requests" >&2
+            return 1
+        fi
+        sleep 0.02
+    done
+    echo $(( $(now_ms) - start ))
+    kill "$pid"
+    wait "$pid" 2> /dev/null || true
+}
+
+median() {
+    sort -n | awk '{ values[NR] = $1 } END { print values[int((NR + 1) / 2)] }'
+}
+
+run_mode() {
+    local name=$1
+    shift
+    local results=()
+    for ((i = 0; i < RUNS; i++)); do
+        results+=("$(measure "$@")")
+    done
+    printf "%-12s median %6s ms   runs: %s\n" "$name" "$(printf '%s\n' "${results[@]}" | median)" "${results[*]}"
+}
+
+run_mode "jvm" java -jar "$JAR"
+run_mode "aot" java $AOT_FLAGS -jar "$JAR"
+if [[ -f $CDS_ARCHIVE ]]; then
+    run_mode "aot+cds" java -XX:SharedArchiveFile="$CDS_ARCHIVE" -Xlog:cds=error $AOT_FLAGS -jar "$JAR"
+fi
+if [[ -x $NATIVE ]]; then
+    run_mode "native" "$NATIVE"
+fi
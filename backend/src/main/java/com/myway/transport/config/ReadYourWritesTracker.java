@@ -0,0 +1,60 @@
+package com.myway.transport.config;
+
+import com.myway.transport.security.UserDetailsImpl;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps users who just wrote on the primary datasource for a short window,
+ * so they read their own reports before replication has caught up. Only needed with replicas.
+ */
+@Component
+@ConditionalOnProperty(name = "app.datasource.replicas.enabled", havingValue = "true")
+public class ReadYourWritesTracker {
+
+    private final long windowMs;
+    private final Map<Long, Long> pinnedUntil = new ConcurrentHashMap<>();
+
+    public ReadYourWritesTracker(@Value("${app.datasource.read-your-writes-window-ms:5000}") long windowMs) {
+        this.windowMs = windowMs;
+    }
+
+    public void recordWrite(Long userId) {
+        if (userId != null && windowMs > 0) {
+            pinnedUntil.put(userId, System.currentTimeMillis() + windowMs);
+        }
+    }
+
+    public boolean isPinned(Long userId) {
+        if (userId == null) {
+            return false;
+        }
+        Long until = pinnedUntil.get(userId);
+        return until != null && until > System.currentTimeMillis();
+    }
+
+    public boolean isCurrentUserPinned() {
+        return isPinned(currentUserId());
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.read-your-writes-window-ms:5000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        pinnedUntil.values().removeIf(until -> until <= now);
+    }
+
+    private Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserDetailsImpl userDetails) {
+            return userDetails.getId();
+        }
+        return null;
+    }
+}
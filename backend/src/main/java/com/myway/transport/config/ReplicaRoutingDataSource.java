@@ -0,0 +1,123 @@
+package com.myway.transport.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends read-only transactions to a round-robin pool of replicas and everything else to the primary.
+ * Must sit behind a LazyConnectionDataSourceProxy so the routing decision is taken once the
+ * transaction's read-only flag is known.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource implements DisposableBean {
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private final DataSource primary;
+    private final List<DataSource> replicas;
+    private final ReadYourWritesTracker readYourWritesTracker;
+    private final Set<Integer> unhealthyReplicas = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas,
+                                    ReadYourWritesTracker readYourWritesTracker) {
+        this.primary = primary;
+        this.replicas = new ArrayList<>(replicas);
+        this.readYourWritesTracker = readYourWritesTracker;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return route(null, null);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return route(username, password);
+    }
+
+    private Connection route(String username, String password) throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                || readYourWritesTracker.isCurrentUserPinned()) {
+            return connect(primary, username, password);
+        }
+
+        // Try each healthy replica at most once before falling back to the primary
+        for (int attempt = 0; attempt < replicas.size(); attempt++) {
+            int index = selectReplica();
+            if (index < 0) {
+                break;
+            }
+            try {
+                return connect(replicas.get(index), username, password);
+            } catch (SQLException ex) {
+                markUnhealthy(index, ex);
+            }
+        }
+        return connect(primary, username, password);
+    }
+
+    int selectReplica() {
+        int size = replicas.size();
+        for (int i = 0; i < size; i++) {
+            int index = Math.floorMod(nextReplica.getAndIncrement(), size);
+            if (!unhealthyReplicas.contains(index)) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replicas.health-check-interval-ms:10000}")
+    public void checkReplicaHealth() {
+        for (int index = 0; index < replicas.size(); index++) {
+            try (Connection connection = replicas.get(index).getConnection()) {
+                if (connection.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+                    if (unhealthyReplicas.remove(index)) {
+                        log.info("Replica {} is healthy again", index);
+                    }
+                } else {
+                    markUnhealthy(index, null);
+                }
+            } catch (SQLException ex) {
+                markUnhealthy(index, ex);
+            }
+        }
+    }
+
+    public int getHealthyReplicaCount() {
+        return replicas.size() - unhealthyReplicas.size();
+    }
+
+    private void markUnhealthy(int index, SQLException cause) {
+        if (unhealthyReplicas.add(index)) {
+            log.warn("Replica {} marked unhealthy, reads fall back to the other replicas or the primary: {}",
+                index, cause != null ? cause.getMessage() : "connection validation failed");
+        }
+    }
+
+    private Connection connect(DataSource dataSource, String username, String password) throws SQLException {
+        return username != null ? dataSource.getConnection(username, password) : dataSource.getConnection();
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        for (DataSource replica : replicas) {
+            if (replica instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
@@ -1,10 +1,20 @@
 package com.myway.transport.config;
 
+import com.myway.transport.controller.ProfilingEndpoint;
+import com.myway.transport.security.FeederKeyAuthenticationFilter;
 import com.myway.transport.security.JwtAuthenticationEntryPoint;
 import com.myway.transport.security.JwtAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
+import org.springframework.aot.AotDetector;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.beans.factory.support.BeanDefinitionRegistryPostProcessor;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.PriorityOrdered;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
@@ -18,6 +28,9 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.util.matcher.AndRequestMatcher;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.DispatcherTypeRequestMatcher;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
@@ -33,6 +46,7 @@ public class SecurityConfig {
     private final UserDetailsService userDetailsService;
     private final JwtAuthenticationEntryPoint jwtAuthenticationEntryPoint;
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final FeederKeyAuthenticationFilter feederKeyAuthenticationFilter;
 
     @Bean
     public PasswordEncoder passwordEncoder() {
@@ -59,6 +73,10 @@ public class SecurityConfig {
             .exceptionHandling(exception -> exception.authenticationEntryPoint(jwtAuthenticationEntryPoint))
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(authz -> authz
+                // Completion of streamed exports, the request was authorized when it started
+                .requestMatchers(new AndRequestMatcher(new DispatcherTypeRequestMatcher(DispatcherType.ASYNC),
+                    AntPathRequestMatcher.antMatcher(HttpMethod.GET, "/api/reports/export"))).permitAll()
+                
                 // Public endpoints
                 .requestMatchers("/api/auth/**").permitAll()
                 .requestMatchers("/api/public/**").permitAll()
@@ -69,11 +87,18 @@ public class SecurityConfig {
                 // Public read-only transport data
                 .requestMatchers(HttpMethod.GET, "/api/stations/**").permitAll()
                 .requestMatchers(HttpMethod.GET, "/api/lines/**").permitAll()
+                .requestMatchers(HttpMethod.GET, "/api/network/**").permitAll()
                 .requestMatchers(HttpMethod.GET, "/api/schedules/**").permitAll()
                 .requestMatchers(HttpMethod.GET, "/api/reports/crowd-level/**").permitAll()
+                .requestMatchers(HttpMethod.GET, "/api/crowd/**").permitAll()
+                .requestMatchers(HttpMethod.GET, "/api/vehicles/**").permitAll()
+                
+                // Vehicle position feeder
+                .requestMatchers(HttpMethod.POST, "/api/vehicles/**").hasAnyRole("FEEDER", "ADMIN")
                 
                 // Admin only endpoints
                 .requestMatchers("/api/admin/**").hasRole("ADMIN")
+                .requestMatchers(EndpointRequest.to(ProfilingEndpoint.class)).hasRole("ADMIN")
                 .requestMatchers(HttpMethod.POST, "/api/stations/**").hasRole("ADMIN")
                 .requestMatchers(HttpMethod.PUT, "/api/stations/**").hasRole("ADMIN")
                 .requestMatchers(HttpMethod.DELETE, "/api/stations/**").hasRole("ADMIN")
@@ -90,6 +115,7 @@ public class SecurityConfig {
 
         http.authenticationProvider(authenticationProvider());
         http.addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+        http.addFilterBefore(feederKeyAuthenticationFilter, JwtAuthenticationFilter.class);
         
         // For H2 Console
         http.headers(headers -> headers.frameOptions().disable());
@@ -109,4 +135,35 @@ public class SecurityConfig {
         source.registerCorsConfiguration("/**", configuration);
         return source;
     }
+
+    @Bean
+    static BeanDefinitionRegistryPostProcessor aotRequestTransformerCleanup() {
+        return new AotRequestTransformerCleanup();
+    }
+
+    /**
+     * Spring Security 6.2.1 registers its HandlerMappingIntrospector request transformer again
+     * at runtime when the context was processed ahead of time, next to the definition generated
+     * at build time (fixed in 6.2.2). The generated one is dropped before Security adds its own.
+     */
+    private static class AotRequestTransformerCleanup implements BeanDefinitionRegistryPostProcessor, PriorityOrdered {
+
+        private static final String REQUEST_TRANSFORMER = "mvcHandlerMappingIntrospectorRequestTransformer";
+
+        @Override
+        public void postProcessBeanDefinitionRegistry(BeanDefinitionRegistry registry) {
+            if (AotDetector.useGeneratedArtifacts() && registry.containsBeanDefinition(REQUEST_TRANSFORMER)) {
+                registry.removeBeanDefinition(REQUEST_TRANSFORMER);
+            }
+        }
+
+        @Override
+        public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) {
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+    }
 }
@@ -1,13 +1,29 @@
 package com.myway.transport.controller;
 
 import com.myway.transport.dto.AdminStatsResponse;
+import com.myway.transport.dto.AdminUserPage;
+import com.myway.transport.dto.AdminUserResponse;
+import com.myway.transport.dto.GtfsImportStatus;
+import com.myway.transport.dto.ReportResponse;
+import com.myway.transport.dto.ReportSearchPage;
+import com.myway.transport.entity.Report;
+import com.myway.transport.entity.User;
 import com.myway.transport.service.AdminService;
+import com.myway.transport.service.GtfsImportService;
+import com.myway.transport.service.ReportSearchService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.time.LocalDateTime;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/admin")
@@ -17,6 +33,8 @@ import org.springframework.web.bind.annotation.*;
 public class AdminController {
 
     private final AdminService adminService;
+    private final GtfsImportService gtfsImportService;
+    private final ReportSearchService reportSearchService;
 
     @GetMapping("/stats")
     @Operation(summary = "Récupérer les statistiques générales")
@@ -26,14 +44,55 @@ public class AdminController {
     }
 
     @GetMapping("/users")
-    @Operation(summary = "Récupérer la liste des utilisateurs")
-    public ResponseEntity<?> getUsers() {
-        return ResponseEntity.ok(adminService.getAllUsers());
+    @Operation(summary = "Récupérer une page d'utilisateurs, filtrée par rôle, statut ou début de nom et d'email")
+    public ResponseEntity<List<AdminUserResponse>> getUsers(
+            @RequestParam(required = false) User.Role role,
+            @RequestParam(required = false) User.UserStatus status,
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(defaultValue = "50") int size) {
+        AdminUserPage page = adminService.getUsers(role, status, search, afterId, size);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header("X-Next-Cursor", String.valueOf(page.getNextCursor()));
+        }
+        return response.body(page.getUsers());
     }
 
     @PutMapping("/users/{id}/status")
     @Operation(summary = "Modifier le statut d'un utilisateur")
-    public ResponseEntity<?> updateUserStatus(@PathVariable Long id, @RequestParam String status) {
+    public ResponseEntity<AdminUserResponse> updateUserStatus(@PathVariable Long id, @RequestParam String status) {
         return ResponseEntity.ok(adminService.updateUserStatus(id, status));
     }
+
+    @GetMapping("/reports/search")
+    @Operation(summary = "Rechercher des signalements par mots ou \"expressions\" de leur commentaire, les plus pertinents d'abord")
+    public ResponseEntity<List<ReportResponse>> searchReports(
+            @RequestParam String q,
+            @RequestParam(required = false) Long stationId,
+            @RequestParam(required = false) Long lineId,
+            @RequestParam(required = false) Report.ReportStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        ReportSearchPage result = reportSearchService.search(q, stationId, lineId, status, from, to, page, size);
+        return ResponseEntity.ok()
+            .header("X-Total-Count", String.valueOf(result.getTotal()))
+            .body(result.getReports());
+    }
+
+    @PostMapping(value = "/imports/gtfs", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "Importer un flux GTFS (stations, lignes et arrêts)")
+    public ResponseEntity<GtfsImportStatus> importGtfs(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(defaultValue = "Casablanca") String city) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(gtfsImportService.startImport(file, city));
+    }
+
+    @GetMapping("/imports/gtfs/{id}")
+    @Operation(summary = "Suivre l'avancement d'un import GTFS")
+    public ResponseEntity<GtfsImportStatus> getGtfsImport(@PathVariable String id) {
+        return ResponseEntity.ok(gtfsImportService.getStatus(id));
+    }
 }
@@ -0,0 +1,37 @@
+package com.myway.transport.controller;
+
+import com.myway.transport.dto.CrowdTile;
+import com.myway.transport.service.CrowdTileService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.concurrent.TimeUnit;
+
+@RestController
+@RequestMapping("/api/crowd")
+@RequiredArgsConstructor
+@Tag(name = "Affluence", description = "API de la carte d'affluence")
+public class CrowdController {
+
+    private final CrowdTileService crowdTileService;
+
+    @GetMapping("/tiles/{z}/{x}/{y}")
+    @Operation(summary = "Récupérer une tuile de la carte de chaleur d'affluence")
+    public ResponseEntity<byte[]> getTile(@PathVariable int z, @PathVariable int x, @PathVariable int y) {
+        CrowdTile tile = crowdTileService.getTile(z, x, y);
+        // Conditional requests are answered with 304 from the ETag
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_OCTET_STREAM)
+            .cacheControl(CacheControl.maxAge(30, TimeUnit.SECONDS).cachePublic())
+            .eTag(tile.getEtag())
+            .body(tile.getPayload());
+    }
+}
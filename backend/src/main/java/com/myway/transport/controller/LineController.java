@@ -0,0 +1,40 @@
+package com.myway.transport.controller;
+
+import com.myway.transport.dto.LineCrowdResponse;
+import com.myway.transport.dto.LineStopResponse;
+import com.myway.transport.entity.LineStop;
+import com.myway.transport.service.LineService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/lines")
+@RequiredArgsConstructor
+@Tag(name = "Lignes", description = "API des lignes de transport")
+public class LineController {
+
+    private final LineService lineService;
+
+    @GetMapping("/{id}/stops")
+    @Operation(summary = "Récupérer les arrêts ordonnés d'une ligne")
+    public ResponseEntity<List<LineStopResponse>> getLineStops(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "OUTBOUND") LineStop.Direction direction) {
+        List<LineStopResponse> stops = lineService.getLineStops(id, direction);
+        return ResponseEntity.ok(stops);
+    }
+
+    @GetMapping("/{id}/crowd")
+    @Operation(summary = "Récupérer l'affluence par arrêt et par tronçon d'une ligne")
+    public ResponseEntity<LineCrowdResponse> getLineCrowd(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "OUTBOUND") LineStop.Direction direction) {
+        LineCrowdResponse crowd = lineService.getLineCrowd(id, direction);
+        return ResponseEntity.ok(crowd);
+    }
+}
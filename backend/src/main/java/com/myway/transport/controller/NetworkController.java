@@ -0,0 +1,61 @@
+package com.myway.transport.controller;
+
+import com.myway.transport.dto.NetworkBundleFile;
+import com.myway.transport.service.NetworkBundleService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.concurrent.TimeUnit;
+
+@RestController
+@RequestMapping("/api/network")
+@RequiredArgsConstructor
+@Tag(name = "Réseau", description = "API du réseau complet (stations, lignes et arrêts)")
+public class NetworkController {
+
+    private final NetworkBundleService networkBundleService;
+
+    @GetMapping("/bundle")
+    @Operation(summary = "Récupérer la version courante du réseau complet")
+    public ResponseEntity<byte[]> getCurrentBundle(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        NetworkBundleFile bundle = networkBundleService.getBundle(acceptEncoding);
+        // Revalidated on every launch, a 304 costs no body; the versioned URL can be cached for good
+        return respond(bundle, CacheControl.noCache())
+            .header(HttpHeaders.CONTENT_LOCATION, "/api/network/bundle/" + bundle.getVersion())
+            .body(bundle.getPayload());
+    }
+
+    @GetMapping("/bundle/{version}")
+    @Operation(summary = "Récupérer une version donnée du réseau complet")
+    public ResponseEntity<byte[]> getBundle(
+            @PathVariable String version,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        NetworkBundleFile bundle = networkBundleService.getBundle(version, acceptEncoding);
+        return respond(bundle, CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable())
+            .body(bundle.getPayload());
+    }
+
+    // Conditional requests are answered with 304 from the ETag
+    private static ResponseEntity.BodyBuilder respond(NetworkBundleFile bundle, CacheControl cacheControl) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .cacheControl(cacheControl)
+            .eTag(bundle.getEtag())
+            .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (bundle.getContentEncoding() != null) {
+            response.header(HttpHeaders.CONTENT_ENCODING, bundle.getContentEncoding());
+        }
+        return response;
+    }
+}
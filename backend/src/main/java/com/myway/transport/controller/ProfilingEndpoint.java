@@ -0,0 +1,89 @@
+package com.myway.transport.controller;
+
+import com.myway.transport.exception.ErrorResponse;
+import com.myway.transport.exception.ResourceNotFoundException;
+import com.myway.transport.service.ProfilingService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+
+import java.time.LocalDateTime;
+import java.util.function.Supplier;
+
+/**
+ * JFR profiling under real load, admin only:
+ * POST /actuator/profiling starts a recording (profile, durationSeconds),
+ * DELETE /actuator/profiling stops it, GET /actuator/profiling gives its status,
+ * GET /actuator/profiling/summary?top=20 the hot methods and allocation sites,
+ * and GET /actuator/profiling/recording the .jfr file for JDK Mission Control.
+ */
+@Component
+@Endpoint(id = "profiling")
+@RequiredArgsConstructor
+public class ProfilingEndpoint {
+
+    private static final String RECORDING = "recording";
+    private static final String SUMMARY = "summary";
+    private static final int DEFAULT_TOP = 20;
+    private static final MimeType JSON = MimeType.valueOf(MediaType.APPLICATION_JSON_VALUE);
+    private static final MimeType BINARY = MimeType.valueOf(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+
+    private final ProfilingService profilingService;
+
+    @ReadOperation
+    public WebEndpointResponse<Object> status() {
+        return respond(profilingService::status, JSON);
+    }
+
+    @WriteOperation
+    public WebEndpointResponse<Object> start(@Nullable String profile, @Nullable Long durationSeconds) {
+        return respond(() -> profilingService.start(profile, durationSeconds), JSON);
+    }
+
+    @DeleteOperation
+    public WebEndpointResponse<Object> stop() {
+        return respond(profilingService::stop, JSON);
+    }
+
+    @ReadOperation(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public WebEndpointResponse<Object> view(@Selector String view, @Nullable Integer top) {
+        return switch (view) {
+            case RECORDING -> respond(() -> new FileSystemResource(profilingService.getRecording()), BINARY);
+            case SUMMARY -> respond(() -> profilingService.getSummary(top != null ? top : DEFAULT_TOP), JSON);
+            default -> error(HttpStatus.NOT_FOUND, "Vue de profilage inconnue: " + view);
+        };
+    }
+
+    // Actuator endpoints are outside of the controller advice, errors are mapped here the same way
+    private static WebEndpointResponse<Object> respond(Supplier<Object> operation, MimeType contentType) {
+        try {
+            return new WebEndpointResponse<>(operation.get(), WebEndpointResponse.STATUS_OK, contentType);
+        } catch (ResourceNotFoundException e) {
+            return error(HttpStatus.NOT_FOUND, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return error(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (IllegalStateException e) {
+            return error(HttpStatus.CONFLICT, e.getMessage());
+        }
+    }
+
+    private static WebEndpointResponse<Object> error(HttpStatus status, String message) {
+        ErrorResponse error = ErrorResponse.builder()
+            .timestamp(LocalDateTime.now())
+            .status(status.value())
+            .error(status.getReasonPhrase())
+            .message(message)
+            .build();
+        return new WebEndpointResponse<>(error, status.value(), JSON);
+    }
+}
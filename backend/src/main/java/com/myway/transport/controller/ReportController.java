@@ -1,18 +1,38 @@
 package com.myway.transport.controller;
 
+import com.myway.transport.dto.BatchReportRequest;
+import com.myway.transport.dto.BatchReportResponse;
+import com.myway.transport.dto.BulkModerationRequest;
+import com.myway.transport.dto.BulkModerationResponse;
 import com.myway.transport.dto.ReportRequest;
 import com.myway.transport.dto.ReportResponse;
 import com.myway.transport.entity.Report;
+import com.myway.transport.service.ModerationQueueService;
+import com.myway.transport.service.ReportExportService;
 import com.myway.transport.service.ReportService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.Callable;
 
 @RestController
 @RequestMapping("/api/reports")
@@ -21,6 +41,11 @@ import java.util.List;
 public class ReportController {
 
     private final ReportService reportService;
+    private final ReportExportService reportExportService;
+
+    // Streamed exports may take a while, the async default of the container is 30 s
+    @Value("${app.reports.export.timeout-ms:3600000}")
+    private long exportTimeoutMs;
 
     @PostMapping
     @Operation(summary = "Créer un nouveau signalement")
@@ -29,6 +54,13 @@ public class ReportController {
         return ResponseEntity.ok(report);
     }
 
+    @PostMapping("/batch")
+    @Operation(summary = "Créer un lot de signalements enregistrés hors ligne")
+    public ResponseEntity<BatchReportResponse> createReports(@Valid @RequestBody BatchReportRequest request) {
+        BatchReportResponse response = reportService.createReports(request.getReports());
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/station/{stationId}")
     @Operation(summary = "Récupérer les signalements d'une station")
     public ResponseEntity<List<ReportResponse>> getReportsByStation(@PathVariable Long stationId) {
@@ -53,9 +85,44 @@ public class ReportController {
     @GetMapping("/pending")
     @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Récupérer les signalements en attente")
-    public ResponseEntity<List<ReportResponse>> getPendingReports() {
-        List<ReportResponse> reports = reportService.getPendingReports();
-        return ResponseEntity.ok(reports);
+    public ResponseEntity<List<ReportResponse>> getPendingReports(
+            @RequestParam(defaultValue = "OLDEST") ModerationQueueService.Order order,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) Integer size) {
+        // Without a page size the whole queue is returned, as before paging existed
+        int pageSize = size != null ? Math.max(1, size) : Integer.MAX_VALUE;
+        List<ReportResponse> reports = reportService.getPendingReports(order, Math.max(0, page), pageSize);
+        return ResponseEntity.ok()
+            .header("X-Total-Count", String.valueOf(reportService.countPendingReports()))
+            .body(reports);
+    }
+
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Exporter les signalements en CSV ou NDJSON")
+    public ResponseEntity<StreamingResponseBody> exportReports(
+            @RequestParam(defaultValue = "CSV") ReportExportService.Format format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Long stationId,
+            @RequestParam(required = false) Long lineId,
+            @RequestParam(required = false) Report.ReportStatus status,
+            HttpServletRequest request) {
+        WebAsyncUtils.getAsyncManager(request).registerCallableInterceptor(ReportController.class, new CallableProcessingInterceptor() {
+            @Override
+            public <T> void beforeConcurrentHandling(NativeWebRequest asyncRequest, Callable<T> task) {
+                ((AsyncWebRequest) asyncRequest).setTimeout(exportTimeoutMs);
+            }
+        });
+        // Written after the handler returns, rows are sent while the query is still being read
+        StreamingResponseBody body = output ->
+            reportExportService.exportReports(format, from, to, stationId, lineId, status, output);
+        boolean csv = format == ReportExportService.Format.CSV;
+        return ResponseEntity.ok()
+            .contentType(csv ? new MediaType("text", "csv", StandardCharsets.UTF_8) : MediaType.parseMediaType("application/x-ndjson"))
+            .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename("reports." + (csv ? "csv" : "ndjson")).build().toString())
+            .body(body);
     }
 
     @PutMapping("/{id}/moderate")
@@ -68,6 +135,14 @@ public class ReportController {
         return ResponseEntity.ok(report);
     }
 
+    @PutMapping("/moderate")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Modérer un lot de signalements")
+    public ResponseEntity<BulkModerationResponse> moderateReports(@Valid @RequestBody BulkModerationRequest request) {
+        BulkModerationResponse response = reportService.moderateReports(request.getDecisions());
+        return ResponseEntity.ok(response);
+    }
+
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Supprimer un signalement")
@@ -0,0 +1,51 @@
+package com.myway.transport.controller;
+
+import com.myway.transport.dto.DeparturePage;
+import com.myway.transport.dto.DepartureResponse;
+import com.myway.transport.service.TimetableService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/schedules")
+@RequiredArgsConstructor
+@Tag(name = "Horaires", description = "API des horaires théoriques")
+public class ScheduleController {
+
+    private final TimetableService timetableService;
+
+    @GetMapping("/stations/{stationId}/next")
+    @Operation(summary = "Récupérer les prochains départs d'une station")
+    public ResponseEntity<List<DepartureResponse>> getNextDepartures(
+            @PathVariable Long stationId,
+            @RequestParam(required = false) Long lineId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(defaultValue = "10") int limit) {
+        LocalDateTime start = from != null ? from : LocalDateTime.now();
+        List<DepartureResponse> departures = timetableService.getNextDepartures(stationId, lineId, start, limit);
+        return ResponseEntity.ok(departures);
+    }
+
+    @GetMapping("/stations/{stationId}")
+    @Operation(summary = "Récupérer les départs d'une station sur une plage horaire, la suite d'une plage trop fournie " +
+        "commence à l'heure de l'en-tête X-Next-From")
+    public ResponseEntity<List<DepartureResponse>> getDepartures(
+            @PathVariable Long stationId,
+            @RequestParam(required = false) Long lineId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        DeparturePage page = timetableService.getDeparturePage(stationId, lineId, from, to);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextFrom() != null) {
+            response.header("X-Next-From", page.getNextFrom().toString());
+        }
+        return response.body(page.getDepartures());
+    }
+}
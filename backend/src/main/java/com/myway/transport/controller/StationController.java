@@ -3,6 +3,7 @@ package com.myway.transport.controller;
 import com.myway.transport.dto.CrowdLevelResponse;
 import com.myway.transport.dto.StationResponse;
 import com.myway.transport.entity.Station;
+import com.myway.transport.service.CityShardService;
 import com.myway.transport.service.StationService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -21,11 +22,12 @@ import java.util.List;
 public class StationController {
 
     private final StationService stationService;
+    private final CityShardService cityShardService;
 
     @GetMapping
-    @Operation(summary = "Récupérer toutes les stations")
-    public ResponseEntity<List<StationResponse>> getAllStations() {
-        List<StationResponse> stations = stationService.getAllStations();
+    @Operation(summary = "Récupérer toutes les stations, ou celles d'une ville")
+    public ResponseEntity<List<StationResponse>> getAllStations(@RequestParam(required = false) String city) {
+        List<StationResponse> stations = city != null ? cityShardService.getStations(city) : stationService.getAllStations();
         return ResponseEntity.ok(stations);
     }
 
@@ -38,8 +40,12 @@ public class StationController {
 
     @GetMapping("/search")
     @Operation(summary = "Rechercher des stations par nom")
-    public ResponseEntity<List<StationResponse>> searchStations(@RequestParam String name) {
-        List<StationResponse> stations = stationService.searchStations(name);
+    public ResponseEntity<List<StationResponse>> searchStations(
+            @RequestParam String name,
+            @RequestParam(required = false) String city) {
+        List<StationResponse> stations = city != null
+            ? cityShardService.searchStations(name, city)
+            : stationService.searchStations(name);
         return ResponseEntity.ok(stations);
     }
 
@@ -48,8 +54,9 @@ public class StationController {
     public ResponseEntity<List<StationResponse>> getStationsNearby(
             @RequestParam Double latitude,
             @RequestParam Double longitude,
-            @RequestParam(defaultValue = "1.0") Double radius) {
-        List<StationResponse> stations = stationService.getStationsNearby(latitude, longitude, radius);
+            @RequestParam(defaultValue = "1.0") Double radius,
+            @RequestParam(required = false) String city) {
+        List<StationResponse> stations = cityShardService.getStationsNearby(latitude, longitude, radius, city);
         return ResponseEntity.ok(stations);
     }
 
@@ -0,0 +1,51 @@
+package com.myway.transport.controller;
+
+import com.myway.transport.dto.DashboardResponse;
+import com.myway.transport.dto.StationResponse;
+import com.myway.transport.service.DashboardService;
+import com.myway.transport.service.FavoriteStationService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/user")
+@RequiredArgsConstructor
+@Tag(name = "Utilisateur", description = "API de l'espace utilisateur")
+public class UserController {
+
+    private final FavoriteStationService favoriteStationService;
+    private final DashboardService dashboardService;
+
+    @GetMapping("/dashboard")
+    @Operation(summary = "Récupérer le tableau de bord: stations favorites, affluence et signalements")
+    public ResponseEntity<DashboardResponse> getDashboard() {
+        DashboardResponse dashboard = dashboardService.getDashboard();
+        return ResponseEntity.ok(dashboard);
+    }
+
+    @GetMapping("/favorites")
+    @Operation(summary = "Récupérer mes stations favorites")
+    public ResponseEntity<List<StationResponse>> getFavoriteStations() {
+        List<StationResponse> stations = favoriteStationService.getFavoriteStations();
+        return ResponseEntity.ok(stations);
+    }
+
+    @PutMapping("/favorites/{stationId}")
+    @Operation(summary = "Ajouter une station à mes favorites")
+    public ResponseEntity<Void> addFavoriteStation(@PathVariable Long stationId) {
+        favoriteStationService.addFavoriteStation(stationId);
+        return ResponseEntity.noContent().build();
+    }
+
+    @DeleteMapping("/favorites/{stationId}")
+    @Operation(summary = "Retirer une station de mes favorites")
+    public ResponseEntity<Void> removeFavoriteStation(@PathVariable Long stationId) {
+        favoriteStationService.removeFavoriteStation(stationId);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,46 @@
+package com.myway.transport.controller;
+
+import com.myway.transport.dto.VehicleIngestResponse;
+import com.myway.transport.dto.VehiclePositionRequest;
+import com.myway.transport.dto.VehiclePositionResponse;
+import com.myway.transport.service.VehicleService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/vehicles")
+@RequiredArgsConstructor
+@Tag(name = "Véhicules", description = "API des positions des véhicules")
+public class VehicleController {
+
+    private final VehicleService vehicleService;
+
+    @PostMapping("/positions")
+    @Operation(summary = "Transmettre un lot de positions de véhicules")
+    public ResponseEntity<VehicleIngestResponse> ingestPositions(@Valid @RequestBody VehiclePositionRequest request) {
+        VehicleIngestResponse response = vehicleService.ingestPositions(request.getPositions());
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/line/{lineId}")
+    @Operation(summary = "Récupérer les véhicules en service sur une ligne")
+    public ResponseEntity<List<VehiclePositionResponse>> getVehiclesOnLine(@PathVariable Long lineId) {
+        List<VehiclePositionResponse> vehicles = vehicleService.getVehiclesOnLine(lineId);
+        return ResponseEntity.ok(vehicles);
+    }
+
+    @GetMapping("/near-station/{stationId}")
+    @Operation(summary = "Récupérer les véhicules à proximité d'une station")
+    public ResponseEntity<List<VehiclePositionResponse>> getVehiclesNearStation(
+            @PathVariable Long stationId,
+            @RequestParam(defaultValue = "0.5") Double radius) {
+        List<VehiclePositionResponse> vehicles = vehicleService.getVehiclesNearStation(stationId, radius);
+        return ResponseEntity.ok(vehicles);
+    }
+}
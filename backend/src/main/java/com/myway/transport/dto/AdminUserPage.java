@@ -0,0 +1,18 @@
+package com.myway.transport.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AdminUserPage {
+    private List<AdminUserResponse> users;
+    // Id to pass as afterId for the next page, null on the last page
+    private Long nextCursor;
+}
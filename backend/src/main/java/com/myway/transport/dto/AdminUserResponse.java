@@ -0,0 +1,25 @@
+package com.myway.transport.dto;
+
+import com.myway.transport.entity.User;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AdminUserResponse {
+    private Long id;
+    private String name;
+    private String email;
+    private User.Role role;
+    private User.UserStatus status;
+    private LocalDateTime createdAt;
+    private LocalDateTime lastLogin;
+    // As last persisted, null until one of the user's reports could be scored
+    private Double reputation;
+}
@@ -0,0 +1,46 @@
+package com.myway.transport.dto;
+
+import com.myway.transport.entity.Report;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+public class BatchReportRequest {
+
+    @NotEmpty(message = "Au moins un signalement est requis")
+    @Size(max = 200, message = "200 signalements au maximum par lot")
+    private List<@Valid Item> reports;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+
+        // Generated by the app when the report is made, resending it returns the existing report
+        @NotBlank(message = "La clé d'idempotence est obligatoire")
+        @Size(max = 64, message = "La clé d'idempotence est limitée à 64 caractères")
+        private String clientKey;
+
+        @NotNull(message = "Le niveau d'affluence est obligatoire")
+        private Report.CrowdLevel crowdLevel;
+
+        @Size(max = 255, message = "Le commentaire est limité à 255 caractères")
+        private String comment;
+
+        private Long stationId;
+
+        private Long lineId;
+
+        // When the rider made the report on the device, the time of receipt when missing
+        private LocalDateTime reportedAt;
+    }
+}
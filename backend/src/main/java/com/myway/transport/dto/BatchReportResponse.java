@@ -0,0 +1,33 @@
+package com.myway.transport.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchReportResponse {
+    // In the order of the request
+    private List<Result> results;
+
+    public enum Outcome {
+        CREATED, DUPLICATE, REJECTED
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Result {
+        private String clientKey;
+        private Outcome outcome;
+        // The created report, or the one already submitted with this key
+        private Long reportId;
+        private String error;
+    }
+}
@@ -0,0 +1,32 @@
+package com.myway.transport.dto;
+
+import com.myway.transport.entity.Report;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+public class BulkModerationRequest {
+
+    @NotEmpty(message = "Au moins une décision est requise")
+    @Size(max = 1000, message = "1000 décisions au maximum par lot")
+    private List<@Valid Decision> decisions;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Decision {
+
+        @NotNull(message = "L'identifiant du signalement est obligatoire")
+        private Long reportId;
+
+        @NotNull(message = "Le statut est obligatoire")
+        private Report.ReportStatus status;
+    }
+}
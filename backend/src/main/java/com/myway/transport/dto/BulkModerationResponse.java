@@ -0,0 +1,19 @@
+package com.myway.transport.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkModerationResponse {
+    private Integer approved;
+    private Integer rejected;
+    // Reports that do not exist or were no longer pending
+    private List<Long> skippedReportIds;
+}
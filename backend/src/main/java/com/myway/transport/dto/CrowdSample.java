@@ -0,0 +1,41 @@
+package com.myway.transport.dto;
+
+import com.myway.transport.entity.Report;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CrowdSample {
+    private Long stationId;
+    private Long lineId;
+    private Double latitude;
+    private Double longitude;
+    private Report.CrowdLevel crowdLevel;
+    private LocalDateTime createdAt;
+    private Long userId;
+    private Long reportId;
+
+    public static CrowdSample of(Report report) {
+        CrowdSample sample = new CrowdSample();
+        sample.setCrowdLevel(report.getCrowdLevel());
+        sample.setCreatedAt(report.getCreatedAt());
+        sample.setUserId(report.getUser() != null ? report.getUser().getId() : null);
+        sample.setReportId(report.getId());
+        if (report.getStation() != null) {
+            sample.setStationId(report.getStation().getId());
+            sample.setLatitude(report.getStation().getLatitude());
+            sample.setLongitude(report.getStation().getLongitude());
+        }
+        if (report.getLine() != null) {
+            sample.setLineId(report.getLine().getId());
+        }
+        return sample;
+    }
+}
@@ -0,0 +1,11 @@
+package com.myway.transport.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class CrowdTile {
+    private byte[] payload;
+    private String etag;
+}
@@ -0,0 +1,31 @@
+package com.myway.transport.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DashboardResponse {
+    private List<Favorite> favorites;
+    private List<ReportResponse> myReports;
+    // False when a part missed the time budget and was left out
+    private Boolean complete;
+    private LocalDateTime generatedAt;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Favorite {
+        private StationResponse station;
+        private CrowdLevelResponse crowdLevel;
+        private List<ReportResponse> recentReports;
+    }
+}
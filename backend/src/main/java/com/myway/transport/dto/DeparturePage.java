@@ -0,0 +1,19 @@
+package com.myway.transport.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeparturePage {
+    private List<DepartureResponse> departures;
+    // Time to pass as from for the rest of the range, null once the range is complete
+    private LocalDateTime nextFrom;
+}
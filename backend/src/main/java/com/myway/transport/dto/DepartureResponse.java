@@ -0,0 +1,22 @@
+package com.myway.transport.dto;
+
+import com.myway.transport.entity.LineStop;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DepartureResponse {
+    private Long lineId;
+    private String lineName;
+    private LineStop.Direction direction;
+    private Long destinationId;
+    private String destinationName;
+    private LocalDateTime departureTime;
+}
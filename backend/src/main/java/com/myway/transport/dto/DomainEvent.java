@@ -0,0 +1,30 @@
+package com.myway.transport.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DomainEvent {
+    // Position in the outbox, events are delivered in this order
+    private Long id;
+    private Type type;
+    // Report or station id, null for a network import
+    private Long aggregateId;
+    private JsonNode payload;
+    private LocalDateTime occurredAt;
+
+    public enum Type {
+        REPORT_CREATED, REPORT_MODERATED, REPORT_DELETED,
+        STATION_CREATED, STATION_UPDATED, STATION_DELETED,
+        // Stations, lines and stops of a city replaced by a GTFS import
+        NETWORK_IMPORTED
+    }
+}
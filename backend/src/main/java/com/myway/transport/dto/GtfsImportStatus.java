@@ -0,0 +1,34 @@
+package com.myway.transport.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+// Updated by the import thread while it runs, read by the status endpoint
+@Data
+public class GtfsImportStatus {
+
+    public enum State {
+        QUEUED, RUNNING, COMPLETED, FAILED
+    }
+
+    public enum Phase {
+        STOPS, ROUTES, CALENDAR, TRIPS, STOP_TIMES, LINKS
+    }
+
+    private final String id;
+    private final String fileName;
+    private volatile State state = State.QUEUED;
+    private volatile Phase phase;
+    // Share of the current file already read, in percent
+    private volatile int progress;
+    private volatile long stations;
+    private volatile long lines;
+    private volatile long trips;
+    private volatile long stopTimes;
+    private volatile long lineStations;
+    private volatile long departures;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile String error;
+}
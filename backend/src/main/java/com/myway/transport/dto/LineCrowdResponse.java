@@ -0,0 +1,30 @@
+package com.myway.transport.dto;
+
+import com.myway.transport.entity.LineStop;
+import com.myway.transport.entity.Report;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LineCrowdResponse {
+    private Long lineId;
+    private String lineName;
+    private LineStop.Direction direction;
+    private Report.CrowdLevel currentLevel;
+    private Double confidence;
+    private LocalDateTime lastUpdated;
+    private Integer reportsCount;
+    // Measured by the vehicles' occupancy sensors, next to the level reported by travellers
+    private Report.CrowdLevel vehicleLevel;
+    private Integer vehiclesCount;
+    private List<CrowdLevelResponse> stops;
+    private List<SegmentCrowdResponse> segments;
+}
@@ -0,0 +1,18 @@
+package com.myway.transport.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LineStopResponse {
+    private Integer stopSequence;
+    private Long stationId;
+    private String stationName;
+    private Double latitude;
+    private Double longitude;
+}
@@ -0,0 +1,55 @@
+package com.myway.transport.dto;
+
+import com.myway.transport.entity.Station;
+import com.myway.transport.entity.TransportLine;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Static part of the network sent to clients in one piece: active stations, active lines,
+ * the stations each line serves and its ordered stops per direction, as station ids.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NetworkBundle {
+    private String version;
+    private LocalDateTime generatedAt;
+    private List<BundleStation> stations;
+    private List<BundleLine> lines;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class BundleStation {
+        private Long id;
+        private String name;
+        private Double latitude;
+        private Double longitude;
+        private Station.StationType type;
+        private String address;
+        private String city;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class BundleLine {
+        private Long id;
+        private String name;
+        private TransportLine.LineType type;
+        private String color;
+        private String description;
+        private List<Long> stationIds;
+        private List<Long> outboundStops;
+        private List<Long> inboundStops;
+    }
+}
@@ -0,0 +1,14 @@
+package com.myway.transport.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class NetworkBundleFile {
+    private byte[] payload;
+    private String version;
+    private String etag;
+    // null when the payload is plain JSON
+    private String contentEncoding;
+}
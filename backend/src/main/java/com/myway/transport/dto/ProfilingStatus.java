@@ -0,0 +1,27 @@
+package com.myway.transport.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProfilingStatus {
+
+    public enum State {
+        IDLE, RUNNING, STOPPED
+    }
+
+    private State state;
+    private String profile;
+    private LocalDateTime startedAt;
+    private Long durationSeconds;
+    private LocalDateTime stoppedAt;
+    // Size of the recording file once it is available
+    private Long recordingBytes;
+}
@@ -0,0 +1,37 @@
+package com.myway.transport.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProfilingSummary {
+    private String profile;
+    private LocalDateTime startedAt;
+    private LocalDateTime stoppedAt;
+    private long executionSamples;
+    // Method on top of the sampled stacks, and the first method of the application in them
+    private List<Entry> hotMethods;
+    private List<Entry> applicationHotMethods;
+    // Sampled allocation weights in bytes, by allocating method and by first method of the application
+    private long allocatedBytes;
+    private List<Entry> allocationSites;
+    private List<Entry> applicationAllocationSites;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Entry {
+        private String method;
+        private long value;
+        private double percent;
+    }
+}
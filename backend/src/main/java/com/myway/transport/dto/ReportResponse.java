@@ -20,6 +20,7 @@ public class ReportResponse {
     private LocalDateTime createdAt;
     private LocalDateTime moderatedAt;
     private String userName;
+    private Long stationId;
     private String stationName;
     private String lineName;
     private String moderatedByName;
@@ -0,0 +1,19 @@
+package com.myway.transport.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportSearchPage {
+    // Best match first
+    private List<ReportResponse> reports;
+    // Matching reports over all pages
+    private long total;
+}
@@ -0,0 +1,20 @@
+package com.myway.transport.dto;
+
+import com.myway.transport.entity.Report;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SegmentCrowdResponse {
+    private Long fromStationId;
+    private String fromStationName;
+    private Long toStationId;
+    private String toStationName;
+    private Report.CrowdLevel currentLevel;
+    private Integer reportsCount;
+}
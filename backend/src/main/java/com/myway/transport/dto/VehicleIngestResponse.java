@@ -0,0 +1,16 @@
+package com.myway.transport.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class VehicleIngestResponse {
+    private Integer accepted;
+    // Positions older than the one already known or ahead of the clock, out of range, or for vehicles beyond the store's capacity
+    private Integer ignored;
+}
@@ -0,0 +1,55 @@
+package com.myway.transport.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+public class VehiclePositionRequest {
+
+    @NotEmpty(message = "Au moins une position est requise")
+    @Size(max = 5000, message = "5000 positions au maximum par lot")
+    private List<@Valid Position> positions;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Position {
+
+        @NotBlank(message = "L'identifiant du véhicule est obligatoire")
+        private String vehicleId;
+
+        @NotNull(message = "La ligne est obligatoire")
+        private Long lineId;
+
+        @NotNull(message = "La latitude est obligatoire")
+        @DecimalMin(value = "-90", message = "La latitude doit être comprise entre -90 et 90")
+        @DecimalMax(value = "90", message = "La latitude doit être comprise entre -90 et 90")
+        private Double latitude;
+
+        @NotNull(message = "La longitude est obligatoire")
+        @DecimalMin(value = "-180", message = "La longitude doit être comprise entre -180 et 180")
+        @DecimalMax(value = "180", message = "La longitude doit être comprise entre -180 et 180")
+        private Double longitude;
+
+        @NotNull(message = "L'horodatage est obligatoire")
+        private LocalDateTime timestamp;
+
+        // Share of the vehicle's capacity in use, in percent
+        @Min(value = 0, message = "Le taux d'occupation doit être compris entre 0 et 100")
+        @Max(value = 100, message = "Le taux d'occupation doit être compris entre 0 et 100")
+        private Integer occupancy;
+    }
+}
@@ -0,0 +1,23 @@
+package com.myway.transport.dto;
+
+import com.myway.transport.entity.Report;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class VehiclePositionResponse {
+    private String vehicleId;
+    private Long lineId;
+    private Double latitude;
+    private Double longitude;
+    private LocalDateTime timestamp;
+    private Integer occupancy;
+    private Report.CrowdLevel crowdLevel;
+}
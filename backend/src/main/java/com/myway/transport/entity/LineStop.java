@@ -0,0 +1,43 @@
+package com.myway.transport.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+@Entity
+@Table(name = "line_stops", uniqueConstraints = @UniqueConstraint(columnNames = {"line_id", "direction", "stop_sequence"}))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+public class LineStop {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "line_id", nullable = false)
+    private TransportLine line;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "station_id", nullable = false)
+    private Station station;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Direction direction;
+    
+    @Column(nullable = false)
+    private Integer stopSequence;
+    
+    public enum Direction {
+        OUTBOUND, INBOUND
+    }
+}
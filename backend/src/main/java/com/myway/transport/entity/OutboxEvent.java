@@ -0,0 +1,37 @@
+package com.myway.transport.entity;
+
+import com.myway.transport.dto.DomainEvent;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+// Rows are written by OutboxService in the transaction of the change and read back in id order
+@Table(name = "outbox_events", indexes = @Index(name = "idx_outbox_events_created_at", columnList = "created_at"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private DomainEvent.Type eventType;
+    
+    private Long aggregateId;
+    
+    // JSON object
+    @Column(length = 4000)
+    private String payload;
+    
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -11,7 +11,9 @@ import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "reports")
+// A client key identifies a report submitted offline, so a resent batch does not create it twice
+@Table(name = "reports", uniqueConstraints =
+    @UniqueConstraint(name = "uk_reports_user_client_key", columnNames = {"user_id", "client_key"}))
 @Data
 @Builder
 @NoArgsConstructor
@@ -33,6 +35,9 @@ public class Report {
     
     private String comment;
     
+    @Column(length = 64)
+    private String clientKey;
+    
     @CreatedDate
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
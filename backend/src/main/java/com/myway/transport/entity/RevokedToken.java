@@ -0,0 +1,36 @@
+package com.myway.transport.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+// Nodes poll the revocations made since their last sync
+@Table(name = "revoked_tokens", indexes = @Index(name = "idx_revoked_tokens_revoked_at", columnList = "revoked_at"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevokedToken {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    // One token when set, otherwise every token of the user issued up to revokedAt
+    @Column(length = 36)
+    private String jti;
+    
+    private Long userId;
+    
+    @Column(nullable = false)
+    private LocalDateTime revokedAt;
+    
+    // Once past, the revoked tokens have expired anyway
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+}
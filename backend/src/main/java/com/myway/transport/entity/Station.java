@@ -7,6 +7,8 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -15,12 +17,16 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "stations")
+// GTFS stop ids are only unique within a feed, each city imports its own
+@Table(name = "stations", uniqueConstraints = @UniqueConstraint(
+    name = "uk_stations_city_external_id", columnNames = {"city", "external_id"}))
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 @EntityListeners(AuditingEntityListener.class)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Station {
     
     @Id
@@ -44,9 +50,17 @@ public class Station {
     private StationType type;
     
     private String address;
+    
+    // Stations are sharded by city, a station without one would never be served
+    @NotBlank(message = "La ville est obligatoire")
+    @Column(nullable = false)
     private String city = "Casablanca";
+    
     private Boolean isActive = true;
     
+    // Identifier in the imported GTFS feed
+    private String externalId;
+    
     @CreatedDate
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -54,6 +68,7 @@ public class Station {
     @LastModifiedDate
     private LocalDateTime updatedAt;
     
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @ManyToMany(mappedBy = "stations", fetch = FetchType.LAZY)
     private List<TransportLine> lines;
     
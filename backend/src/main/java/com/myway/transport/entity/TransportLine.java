@@ -6,6 +6,8 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -14,12 +16,16 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "transport_lines")
+// GTFS route ids are only unique within a feed, each city imports its own
+@Table(name = "transport_lines", uniqueConstraints = @UniqueConstraint(
+    name = "uk_transport_lines_city_external_id", columnNames = {"city", "external_id"}))
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 @EntityListeners(AuditingEntityListener.class)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class TransportLine {
     
     @Id
@@ -38,6 +44,12 @@ public class TransportLine {
     private String description;
     private Boolean isActive = true;
     
+    // Identifier in the imported GTFS feed
+    private String externalId;
+
+    // City of the feed the line was imported from
+    private String city;
+    
     @CreatedDate
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -45,6 +57,7 @@ public class TransportLine {
     @LastModifiedDate
     private LocalDateTime updatedAt;
     
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(
         name = "line_stations",
@@ -1,5 +1,6 @@
 package com.myway.transport.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
@@ -7,20 +8,28 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Locale;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+    @Index(name = "idx_users_search_name", columnList = "search_name"),
+    @Index(name = "idx_users_search_email", columnList = "search_email")
+})
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 @EntityListeners(AuditingEntityListener.class)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class User {
     
     @Id
@@ -57,9 +66,32 @@ public class User {
     
     private LocalDateTime lastLogin;
     
+    // Written by ReputationService only, Hibernate never overwrites it with a cached value
+    @JsonIgnore
+    @Column(insertable = false, updatable = false)
+    private Double reputation;
+    
+    // Lower-cased copies indexed for case-insensitive prefix search, plain columns so that any database
+    // can index them. Rows inserted with SQL must fill them with LOWER(name) and LOWER(email).
+    @JsonIgnore
+    @Column(name = "search_name")
+    private String searchName;
+    
+    @JsonIgnore
+    @Column(name = "search_email")
+    private String searchEmail;
+    
+    @JsonIgnore
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<Report> reports;
     
+    @PrePersist
+    @PreUpdate
+    void updateSearchColumns() {
+        searchName = name != null ? name.toLowerCase(Locale.ROOT) : null;
+        searchEmail = email != null ? email.toLowerCase(Locale.ROOT) : null;
+    }
+    
     public enum Role {
         USER, ADMIN
     }
@@ -0,0 +1,7 @@
+package com.myway.transport.exception;
+
+public class InvalidRequestException extends RuntimeException {
+    public InvalidRequestException(String message) {
+        super(message);
+    }
+}
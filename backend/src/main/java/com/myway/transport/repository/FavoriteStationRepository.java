@@ -0,0 +1,23 @@
+package com.myway.transport.repository;
+
+import com.myway.transport.entity.FavoriteStation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface FavoriteStationRepository extends JpaRepository<FavoriteStation, Long> {
+    
+    @Query("SELECT f.station.id FROM FavoriteStation f WHERE f.user.id = :userId ORDER BY f.createdAt, f.id")
+    List<Long> findStationIdsByUserId(@Param("userId") Long userId);
+    
+    boolean existsByUserIdAndStationId(Long userId, Long stationId);
+    
+    @Modifying
+    @Query("DELETE FROM FavoriteStation f WHERE f.user.id = :userId AND f.station.id = :stationId")
+    int deleteByUserIdAndStationId(@Param("userId") Long userId, @Param("stationId") Long stationId);
+}
@@ -0,0 +1,28 @@
+package com.myway.transport.repository;
+
+import com.myway.transport.entity.LineStop;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface LineStopRepository extends JpaRepository<LineStop, Long> {
+    
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT ls FROM LineStop ls JOIN FETCH ls.station WHERE ls.line.id = :lineId AND " +
+           "ls.direction = :direction ORDER BY ls.stopSequence")
+    List<LineStop> findStopsWithStation(@Param("lineId") Long lineId,
+                                        @Param("direction") LineStop.Direction direction);
+    
+    // [lineId, direction, stationId] of the active lines, in stop order
+    @Query("SELECT ls.line.id, ls.direction, ls.station.id FROM LineStop ls " +
+           "WHERE ls.line.isActive = true AND ls.station.isActive = true " +
+           "ORDER BY ls.line.id, ls.direction, ls.stopSequence")
+    List<Object[]> findActiveStopSequences();
+}
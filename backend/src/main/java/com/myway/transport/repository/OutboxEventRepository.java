@@ -0,0 +1,27 @@
+package com.myway.transport.repository;
+
+import com.myway.transport.entity.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+    
+    List<OutboxEvent> findByIdGreaterThanOrderById(Long afterId, Pageable pageable);
+    
+    long countByIdGreaterThan(Long afterId);
+    
+    @Query("SELECT MAX(e.id) FROM OutboxEvent e")
+    Long findMaxId();
+    
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.id <= :upToId AND e.createdAt < :before")
+    int deleteDispatchedBefore(@Param("upToId") Long upToId, @Param("before") LocalDateTime before);
+}
@@ -1,17 +1,37 @@
 package com.myway.transport.repository;
 
+import com.myway.transport.dto.CrowdSample;
+import com.myway.transport.dto.ReportResponse;
 import com.myway.transport.entity.Report;
+import com.myway.transport.entity.User;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ReportRepository extends JpaRepository<Report, Long> {
     
+    // Builds ReportResponse rows in the same statement instead of lazy-loading the four associations
+    String RESPONSE_PROJECTION = "SELECT new com.myway.transport.dto.ReportResponse(" +
+           "r.id, r.crowdLevel, r.status, r.comment, r.createdAt, r.moderatedAt, " +
+           "u.name, s.id, s.name, l.name, m.name) " +
+           "FROM Report r JOIN r.user u LEFT JOIN r.station s LEFT JOIN r.line l LEFT JOIN r.moderatedBy m ";
+    
     List<Report> findByStatus(Report.ReportStatus status);
     
     List<Report> findByUserId(Long userId);
@@ -20,16 +40,29 @@ public interface ReportRepository extends JpaRepository<Report, Long> {
     
     List<Report> findByLineId(Long lineId);
     
+    @EntityGraph(attributePaths = "station")
+    Optional<Report> findWithStationById(Long id);
+    
     @Query("SELECT r FROM Report r WHERE r.station.id = :stationId AND r.status = 'APPROVED' AND " +
            "r.createdAt >= :since ORDER BY r.createdAt DESC")
     List<Report> findRecentApprovedReportsByStation(@Param("stationId") Long stationId, 
                                                    @Param("since") LocalDateTime since);
     
+    @Query("SELECT r FROM Report r WHERE r.station.id IN :stationIds AND r.status = 'APPROVED' AND " +
+           "r.createdAt >= :since ORDER BY r.createdAt DESC")
+    List<Report> findRecentApprovedReportsByStations(@Param("stationIds") Collection<Long> stationIds,
+                                                    @Param("since") LocalDateTime since);
+    
     @Query("SELECT r FROM Report r WHERE r.line.id = :lineId AND r.status = 'APPROVED' AND " +
            "r.createdAt >= :since ORDER BY r.createdAt DESC")
     List<Report> findRecentApprovedReportsByLine(@Param("lineId") Long lineId, 
                                                @Param("since") LocalDateTime since);
     
+    // Client key and id of the reports the user already submitted with one of the keys
+    @Query("SELECT r.clientKey, r.id FROM Report r WHERE r.user.id = :userId AND r.clientKey IN :clientKeys")
+    List<Object[]> findIdsByClientKeys(@Param("userId") Long userId,
+                                       @Param("clientKeys") Collection<String> clientKeys);
+    
     @Query("SELECT COUNT(r) FROM Report r WHERE r.createdAt >= :date")
     long countReportsAfter(@Param("date") LocalDateTime date);
     
@@ -39,4 +72,106 @@ public interface ReportRepository extends JpaRepository<Report, Long> {
     
     @Query("SELECT r FROM Report r WHERE r.status = 'PENDING' ORDER BY r.createdAt ASC")
     List<Report> findPendingReportsOrderByCreatedAt();
+    
+    @Query(RESPONSE_PROJECTION + "WHERE r.id = :id")
+    Optional<ReportResponse> findResponseById(@Param("id") Long id);
+    
+    @Query(RESPONSE_PROJECTION + "WHERE u.id = :userId")
+    List<ReportResponse> findResponsesByUserId(@Param("userId") Long userId);
+    
+    @Query(RESPONSE_PROJECTION + "WHERE u.id = :userId ORDER BY r.createdAt DESC, r.id DESC")
+    List<ReportResponse> findLatestResponsesByUserId(@Param("userId") Long userId, Pageable pageable);
+    
+    @Query(RESPONSE_PROJECTION + "WHERE s.id = :stationId AND r.status = 'APPROVED' AND " +
+           "r.createdAt >= :since ORDER BY r.createdAt DESC")
+    List<ReportResponse> findRecentApprovedResponsesByStation(@Param("stationId") Long stationId,
+                                                             @Param("since") LocalDateTime since);
+    
+    // At most perStation reports per station, ranked in the database
+    @Query(RESPONSE_PROJECTION + "WHERE r.id IN (SELECT ranked.id FROM (" +
+           "SELECT x.id AS id, ROW_NUMBER() OVER (PARTITION BY x.station.id ORDER BY x.createdAt DESC, x.id DESC) AS position " +
+           "FROM Report x WHERE x.station.id IN :stationIds AND x.status = 'APPROVED' AND x.createdAt >= :since) ranked " +
+           "WHERE ranked.position <= :perStation) ORDER BY r.createdAt DESC, r.id DESC")
+    List<ReportResponse> findLatestApprovedResponsesByStations(@Param("stationIds") Collection<Long> stationIds,
+                                                              @Param("since") LocalDateTime since,
+                                                              @Param("perStation") int perStation);
+    
+    @Query(RESPONSE_PROJECTION + "WHERE l.id = :lineId AND r.status = 'APPROVED' AND " +
+           "r.createdAt >= :since ORDER BY r.createdAt DESC")
+    List<ReportResponse> findRecentApprovedResponsesByLine(@Param("lineId") Long lineId,
+                                                          @Param("since") LocalDateTime since);
+    
+    @Query(RESPONSE_PROJECTION + "WHERE r.status = 'PENDING' ORDER BY r.createdAt ASC")
+    List<ReportResponse> findPendingResponsesOrderByCreatedAt();
+    
+    @Query("SELECT new com.myway.transport.dto.CrowdSample(s.id, l.id, s.latitude, s.longitude, r.crowdLevel, r.createdAt, r.user.id, r.id) " +
+           "FROM Report r LEFT JOIN r.station s LEFT JOIN r.line l WHERE r.status = 'APPROVED' AND r.createdAt >= :since")
+    List<CrowdSample> findApprovedCrowdSamplesSince(@Param("since") LocalDateTime since);
+    
+    @Query("SELECT new com.myway.transport.dto.CrowdSample(s.id, l.id, s.latitude, s.longitude, r.crowdLevel, r.createdAt, r.user.id, r.id) " +
+           "FROM Report r JOIN r.station s LEFT JOIN r.line l WHERE s.id IN :stationIds AND r.status = 'APPROVED' " +
+           "AND r.createdAt >= :since ORDER BY r.createdAt DESC")
+    List<CrowdSample> findApprovedCrowdSamplesByStationsSince(@Param("stationIds") Collection<Long> stationIds,
+                                                              @Param("since") LocalDateTime since);
+    
+    @Query("SELECT new com.myway.transport.dto.CrowdSample(s.id, l.id, s.latitude, s.longitude, r.crowdLevel, r.createdAt, r.user.id, r.id) " +
+           "FROM Report r JOIN r.station s LEFT JOIN r.line l WHERE s.isActive = true AND LOWER(TRIM(s.city)) = :city " +
+           "AND r.status = 'APPROVED' AND r.createdAt >= :since")
+    List<CrowdSample> findApprovedCrowdSamplesByCitySince(@Param("city") String city, @Param("since") LocalDateTime since);
+    
+    @Query("SELECT new com.myway.transport.dto.CrowdSample(s.id, l.id, s.latitude, s.longitude, r.crowdLevel, r.createdAt, r.user.id, r.id) " +
+           "FROM Report r LEFT JOIN r.station s LEFT JOIN r.line l WHERE r.id IN :ids")
+    List<CrowdSample> findCrowdSamplesByIds(@Param("ids") Collection<Long> ids);
+    
+    // Approved reports of the window created, inserted (offline batches keep an older creation time) or moderated since a checkpoint
+    @Query("SELECT new com.myway.transport.dto.CrowdSample(s.id, l.id, s.latitude, s.longitude, r.crowdLevel, r.createdAt, r.user.id, r.id) " +
+           "FROM Report r LEFT JOIN r.station s LEFT JOIN r.line l WHERE r.status = 'APPROVED' AND r.createdAt >= :windowStart " +
+           "AND (r.id > :lastId OR r.createdAt >= :since OR r.moderatedAt >= :since)")
+    List<CrowdSample> findApprovedCrowdSamplesChangedSince(@Param("windowStart") LocalDateTime windowStart,
+                                                           @Param("lastId") Long lastId,
+                                                           @Param("since") LocalDateTime since);
+    
+    @Query("SELECT r.id FROM Report r WHERE r.status <> 'APPROVED' AND r.moderatedAt >= :since")
+    List<Long> findIdsUnapprovedSince(@Param("since") LocalDateTime since);
+    
+    @Query("SELECT MAX(r.id) FROM Report r")
+    Long findMaxId();
+    
+    // Rows are fetched from the cursor as the stream is consumed, nothing is kept in the persistence context
+    @QueryHints({
+        @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(RESPONSE_PROJECTION + "WHERE (:from IS NULL OR r.createdAt >= :from) AND (:to IS NULL OR r.createdAt < :to) " +
+           "AND (:stationId IS NULL OR s.id = :stationId) AND (:lineId IS NULL OR l.id = :lineId) " +
+           "AND (:status IS NULL OR r.status = :status) ORDER BY r.id")
+    Stream<ReportResponse> streamResponsesForExport(@Param("from") LocalDateTime from,
+                                                    @Param("to") LocalDateTime to,
+                                                    @Param("stationId") Long stationId,
+                                                    @Param("lineId") Long lineId,
+                                                    @Param("status") Report.ReportStatus status);
+    
+    // Id, comment, status, creation time, station and line of every commented report, for the search index
+    @QueryHints({
+        @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT r.id, r.comment, r.status, r.createdAt, r.station.id, r.line.id FROM Report r " +
+           "WHERE r.comment IS NOT NULL ORDER BY r.id")
+    Stream<Object[]> streamSearchDocuments();
+    
+    @Query(RESPONSE_PROJECTION + "WHERE r.id IN :ids")
+    List<ReportResponse> findResponsesByIds(@Param("ids") Collection<Long> ids);
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r.id FROM Report r WHERE r.id IN :ids AND r.status = 'PENDING'")
+    List<Long> lockPendingIds(@Param("ids") Collection<Long> ids);
+    
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Report r SET r.status = :status, r.moderatedAt = :moderatedAt, r.moderatedBy = :moderator " +
+           "WHERE r.id IN :ids")
+    int updateModeration(@Param("ids") Collection<Long> ids,
+                         @Param("status") Report.ReportStatus status,
+                         @Param("moderatedAt") LocalDateTime moderatedAt,
+                         @Param("moderator") User moderator);
 }
@@ -1,8 +1,11 @@
 package com.myway.transport.repository;
 
 import com.myway.transport.entity.Station;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -15,22 +18,23 @@ public interface StationRepository extends JpaRepository<Station, Long> {
     
     List<Station> findByType(Station.StationType type);
     
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     List<Station> findByIsActiveTrue();
     
     List<Station> findByCity(String city);
     
+    @Query("SELECT s FROM Station s LEFT JOIN FETCH s.lines WHERE s.isActive = true AND LOWER(TRIM(s.city)) = :city")
+    List<Station> findActiveByCityWithLines(@Param("city") String city);
+    
+    // City, then the bounds of its active stations: min and max latitude, min and max longitude
+    @Query("SELECT LOWER(TRIM(s.city)), MIN(s.latitude), MAX(s.latitude), MIN(s.longitude), MAX(s.longitude) " +
+           "FROM Station s WHERE s.isActive = true AND s.city IS NOT NULL GROUP BY LOWER(TRIM(s.city))")
+    List<Object[]> findActiveCityBounds();
+    
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT s FROM Station s WHERE s.isActive = true AND " +
            "(:type IS NULL OR s.type = :type) AND " +
            "(:city IS NULL OR s.city = :city)")
     List<Station> findActiveStationsWithFilters(@Param("type") Station.StationType type, 
                                                @Param("city") String city);
-    
-    @Query(value = "SELECT * FROM stations s WHERE s.is_active = true AND " +
-                   "(6371 * acos(cos(radians(:lat)) * cos(radians(s.latitude)) * " +
-                   "cos(radians(s.longitude) - radians(:lng)) + " +
-                   "sin(radians(:lat)) * sin(radians(s.latitude)))) < :radius",
-           nativeQuery = true)
-    List<Station> findStationsNearby(@Param("lat") Double latitude, 
-                                   @Param("lng") Double longitude, 
-                                   @Param("radius") Double radiusKm);
 }
@@ -23,4 +23,9 @@ public interface TransportLineRepository extends JpaRepository<TransportLine, Lo
     @Query("SELECT l FROM TransportLine l WHERE l.isActive = true AND " +
            "(:type IS NULL OR l.type = :type)")
     List<TransportLine> findActiveLinesWithFilters(@Param("type") TransportLine.LineType type);
+    
+    // [lineId, stationId] of every active line and active station it serves
+    @Query("SELECT l.id, s.id FROM TransportLine l JOIN l.stations s WHERE l.isActive = true AND s.isActive = true " +
+           "ORDER BY l.id, s.id")
+    List<Object[]> findActiveLineStationIds();
 }
@@ -0,0 +1,15 @@
+package com.myway.transport.repository;
+
+import com.myway.transport.dto.AdminUserResponse;
+import com.myway.transport.entity.User;
+
+import java.util.List;
+
+public interface UserRepositoryCustom {
+
+    /**
+     * Keyset page of users, newest first: ids below afterId, optionally filtered by role, status
+     * and a lower-case prefix of the name or email. Absent filters are left out of the SQL.
+     */
+    List<AdminUserResponse> findUserPage(Long afterId, User.Role role, User.UserStatus status, String prefix, int limit);
+}
@@ -0,0 +1,69 @@
+package com.myway.transport.repository;
+
+import com.myway.transport.dto.AdminUserResponse;
+import com.myway.transport.entity.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+class UserRepositoryImpl implements UserRepositoryCustom {
+
+    private static final char ESCAPE = '\\';
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<AdminUserResponse> findUserPage(Long afterId, User.Role role, User.UserStatus status, String prefix, int limit) {
+        if (prefix == null) {
+            return query(afterId, role, status, null, null, limit);
+        }
+        // An OR across both columns would scan the table, each prefix gets its own index range instead
+        Set<Long> seen = new HashSet<>();
+        return Stream.concat(
+                query(afterId, role, status, "searchName", prefix, limit).stream(),
+                query(afterId, role, status, "searchEmail", prefix, limit).stream())
+            .sorted(Comparator.comparing(AdminUserResponse::getId).reversed())
+            .filter(user -> seen.add(user.getId()))
+            .limit(limit)
+            .toList();
+    }
+
+    private List<AdminUserResponse> query(Long afterId, User.Role role, User.UserStatus status,
+                                          String searchColumn, String prefix, int limit) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<AdminUserResponse> query = builder.createQuery(AdminUserResponse.class);
+        Root<User> user = query.from(User.class);
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (afterId != null) {
+            predicates.add(builder.lessThan(user.get("id"), afterId));
+        }
+        if (role != null) {
+            predicates.add(builder.equal(user.get("role"), role));
+        }
+        if (status != null) {
+            predicates.add(builder.equal(user.get("status"), status));
+        }
+        if (searchColumn != null) {
+            predicates.add(builder.like(user.get(searchColumn), prefix, ESCAPE));
+        }
+
+        query.select(builder.construct(AdminUserResponse.class, user.get("id"), user.get("name"), user.get("email"),
+                user.get("role"), user.get("status"), user.get("createdAt"), user.get("lastLogin"),
+                user.get("reputation")))
+            .where(predicates.toArray(new Predicate[0]))
+            .orderBy(builder.desc(user.get("id")));
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+}
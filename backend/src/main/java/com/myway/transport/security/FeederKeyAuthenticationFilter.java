@@ -0,0 +1,47 @@
+package com.myway.transport.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+
+/**
+ * Authenticates the vehicle position feeder by a shared key, so it can post at a high rate
+ * without a user account or token refresh. Without a configured key the filter is inert.
+ */
+@Component
+public class FeederKeyAuthenticationFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "X-Feeder-Key";
+
+    private final byte[] feederKey;
+
+    public FeederKeyAuthenticationFilter(@Value("${app.vehicles.feeder-key:}") String feederKey) {
+        this.feederKey = feederKey.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String key = request.getHeader(HEADER);
+        if (feederKey.length > 0 && StringUtils.hasText(key)
+                && MessageDigest.isEqual(feederKey, key.getBytes(StandardCharsets.UTF_8))) {
+            UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                "vehicle-feeder", null, List.of(new SimpleGrantedAuthority("ROLE_FEEDER")));
+            SecurityContextHolder.getContext().setAuthentication(authentication);
+        }
+        filterChain.doFilter(request, response);
+    }
+}
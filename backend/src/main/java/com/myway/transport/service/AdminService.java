@@ -1,6 +1,8 @@
 package com.myway.transport.service;
 
 import com.myway.transport.dto.AdminStatsResponse;
+import com.myway.transport.dto.AdminUserPage;
+import com.myway.transport.dto.AdminUserResponse;
 import com.myway.transport.entity.User;
 import com.myway.transport.repository.ReportRepository;
 import com.myway.transport.repository.StationRepository;
@@ -17,9 +19,12 @@ import java.util.List;
 @Transactional(readOnly = true)
 public class AdminService {
 
+    public static final int MAX_PAGE_SIZE = 200;
+
     private final UserRepository userRepository;
     private final StationRepository stationRepository;
     private final ReportRepository reportRepository;
+    private final TokenRevocationService tokenRevocationService;
 
     public AdminStatsResponse getGeneralStats() {
         LocalDateTime oneDayAgo = LocalDateTime.now().minusDays(1);
@@ -36,16 +41,55 @@ public class AdminService {
             .build();
     }
 
-    public List<User> getAllUsers() {
-        return userRepository.findAll();
+    public AdminUserPage getUsers(User.Role role, User.UserStatus status, String search, Long afterId, int size) {
+        int pageSize = Math.min(Math.max(1, size), MAX_PAGE_SIZE);
+        // One extra row tells whether another page follows
+        List<AdminUserResponse> users = userRepository.findUserPage(afterId, role, status, toPrefix(search), pageSize + 1);
+        boolean hasMore = users.size() > pageSize;
+        if (hasMore) {
+            users = users.subList(0, pageSize);
+        }
+        return AdminUserPage.builder()
+            .users(users)
+            .nextCursor(hasMore ? users.get(pageSize - 1).getId() : null)
+            .build();
     }
 
     @Transactional
-    public User updateUserStatus(Long userId, String status) {
+    public AdminUserResponse updateUserStatus(Long userId, String status) {
         User user = userRepository.findById(userId)
             .orElseThrow(() -> new RuntimeException("Utilisateur non trouvé"));
         
-        user.setStatus(User.UserStatus.valueOf(status.toUpperCase()));
-        return userRepository.save(user);
+        User.UserStatus newStatus = User.UserStatus.valueOf(status.toUpperCase());
+        if (newStatus == User.UserStatus.SUSPENDED && user.getStatus() != User.UserStatus.SUSPENDED) {
+            tokenRevocationService.revokeUser(userId);
+        }
+        user.setStatus(newStatus);
+        return convertToResponse(userRepository.save(user));
+    }
+
+    private AdminUserResponse convertToResponse(User user) {
+        return AdminUserResponse.builder()
+            .id(user.getId())
+            .name(user.getName())
+            .email(user.getEmail())
+            .role(user.getRole())
+            .status(user.getStatus())
+            .createdAt(user.getCreatedAt())
+            .lastLogin(user.getLastLogin())
+            .reputation(user.getReputation())
+            .build();
+    }
+
+    // Case-insensitive prefix pattern with LIKE wildcards in the search escaped
+    private static String toPrefix(String search) {
+        if (search == null || search.isBlank()) {
+            return null;
+        }
+        String escaped = search.trim().toLowerCase()
+            .replace("\\", "\\\\")
+            .replace("%", "\\%")
+            .replace("_", "\\_");
+        return escaped + "%";
     }
 }
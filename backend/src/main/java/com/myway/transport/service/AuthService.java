@@ -7,8 +7,10 @@ import com.myway.transport.entity.User;
 import com.myway.transport.exception.EmailAlreadyExistsException;
 import com.myway.transport.repository.UserRepository;
 import com.myway.transport.security.JwtTokenProvider;
+import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.DisabledException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -27,17 +29,22 @@ public class AuthService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtTokenProvider tokenProvider;
+    private final TokenRevocationService tokenRevocationService;
 
     public AuthResponse login(AuthRequest authRequest) {
         Authentication authentication = authenticationManager.authenticate(
             new UsernamePasswordAuthenticationToken(authRequest.getEmail(), authRequest.getPassword())
         );
 
-        SecurityContextHolder.getContext().setAuthentication(authentication);
-        String jwt = tokenProvider.generateToken(authentication);
-
         User user = userRepository.findByEmail(authRequest.getEmail())
             .orElseThrow(() -> new RuntimeException("Utilisateur non trouvé"));
+        // Suspension revokes the user's tokens, a new login must not hand out another one
+        if (user.getStatus() == User.UserStatus.SUSPENDED) {
+            throw new DisabledException("Compte suspendu");
+        }
+
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+        String jwt = tokenProvider.generateToken(authentication);
 
         // Update last login
         user.setLastLogin(LocalDateTime.now());
@@ -81,4 +88,13 @@ public class AuthService {
             .role(user.getRole().name())
             .build();
     }
+
+    /** Revokes the token until it expires, an invalid or already expired token is left alone. */
+    public void logout(String authorizationHeader) {
+        String jwt = JwtTokenProvider.resolveToken(authorizationHeader);
+        Claims claims = jwt != null ? tokenProvider.parseToken(jwt) : null;
+        if (claims != null && claims.getId() != null) {
+            tokenRevocationService.revokeToken(claims.getId(), JwtTokenProvider.getUserId(claims), claims.getExpiration());
+        }
+    }
 }
@@ -0,0 +1,248 @@
+package com.myway.transport.service;
+
+import com.myway.transport.dto.CrowdSample;
+import com.myway.transport.dto.StationResponse;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntPredicate;
+import java.util.stream.Collectors;
+
+/**
+ * Active stations of one city with the indexes their reads go through: a grid of cells of
+ * their positions for the nearby searches, the trigrams of their names for the name searches,
+ * and the approved reports of the last hour of each station for the crowd levels.
+ *
+ * Stations and indexes are built once and never change, a change of the city's stations
+ * replaces the whole shard. Reports are recorded and retracted as they are moderated.
+ */
+final class CityShard {
+
+    static final double CELL_DEGREES = 0.01;
+    // Shortest length of a degree of latitude, so the spans below never miss a station
+    private static final double KM_PER_DEGREE = 110.5;
+    private static final double EARTH_RADIUS_KM = 6371;
+
+    private final String city;
+    // Sorted by id, the order of the database reads
+    private final List<StationResponse> stations;
+    private final String[] names;
+    private final Map<Long, int[]> cells;
+    private final Map<Long, int[]> trigrams;
+    private final Map<Long, Map<Long, CrowdSample>> recentReports = new ConcurrentHashMap<>();
+
+    // Reports recorded or retracted while the shard loads win over the database read
+    private Set<Long> touchedWhileLoading = new HashSet<>();
+    private final CompletableFuture<CityShard> ready = new CompletableFuture<>();
+    private volatile long lastAccessMillis = System.currentTimeMillis();
+
+    CityShard(String city, List<StationResponse> stations) {
+        this.city = city;
+        this.stations = stations.stream().sorted(Comparator.comparing(StationResponse::getId)).toList();
+        this.names = this.stations.stream().map(station -> normalize(station.getName())).toArray(String[]::new);
+
+        Map<Long, List<Integer>> cellLists = new HashMap<>();
+        Map<Long, Set<Integer>> trigramSets = new HashMap<>();
+        for (int i = 0; i < this.stations.size(); i++) {
+            StationResponse station = this.stations.get(i);
+            recentReports.put(station.getId(), new ConcurrentHashMap<>());
+            if (station.getLatitude() != null && station.getLongitude() != null) {
+                cellLists.computeIfAbsent(cell(row(station.getLatitude()), column(station.getLongitude())), key -> new ArrayList<>()).add(i);
+            }
+            String name = names[i];
+            for (int start = 0; start + 3 <= name.length(); start++) {
+                trigramSets.computeIfAbsent(trigram(name, start), key -> new HashSet<>()).add(i);
+            }
+        }
+        this.cells = toPostings(cellLists);
+        this.trigrams = toPostings(trigramSets);
+    }
+
+    String city() {
+        return city;
+    }
+
+    CompletableFuture<CityShard> ready() {
+        return ready;
+    }
+
+    long lastAccessMillis() {
+        return lastAccessMillis;
+    }
+
+    void touch() {
+        lastAccessMillis = System.currentTimeMillis();
+    }
+
+    boolean contains(Long stationId) {
+        return recentReports.containsKey(stationId);
+    }
+
+    List<StationResponse> stations() {
+        return stations;
+    }
+
+    /** Stations whose name contains the given text, ignoring case. */
+    List<StationResponse> search(String text) {
+        String query = normalize(text);
+        if (query.length() < 3) {
+            return select(allIndexes(), index -> names[index].contains(query));
+        }
+        // Every trigram of the query is in the name, the rarest one gives the fewest candidates
+        int[] candidates = null;
+        for (int start = 0; start + 3 <= query.length(); start++) {
+            int[] posting = trigrams.get(trigram(query, start));
+            if (posting == null) {
+                return List.of();
+            }
+            if (candidates == null || posting.length < candidates.length) {
+                candidates = posting;
+            }
+        }
+        return select(candidates, index -> names[index].contains(query));
+    }
+
+    /** Stations closer than the radius, by the same great-circle distance as the database query. */
+    List<StationResponse> nearby(double latitude, double longitude, double radiusKm) {
+        double latitudeSpan = latitudeSpan(radiusKm);
+        double longitudeSpan = longitudeSpan(latitude, latitudeSpan);
+        long rows = row(latitude + latitudeSpan) - row(latitude - latitudeSpan) + 1;
+        long columns = column(longitude + longitudeSpan) - column(longitude - longitudeSpan) + 1;
+
+        int[] candidates;
+        if (Double.isInfinite(longitudeSpan) || rows * columns > stations.size()) {
+            candidates = allIndexes();
+        } else {
+            List<int[]> postings = new ArrayList<>();
+            for (long row = row(latitude - latitudeSpan); row <= row(latitude + latitudeSpan); row++) {
+                for (long column = column(longitude - longitudeSpan); column <= column(longitude + longitudeSpan); column++) {
+                    int[] posting = cells.get(cell(row, column));
+                    if (posting != null) {
+                        postings.add(posting);
+                    }
+                }
+            }
+            candidates = postings.stream().flatMapToInt(Arrays::stream).sorted().toArray();
+        }
+        return select(candidates, index -> {
+            StationResponse station = stations.get(index);
+            return station.getLatitude() != null && station.getLongitude() != null
+                && distanceKm(latitude, longitude, station.getLatitude(), station.getLongitude()) < radiusKm;
+        });
+    }
+
+    /** Approved reports of the station created since the given time, latest first. */
+    List<CrowdSample> recentReports(Long stationId, LocalDateTime since) {
+        return recentReports.getOrDefault(stationId, Map.of()).values().stream()
+            .filter(sample -> !sample.getCreatedAt().isBefore(since))
+            .sorted(Comparator.comparing(CrowdSample::getCreatedAt).reversed())
+            .collect(Collectors.toList());
+    }
+
+    synchronized void record(CrowdSample sample) {
+        Map<Long, CrowdSample> reports = recentReports.get(sample.getStationId());
+        if (reports != null) {
+            reports.put(sample.getReportId(), sample);
+            if (touchedWhileLoading != null) {
+                touchedWhileLoading.add(sample.getReportId());
+            }
+        }
+    }
+
+    synchronized void retract(CrowdSample sample) {
+        Map<Long, CrowdSample> reports = recentReports.get(sample.getStationId());
+        if (reports != null) {
+            reports.remove(sample.getReportId());
+            if (touchedWhileLoading != null) {
+                touchedWhileLoading.add(sample.getReportId());
+            }
+        }
+    }
+
+    /** Adds the reports read from the database once the shard receives the new ones. */
+    synchronized void fill(List<CrowdSample> samples) {
+        for (CrowdSample sample : samples) {
+            Map<Long, CrowdSample> reports = recentReports.get(sample.getStationId());
+            if (reports != null && !touchedWhileLoading.contains(sample.getReportId())) {
+                reports.put(sample.getReportId(), sample);
+            }
+        }
+        touchedWhileLoading = null;
+    }
+
+    void prune(LocalDateTime before) {
+        recentReports.values().forEach(reports -> reports.values().removeIf(sample -> sample.getCreatedAt().isBefore(before)));
+    }
+
+    static String normalize(String value) {
+        return value != null ? value.trim().toLowerCase(Locale.ROOT) : "";
+    }
+
+    static double latitudeSpan(double radiusKm) {
+        return radiusKm / KM_PER_DEGREE;
+    }
+
+    // Widest at the latitude of the span closest to a pole, infinite when the span reaches it
+    static double longitudeSpan(double latitude, double latitudeSpan) {
+        double farthest = Math.abs(latitude) + latitudeSpan;
+        return farthest >= 90 ? Double.POSITIVE_INFINITY : latitudeSpan / Math.cos(Math.toRadians(farthest));
+    }
+
+    static double distanceKm(double latitude, double longitude, double otherLatitude, double otherLongitude) {
+        return EARTH_RADIUS_KM * Math.acos(Math.cos(Math.toRadians(latitude)) * Math.cos(Math.toRadians(otherLatitude))
+            * Math.cos(Math.toRadians(otherLongitude) - Math.toRadians(longitude))
+            + Math.sin(Math.toRadians(latitude)) * Math.sin(Math.toRadians(otherLatitude)));
+    }
+
+    private List<StationResponse> select(int[] indexes, IntPredicate filter) {
+        List<StationResponse> selected = new ArrayList<>();
+        for (int index : indexes) {
+            if (filter.test(index)) {
+                selected.add(stations.get(index));
+            }
+        }
+        return selected;
+    }
+
+    private int[] allIndexes() {
+        int[] indexes = new int[stations.size()];
+        Arrays.setAll(indexes, index -> index);
+        return indexes;
+    }
+
+    private static long row(double latitude) {
+        return (long) Math.floor(latitude / CELL_DEGREES);
+    }
+
+    private static long column(double longitude) {
+        return (long) Math.floor(longitude / CELL_DEGREES);
+    }
+
+    private static long cell(long row, long column) {
+        return row << 32 | (column & 0xFFFFFFFFL);
+    }
+
+    private static long trigram(String text, int start) {
+        return (long) text.charAt(start) << 32 | (long) text.charAt(start + 1) << 16 | text.charAt(start + 2);
+    }
+
+    private static Map<Long, int[]> toPostings(Map<Long, ? extends Iterable<Integer>> lists) {
+        Map<Long, int[]> postings = new HashMap<>();
+        lists.forEach((key, indexes) -> {
+            List<Integer> sorted = new ArrayList<>();
+            indexes.forEach(sorted::add);
+            postings.put(key, sorted.stream().mapToInt(Integer::intValue).sorted().toArray());
+        });
+        return postings;
+    }
+}
@@ -0,0 +1,232 @@
+package com.myway.transport.service;
+
+import com.myway.transport.dto.CrowdSample;
+import com.myway.transport.dto.StationResponse;
+import com.myway.transport.entity.Station;
+import com.myway.transport.entity.TransportLine;
+import com.myway.transport.repository.ReportRepository;
+import com.myway.transport.repository.StationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Serves the station reads of a city from its shard, so the traffic of a city only touches
+ * the stations and reports of that city. A shard is loaded on the first read of its city and
+ * dropped once the city has been idle for a while, memory follows the cities in use.
+ *
+ * Nearby searches are routed by position to the cities whose stations can be within the radius.
+ * A change of the stations of a city replaces its shard once the change has committed.
+ */
+@Service
+@Slf4j
+public class CityShardService implements CrowdAggregate {
+
+    private final StationRepository stationRepository;
+    private final ReportRepository reportRepository;
+    private final CrowdPredictionService crowdPredictionService;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration idleTimeout;
+
+    private final Map<String, CityShard> shards = new ConcurrentHashMap<>();
+    // Bumped on every change, a shard or city list read before it is not kept
+    private final AtomicLong generation = new AtomicLong();
+    private volatile List<CityBounds> cities;
+
+    public CityShardService(StationRepository stationRepository,
+                            ReportRepository reportRepository,
+                            CrowdPredictionService crowdPredictionService,
+                            TransactionTemplate transactionTemplate,
+                            @Value("${app.city-shards.idle-minutes:30}") long idleMinutes) {
+        this.stationRepository = stationRepository;
+        this.reportRepository = reportRepository;
+        this.crowdPredictionService = crowdPredictionService;
+        this.transactionTemplate = transactionTemplate;
+        this.idleTimeout = Duration.ofMinutes(idleMinutes);
+    }
+
+    public List<StationResponse> getStations(String city) {
+        return shard(CityShard.normalize(city)).map(shard -> toResponses(shard, shard.stations())).orElse(List.of());
+    }
+
+    public List<StationResponse> searchStations(String name, String city) {
+        return shard(CityShard.normalize(city)).map(shard -> toResponses(shard, shard.search(name))).orElse(List.of());
+    }
+
+    /** Stations of the given city closer than the radius, of every city around the position when none is given. */
+    public List<StationResponse> getStationsNearby(Double latitude, Double longitude, Double radius, String city) {
+        List<String> routed = city != null ? List.of(CityShard.normalize(city)) : citiesAround(latitude, longitude, radius);
+        List<StationResponse> stations = new ArrayList<>();
+        for (String key : routed) {
+            shard(key).ifPresent(shard -> stations.addAll(toResponses(shard, shard.nearby(latitude, longitude, radius))));
+        }
+        if (routed.size() > 1) {
+            stations.sort(Comparator.comparing(StationResponse::getId));
+        }
+        return stations;
+    }
+
+    @Override
+    public void record(CrowdSample sample) {
+        if (sample.getStationId() != null && sample.getReportId() != null) {
+            shards.values().stream().filter(shard -> shard.contains(sample.getStationId())).forEach(shard -> shard.record(sample));
+        }
+    }
+
+    @Override
+    public void retract(CrowdSample sample) {
+        if (sample.getStationId() != null && sample.getReportId() != null) {
+            shards.values().stream().filter(shard -> shard.contains(sample.getStationId())).forEach(shard -> shard.retract(sample));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void networkChanged(NetworkChangedEvent event) {
+        generation.incrementAndGet();
+        cities = null;
+        if (event.cities() == null) {
+            shards.clear();
+        } else {
+            event.cities().forEach(city -> shards.remove(CityShard.normalize(city)));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.city-shards.sweep-interval-ms:60000}")
+    public void sweep() {
+        long idleSince = System.currentTimeMillis() - idleTimeout.toMillis();
+        LocalDateTime windowStart = LocalDateTime.now().minus(CrowdWindow.LENGTH);
+        for (CityShard shard : shards.values()) {
+            if (shard.lastAccessMillis() < idleSince) {
+                shards.remove(shard.city(), shard);
+                log.info("City shard {} dropped, idle for {} min", shard.city(), idleTimeout.toMinutes());
+            } else {
+                shard.prune(windowStart);
+            }
+        }
+    }
+
+    // Only cities with active stations get a shard, an unknown name costs no memory
+    private Optional<CityShard> shard(String city) {
+        CityShard shard = shards.get(city);
+        if (shard == null) {
+            if (cities().stream().noneMatch(bounds -> bounds.city().equals(city))) {
+                return Optional.empty();
+            }
+            shard = load(city);
+        }
+        shard.touch();
+        try {
+            return Optional.of(shard.ready().join());
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException runtime ? runtime : e;
+        }
+    }
+
+    // Reports recorded from the moment the shard is registered are kept, the database read fills in the older ones
+    private CityShard load(String city) {
+        long start = System.currentTimeMillis();
+        long loadedGeneration = generation.get();
+        // Read-write so the routing data source reads it from the primary, replicas may lag behind the change
+        List<StationResponse> stations = transactionTemplate.execute(transaction ->
+            stationRepository.findActiveByCityWithLines(city).stream().map(CityShardService::toTemplate).toList());
+        CityShard created = new CityShard(city, stations);
+        CityShard registered = shards.putIfAbsent(city, created);
+        if (registered != null) {
+            return registered;
+        }
+
+        try {
+            created.fill(transactionTemplate.execute(transaction ->
+                reportRepository.findApprovedCrowdSamplesByCitySince(city, LocalDateTime.now().minus(CrowdWindow.LENGTH))));
+        } catch (RuntimeException e) {
+            shards.remove(city, created);
+            created.ready().completeExceptionally(e);
+            throw e;
+        }
+        if (generation.get() != loadedGeneration) {
+            shards.remove(city, created);
+        }
+        created.ready().complete(created);
+        log.info("City shard {} loaded in {} ms: {} stations", city, System.currentTimeMillis() - start, stations.size());
+        return created;
+    }
+
+    private List<CityBounds> cities() {
+        List<CityBounds> known = cities;
+        if (known == null) {
+            long loadedGeneration = generation.get();
+            known = transactionTemplate.execute(transaction -> stationRepository.findActiveCityBounds().stream()
+                .map(row -> new CityBounds((String) row[0], (Double) row[1], (Double) row[2], (Double) row[3], (Double) row[4]))
+                .toList());
+            if (generation.get() == loadedGeneration) {
+                cities = known;
+            }
+        }
+        return known;
+    }
+
+    private List<String> citiesAround(double latitude, double longitude, double radiusKm) {
+        double latitudeSpan = CityShard.latitudeSpan(radiusKm);
+        double longitudeSpan = CityShard.longitudeSpan(latitude, latitudeSpan);
+        return cities().stream()
+            .filter(bounds -> bounds.minLatitude() != null && bounds.minLongitude() != null
+                && latitude >= bounds.minLatitude() - latitudeSpan && latitude <= bounds.maxLatitude() + latitudeSpan
+                && longitude >= bounds.minLongitude() - longitudeSpan && longitude <= bounds.maxLongitude() + longitudeSpan)
+            .map(CityBounds::city)
+            .toList();
+    }
+
+    // Copies the station and adds its crowd level from the shard's reports of the last hour
+    private List<StationResponse> toResponses(CityShard shard, List<StationResponse> stations) {
+        LocalDateTime oneHourAgo = LocalDateTime.now().minusHours(1);
+        return stations.stream().map(station -> {
+            List<CrowdSample> recentReports = shard.recentReports(station.getId(), oneHourAgo);
+            return StationResponse.builder()
+                .id(station.getId())
+                .name(station.getName())
+                .latitude(station.getLatitude())
+                .longitude(station.getLongitude())
+                .type(station.getType())
+                .address(station.getAddress())
+                .city(station.getCity())
+                .isActive(station.getIsActive())
+                .createdAt(station.getCreatedAt())
+                .lineNames(new ArrayList<>(station.getLineNames()))
+                .currentCrowdLevel(crowdPredictionService.calculateCurrentCrowdLevel(recentReports))
+                .recentReportsCount(recentReports.size())
+                .build();
+        }).toList();
+    }
+
+    private static StationResponse toTemplate(Station station) {
+        return StationResponse.builder()
+            .id(station.getId())
+            .name(station.getName())
+            .latitude(station.getLatitude())
+            .longitude(station.getLongitude())
+            .type(station.getType())
+            .address(station.getAddress())
+            .city(station.getCity())
+            .isActive(station.getIsActive())
+            .createdAt(station.getCreatedAt())
+            .lineNames(station.getLines() != null ? station.getLines().stream().map(TransportLine::getName).toList() : List.of())
+            .build();
+    }
+
+    private record CityBounds(String city, Double minLatitude, Double maxLatitude, Double minLongitude, Double maxLongitude) {
+    }
+}
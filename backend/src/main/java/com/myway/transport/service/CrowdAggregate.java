@@ -0,0 +1,14 @@
+package com.myway.transport.service;
+
+import com.myway.transport.dto.CrowdSample;
+
+/**
+ * An in-memory crowd view kept up to date as reports enter or leave the APPROVED status.
+ * Every implementation is loaded with the reports of the last hour at startup.
+ */
+public interface CrowdAggregate {
+
+    void record(CrowdSample sample);
+
+    void retract(CrowdSample sample);
+}
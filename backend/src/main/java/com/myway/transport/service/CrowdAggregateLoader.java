@@ -0,0 +1,36 @@
+package com.myway.transport.service;
+
+import com.myway.transport.dto.CrowdSample;
+import com.myway.transport.repository.ReportRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CrowdAggregateLoader {
+
+    private final ReportRepository reportRepository;
+    private final List<CrowdAggregate> crowdAggregates;
+    private final Optional<CrowdSnapshotService> crowdSnapshotService;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadRecentReports() {
+        List<CrowdSample> samples = crowdSnapshotService.flatMap(CrowdSnapshotService::restore).orElseGet(() -> {
+            LocalDateTime since = LocalDateTime.now().minus(CrowdWindow.LENGTH);
+            return reportRepository.findApprovedCrowdSamplesSince(since);
+        });
+        for (CrowdSample sample : samples) {
+            crowdAggregates.forEach(aggregate -> aggregate.record(sample));
+        }
+        crowdSnapshotService.ifPresent(CrowdSnapshotService::loaded);
+        log.info("Crowd aggregates initialized from {} recent reports", samples.size());
+    }
+}
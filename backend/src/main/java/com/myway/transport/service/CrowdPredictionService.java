@@ -1,10 +1,12 @@
 package com.myway.transport.service;
 
+import com.myway.transport.dto.CrowdSample;
 import com.myway.transport.entity.Report;
 import com.myway.transport.repository.ReportRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.List;
@@ -16,6 +18,7 @@ import java.util.stream.Collectors;
 public class CrowdPredictionService {
 
     private final ReportRepository reportRepository;
+    private final ReputationService reputationService;
 
     public Report.CrowdLevel predictCrowdLevel(Long stationId, Long lineId) {
         LocalDateTime now = LocalDateTime.now();
@@ -30,7 +33,49 @@ public class CrowdPredictionService {
             return Report.CrowdLevel.MOYEN; // Default prediction
         }
 
-        return predictBasedOnTimePattern(historicalReports, now.toLocalTime());
+        return predictCrowdLevel(toSamples(historicalReports), now.toLocalTime());
+    }
+
+    /** Predicts the level at the given time of day from the reports of the past week. */
+    public Report.CrowdLevel predictCrowdLevel(List<CrowdSample> historicalReports, LocalTime currentTime) {
+        return predictBasedOnTimePattern(historicalReports, currentTime);
+    }
+
+    /** Current level from recent reports, weighted by their age and by the reporter's reputation. */
+    public Report.CrowdLevel calculateCurrentCrowdLevel(List<CrowdSample> reports) {
+        if (reports.isEmpty()) {
+            return Report.CrowdLevel.MOYEN; // Default level
+        }
+
+        double totalWeight = 0;
+        double weightedSum = 0;
+        LocalDateTime now = LocalDateTime.now();
+
+        for (CrowdSample report : reports) {
+            long minutesAgo = Duration.between(report.getCreatedAt(), now).toMinutes();
+            double weight = Math.max(0.1, 1.0 - (minutesAgo / 60.0)); // Decrease weight over time
+            weight *= reputationService.getWeight(report.getUserId());
+            
+            weightedSum += CrowdWindow.levelValue(report.getCrowdLevel()) * weight;
+            totalWeight += weight;
+        }
+
+        double averageLevel = weightedSum / totalWeight;
+        
+        if (averageLevel <= 1.5) return Report.CrowdLevel.FAIBLE;
+        if (averageLevel <= 2.5) return Report.CrowdLevel.MOYEN;
+        return Report.CrowdLevel.FORT;
+    }
+
+    // Only what the crowd computations read: the user proxy knows its id, the station is not loaded
+    static List<CrowdSample> toSamples(List<Report> reports) {
+        return reports.stream()
+            .map(report -> CrowdSample.builder()
+                .crowdLevel(report.getCrowdLevel())
+                .createdAt(report.getCreatedAt())
+                .userId(report.getUser().getId())
+                .build())
+            .collect(Collectors.toList());
     }
 
     public Double calculateConfidence(int reportsCount) {
@@ -41,26 +86,26 @@ public class CrowdPredictionService {
         return 0.95; // Very high confidence
     }
 
-    private Report.CrowdLevel predictBasedOnTimePattern(List<Report> historicalReports, LocalTime currentTime) {
+    private Report.CrowdLevel predictBasedOnTimePattern(List<CrowdSample> historicalReports, LocalTime currentTime) {
         if (historicalReports.isEmpty()) {
             return getDefaultPredictionByTime(currentTime);
         }
 
         // Group reports by hour of day
-        Map<Integer, List<Report>> reportsByHour = historicalReports.stream()
+        Map<Integer, List<CrowdSample>> reportsByHour = historicalReports.stream()
             .collect(Collectors.groupingBy(report -> report.getCreatedAt().getHour()));
 
         int currentHour = currentTime.getHour();
         
         // Try to find reports for the current hour
-        List<Report> currentHourReports = reportsByHour.get(currentHour);
+        List<CrowdSample> currentHourReports = reportsByHour.get(currentHour);
         if (currentHourReports != null && !currentHourReports.isEmpty()) {
             return calculateAverageCrowdLevel(currentHourReports);
         }
 
         // Try adjacent hours if no data for current hour
         for (int offset = 1; offset <= 2; offset++) {
-            List<Report> nearbyReports = reportsByHour.get((currentHour + offset) % 24);
+            List<CrowdSample> nearbyReports = reportsByHour.get((currentHour + offset) % 24);
             if (nearbyReports == null) {
                 nearbyReports = reportsByHour.get((currentHour - offset + 24) % 24);
             }
@@ -73,7 +118,7 @@ public class CrowdPredictionService {
         return calculateAverageCrowdLevel(historicalReports);
     }
 
-    private Report.CrowdLevel calculateAverageCrowdLevel(List<Report> reports) {
+    private Report.CrowdLevel calculateAverageCrowdLevel(List<CrowdSample> reports) {
         if (reports.isEmpty()) {
             return Report.CrowdLevel.MOYEN;
         }
@@ -0,0 +1,260 @@
+package com.myway.transport.service;
+
+import com.myway.transport.dto.CrowdSample;
+import com.myway.transport.entity.Report;
+import com.myway.transport.repository.ReportRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+/**
+ * Checkpoints the approved reports of the crowd window to a memory-mapped file, so a restarted
+ * node rebuilds its crowd aggregates from the file and only asks the database for what changed
+ * since the checkpoint. Every aggregate is derived from these reports alone, replaying them
+ * gives back the same windows without storing each aggregate's layout.
+ *
+ * File layout (big-endian): magic (i32), format version (u16), reserved (u16), checkpoint time
+ * in epoch milliseconds (i64), highest report id (i64), report count (i32), CRC32 of the records
+ * (i32), then per report its id, station id, line id and user id (i64, 0 when absent), latitude
+ * and longitude (f64, NaN when absent), crowd level (u8) and creation time in epoch milliseconds (i64).
+ *
+ * Approvals, rejections and new reports made after the checkpoint are replayed from the database.
+ * A report deleted in between stays counted until it leaves the window, at most an hour.
+ */
+@Service
+@Slf4j
+@ConditionalOnProperty(name = "app.crowd-snapshot.enabled", havingValue = "true")
+public class CrowdSnapshotService implements CrowdAggregate {
+
+    static final int MAGIC = 0x4D574353; // "MWCS"
+    static final short FORMAT_VERSION = 1;
+    static final int HEADER_BYTES = 32;
+    static final int RECORD_BYTES = 5 * Long.BYTES + 2 * Double.BYTES + 1;
+    // Reports saved while the checkpoint was taken may be missing from it, they are replayed too
+    private static final Duration REPLAY_MARGIN = Duration.ofMinutes(1);
+    private static final Report.CrowdLevel[] LEVELS = Report.CrowdLevel.values();
+
+    private final ReportRepository reportRepository;
+    private final Path path;
+
+    private final Map<Long, CrowdSample> samples = new ConcurrentHashMap<>();
+    private final AtomicLong lastReportId = new AtomicLong();
+    // Until the aggregates are loaded an empty checkpoint would overwrite the previous one
+    private volatile boolean loaded;
+
+    public CrowdSnapshotService(ReportRepository reportRepository,
+                                @Value("${app.crowd-snapshot.path}") String path) {
+        this.reportRepository = reportRepository;
+        this.path = Path.of(path);
+    }
+
+    @Override
+    public void record(CrowdSample sample) {
+        if (sample.getReportId() == null || sample.getCreatedAt() == null
+                || CrowdWindow.isExpired(CrowdWindow.toMillis(sample.getCreatedAt()))) {
+            return;
+        }
+        samples.put(sample.getReportId(), sample);
+        lastReportId.accumulateAndGet(sample.getReportId(), Math::max);
+    }
+
+    @Override
+    public void retract(CrowdSample sample) {
+        if (sample.getReportId() != null) {
+            samples.remove(sample.getReportId());
+        }
+    }
+
+    /**
+     * Approved reports of the window as of now, from the checkpoint and the changes made since.
+     * Empty when there is no usable checkpoint: missing, unreadable, older than the window or
+     * taken against another database.
+     */
+    public Optional<List<CrowdSample>> restore() {
+        if (!Files.exists(path)) {
+            return Optional.empty();
+        }
+        Checkpoint checkpoint;
+        try {
+            checkpoint = read(path);
+        } catch (IOException | IllegalStateException e) {
+            log.warn("Crowd snapshot {} ignored: {}", path, e.getMessage());
+            return Optional.empty();
+        }
+
+        long ageMillis = System.currentTimeMillis() - checkpoint.takenAtMillis();
+        if (ageMillis >= CrowdWindow.LENGTH.toMillis()) {
+            log.info("Crowd snapshot {} ignored, taken {} min ago", path, ageMillis / 60000);
+            return Optional.empty();
+        }
+        Long maxId = reportRepository.findMaxId();
+        if (maxId == null || maxId < checkpoint.lastReportId()) {
+            log.warn("Crowd snapshot {} ignored, it knows reports the database does not have", path);
+            return Optional.empty();
+        }
+
+        Map<Long, CrowdSample> restored = new HashMap<>();
+        checkpoint.samples().forEach(sample -> restored.put(sample.getReportId(), sample));
+        LocalDateTime since = toLocalDateTime(checkpoint.takenAtMillis()).minus(REPLAY_MARGIN);
+        List<CrowdSample> changed = reportRepository.findApprovedCrowdSamplesChangedSince(
+            LocalDateTime.now().minus(CrowdWindow.LENGTH), checkpoint.lastReportId(), since);
+        List<Long> unapproved = reportRepository.findIdsUnapprovedSince(since);
+        changed.forEach(sample -> restored.put(sample.getReportId(), sample));
+        unapproved.forEach(restored::remove);
+
+        log.info("Crowd snapshot restored: {} reports from {} ms ago, {} approved and {} withdrawn since",
+            checkpoint.samples().size(), ageMillis, changed.size(), unapproved.size());
+        return Optional.of(new ArrayList<>(restored.values()));
+    }
+
+    void loaded() {
+        loaded = true;
+    }
+
+    @Scheduled(initialDelayString = "${app.crowd-snapshot.interval-ms:60000}",
+               fixedDelayString = "${app.crowd-snapshot.interval-ms:60000}")
+    public void checkpoint() {
+        if (!loaded) {
+            return;
+        }
+        samples.values().removeIf(sample -> CrowdWindow.isExpired(CrowdWindow.toMillis(sample.getCreatedAt())));
+        // Taken before copying, a report recorded meanwhile is either copied or newer than the checkpoint
+        long takenAtMillis = System.currentTimeMillis();
+        long lastId = lastReportId.get();
+        List<CrowdSample> copy = new ArrayList<>(samples.values());
+        try {
+            write(path, new Checkpoint(takenAtMillis, lastId, copy));
+            log.debug("Crowd snapshot written with {} reports", copy.size());
+        } catch (IOException e) {
+            log.warn("Could not write the crowd snapshot {}", path, e);
+        }
+    }
+
+    @PreDestroy
+    public void checkpointOnShutdown() {
+        checkpoint();
+    }
+
+    // Written aside then moved over the previous file, a crash never leaves a half-written snapshot
+    static void write(Path path, Checkpoint checkpoint) throws IOException {
+        Path directory = path.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        try {
+            long size = HEADER_BYTES + (long) checkpoint.samples().size() * RECORD_BYTES;
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+                buffer.position(HEADER_BYTES);
+                for (CrowdSample sample : checkpoint.samples()) {
+                    buffer.putLong(sample.getReportId())
+                        .putLong(orZero(sample.getStationId()))
+                        .putLong(orZero(sample.getLineId()))
+                        .putLong(orZero(sample.getUserId()))
+                        .putDouble(sample.getLatitude() != null ? sample.getLatitude() : Double.NaN)
+                        .putDouble(sample.getLongitude() != null ? sample.getLongitude() : Double.NaN)
+                        .put((byte) sample.getCrowdLevel().ordinal())
+                        .putLong(CrowdWindow.toMillis(sample.getCreatedAt()));
+                }
+                buffer.putInt(0, MAGIC)
+                    .putShort(4, FORMAT_VERSION)
+                    .putShort(6, (short) 0)
+                    .putLong(8, checkpoint.takenAtMillis())
+                    .putLong(16, checkpoint.lastReportId())
+                    .putInt(24, checkpoint.samples().size())
+                    .putInt(28, crc(buffer, size));
+                buffer.force();
+            }
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    static Checkpoint read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES) {
+                throw new IllegalStateException("truncated header");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt(0) != MAGIC) {
+                throw new IllegalStateException("not a crowd snapshot");
+            }
+            if (buffer.getShort(4) != FORMAT_VERSION) {
+                throw new IllegalStateException("unsupported format version " + buffer.getShort(4));
+            }
+            int count = buffer.getInt(24);
+            if (count < 0 || size != HEADER_BYTES + (long) count * RECORD_BYTES) {
+                throw new IllegalStateException("truncated records");
+            }
+            if (buffer.getInt(28) != crc(buffer, size)) {
+                throw new IllegalStateException("checksum mismatch");
+            }
+
+            List<CrowdSample> samples = new ArrayList<>(count);
+            buffer.position(HEADER_BYTES);
+            for (int i = 0; i < count; i++) {
+                CrowdSample sample = new CrowdSample();
+                sample.setReportId(buffer.getLong());
+                sample.setStationId(orNull(buffer.getLong()));
+                sample.setLineId(orNull(buffer.getLong()));
+                sample.setUserId(orNull(buffer.getLong()));
+                sample.setLatitude(orNull(buffer.getDouble()));
+                sample.setLongitude(orNull(buffer.getDouble()));
+                sample.setCrowdLevel(LEVELS[buffer.get()]);
+                sample.setCreatedAt(toLocalDateTime(buffer.getLong()));
+                samples.add(sample);
+            }
+            return new Checkpoint(buffer.getLong(8), buffer.getLong(16), samples);
+        }
+    }
+
+    private static int crc(ByteBuffer buffer, long size) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(HEADER_BYTES, (int) (size - HEADER_BYTES)));
+        return (int) crc.getValue();
+    }
+
+    private static long orZero(Long value) {
+        return value != null ? value : 0;
+    }
+
+    private static Long orNull(long value) {
+        return value != 0 ? value : null;
+    }
+
+    private static Double orNull(double value) {
+        return Double.isNaN(value) ? null : value;
+    }
+
+    private static LocalDateTime toLocalDateTime(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+
+    record Checkpoint(long takenAtMillis, long lastReportId, List<CrowdSample> samples) {
+    }
+}
@@ -0,0 +1,150 @@
+package com.myway.transport.service;
+
+import com.myway.transport.dto.CrowdSample;
+import com.myway.transport.dto.CrowdTile;
+import com.myway.transport.exception.ResourceNotFoundException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps a crowd window per map tile cell for every served zoom level, updated as reports
+ * are approved.
+ *
+ * Tile payload (big-endian): format version (u8), grid size (u8), cell count (u16), then for
+ * each non-empty cell its index row * grid + column (u16), report count (u16) and intensity (u8,
+ * 0 = all FAIBLE, 255 = all FORT).
+ *
+ * Reports are attached to stations, so the number of cells is bounded by the station count
+ * per zoom level and expired cells are simply skipped when encoding.
+ */
+@Service
+public class CrowdTileService implements CrowdAggregate {
+
+    private static final byte FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 4;
+    private static final int CELL_BYTES = 5;
+
+    private final int minZoom;
+    private final int maxZoom;
+    private final int gridSize;
+    private final List<Map<Long, Tile>> tilesByZoom = new ArrayList<>();
+
+    public CrowdTileService(@Value("${app.crowd-tiles.min-zoom:10}") int minZoom,
+                            @Value("${app.crowd-tiles.max-zoom:16}") int maxZoom,
+                            @Value("${app.crowd-tiles.grid-size:16}") int gridSize) {
+        this.minZoom = minZoom;
+        this.maxZoom = maxZoom;
+        this.gridSize = gridSize;
+        for (int zoom = minZoom; zoom <= maxZoom; zoom++) {
+            tilesByZoom.add(new ConcurrentHashMap<>());
+        }
+    }
+
+    @Override
+    public void record(CrowdSample sample) {
+        update(sample, 1);
+    }
+
+    @Override
+    public void retract(CrowdSample sample) {
+        update(sample, -1);
+    }
+
+    public CrowdTile getTile(int zoom, int x, int y) {
+        if (zoom < minZoom || zoom > maxZoom || x < 0 || y < 0 || x >= 1 << zoom || y >= 1 << zoom) {
+            throw new ResourceNotFoundException("Tuile non disponible: " + zoom + "/" + x + "/" + y);
+        }
+
+        long bucket = CrowdWindow.currentBucket();
+        Tile tile = tilesByZoom.get(zoom - minZoom).get(tileKey(x, y));
+        if (tile == null) {
+            return new CrowdTile(encode(Map.of(), bucket), etag(zoom, x, y, 0, bucket));
+        }
+
+        // Tiles are re-encoded only when a report changed them or the window moved on
+        EncodedTile encoded = tile.encoded;
+        long version = tile.version.get();
+        if (encoded == null || encoded.version() != version || encoded.bucket() != bucket) {
+            encoded = new EncodedTile(version, bucket, encode(tile.cells, bucket));
+            tile.encoded = encoded;
+        }
+        return new CrowdTile(encoded.payload(), etag(zoom, x, y, version, bucket));
+    }
+
+    private void update(CrowdSample sample, int delta) {
+        if (sample.getLatitude() == null || sample.getLongitude() == null || sample.getCreatedAt() == null) {
+            return;
+        }
+
+        long millis = CrowdWindow.toMillis(sample.getCreatedAt());
+        if (CrowdWindow.isExpired(millis)) {
+            return;
+        }
+
+        int level = CrowdWindow.levelValue(sample.getCrowdLevel());
+        double worldX = (sample.getLongitude() + 180.0) / 360.0;
+        double latitude = Math.toRadians(sample.getLatitude());
+        double worldY = (1.0 - Math.log(Math.tan(latitude) + 1.0 / Math.cos(latitude)) / Math.PI) / 2.0;
+
+        for (int zoom = minZoom; zoom <= maxZoom; zoom++) {
+            long cells = (long) gridSize << zoom;
+            long cellX = Math.min(cells - 1, Math.max(0, (long) (worldX * cells)));
+            long cellY = Math.min(cells - 1, Math.max(0, (long) (worldY * cells)));
+            int index = (int) (cellY % gridSize) * gridSize + (int) (cellX % gridSize);
+
+            Tile tile = tilesByZoom.get(zoom - minZoom)
+                .computeIfAbsent(tileKey(cellX / gridSize, cellY / gridSize), key -> new Tile());
+            if (tile.cells.computeIfAbsent(index, key -> new CrowdWindow()).add(millis, level, delta)) {
+                tile.version.incrementAndGet();
+            }
+        }
+    }
+
+    private byte[] encode(Map<Integer, CrowdWindow> cells, long bucket) {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + cells.size() * CELL_BYTES);
+        buffer.put(FORMAT_VERSION).put((byte) gridSize).putShort((short) 0);
+
+        int count = 0;
+        int[] totals = new int[2];
+        for (Map.Entry<Integer, CrowdWindow> entry : cells.entrySet()) {
+            // Cells created concurrently after allocating the buffer are left for the next encoding
+            if (buffer.remaining() < CELL_BYTES || !entry.getValue().totals(bucket, totals)) {
+                continue;
+            }
+            int intensity = (int) Math.round((totals[1] / (double) totals[0] - 1.0) / 2.0 * 255);
+            buffer.putShort(entry.getKey().shortValue())
+                .putShort((short) Math.min(totals[0], 0xFFFF))
+                .put((byte) Math.max(0, Math.min(255, intensity)));
+            count++;
+        }
+
+        buffer.putShort(2, (short) count);
+        byte[] payload = new byte[buffer.position()];
+        buffer.flip().get(payload);
+        return payload;
+    }
+
+    private static String etag(int zoom, int x, int y, long version, long bucket) {
+        return "\"" + zoom + "-" + x + "-" + y + "-" + version + "-" + bucket + "\"";
+    }
+
+    private static long tileKey(long x, long y) {
+        return x << 32 | y;
+    }
+
+    private static final class Tile {
+        private final Map<Integer, CrowdWindow> cells = new ConcurrentHashMap<>();
+        private final AtomicLong version = new AtomicLong();
+        private volatile EncodedTile encoded;
+    }
+
+    private record EncodedTile(long version, long bucket, byte[] payload) {
+    }
+}
@@ -0,0 +1,128 @@
+package com.myway.transport.service;
+
+import com.myway.transport.entity.Report;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Crowd reports of the last hour, kept as a ring of 5-minute buckets. A slot is reset
+ * when a newer bucket maps onto it, so expired reports drop out without any cleanup.
+ */
+class CrowdWindow {
+
+    static final long BUCKET_MILLIS = Duration.ofMinutes(5).toMillis();
+    static final int BUCKETS = 12;
+    static final Duration LENGTH = Duration.ofMillis(BUCKET_MILLIS * BUCKETS);
+
+    private final long[] bucketIds = new long[BUCKETS];
+    private final int[] counts = new int[BUCKETS];
+    private final int[] levelSums = new int[BUCKETS];
+    private long latestMillis;
+
+    synchronized boolean add(long millis, int level, int delta) {
+        long bucket = millis / BUCKET_MILLIS;
+        int slot = (int) (bucket % BUCKETS);
+        if (bucketIds[slot] != bucket) {
+            if (delta < 0 || bucketIds[slot] > bucket) {
+                return false;
+            }
+            bucketIds[slot] = bucket;
+            counts[slot] = 0;
+            levelSums[slot] = 0;
+        }
+        counts[slot] = Math.max(0, counts[slot] + delta);
+        levelSums[slot] = Math.max(0, levelSums[slot] + delta * level);
+        if (delta > 0) {
+            latestMillis = Math.max(latestMillis, millis);
+        }
+        return true;
+    }
+
+    synchronized boolean totals(long currentBucket, int[] totals) {
+        totals[0] = 0;
+        totals[1] = 0;
+        for (int slot = 0; slot < BUCKETS; slot++) {
+            if (isLive(slot, currentBucket)) {
+                totals[0] += counts[slot];
+                totals[1] += levelSums[slot];
+            }
+        }
+        return totals[0] > 0;
+    }
+
+    // Same recency weighting as the per-request computation: 1 for fresh reports down to 0.1 after an hour.
+    // Reputation is not applied, a report could not be retracted with the weight it was recorded with.
+    synchronized Summary summarize(long nowMillis) {
+        long currentBucket = nowMillis / BUCKET_MILLIS;
+        int count = 0;
+        double weightSum = 0;
+        double weightedSum = 0;
+        for (int slot = 0; slot < BUCKETS; slot++) {
+            if (isLive(slot, currentBucket) && counts[slot] > 0) {
+                double minutesAgo = (nowMillis - (bucketIds[slot] * BUCKET_MILLIS + BUCKET_MILLIS / 2)) / 60000.0;
+                double weight = Math.max(0.1, 1.0 - minutesAgo / 60.0);
+                count += counts[slot];
+                weightSum += weight * counts[slot];
+                weightedSum += weight * levelSums[slot];
+            }
+        }
+        return new Summary(count, weightSum, weightedSum, count > 0 ? latestMillis : 0);
+    }
+
+    private boolean isLive(int slot, long currentBucket) {
+        return bucketIds[slot] > currentBucket - BUCKETS;
+    }
+
+    static long currentBucket() {
+        return System.currentTimeMillis() / BUCKET_MILLIS;
+    }
+
+    static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    static boolean isExpired(long millis) {
+        return millis / BUCKET_MILLIS <= currentBucket() - BUCKETS;
+    }
+
+    static int levelValue(Report.CrowdLevel level) {
+        return switch (level) {
+            case FAIBLE -> 1;
+            case MOYEN -> 2;
+            case FORT -> 3;
+        };
+    }
+
+    record Summary(int count, double weightSum, double weightedSum, long latestMillis) {
+
+        static final Summary EMPTY = new Summary(0, 0, 0, 0);
+
+        Summary plus(Summary other) {
+            return new Summary(count + other.count, weightSum + other.weightSum,
+                weightedSum + other.weightedSum, Math.max(latestMillis, other.latestMillis));
+        }
+
+        // The latest report time is not recoverable and kept as is
+        Summary minus(Summary other) {
+            return new Summary(count - other.count, weightSum - other.weightSum,
+                weightedSum - other.weightedSum, latestMillis);
+        }
+
+        Report.CrowdLevel level() {
+            if (count == 0) {
+                return Report.CrowdLevel.MOYEN; // Default level
+            }
+            double averageLevel = weightedSum / weightSum;
+            if (averageLevel <= 1.5) return Report.CrowdLevel.FAIBLE;
+            if (averageLevel <= 2.5) return Report.CrowdLevel.MOYEN;
+            return Report.CrowdLevel.FORT;
+        }
+
+        LocalDateTime latest() {
+            return latestMillis == 0 ? null : LocalDateTime.ofInstant(Instant.ofEpochMilli(latestMillis), ZoneId.systemDefault());
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.myway.transport.service;
+
+import com.myway.transport.dto.CrowdLevelResponse;
+import com.myway.transport.dto.DashboardResponse;
+import com.myway.transport.dto.ReportResponse;
+import com.myway.transport.dto.StationResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Composes the user dashboard in one call: favourite stations with their crowd level and
+ * latest reports, and the user's own reports. Each part is one batched query set whatever the
+ * number of favourites, and the parts run concurrently under a single time budget. A part
+ * that misses the budget is left out and the response is marked incomplete.
+ *
+ * Parts wait in a bounded queue and are left out as well when it is full. A part over the
+ * budget is interrupted, and its queries are cancelled by the timeout of its transaction.
+ */
+@Service
+@Slf4j
+public class DashboardService implements DisposableBean {
+
+    private final FavoriteStationService favoriteStationService;
+    private final StationService stationService;
+    private final ReportService reportService;
+    private final long timeoutMs;
+    private final int reportsPerStation;
+    private final int myReportsLimit;
+    private final TransactionTemplate transactionTemplate;
+
+    // Workers see the caller's security context, so a user who just reported still reads from the primary
+    private final ExecutorService executor;
+
+    public DashboardService(FavoriteStationService favoriteStationService,
+                            StationService stationService,
+                            ReportService reportService,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${app.dashboard.threads:8}") int threads,
+                            @Value("${app.dashboard.queue-capacity:64}") int queueCapacity,
+                            @Value("${app.dashboard.timeout-ms:2000}") long timeoutMs,
+                            @Value("${app.dashboard.reports-per-station:5}") int reportsPerStation,
+                            @Value("${app.dashboard.my-reports:20}") int myReportsLimit) {
+        this.favoriteStationService = favoriteStationService;
+        this.stationService = stationService;
+        this.reportService = reportService;
+        this.timeoutMs = timeoutMs;
+        this.reportsPerStation = reportsPerStation;
+        this.myReportsLimit = myReportsLimit;
+        // Transaction timeouts are in seconds, queries still running past the budget are cancelled at the next one
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.transactionTemplate.setTimeout((int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(timeoutMs + 999)));
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new DelegatingSecurityContextExecutorService(new ThreadPoolExecutor(threads, threads,
+            0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> new Thread(runnable, "dashboard-" + counter.incrementAndGet()), new ThreadPoolExecutor.AbortPolicy()));
+    }
+
+    public DashboardResponse getDashboard() {
+        Budget budget = new Budget(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs));
+        Long userId = FavoriteStationService.currentUserId();
+
+        Future<List<ReportResponse>> myReports =
+            supply(() -> reportService.getLatestUserReports(userId, myReportsLimit));
+        List<Long> stationIds = favoriteStationService.getFavoriteStationIds(userId);
+        Future<List<StationResponse>> stations =
+            supply(() -> stationService.getActiveStationsByIds(stationIds));
+        Future<Map<Long, CrowdLevelResponse>> crowdLevels =
+            supply(() -> stationService.getStationCrowdLevels(stationIds));
+        Future<Map<Long, List<ReportResponse>>> stationReports =
+            supply(() -> reportService.getLatestReportsByStations(stationIds, reportsPerStation));
+
+        List<StationResponse> favoriteStations = budget.await(stations, List.of());
+        Map<Long, CrowdLevelResponse> levels = budget.await(crowdLevels, Map.of());
+        Map<Long, List<ReportResponse>> reports = budget.await(stationReports, Map.of());
+
+        List<DashboardResponse.Favorite> favorites = favoriteStations.stream()
+            .map(station -> {
+                CrowdLevelResponse level = levels.get(station.getId());
+                if (level != null) {
+                    level.setStationName(station.getName());
+                }
+                return DashboardResponse.Favorite.builder()
+                    .station(station)
+                    .crowdLevel(level)
+                    .recentReports(reports.getOrDefault(station.getId(), List.of()))
+                    .build();
+            })
+            .toList();
+
+        return DashboardResponse.builder()
+            .favorites(favorites)
+            .myReports(budget.await(myReports, List.of()))
+            .complete(budget.complete)
+            .generatedAt(LocalDateTime.now())
+            .build();
+    }
+
+    private <T> Future<T> supply(Supplier<T> part) {
+        try {
+            return executor.submit(() -> transactionTemplate.execute(transaction -> part.get()));
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private static final class Budget {
+
+        private final long deadline;
+        private boolean complete = true;
+
+        private Budget(long deadline) {
+            this.deadline = deadline;
+        }
+
+        <T> T await(Future<T> part, T fallback) {
+            try {
+                return part.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                part.cancel(true);
+                complete = false;
+                log.warn("Dashboard part left out, over the time budget");
+                return fallback;
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RejectedExecutionException) {
+                    complete = false;
+                    log.warn("Dashboard part left out, the queue is full");
+                    return fallback;
+                }
+                if (e.getCause() instanceof RuntimeException runtime) {
+                    throw runtime;
+                }
+                throw new IllegalStateException(e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.myway.transport.service;
+
+import com.myway.transport.dto.DomainEvent;
+
+import java.util.List;
+
+/**
+ * In-process consumer of the outbox, called by OutboxDispatcher with batches of committed
+ * events in outbox order. A batch is delivered again to every subscriber when one of them
+ * fails, so handling an event twice must be harmless.
+ */
+public interface DomainEventSubscriber {
+
+    void onEvents(List<DomainEvent> events);
+}
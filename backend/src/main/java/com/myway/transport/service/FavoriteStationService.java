@@ -0,0 +1,59 @@
+package com.myway.transport.service;
+
+import com.myway.transport.dto.StationResponse;
+import com.myway.transport.entity.FavoriteStation;
+import com.myway.transport.exception.ResourceNotFoundException;
+import com.myway.transport.repository.FavoriteStationRepository;
+import com.myway.transport.repository.StationRepository;
+import com.myway.transport.repository.UserRepository;
+import com.myway.transport.security.UserDetailsImpl;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class FavoriteStationService {
+
+    private final FavoriteStationRepository favoriteStationRepository;
+    private final StationRepository stationRepository;
+    private final UserRepository userRepository;
+    private final StationService stationService;
+
+    public List<StationResponse> getFavoriteStations() {
+        return stationService.getActiveStationsByIds(getFavoriteStationIds(currentUserId()));
+    }
+
+    public List<Long> getFavoriteStationIds(Long userId) {
+        return favoriteStationRepository.findStationIdsByUserId(userId);
+    }
+
+    @Transactional
+    public void addFavoriteStation(Long stationId) {
+        Long userId = currentUserId();
+        if (!stationRepository.existsById(stationId)) {
+            throw new ResourceNotFoundException("Station non trouvée avec l'ID: " + stationId);
+        }
+        if (favoriteStationRepository.existsByUserIdAndStationId(userId, stationId)) {
+            return;
+        }
+        favoriteStationRepository.save(FavoriteStation.builder()
+            .user(userRepository.getReferenceById(userId))
+            .station(stationRepository.getReferenceById(stationId))
+            .build());
+    }
+
+    @Transactional
+    public void removeFavoriteStation(Long stationId) {
+        favoriteStationRepository.deleteByUserIdAndStationId(currentUserId(), stationId);
+    }
+
+    static Long currentUserId() {
+        UserDetailsImpl userDetails = (UserDetailsImpl) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        return userDetails.getId();
+    }
+}
@@ -0,0 +1,133 @@
+package com.myway.transport.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Forward-only reader for GTFS text files (RFC 4180 CSV with a header row). Only the
+ * current record is kept in memory, so files of any size are read in constant space.
+ */
+class GtfsCsvReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Reader reader;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    private int limit;
+
+    private final Map<String, Integer> columns = new HashMap<>();
+    private final List<String> fields = new ArrayList<>();
+    private final StringBuilder field = new StringBuilder();
+    private String[] record;
+
+    GtfsCsvReader(InputStream input) throws IOException {
+        this.reader = new InputStreamReader(input, StandardCharsets.UTF_8);
+        String[] header = readRecord();
+        if (header == null) {
+            return;
+        }
+        for (int i = 0; i < header.length; i++) {
+            String name = header[i].trim();
+            // Some feeds start with a UTF-8 byte order mark
+            if (i == 0 && name.startsWith("\uFEFF")) {
+                name = name.substring(1);
+            }
+            columns.put(name, i);
+        }
+    }
+
+    boolean next() throws IOException {
+        do {
+            record = readRecord();
+        } while (record != null && record.length == 1 && record[0].isEmpty());
+        return record != null;
+    }
+
+    boolean hasColumn(String column) {
+        return columns.containsKey(column);
+    }
+
+    /** Returns the trimmed value of the column in the current record, null when missing or empty. */
+    String get(String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= record.length) {
+            return null;
+        }
+        String value = record[index].trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private String[] readRecord() throws IOException {
+        fields.clear();
+        field.setLength(0);
+        boolean quoted = false;
+        boolean started = false;
+
+        while (true) {
+            if (position == limit && !fill()) {
+                if (!started) {
+                    return null;
+                }
+                fields.add(field.toString());
+                return fields.toArray(new String[0]);
+            }
+
+            char c = buffer[position++];
+            started = true;
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (peek() == '"') {
+                    field.append('"');
+                    position++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c == '\r') {
+                if (c == '\r' && peek() == '\n') {
+                    position++;
+                }
+                fields.add(field.toString());
+                return fields.toArray(new String[0]);
+            } else {
+                field.append(c);
+            }
+        }
+    }
+
+    private int peek() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position];
+    }
+
+    private boolean fill() throws IOException {
+        int read = reader.read(buffer, 0, buffer.length);
+        if (read <= 0) {
+            return false;
+        }
+        position = 0;
+        limit = read;
+        return true;
+    }
+}
@@ -0,0 +1,581 @@
+package com.myway.transport.service;
+
+import com.myway.transport.dto.DomainEvent;
+import com.myway.transport.dto.GtfsImportStatus;
+import com.myway.transport.exception.ResourceNotFoundException;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Cache;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Imports a GTFS static feed: stops become stations, routes become lines, and the stop times
+ * give the stations served by each line, the ordered stops per direction and the timetable.
+ *
+ * Files are streamed row by row. Only the identifier maps (stops, routes, trips), the longest
+ * stop pattern per line and direction and the compact timetable are kept in memory, never
+ * stop_times.txt itself. Rows are upserted on city and external_id with JDBC batches, in a single
+ * transaction per feed. The timetable is published once that transaction has committed.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class GtfsImportService implements DisposableBean {
+
+    private static final int BATCH_SIZE = 1000;
+    private static final int KEPT_JOBS = 20;
+    private static final String[] WEEK_DAYS = {"monday", "tuesday", "wednesday", "thursday", "friday", "saturday", "sunday"};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final TimetableService timetableService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OutboxService outboxService;
+
+    // Imports run one at a time, later uploads wait in the queue
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "gtfs-import"));
+    private final Map<String, GtfsImportStatus> jobs = new LinkedHashMap<>();
+
+    // The database is rebuilt on every start, a feed given here is imported again once ready
+    @Value("${app.gtfs.startup-feed:}")
+    private String startupFeed;
+
+    @Value("${app.gtfs.startup-city:Casablanca}")
+    private String startupCity;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void importStartupFeed() {
+        if (startupFeed.isBlank()) {
+            return;
+        }
+        Path feed = Path.of(startupFeed);
+        GtfsImportStatus status = register(new GtfsImportStatus(UUID.randomUUID().toString(), feed.getFileName().toString()));
+        executor.execute(() -> importFeed(feed, startupCity, status));
+    }
+
+    public GtfsImportStatus startImport(MultipartFile file, String city) {
+        GtfsImportStatus status = new GtfsImportStatus(UUID.randomUUID().toString(), file.getOriginalFilename());
+        Path feed;
+        try {
+            feed = Files.createTempFile("gtfs-", ".zip");
+            file.transferTo(feed);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Impossible d'enregistrer le fichier GTFS", e);
+        }
+
+        register(status);
+        executor.execute(() -> {
+            try {
+                importFeed(feed, city, status);
+            } finally {
+                try {
+                    Files.deleteIfExists(feed);
+                } catch (IOException e) {
+                    log.warn("Could not delete GTFS upload {}", feed, e);
+                }
+            }
+        });
+        return status;
+    }
+
+    // The oldest finished imports make room, queued and running ones are always kept
+    GtfsImportStatus register(GtfsImportStatus status) {
+        synchronized (jobs) {
+            jobs.put(status.getId(), status);
+            Iterator<GtfsImportStatus> oldest = jobs.values().iterator();
+            for (int excess = jobs.size() - KEPT_JOBS; excess > 0 && oldest.hasNext(); ) {
+                GtfsImportStatus.State state = oldest.next().getState();
+                if (state == GtfsImportStatus.State.COMPLETED || state == GtfsImportStatus.State.FAILED) {
+                    oldest.remove();
+                    excess--;
+                }
+            }
+        }
+        return status;
+    }
+
+    public GtfsImportStatus getStatus(String id) {
+        synchronized (jobs) {
+            GtfsImportStatus status = jobs.get(id);
+            if (status == null) {
+                throw new ResourceNotFoundException("Import non trouvé avec l'ID: " + id);
+            }
+            return status;
+        }
+    }
+
+    void importFeed(Path feed, String city, GtfsImportStatus status) {
+        long start = System.currentTimeMillis();
+        status.setStartedAt(LocalDateTime.now());
+        status.setState(GtfsImportStatus.State.RUNNING);
+        try (ZipFile zip = new ZipFile(feed.toFile())) {
+            Timetable timetable = transactionTemplate.execute(transaction -> {
+                try {
+                    Timetable imported = new FeedImport(zip, city, status).run();
+                    outboxService.publish(DomainEvent.Type.NETWORK_IMPORTED, null, Map.of("city", city,
+                        "stations", status.getStations(), "lines", status.getLines()));
+                    return imported;
+                } catch (IOException e) {
+                    throw new GtfsFormatException("Lecture du fichier GTFS impossible: " + e.getMessage());
+                }
+            });
+            // Rows were written behind Hibernate's back, entities, collections and query results are all stale
+            entityManagerFactory.unwrap(Cache.class).evictAllRegions();
+            timetableService.publish(timetable);
+            eventPublisher.publishEvent(NetworkChangedEvent.of(city));
+            status.setState(GtfsImportStatus.State.COMPLETED);
+            log.info("GTFS feed {} imported in {} ms: {} stations, {} lines, {} stop times, {} departures",
+                status.getFileName(), System.currentTimeMillis() - start,
+                status.getStations(), status.getLines(), status.getStopTimes(), status.getDepartures());
+        } catch (Exception e) {
+            log.error("GTFS import {} failed", status.getId(), e);
+            status.setError(e.getMessage());
+            status.setState(GtfsImportStatus.State.FAILED);
+        } finally {
+            status.setFinishedAt(LocalDateTime.now());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    static class GtfsFormatException extends RuntimeException {
+        GtfsFormatException(String message) {
+            super(message);
+        }
+    }
+
+    private class FeedImport {
+
+        private final ZipFile zip;
+        private final String city;
+        private final GtfsImportStatus status;
+        private final Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        private final Map<String, Long> stationIds = new HashMap<>();
+        private final Map<String, Long> lineIds = new HashMap<>();
+        private final Map<String, TripRef> trips = new HashMap<>();
+        private final Set<Long> links = new HashSet<>();
+        // Longest stop pattern per line id * 2 + direction
+        private final Map<Long, long[]> patterns = new HashMap<>();
+        private final Timetable.Builder timetable = new Timetable.Builder();
+
+        FeedImport(ZipFile zip, String city, GtfsImportStatus status) {
+            this.zip = zip;
+            this.city = city;
+            this.status = status;
+        }
+
+        Timetable run() throws IOException {
+            importStops();
+            importRoutes();
+            readCalendar();
+            readTrips();
+            readStopTimes();
+            writeLinks();
+
+            jdbcTemplate.query("SELECT id, name FROM stations WHERE city = ? AND external_id IS NOT NULL",
+                row -> { timetable.stationName(row.getLong(1), row.getString(2)); }, city);
+            jdbcTemplate.query("SELECT id, name FROM transport_lines WHERE city = ? AND external_id IS NOT NULL",
+                row -> { timetable.lineName(row.getLong(1), row.getString(2)); }, city);
+            status.setDepartures(timetable.departures());
+            return timetable.build();
+        }
+
+        private void importStops() throws IOException {
+            Map<String, Long> existing = selectExternalIds("stations");
+            Map<String, String> parents = new HashMap<>();
+            Batch inserts = new Batch("INSERT INTO stations (name, latitude, longitude, type, city, is_active, external_id, " +
+                "created_at, updated_at) VALUES (?, ?, ?, 'BUS', ?, true, ?, ?, ?)");
+            Batch updates = new Batch("UPDATE stations SET name = ?, latitude = ?, longitude = ?, is_active = true, " +
+                "updated_at = ? WHERE id = ?");
+
+            try (GtfsCsvReader stops = open("stops.txt", GtfsImportStatus.Phase.STOPS)) {
+                while (stops.next()) {
+                    String stopId = stops.get("stop_id");
+                    String locationType = stops.get("location_type");
+                    String parent = stops.get("parent_station");
+                    if (stopId == null || (locationType != null && !"0".equals(locationType) && !"1".equals(locationType))) {
+                        continue; // Entrances, generic nodes and boarding areas
+                    }
+                    // Platforms of a station are merged into their parent
+                    if (parent != null && !"1".equals(locationType)) {
+                        parents.put(stopId, parent);
+                        continue;
+                    }
+
+                    String name = stops.get("stop_name");
+                    Double latitude = parseDouble(stops.get("stop_lat"));
+                    Double longitude = parseDouble(stops.get("stop_lon"));
+                    if (name == null || latitude == null || longitude == null) {
+                        continue;
+                    }
+                    Long id = existing.get(stopId);
+                    if (id != null) {
+                        updates.add(name, latitude, longitude, now, id);
+                    } else {
+                        inserts.add(name, latitude, longitude, city, stopId, now, now);
+                    }
+                    status.setStations(status.getStations() + 1);
+                }
+            }
+            inserts.flush();
+            updates.flush();
+
+            stationIds.putAll(selectExternalIds("stations"));
+            parents.forEach((stopId, parent) -> {
+                Long id = stationIds.get(parent);
+                if (id != null) {
+                    stationIds.put(stopId, id);
+                }
+            });
+        }
+
+        private void importRoutes() throws IOException {
+            Map<String, Long> existing = selectExternalIds("transport_lines");
+            // Route id of the line holding each name, empty for lines of other cities or not imported
+            Map<String, String> nameOwners = new HashMap<>();
+            jdbcTemplate.query("SELECT name, CASE WHEN city = ? THEN external_id END FROM transport_lines",
+                row -> { nameOwners.put(row.getString(1), Objects.toString(row.getString(2), "")); }, city);
+
+            Batch inserts = new Batch("INSERT INTO transport_lines (name, type, color, description, is_active, city, external_id, " +
+                "created_at, updated_at) VALUES (?, ?, ?, ?, true, ?, ?, ?, ?)");
+            Batch updates = new Batch("UPDATE transport_lines SET name = ?, type = ?, color = ?, description = ?, " +
+                "is_active = true, updated_at = ? WHERE id = ?");
+
+            try (GtfsCsvReader routes = open("routes.txt", GtfsImportStatus.Phase.ROUTES)) {
+                while (routes.next()) {
+                    String routeId = routes.get("route_id");
+                    if (routeId == null) {
+                        continue;
+                    }
+                    String shortName = routes.get("route_short_name");
+                    String longName = routes.get("route_long_name");
+                    String name = lineName(nameOwners, shortName != null ? shortName : longName != null ? longName : routeId, routeId);
+                    String color = routes.get("route_color") != null ? "#" + routes.get("route_color") : null;
+                    String type = isTramway(routes.get("route_type")) ? "TRAMWAY" : "BUS";
+
+                    Long id = existing.get(routeId);
+                    if (id != null) {
+                        updates.add(name, type, color, longName, now, id);
+                    } else {
+                        inserts.add(name, type, color, longName, city, routeId, now, now);
+                    }
+                    status.setLines(status.getLines() + 1);
+                }
+            }
+            inserts.flush();
+            updates.flush();
+            lineIds.putAll(selectExternalIds("transport_lines"));
+        }
+
+        // Line names are unique, a name held by another line gets the route id, then the city appended
+        private String lineName(Map<String, String> nameOwners, String name, String routeId) {
+            for (String candidate : List.of(name, name + " (" + routeId + ")", name + " (" + routeId + ", " + city + ")")) {
+                String owner = nameOwners.putIfAbsent(candidate, routeId);
+                if (owner == null || owner.equals(routeId)) {
+                    return candidate;
+                }
+            }
+            throw new GtfsFormatException("Nom de ligne déjà utilisé: " + name);
+        }
+
+        // Feeds may describe service days with calendar.txt, calendar_dates.txt or both
+        private void readCalendar() throws IOException {
+            if (zip.getEntry("calendar.txt") != null) {
+                try (GtfsCsvReader calendar = open("calendar.txt", GtfsImportStatus.Phase.CALENDAR)) {
+                    while (calendar.next()) {
+                        LocalDate start = parseDate(calendar.get("start_date"));
+                        LocalDate end = parseDate(calendar.get("end_date"));
+                        if (calendar.get("service_id") == null || start == null || end == null) {
+                            continue;
+                        }
+                        boolean[] weekDays = new boolean[WEEK_DAYS.length];
+                        for (int i = 0; i < WEEK_DAYS.length; i++) {
+                            weekDays[i] = "1".equals(calendar.get(WEEK_DAYS[i]));
+                        }
+                        timetable.service(calendar.get("service_id"), weekDays, start, end);
+                    }
+                }
+            }
+            if (zip.getEntry("calendar_dates.txt") != null) {
+                try (GtfsCsvReader dates = open("calendar_dates.txt", GtfsImportStatus.Phase.CALENDAR)) {
+                    while (dates.next()) {
+                        LocalDate date = parseDate(dates.get("date"));
+                        String exceptionType = dates.get("exception_type");
+                        if (dates.get("service_id") == null || date == null || exceptionType == null) {
+                            continue;
+                        }
+                        timetable.serviceException(dates.get("service_id"), date, "1".equals(exceptionType));
+                    }
+                }
+            }
+        }
+
+        private void readTrips() throws IOException {
+            try (GtfsCsvReader reader = open("trips.txt", GtfsImportStatus.Phase.TRIPS)) {
+                while (reader.next()) {
+                    Long lineId = lineIds.get(reader.get("route_id"));
+                    String tripId = reader.get("trip_id");
+                    if (lineId == null || tripId == null) {
+                        continue;
+                    }
+                    int direction = "1".equals(reader.get("direction_id")) ? 1 : 0;
+                    int index = timetable.trip(Objects.toString(reader.get("service_id"), ""), direction);
+                    trips.put(tripId, new TripRef(lineId * 2 + direction, index));
+                    status.setTrips(status.getTrips() + 1);
+                }
+            }
+        }
+
+        // stop_times.txt must be grouped by trip, the stops of the current trip are the only rows held
+        private void readStopTimes() throws IOException {
+            String currentTrip = null;
+            List<long[]> tripStops = new ArrayList<>();
+            // A trip seen again after another one would be cut in two patterns and two timetable runs
+            Set<String> startedTrips = new HashSet<>();
+
+            try (GtfsCsvReader stopTimes = open("stop_times.txt", GtfsImportStatus.Phase.STOP_TIMES)) {
+                while (stopTimes.next()) {
+                    status.setStopTimes(status.getStopTimes() + 1);
+                    String tripId = stopTimes.get("trip_id");
+                    if (tripId == null) {
+                        continue;
+                    }
+                    if (!tripId.equals(currentTrip)) {
+                        if (!startedTrips.add(tripId)) {
+                            throw new GtfsFormatException("stop_times.txt doit être groupé par trip_id, le trajet " + tripId +
+                                " reprend à la ligne " + (status.getStopTimes() + 1)); // After the header
+                        }
+                        endTrip(currentTrip, tripStops);
+                        currentTrip = tripId;
+                    }
+
+                    TripRef trip = trips.get(tripId);
+                    Long stationId = stationIds.get(stopTimes.get("stop_id"));
+                    Long sequence = parseLong(stopTimes.get("stop_sequence"));
+                    if (trip == null || stationId == null || sequence == null) {
+                        continue;
+                    }
+                    String time = stopTimes.get("departure_time");
+                    links.add((trip.pattern() / 2) << 32 | stationId);
+                    tripStops.add(new long[]{sequence, stationId, parseSeconds(time != null ? time : stopTimes.get("arrival_time"))});
+                }
+            }
+            endTrip(currentTrip, tripStops);
+        }
+
+        private void endTrip(String tripId, List<long[]> tripStops) {
+            if (tripId != null && !tripStops.isEmpty()) {
+                TripRef trip = trips.get(tripId);
+                tripStops.sort((a, b) -> Long.compare(a[0], b[0]));
+                long[] stations = tripStops.stream().mapToLong(stop -> stop[1]).toArray();
+                long[] longest = patterns.get(trip.pattern());
+                if (longest == null || longest.length < stations.length) {
+                    patterns.put(trip.pattern(), stations);
+                }
+                timetable.tripStops(trip.index(), trip.pattern() / 2, stations,
+                    tripStops.stream().mapToInt(stop -> (int) stop[2]).toArray());
+            }
+            tripStops.clear();
+        }
+
+        private void writeLinks() {
+            status.setPhase(GtfsImportStatus.Phase.LINKS);
+            status.setProgress(0);
+
+            Set<Long> importedLines = new HashSet<>(lineIds.values());
+            List<Object[]> lineRows = importedLines.stream().map(id -> new Object[]{id}).toList();
+            jdbcTemplate.batchUpdate("DELETE FROM line_stations WHERE line_id = ?", lineRows);
+            jdbcTemplate.batchUpdate("DELETE FROM line_stops WHERE line_id = ?", lineRows);
+
+            Batch lineStations = new Batch("INSERT INTO line_stations (line_id, station_id) VALUES (?, ?)");
+            for (long link : links) {
+                lineStations.add(link >>> 32, link & 0xFFFFFFFFL);
+            }
+            lineStations.flush();
+            status.setLineStations(links.size());
+
+            Batch lineStops = new Batch("INSERT INTO line_stops (line_id, station_id, direction, stop_sequence) VALUES (?, ?, ?, ?)");
+            patterns.forEach((pattern, stops) -> {
+                long lineId = pattern / 2;
+                writeStops(lineStops, lineId, pattern % 2 == 0 ? "OUTBOUND" : "INBOUND", stops);
+                // Feeds without direction_id only describe one way, the other is the reverse
+                if (pattern % 2 == 0 && !patterns.containsKey(pattern + 1)) {
+                    long[] reversed = new long[stops.length];
+                    Arrays.setAll(reversed, i -> stops[stops.length - 1 - i]);
+                    writeStops(lineStops, lineId, "INBOUND", reversed);
+                }
+            });
+            lineStops.flush();
+
+            jdbcTemplate.update("UPDATE stations s SET type = CASE " +
+                "WHEN EXISTS (SELECT 1 FROM line_stations ls JOIN transport_lines l ON l.id = ls.line_id " +
+                "    WHERE ls.station_id = s.id AND l.type = 'TRAMWAY') " +
+                " AND EXISTS (SELECT 1 FROM line_stations ls JOIN transport_lines l ON l.id = ls.line_id " +
+                "    WHERE ls.station_id = s.id AND l.type = 'BUS') THEN 'MIXED' " +
+                "WHEN EXISTS (SELECT 1 FROM line_stations ls JOIN transport_lines l ON l.id = ls.line_id " +
+                "    WHERE ls.station_id = s.id AND l.type = 'TRAMWAY') THEN 'TRAMWAY' " +
+                "ELSE 'BUS' END WHERE s.city = ? AND s.external_id IS NOT NULL", city);
+            status.setProgress(100);
+        }
+
+        private void writeStops(Batch batch, long lineId, String direction, long[] stops) {
+            for (int i = 0; i < stops.length; i++) {
+                batch.add(lineId, stops[i], direction, i + 1);
+            }
+        }
+
+        private GtfsCsvReader open(String name, GtfsImportStatus.Phase phase) throws IOException {
+            ZipEntry entry = zip.getEntry(name);
+            if (entry == null) {
+                throw new GtfsFormatException("Fichier manquant dans le flux GTFS: " + name);
+            }
+            status.setPhase(phase);
+            status.setProgress(0);
+            return new GtfsCsvReader(new ProgressInputStream(zip.getInputStream(entry), entry.getSize(), status));
+        }
+
+        // External ids are only unique within the city of the feed
+        private Map<String, Long> selectExternalIds(String table) {
+            Map<String, Long> ids = new HashMap<>();
+            jdbcTemplate.query("SELECT id, external_id FROM " + table + " WHERE city = ? AND external_id IS NOT NULL",
+                row -> { ids.put(row.getString(2), row.getLong(1)); }, city);
+            return ids;
+        }
+    }
+
+    // Pattern is line id * 2 + direction, index the trip's position in the timetable
+    private record TripRef(long pattern, int index) {
+    }
+
+    private class Batch {
+
+        private final String sql;
+        private final List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+
+        Batch(String sql) {
+            this.sql = sql;
+        }
+
+        void add(Object... row) {
+            rows.add(row);
+            if (rows.size() >= BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (!rows.isEmpty()) {
+                jdbcTemplate.batchUpdate(sql, rows);
+                rows.clear();
+            }
+        }
+    }
+
+    private static class ProgressInputStream extends FilterInputStream {
+
+        private final long size;
+        private final GtfsImportStatus status;
+        private long read;
+
+        ProgressInputStream(InputStream input, long size, GtfsImportStatus status) {
+            super(input);
+            this.size = size;
+            this.status = status;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int count = super.read(buffer, offset, length);
+            if (count > 0 && size > 0) {
+                read += count;
+                status.setProgress((int) Math.min(100, read * 100 / size));
+            }
+            return count;
+        }
+    }
+
+    private static boolean isTramway(String routeType) {
+        // 0 is the basic tram type, 900-999 the extended tram types
+        Long type = parseLong(routeType);
+        return type != null && (type == 0 || (type >= 900 && type < 1000));
+    }
+
+    private static LocalDate parseDate(String value) {
+        try {
+            return value == null ? null : LocalDate.parse(value, DateTimeFormatter.BASIC_ISO_DATE);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    // GTFS times are H:MM:SS after the service day's midnight and may exceed 24:00:00, -1 when absent
+    private static int parseSeconds(String value) {
+        if (value == null) {
+            return -1;
+        }
+        String[] parts = value.split(":");
+        try {
+            return parts.length != 3 ? -1
+                : Integer.parseInt(parts[0]) * 3600 + Integer.parseInt(parts[1]) * 60 + Integer.parseInt(parts[2]);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static Double parseDouble(String value) {
+        try {
+            return value == null ? null : Double.valueOf(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Long parseLong(String value) {
+        try {
+            return value == null ? null : Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.myway.transport.service;
+
+import com.myway.transport.dto.CrowdSample;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Crowd windows per line and per stop of a line. Reports that only name a line count for
+ * the whole line but not for any of its stops.
+ */
+@Component
+public class LineCrowdAggregate implements CrowdAggregate {
+
+    private final Map<Long, LineWindows> lines = new ConcurrentHashMap<>();
+
+    @Override
+    public void record(CrowdSample sample) {
+        update(sample, 1);
+    }
+
+    @Override
+    public void retract(CrowdSample sample) {
+        update(sample, -1);
+    }
+
+    CrowdWindow.Summary summarizeLine(Long lineId, long nowMillis) {
+        LineWindows windows = lines.get(lineId);
+        return windows == null ? CrowdWindow.Summary.EMPTY : windows.line.summarize(nowMillis);
+    }
+
+    CrowdWindow.Summary summarizeStop(Long lineId, Long stationId, long nowMillis) {
+        LineWindows windows = lines.get(lineId);
+        CrowdWindow stop = windows == null ? null : windows.stops.get(stationId);
+        return stop == null ? CrowdWindow.Summary.EMPTY : stop.summarize(nowMillis);
+    }
+
+    private void update(CrowdSample sample, int delta) {
+        if (sample.getLineId() == null || sample.getCreatedAt() == null) {
+            return;
+        }
+
+        long millis = CrowdWindow.toMillis(sample.getCreatedAt());
+        if (CrowdWindow.isExpired(millis)) {
+            return;
+        }
+
+        int level = CrowdWindow.levelValue(sample.getCrowdLevel());
+        LineWindows windows = lines.computeIfAbsent(sample.getLineId(), key -> new LineWindows());
+        windows.line.add(millis, level, delta);
+        if (sample.getStationId() != null) {
+            windows.stops.computeIfAbsent(sample.getStationId(), key -> new CrowdWindow()).add(millis, level, delta);
+        }
+    }
+
+    private static final class LineWindows {
+        private final CrowdWindow line = new CrowdWindow();
+        private final Map<Long, CrowdWindow> stops = new ConcurrentHashMap<>();
+    }
+}
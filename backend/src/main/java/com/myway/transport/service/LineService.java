@@ -0,0 +1,112 @@
+package com.myway.transport.service;
+
+import com.myway.transport.dto.CrowdLevelResponse;
+import com.myway.transport.dto.LineCrowdResponse;
+import com.myway.transport.dto.LineStopResponse;
+import com.myway.transport.dto.SegmentCrowdResponse;
+import com.myway.transport.entity.LineStop;
+import com.myway.transport.entity.Station;
+import com.myway.transport.entity.TransportLine;
+import com.myway.transport.exception.ResourceNotFoundException;
+import com.myway.transport.repository.LineStopRepository;
+import com.myway.transport.repository.TransportLineRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class LineService {
+
+    private final TransportLineRepository transportLineRepository;
+    private final LineStopRepository lineStopRepository;
+    private final LineCrowdAggregate lineCrowdAggregate;
+    private final CrowdPredictionService crowdPredictionService;
+    private final VehiclePositionStore vehiclePositionStore;
+
+    public List<LineStopResponse> getLineStops(Long lineId, LineStop.Direction direction) {
+        findLine(lineId);
+        return lineStopRepository.findStopsWithStation(lineId, direction)
+            .stream()
+            .map(this::convertToResponse)
+            .collect(Collectors.toList());
+    }
+
+    public LineCrowdResponse getLineCrowd(Long lineId, LineStop.Direction direction) {
+        TransportLine line = findLine(lineId);
+        List<LineStop> stops = lineStopRepository.findStopsWithStation(lineId, direction);
+        long now = System.currentTimeMillis();
+
+        List<CrowdWindow.Summary> stopSummaries = stops.stream()
+            .map(stop -> lineCrowdAggregate.summarizeStop(lineId, stop.getStation().getId(), now))
+            .collect(Collectors.toList());
+
+        List<CrowdLevelResponse> stopResponses = new ArrayList<>(stops.size());
+        for (int i = 0; i < stops.size(); i++) {
+            Station station = stops.get(i).getStation();
+            CrowdWindow.Summary summary = stopSummaries.get(i);
+            stopResponses.add(CrowdLevelResponse.builder()
+                .stationId(station.getId())
+                .stationName(station.getName())
+                .lineId(line.getId())
+                .lineName(line.getName())
+                .currentLevel(summary.level())
+                .confidence(crowdPredictionService.calculateConfidence(summary.count()))
+                .lastUpdated(summary.latest())
+                .reportsCount(summary.count())
+                .build());
+        }
+
+        // A segment is as crowded as the reports at both of its ends
+        List<SegmentCrowdResponse> segments = new ArrayList<>(Math.max(0, stops.size() - 1));
+        for (int i = 0; i + 1 < stops.size(); i++) {
+            Station from = stops.get(i).getStation();
+            Station to = stops.get(i + 1).getStation();
+            CrowdWindow.Summary summary = stopSummaries.get(i).plus(stopSummaries.get(i + 1));
+            segments.add(SegmentCrowdResponse.builder()
+                .fromStationId(from.getId())
+                .fromStationName(from.getName())
+                .toStationId(to.getId())
+                .toStationName(to.getName())
+                .currentLevel(summary.level())
+                .reportsCount(summary.count())
+                .build());
+        }
+
+        CrowdWindow.Summary lineSummary = lineCrowdAggregate.summarizeLine(lineId, now);
+        VehiclePositionStore.OccupancySummary occupancy = vehiclePositionStore.getLineOccupancy(lineId);
+        return LineCrowdResponse.builder()
+            .lineId(line.getId())
+            .lineName(line.getName())
+            .direction(direction)
+            .currentLevel(lineSummary.level())
+            .confidence(crowdPredictionService.calculateConfidence(lineSummary.count()))
+            .lastUpdated(lineSummary.latest())
+            .reportsCount(lineSummary.count())
+            .vehicleLevel(occupancy.level())
+            .vehiclesCount(occupancy.vehicles())
+            .stops(stopResponses)
+            .segments(segments)
+            .build();
+    }
+
+    private TransportLine findLine(Long lineId) {
+        return transportLineRepository.findById(lineId)
+            .orElseThrow(() -> new ResourceNotFoundException("Ligne non trouvée avec l'ID: " + lineId));
+    }
+
+    private LineStopResponse convertToResponse(LineStop stop) {
+        return LineStopResponse.builder()
+            .stopSequence(stop.getStopSequence())
+            .stationId(stop.getStation().getId())
+            .stationName(stop.getStation().getName())
+            .latitude(stop.getStation().getLatitude())
+            .longitude(stop.getStation().getLongitude())
+            .build();
+    }
+}
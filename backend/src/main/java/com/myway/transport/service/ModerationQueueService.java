@@ -0,0 +1,191 @@
+package com.myway.transport.service;
+
+import com.myway.transport.dto.ReportResponse;
+import com.myway.transport.repository.ReportRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Pending reports kept in memory so moderators can page through them without a query.
+ * The queue is updated by ReportService and rebuilt from the database periodically to
+ * pick up reports written by other instances. Stations are kept in priority order, so a
+ * page by station is read without sorting.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ModerationQueueService {
+
+    private static final Comparator<ReportResponse> OLDEST_FIRST = Comparator
+        .comparing(ReportResponse::getCreatedAt, Comparator.nullsLast(Comparator.naturalOrder()))
+        .thenComparing(ReportResponse::getId);
+
+    // Most pending reports first, then the oldest report first, a report belongs to one station only
+    private static final Comparator<StationQueue> MOST_PENDING_FIRST = Comparator
+        .<StationQueue>comparingInt(station -> station.reports.size()).reversed()
+        .thenComparing(station -> station.reports.first(), OLDEST_FIRST);
+
+    public enum Order {
+        OLDEST, STATION
+    }
+
+    private final ReportRepository reportRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, ReportResponse> byId = new HashMap<>();
+    private final TreeSet<ReportResponse> byAge = new TreeSet<>(OLDEST_FIRST);
+    private final Map<Long, StationQueue> byStation = new HashMap<>();
+    private final TreeSet<StationQueue> stationOrder = new TreeSet<>(MOST_PENDING_FIRST);
+    // Changes made while a reload reads the database, replayed onto the reloaded queue
+    private List<Runnable> changesDuringReload;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${app.moderation.queue-refresh-ms:300000}",
+               fixedDelayString = "${app.moderation.queue-refresh-ms:300000}")
+    public void reload() {
+        lock.writeLock().lock();
+        try {
+            changesDuringReload = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        List<ReportResponse> pending = null;
+        try {
+            pending = reportRepository.findPendingResponsesOrderByCreatedAt();
+        } finally {
+            lock.writeLock().lock();
+            try {
+                if (pending != null) {
+                    byId.clear();
+                    byAge.clear();
+                    byStation.clear();
+                    stationOrder.clear();
+                    pending.forEach(this::insert);
+                    changesDuringReload.forEach(Runnable::run);
+                }
+                changesDuringReload = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        log.debug("Moderation queue reloaded with {} pending reports", pending.size());
+    }
+
+    public void add(ReportResponse report) {
+        apply(() -> {
+            removeById(report.getId());
+            insert(report);
+        });
+    }
+
+    public void remove(Collection<Long> reportIds) {
+        List<Long> ids = List.copyOf(reportIds);
+        apply(() -> ids.forEach(this::removeById));
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return byId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * OLDEST pages through all pending reports by creation date. STATION lists the stations
+     * with the most pending reports first, each station's reports oldest first.
+     */
+    public List<ReportResponse> getPage(Order order, int page, int size) {
+        long offset = (long) page * size;
+        lock.readLock().lock();
+        try {
+            if (offset >= byId.size()) {
+                return List.of();
+            }
+            if (order == Order.STATION) {
+                return stationPage(offset, size);
+            }
+            return byAge.stream().skip(offset).limit(size).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Whole stations before the offset are skipped by their size
+    private List<ReportResponse> stationPage(long offset, int size) {
+        List<ReportResponse> page = new ArrayList<>(Math.min(size, byId.size()));
+        long skip = offset;
+        for (StationQueue station : stationOrder) {
+            if (skip >= station.reports.size()) {
+                skip -= station.reports.size();
+                continue;
+            }
+            for (ReportResponse report : station.reports) {
+                if (skip > 0) {
+                    skip--;
+                } else if (page.add(report) && page.size() == size) {
+                    return page;
+                }
+            }
+        }
+        return page;
+    }
+
+    private void apply(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            change.run();
+            if (changesDuringReload != null) {
+                changesDuringReload.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void insert(ReportResponse report) {
+        byId.put(report.getId(), report);
+        byAge.add(report);
+        StationQueue station = byStation.computeIfAbsent(report.getStationId(), key -> new StationQueue());
+        // The station is ordered by its reports, it is taken out while they change
+        stationOrder.remove(station);
+        station.reports.add(report);
+        stationOrder.add(station);
+    }
+
+    private void removeById(Long reportId) {
+        ReportResponse report = byId.remove(reportId);
+        if (report == null) {
+            return;
+        }
+        byAge.remove(report);
+        StationQueue station = byStation.get(report.getStationId());
+        stationOrder.remove(station);
+        station.reports.remove(report);
+        if (station.reports.isEmpty()) {
+            byStation.remove(report.getStationId());
+        } else {
+            stationOrder.add(station);
+        }
+    }
+
+    private static final class StationQueue {
+
+        private final TreeSet<ReportResponse> reports = new TreeSet<>(OLDEST_FIRST);
+    }
+}
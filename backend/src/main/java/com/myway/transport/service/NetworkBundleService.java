@@ -0,0 +1,292 @@
+package com.myway.transport.service;
+
+import com.aayushatharva.brotli4j.Brotli4jLoader;
+import com.aayushatharva.brotli4j.encoder.Encoder;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.myway.transport.dto.NetworkBundle;
+import com.myway.transport.dto.NetworkBundleFile;
+import com.myway.transport.entity.LineStop;
+import com.myway.transport.entity.Station;
+import com.myway.transport.entity.TransportLine;
+import com.myway.transport.exception.ResourceNotFoundException;
+import com.myway.transport.repository.LineStopRepository;
+import com.myway.transport.repository.StationRepository;
+import com.myway.transport.repository.TransportLineRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Builds the network bundle once per change of the admin data and keeps it serialized and
+ * compressed (plain, gzip and brotli), so requests only pick the right byte array.
+ *
+ * The version is a hash of the content: a rebuild that changes nothing keeps the version,
+ * and every instance serving the same data hands out the same one. Changes made in a
+ * transaction trigger a rebuild once it has committed, rebuilds requested meanwhile are
+ * coalesced into the next one. The last replaced versions stay available under their versioned
+ * URL, so clients that fetched the current bundle just before a change can still download it.
+ */
+@Service
+@Slf4j
+public class NetworkBundleService implements DisposableBean {
+
+    public static final String GZIP = "gzip";
+    public static final String BROTLI = "br";
+    private static final int VERSION_LENGTH = 16;
+
+    private final StationRepository stationRepository;
+    private final TransportLineRepository transportLineRepository;
+    private final LineStopRepository lineStopRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final int brotliQuality;
+    private final boolean brotliAvailable;
+    private final int keptVersions;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "network-bundle"));
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+    private volatile EncodedBundle bundle;
+    // Replaced bundles, newest first
+    private volatile List<EncodedBundle> previous = List.of();
+
+    public NetworkBundleService(StationRepository stationRepository,
+                                TransportLineRepository transportLineRepository,
+                                LineStopRepository lineStopRepository,
+                                TransactionTemplate transactionTemplate,
+                                ObjectMapper objectMapper,
+                                @Value("${app.network-bundle.brotli-quality:11}") int brotliQuality,
+                                @Value("${app.network-bundle.kept-versions:2}") int keptVersions) {
+        this.stationRepository = stationRepository;
+        this.transportLineRepository = transportLineRepository;
+        this.lineStopRepository = lineStopRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.brotliQuality = brotliQuality;
+        this.keptVersions = keptVersions;
+        this.brotliAvailable = Brotli4jLoader.isAvailable();
+        if (!brotliAvailable) {
+            log.warn("Brotli native library unavailable, the network bundle is only served as gzip", Brotli4jLoader.getUnavailabilityCause());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        rebuild();
+    }
+
+    /** Current bundle in the best encoding the client accepts. */
+    public NetworkBundleFile getBundle(String acceptEncoding) {
+        return current().file(negotiate(acceptEncoding));
+    }
+
+    /** Bundle of the given version, the current one or one of the last replaced ones. */
+    public NetworkBundleFile getBundle(String version, String acceptEncoding) {
+        EncodedBundle current = current();
+        if (current.version().equals(version)) {
+            return current.file(negotiate(acceptEncoding));
+        }
+        return previous.stream()
+            .filter(replaced -> replaced.version().equals(version))
+            .findFirst()
+            .map(replaced -> replaced.file(negotiate(acceptEncoding)))
+            .orElseThrow(() -> new ResourceNotFoundException("Version du réseau non trouvée: " + version));
+    }
+
+    public String getVersion() {
+        return current().version();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void networkChanged(NetworkChangedEvent event) {
+        scheduleRebuild();
+    }
+
+    private void scheduleRebuild() {
+        if (rebuildPending.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                rebuildPending.set(false);
+                rebuild();
+            });
+        }
+    }
+
+    private EncodedBundle current() {
+        EncodedBundle current = bundle;
+        return current != null ? current : rebuild();
+    }
+
+    synchronized EncodedBundle rebuild() {
+        try {
+            long start = System.currentTimeMillis();
+            // Read-write so the routing data source reads it from the primary, replicas may lag behind the change
+            NetworkBundle content = transactionTemplate.execute(transaction -> load());
+            String version = version(serialize(content));
+            EncodedBundle current = bundle;
+            if (current != null && current.version().equals(version)) {
+                return current;
+            }
+
+            content.setVersion(version);
+            content.setGeneratedAt(LocalDateTime.now());
+            byte[] json = serialize(content);
+            if (current != null && keptVersions > 0) {
+                List<EncodedBundle> kept = new ArrayList<>(keptVersions);
+                kept.add(current);
+                previous.stream().limit(keptVersions - 1).forEach(kept::add);
+                previous = List.copyOf(kept);
+            }
+            bundle = new EncodedBundle(version, json, gzip(json), brotliAvailable ? brotli(json) : null);
+            log.info("Network bundle {} built in {} ms: {} stations, {} lines, {} bytes ({} gzip, {} brotli)",
+                version, System.currentTimeMillis() - start, content.getStations().size(), content.getLines().size(),
+                json.length, bundle.gzip().length, bundle.brotli() != null ? bundle.brotli().length : "-");
+            return bundle;
+        } catch (RuntimeException e) {
+            if (bundle == null) {
+                throw e;
+            }
+            log.error("Network bundle rebuild failed, version {} is still served", bundle.version(), e);
+            return bundle;
+        }
+    }
+
+    private NetworkBundle load() {
+        List<NetworkBundle.BundleStation> stations = stationRepository.findByIsActiveTrue().stream()
+            .sorted(Comparator.comparing(Station::getId))
+            .map(station -> NetworkBundle.BundleStation.builder()
+                .id(station.getId())
+                .name(station.getName())
+                .latitude(station.getLatitude())
+                .longitude(station.getLongitude())
+                .type(station.getType())
+                .address(station.getAddress())
+                .city(station.getCity())
+                .build())
+            .toList();
+
+        List<NetworkBundle.BundleLine> orderedLines = transportLineRepository.findByIsActiveTrue().stream()
+            .sorted(Comparator.comparing(TransportLine::getId))
+            .map(line -> NetworkBundle.BundleLine.builder()
+                .id(line.getId())
+                .name(line.getName())
+                .type(line.getType())
+                .color(line.getColor())
+                .description(line.getDescription())
+                .stationIds(new ArrayList<>())
+                .outboundStops(new ArrayList<>())
+                .inboundStops(new ArrayList<>())
+                .build())
+            .toList();
+        Map<Long, NetworkBundle.BundleLine> lines = new HashMap<>();
+        orderedLines.forEach(line -> lines.put(line.getId(), line));
+
+        for (Object[] row : transportLineRepository.findActiveLineStationIds()) {
+            lines.get((Long) row[0]).getStationIds().add((Long) row[1]);
+        }
+        for (Object[] row : lineStopRepository.findActiveStopSequences()) {
+            NetworkBundle.BundleLine line = lines.get((Long) row[0]);
+            (row[1] == LineStop.Direction.OUTBOUND ? line.getOutboundStops() : line.getInboundStops()).add((Long) row[2]);
+        }
+
+        return NetworkBundle.builder().stations(stations).lines(orderedLines).build();
+    }
+
+    private byte[] serialize(NetworkBundle content) {
+        try {
+            return objectMapper.writeValueAsBytes(content);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Network bundle serialization failed", e);
+        }
+    }
+
+    private static String version(byte[] content) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(content);
+            return HexFormat.of().formatHex(hash).substring(0, VERSION_LENGTH);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] gzip(byte[] content) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(content.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out) {{ def.setLevel(Deflater.BEST_COMPRESSION); }}) {
+            gzip.write(content);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private byte[] brotli(byte[] content) {
+        try {
+            return Encoder.compress(content, new Encoder.Parameters().setQuality(brotliQuality));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Brotli first, then gzip, then plain JSON, skipping what the client refuses with q=0
+    String negotiate(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) {
+            return null;
+        }
+        boolean brotli = false;
+        boolean gzip = false;
+        for (String token : acceptEncoding.split(",")) {
+            String[] parts = token.trim().split(";");
+            String coding = parts[0].trim().toLowerCase();
+            boolean refused = parts.length > 1 && parts[1].trim().replace(" ", "").matches("q=0(\\.0*)?");
+            if (refused) {
+                continue;
+            }
+            brotli |= coding.equals(BROTLI) || coding.equals("*");
+            gzip |= coding.equals(GZIP) || coding.equals("*");
+        }
+        if (brotli && brotliAvailable) {
+            return BROTLI;
+        }
+        return gzip ? GZIP : null;
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    record EncodedBundle(String version, byte[] json, byte[] gzip, byte[] brotli) {
+
+        NetworkBundleFile file(String encoding) {
+            if (BROTLI.equals(encoding)) {
+                return new NetworkBundleFile(brotli, version, "\"" + version + "-br\"", BROTLI);
+            }
+            if (GZIP.equals(encoding)) {
+                return new NetworkBundleFile(gzip, version, "\"" + version + "-gzip\"", GZIP);
+            }
+            return new NetworkBundleFile(json, version, "\"" + version + "\"", null);
+        }
+    }
+}
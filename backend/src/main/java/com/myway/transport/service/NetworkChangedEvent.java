@@ -0,0 +1,23 @@
+package com.myway.transport.service;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Published on every change of stations or lines. Listeners run once the transaction has
+ * committed, or right away outside of one.
+ *
+ * @param cities cities whose stations changed, null when any city may have changed
+ */
+public record NetworkChangedEvent(Set<String> cities) {
+
+    public static NetworkChangedEvent of(String... cities) {
+        return new NetworkChangedEvent(Arrays.stream(cities).filter(Objects::nonNull).collect(Collectors.toSet()));
+    }
+
+    public static NetworkChangedEvent all() {
+        return new NetworkChangedEvent(null);
+    }
+}
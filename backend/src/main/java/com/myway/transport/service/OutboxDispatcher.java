@@ -0,0 +1,224 @@
+package com.myway.transport.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.myway.transport.dto.DomainEvent;
+import com.myway.transport.entity.OutboxEvent;
+import com.myway.transport.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Drains the outbox in id order and hands the events to every DomainEventSubscriber in
+ * batches, at least once: the position only moves past a batch once all subscribers have
+ * handled it.
+ *
+ * Each instance delivers every event to its own subscribers, starting from the end of the
+ * outbox at startup since in-memory state is loaded from the database then. Ids are taken
+ * just before commit, so a transaction can commit after a later id is visible: a missing id
+ * holds delivery back until it shows up or gap-timeout-ms has passed (rolled back).
+ *
+ * When a batch fails, its events are delivered one at a time to find the failing one, which
+ * is logged and skipped after max-attempts deliveries so that it cannot block the others. It
+ * stays in the outbox until purged.
+ */
+@Service
+@Slf4j
+public class OutboxDispatcher {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final List<DomainEventSubscriber> subscribers;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration gapTimeout;
+    private final Duration retention;
+
+    private final Counter dispatched;
+    private final Counter failures;
+    private final Counter skipped;
+    private final Timer batchTimer;
+
+    // Last delivered id, only moved by the scheduler thread
+    private volatile long position;
+    private volatile long pending;
+    private volatile LocalDateTime oldestPendingAt;
+    private volatile boolean closed;
+    private long gapId;
+    private long gapSinceMillis;
+    // Events up to this id are delivered one at a time, after a failed batch
+    private long isolateUntil;
+    private int attempts;
+
+    public OutboxDispatcher(OutboxEventRepository outboxEventRepository,
+                            List<DomainEventSubscriber> subscribers,
+                            ObjectMapper objectMapper,
+                            TransactionTemplate transactionTemplate,
+                            MeterRegistry meterRegistry,
+                            @Value("${app.outbox.batch-size:500}") int batchSize,
+                            @Value("${app.outbox.max-attempts:10}") int maxAttempts,
+                            @Value("${app.outbox.gap-timeout-ms:5000}") long gapTimeoutMs,
+                            @Value("${app.outbox.retention-hours:24}") long retentionHours) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.subscribers = subscribers;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.gapTimeout = Duration.ofMillis(gapTimeoutMs);
+        this.retention = Duration.ofHours(retentionHours);
+        this.dispatched = meterRegistry.counter("outbox.events.dispatched");
+        this.failures = meterRegistry.counter("outbox.dispatch.failures");
+        this.skipped = meterRegistry.counter("outbox.events.skipped");
+        this.batchTimer = meterRegistry.timer("outbox.dispatch.batch");
+        Gauge.builder("outbox.lag.events", this, dispatcher -> dispatcher.pending).register(meterRegistry);
+        Gauge.builder("outbox.lag.seconds", this, OutboxDispatcher::lagSeconds).register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void initialize() {
+        Long maxId = outboxEventRepository.findMaxId();
+        position = maxId != null ? maxId : 0;
+        log.info("Outbox dispatch starts after event {} for {} subscribers", position, subscribers.size());
+    }
+
+    // Polls stop before the data source is closed
+    @EventListener(ContextClosedEvent.class)
+    public void close() {
+        closed = true;
+    }
+
+    /** Delivers batches until the outbox is drained, a gap is met or a subscriber fails. */
+    @Scheduled(initialDelayString = "${app.outbox.poll-ms:200}", fixedDelayString = "${app.outbox.poll-ms:200}")
+    public void dispatch() {
+        while (!closed) {
+            int size = position < isolateUntil ? 1 : batchSize;
+            List<OutboxEvent> batch = outboxEventRepository.findByIdGreaterThanOrderById(position, PageRequest.of(0, size));
+            List<OutboxEvent> ready = deliverable(batch);
+            if (!ready.isEmpty()) {
+                try {
+                    List<DomainEvent> events = ready.stream().map(this::toDomainEvent).toList();
+                    batchTimer.record(() -> subscribers.forEach(subscriber -> subscriber.onEvents(events)));
+                } catch (RuntimeException e) {
+                    failures.increment();
+                    if (!skipFailed(ready, e)) {
+                        updateLag(batch, 0);
+                        return;
+                    }
+                    continue;
+                }
+                position = ready.get(ready.size() - 1).getId();
+                attempts = 0;
+                dispatched.increment(ready.size());
+            }
+            if (batch.size() < size || ready.size() < batch.size()) {
+                updateLag(batch, ready.size());
+                return;
+            }
+        }
+    }
+
+    // Whether the failed event was skipped, otherwise it is delivered again on the next poll
+    private boolean skipFailed(List<OutboxEvent> ready, RuntimeException e) {
+        if (ready.size() > 1) {
+            isolateUntil = ready.get(ready.size() - 1).getId();
+            log.warn("Outbox batch after event {} failed, its events are delivered one at a time", position, e);
+            return false;
+        }
+        OutboxEvent event = ready.get(0);
+        if (++attempts < maxAttempts) {
+            log.warn("Outbox event {} failed ({} of {} attempts)", event.getId(), attempts, maxAttempts, e);
+            return false;
+        }
+        log.error("Outbox event {} {} skipped after {} failed deliveries, payload {}",
+            event.getId(), event.getEventType(), attempts, event.getPayload(), e);
+        skipped.increment();
+        position = event.getId();
+        attempts = 0;
+        return true;
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.purge-ms:3600000}")
+    public void purge() {
+        long upToId = position;
+        Integer deleted = transactionTemplate.execute(transaction ->
+            outboxEventRepository.deleteDispatchedBefore(upToId, LocalDateTime.now().minus(retention)));
+        if (deleted != null && deleted > 0) {
+            log.debug("Purged {} dispatched outbox events", deleted);
+        }
+    }
+
+    // The events of the batch that follow the position without a gap, or past a gap that timed out
+    private List<OutboxEvent> deliverable(List<OutboxEvent> batch) {
+        List<OutboxEvent> events = new ArrayList<>(batch.size());
+        long expected = position + 1;
+        for (OutboxEvent event : batch) {
+            if (event.getId() != expected && !gapTimedOut(expected)) {
+                break;
+            }
+            events.add(event);
+            expected = event.getId() + 1;
+        }
+        return events;
+    }
+
+    private boolean gapTimedOut(long missingId) {
+        long now = System.currentTimeMillis();
+        if (gapId != missingId) {
+            gapId = missingId;
+            gapSinceMillis = now;
+        }
+        if (now - gapSinceMillis < gapTimeout.toMillis()) {
+            return false;
+        }
+        log.debug("Outbox event {} did not show up within {} ms, skipped", missingId, gapTimeout.toMillis());
+        return true;
+    }
+
+    private void updateLag(List<OutboxEvent> batch, int delivered) {
+        if (delivered == batch.size()) {
+            pending = 0;
+            oldestPendingAt = null;
+        } else {
+            pending = outboxEventRepository.countByIdGreaterThan(position);
+            oldestPendingAt = batch.get(delivered).getCreatedAt();
+        }
+    }
+
+    private double lagSeconds() {
+        LocalDateTime oldest = oldestPendingAt;
+        return oldest != null ? Math.max(0, Duration.between(oldest, LocalDateTime.now()).toMillis() / 1000.0) : 0;
+    }
+
+    private DomainEvent toDomainEvent(OutboxEvent event) {
+        try {
+            return DomainEvent.builder()
+                .id(event.getId())
+                .type(event.getEventType())
+                .aggregateId(event.getAggregateId())
+                .payload(objectMapper.readTree(event.getPayload()))
+                .occurredAt(event.getCreatedAt())
+                .build();
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
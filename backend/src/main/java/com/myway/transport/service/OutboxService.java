@@ -0,0 +1,78 @@
+package com.myway.transport.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.myway.transport.dto.DomainEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes domain events to the outbox table in the transaction of the change they describe,
+ * so an event exists if and only if the change was committed. The events of a transaction
+ * are inserted together in one JDBC batch just before it commits.
+ */
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public void publish(DomainEvent.Type type, Long aggregateId, Map<String, ?> payload) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Un événement ne peut être publié qu'au sein d'une transaction");
+        }
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Contenu d'événement non sérialisable", e);
+        }
+        pendingEvents().add(new PendingEvent(type, aggregateId, json, LocalDateTime.now()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<PendingEvent> pendingEvents() {
+        List<PendingEvent> pending = (List<PendingEvent>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            List<PendingEvent> events = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, events);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    insert(events);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResource(OutboxService.this);
+                }
+            });
+            pending = events;
+        }
+        return pending;
+    }
+
+    private void insert(List<PendingEvent> events) {
+        jdbcTemplate.batchUpdate(
+            "INSERT INTO outbox_events (event_type, aggregate_id, payload, created_at) VALUES (?, ?, ?, ?)",
+            events, events.size(), (statement, event) -> {
+                statement.setString(1, event.type().name());
+                statement.setObject(2, event.aggregateId());
+                statement.setString(3, event.payload());
+                statement.setTimestamp(4, Timestamp.valueOf(event.createdAt()));
+            });
+    }
+
+    private record PendingEvent(DomainEvent.Type type, Long aggregateId, String payload, LocalDateTime createdAt) {
+    }
+}
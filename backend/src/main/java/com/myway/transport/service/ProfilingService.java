@@ -0,0 +1,285 @@
+package com.myway.transport.service;
+
+import com.myway.transport.dto.ProfilingStatus;
+import com.myway.transport.dto.ProfilingSummary;
+import com.myway.transport.exception.ResourceNotFoundException;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingFile;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs one Java Flight Recorder session at a time, bounded in duration and size, and keeps the
+ * last recording on disk for download and for the hot methods and allocation sites summary.
+ *
+ * Profiles are the JFR configurations of the JDK: "default" costs about 1% of CPU, "profile"
+ * samples more often for about 2%.
+ */
+@Service
+@Slf4j
+public class ProfilingService implements DisposableBean {
+
+    private static final String APPLICATION_PACKAGE = "com.myway.";
+    private static final String EXECUTION_SAMPLE = "jdk.ExecutionSample";
+    private static final String ALLOCATION_SAMPLE = "jdk.ObjectAllocationSample";
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final Path directory;
+    private final Duration defaultDuration;
+    private final Duration maxDuration;
+    private final long maxSizeBytes;
+
+    private Recording recording;
+    private String profile;
+    private Path file;
+    private LocalDateTime startedAt;
+    // Computed on the first summary of a recording
+    private Counts counts;
+
+    public ProfilingService(@Value("${app.profiling.directory}") String directory,
+                            @Value("${app.profiling.default-duration-seconds:60}") long defaultDurationSeconds,
+                            @Value("${app.profiling.max-duration-seconds:300}") long maxDurationSeconds,
+                            @Value("${app.profiling.max-size-mb:100}") long maxSizeMb) {
+        this.directory = Path.of(directory);
+        this.defaultDuration = Duration.ofSeconds(defaultDurationSeconds);
+        this.maxDuration = Duration.ofSeconds(maxDurationSeconds);
+        this.maxSizeBytes = maxSizeMb * 1024 * 1024;
+    }
+
+    public synchronized ProfilingStatus start(String profileName, Long durationSeconds) {
+        if (isRunning()) {
+            throw new IllegalStateException("Un enregistrement est déjà en cours");
+        }
+        String name = profileName != null ? profileName : "default";
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration(name);
+        } catch (IOException | ParseException e) {
+            throw new IllegalArgumentException("Profil JFR inconnu: " + name);
+        }
+        Duration duration = durationSeconds != null ? Duration.ofSeconds(durationSeconds) : defaultDuration;
+        if (duration.isNegative() || duration.isZero() || duration.compareTo(maxDuration) > 0) {
+            throw new IllegalArgumentException("La durée doit être comprise entre 1 et " + maxDuration.toSeconds() + " secondes");
+        }
+
+        discard();
+        try {
+            Files.createDirectories(directory);
+            LocalDateTime now = LocalDateTime.now();
+            Path destination = directory.resolve("myway-" + FILE_TIME.format(now) + ".jfr");
+            Recording started = new Recording(configuration);
+            started.setName("myway-profiling");
+            started.setToDisk(true);
+            started.setMaxSize(maxSizeBytes);
+            // Written to the destination when stopped, by the stop call or at the end of the duration
+            started.setDestination(destination);
+            started.setDuration(duration);
+            started.start();
+            recording = started;
+            profile = name;
+            file = destination;
+            startedAt = now;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        log.info("JFR recording started with profile {} for {} s", name, duration.toSeconds());
+        return status();
+    }
+
+    public synchronized ProfilingStatus stop() {
+        if (isRunning()) {
+            recording.stop();
+            log.info("JFR recording stopped, written to {}", file);
+        }
+        return status();
+    }
+
+    public synchronized ProfilingStatus status() {
+        if (recording == null) {
+            return ProfilingStatus.builder().state(ProfilingStatus.State.IDLE).build();
+        }
+        boolean running = isRunning();
+        return ProfilingStatus.builder()
+            .state(running ? ProfilingStatus.State.RUNNING : ProfilingStatus.State.STOPPED)
+            .profile(profile)
+            .startedAt(startedAt)
+            .durationSeconds(recording.getDuration() != null ? recording.getDuration().toSeconds() : null)
+            .stoppedAt(!running && recording.getStopTime() != null
+                ? LocalDateTime.ofInstant(recording.getStopTime(), ZoneId.systemDefault()) : null)
+            .recordingBytes(!running && Files.exists(file) ? sizeOf(file) : null)
+            .build();
+    }
+
+    /** The last recording, once stopped. */
+    public synchronized Path getRecording() {
+        if (isRunning()) {
+            throw new IllegalStateException("L'enregistrement est en cours, arrêtez-le ou attendez la fin de sa durée");
+        }
+        if (recording == null || !Files.exists(file)) {
+            throw new ResourceNotFoundException("Aucun enregistrement disponible");
+        }
+        return file;
+    }
+
+    public synchronized ProfilingSummary getSummary(int top) {
+        Path recorded = getRecording();
+        if (counts == null) {
+            counts = count(recorded);
+        }
+        return ProfilingSummary.builder()
+            .profile(profile)
+            .startedAt(startedAt)
+            .stoppedAt(status().getStoppedAt())
+            .executionSamples(counts.samples())
+            .hotMethods(top(counts.hotMethods(), counts.samples(), top))
+            .applicationHotMethods(top(counts.applicationHotMethods(), counts.samples(), top))
+            .allocatedBytes(counts.allocatedBytes())
+            .allocationSites(top(counts.allocationSites(), counts.allocatedBytes(), top))
+            .applicationAllocationSites(top(counts.applicationAllocationSites(), counts.allocatedBytes(), top))
+            .build();
+    }
+
+    @Override
+    public synchronized void destroy() {
+        if (recording != null) {
+            recording.close();
+        }
+    }
+
+    static Counts count(Path recorded) {
+        Counts counts = new Counts();
+        try (RecordingFile events = new RecordingFile(recorded)) {
+            while (events.hasMoreEvents()) {
+                RecordedEvent event = events.readEvent();
+                RecordedStackTrace stackTrace = event.getStackTrace();
+                if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+                    continue;
+                }
+                String type = event.getEventType().getName();
+                if (type.equals(EXECUTION_SAMPLE)) {
+                    counts.addExecutionSample(stackTrace.getFrames());
+                } else if (type.equals(ALLOCATION_SAMPLE)) {
+                    counts.addAllocationSample(stackTrace.getFrames(), event.getLong("weight"));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return counts;
+    }
+
+    private boolean isRunning() {
+        return recording != null && recording.getState() == RecordingState.RUNNING;
+    }
+
+    // Only the last recording is kept
+    private void discard() {
+        if (recording != null) {
+            recording.close();
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("Could not delete the previous JFR recording {}", file, e);
+            }
+        }
+        recording = null;
+        counts = null;
+    }
+
+    private static long sizeOf(Path path) {
+        try {
+            return Files.size(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static List<ProfilingSummary.Entry> top(Map<String, Long> values, long total, int top) {
+        return values.entrySet().stream()
+            .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+            .limit(top)
+            .map(entry -> ProfilingSummary.Entry.builder()
+                .method(entry.getKey())
+                .value(entry.getValue())
+                .percent(total > 0 ? Math.round(entry.getValue() * 1000.0 / total) / 10.0 : 0)
+                .build())
+            .toList();
+    }
+
+    private static String methodOf(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName();
+    }
+
+    static final class Counts {
+
+        private final Map<String, Long> hotMethods = new HashMap<>();
+        private final Map<String, Long> applicationHotMethods = new HashMap<>();
+        private final Map<String, Long> allocationSites = new HashMap<>();
+        private final Map<String, Long> applicationAllocationSites = new HashMap<>();
+        private long samples;
+        private long allocatedBytes;
+
+        private void addExecutionSample(List<RecordedFrame> frames) {
+            samples++;
+            charge(frames, 1, hotMethods, applicationHotMethods);
+        }
+
+        private void addAllocationSample(List<RecordedFrame> frames, long weight) {
+            allocatedBytes += weight;
+            charge(frames, weight, allocationSites, applicationAllocationSites);
+        }
+
+        // To the top frame, and to the innermost frame of the application when there is one
+        private static void charge(List<RecordedFrame> frames, long value, Map<String, Long> byTop, Map<String, Long> byApplication) {
+            byTop.merge(methodOf(frames.get(0)), value, Long::sum);
+            frames.stream()
+                .filter(frame -> frame.isJavaFrame() && frame.getMethod().getType().getName().startsWith(APPLICATION_PACKAGE))
+                .findFirst()
+                .ifPresent(frame -> byApplication.merge(methodOf(frame), value, Long::sum));
+        }
+
+        long samples() {
+            return samples;
+        }
+
+        long allocatedBytes() {
+            return allocatedBytes;
+        }
+
+        Map<String, Long> hotMethods() {
+            return hotMethods;
+        }
+
+        Map<String, Long> applicationHotMethods() {
+            return applicationHotMethods;
+        }
+
+        Map<String, Long> allocationSites() {
+            return allocationSites;
+        }
+
+        Map<String, Long> applicationAllocationSites() {
+            return applicationAllocationSites;
+        }
+    }
+}
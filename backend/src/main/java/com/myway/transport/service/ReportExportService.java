@@ -0,0 +1,118 @@
+package com.myway.transport.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.myway.transport.dto.ReportResponse;
+import com.myway.transport.entity.Report;
+import com.myway.transport.repository.ReportRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.stream.Stream;
+
+/**
+ * Writes reports to an output stream as they are read from the database cursor, so an
+ * export of any size holds one row at a time. Runs in its own read-only transaction, which
+ * keeps the cursor open while the response is written.
+ */
+@Service
+@RequiredArgsConstructor
+public class ReportExportService {
+
+    public enum Format {
+        CSV, NDJSON
+    }
+
+    private static final String CSV_HEADER =
+        "id,createdAt,status,crowdLevel,stationId,stationName,lineName,userName,moderatedAt,moderatedByName,comment\n";
+    // LocalDateTime.toString() drops zero seconds, every row gets the same width
+    private static final DateTimeFormatter CSV_DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+
+    private final ReportRepository reportRepository;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(readOnly = true)
+    public void exportReports(Format format, LocalDateTime from, LocalDateTime to, Long stationId, Long lineId,
+                              Report.ReportStatus status, OutputStream output) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), 64 * 1024);
+        try (Stream<ReportResponse> reports = reportRepository.streamResponsesForExport(from, to, stationId, lineId, status)) {
+            if (format == Format.CSV) {
+                writer.write(CSV_HEADER);
+                reports.forEach(report -> writeCsv(writer, report));
+            } else {
+                JsonGenerator generator = objectMapper.getFactory().createGenerator(writer);
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                // Each report ends with its own line break
+                generator.setRootValueSeparator(null);
+                reports.forEach(report -> writeJson(generator, writer, report));
+                generator.close();
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    private void writeCsv(Writer writer, ReportResponse report) {
+        try {
+            writer.write(String.valueOf(report.getId()));
+            writeCsvField(writer, format(report.getCreatedAt()));
+            writeCsvField(writer, report.getStatus());
+            writeCsvField(writer, report.getCrowdLevel());
+            writeCsvField(writer, report.getStationId());
+            writeCsvField(writer, report.getStationName());
+            writeCsvField(writer, report.getLineName());
+            writeCsvField(writer, report.getUserName());
+            writeCsvField(writer, format(report.getModeratedAt()));
+            writeCsvField(writer, report.getModeratedByName());
+            writeCsvField(writer, report.getComment());
+            writer.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeJson(JsonGenerator generator, Writer writer, ReportResponse report) {
+        try {
+            objectMapper.writeValue(generator, report);
+            generator.flush();
+            writer.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String format(LocalDateTime dateTime) {
+        return dateTime != null ? CSV_DATE_TIME.format(dateTime) : null;
+    }
+
+    // Fields are quoted only when they contain a separator, a quote or a line break
+    private static void writeCsvField(Writer writer, Object value) throws IOException {
+        writer.write(',');
+        if (value == null) {
+            return;
+        }
+        String text = value.toString();
+        // A comment starting like a formula is not evaluated when the file is opened in a spreadsheet
+        if (!text.isEmpty() && "=+-@\t\r".indexOf(text.charAt(0)) >= 0) {
+            text = "'" + text;
+        }
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            writer.write(text);
+            return;
+        }
+        writer.write('"');
+        writer.write(text.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -0,0 +1,333 @@
+package com.myway.transport.service;
+
+import com.myway.transport.entity.Report;
+
+import java.text.Normalizer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Inverted index of report comments: each normalized term maps to the reports containing it,
+ * in insertion order so that postings can be intersected with binary searches. Phrases are
+ * checked against the terms kept per report, and matches are ranked with BM25.
+ *
+ * Not thread-safe, guarded by ReportSearchService. Removed reports leave their postings in
+ * place until the index is rebuilt.
+ */
+final class ReportIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private static final Set<String> STOP_WORDS = Set.of(
+        "le", "la", "les", "l", "de", "des", "du", "d", "un", "une", "et", "ou", "a", "au", "aux", "en",
+        "ce", "ces", "cette", "il", "elle", "on", "est", "sont", "pour", "par", "sur", "dans", "avec",
+        "que", "qui", "y", "se",
+        "في", "من", "علي", "الي", "عن", "مع", "هذا", "هذه", "ذلك", "و");
+
+    // French elisions, dropped with the apostrophe: l'arrêt, d'attente, qu'il
+    private static final Set<String> ELISIONS = Set.of(
+        "l", "d", "j", "m", "n", "s", "t", "c", "qu", "lorsqu", "puisqu", "jusqu");
+
+    private static final int TATWEEL = 'ـ';
+
+    private final List<Document> documents = new ArrayList<>();
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private final Map<String, Postings> postings = new HashMap<>();
+    private long totalTerms;
+
+    int size() {
+        return ordinals.size();
+    }
+
+    /** Adds the report, or updates its status, station and line if it is already indexed. */
+    void add(Long id, String comment, Report.ReportStatus status, LocalDateTime createdAt, Long stationId, Long lineId) {
+        Integer existing = ordinals.get(id);
+        if (existing != null) {
+            Document document = documents.get(existing);
+            document.status = status;
+            document.stationId = stationId;
+            document.lineId = lineId;
+            return;
+        }
+        List<String> terms = terms(comment);
+        if (terms.isEmpty()) {
+            return;
+        }
+        int ordinal = documents.size();
+        String[] shared = new String[terms.size()];
+        for (int i = 0; i < shared.length; i++) {
+            Postings list = postings.computeIfAbsent(terms.get(i), Postings::new);
+            // The term string is shared between the postings and every report containing it
+            shared[i] = list.term;
+            if (list.size == 0 || list.ordinals[list.size - 1] != ordinal) {
+                list.add(ordinal);
+            }
+        }
+        documents.add(new Document(id, shared, status, createdAt, stationId, lineId));
+        ordinals.put(id, ordinal);
+        totalTerms += shared.length;
+    }
+
+    void setStatus(Long id, Report.ReportStatus status) {
+        Integer ordinal = ordinals.get(id);
+        if (ordinal != null) {
+            documents.get(ordinal).status = status;
+        }
+    }
+
+    void remove(Long id) {
+        Integer ordinal = ordinals.remove(id);
+        if (ordinal != null) {
+            totalTerms -= documents.get(ordinal).terms.length;
+            documents.set(ordinal, null);
+        }
+    }
+
+    /**
+     * Reports containing every term and phrase of the query and accepted by the filter, best
+     * first, newest first on equal scores.
+     */
+    Result search(Query query, Filter filter, int offset, int limit) {
+        if (query.phrases().isEmpty() || ordinals.isEmpty()) {
+            return new Result(0, List.of());
+        }
+        Set<String> distinct = new LinkedHashSet<>();
+        query.phrases().forEach(phrase -> distinct.addAll(Arrays.asList(phrase)));
+        List<Postings> lists = new ArrayList<>();
+        for (String term : distinct) {
+            Postings list = postings.get(term);
+            if (list == null) {
+                return new Result(0, List.of());
+            }
+            lists.add(list);
+        }
+        // The rarest term drives the intersection, the others are probed
+        lists.sort(Comparator.comparingInt(list -> list.size));
+        Postings rarest = lists.get(0);
+        double averageLength = (double) totalTerms / ordinals.size();
+        int wanted = offset + limit;
+        PriorityQueue<Hit> best = new PriorityQueue<>(Hit.WORST_FIRST);
+        int total = 0;
+
+        for (int i = 0; i < rarest.size; i++) {
+            int ordinal = rarest.ordinals[i];
+            Document document = documents.get(ordinal);
+            if (document == null || !filter.accepts(document) || !containsAll(lists, ordinal) || !containsPhrases(document, query)) {
+                continue;
+            }
+            total++;
+            if (wanted == 0) {
+                continue;
+            }
+            Hit hit = new Hit(document.id, document.createdAt, score(document, lists, averageLength));
+            if (best.size() < wanted) {
+                best.add(hit);
+            } else if (Hit.WORST_FIRST.compare(hit, best.peek()) > 0) {
+                best.poll();
+                best.add(hit);
+            }
+        }
+
+        List<Hit> ranked = new ArrayList<>(best);
+        ranked.sort(Hit.WORST_FIRST.reversed());
+        List<Long> ids = ranked.stream().skip(offset).map(Hit::id).toList();
+        return new Result(total, ids);
+    }
+
+    private double score(Document document, List<Postings> lists, double averageLength) {
+        double score = 0;
+        double lengthNorm = K1 * (1 - B + B * document.terms.length / averageLength);
+        for (Postings list : lists) {
+            int frequency = 0;
+            for (String term : document.terms) {
+                if (term == list.term) {
+                    frequency++;
+                }
+            }
+            double idf = Math.log(1 + (ordinals.size() - list.size + 0.5) / (list.size + 0.5));
+            score += idf * frequency * (K1 + 1) / (frequency + lengthNorm);
+        }
+        return score;
+    }
+
+    private static boolean containsAll(List<Postings> lists, int ordinal) {
+        for (int i = 1; i < lists.size(); i++) {
+            Postings list = lists.get(i);
+            if (Arrays.binarySearch(list.ordinals, 0, list.size, ordinal) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean containsPhrases(Document document, Query query) {
+        for (String[] phrase : query.phrases()) {
+            if (phrase.length > 1 && !containsSequence(document.terms, phrase)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean containsSequence(String[] terms, String[] phrase) {
+        outer:
+        for (int start = 0; start + phrase.length <= terms.length; start++) {
+            for (int i = 0; i < phrase.length; i++) {
+                if (!terms[start + i].equals(phrase[i])) {
+                    continue outer;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Terms of a text, the same for comments and queries: lower-cased, without accents or Arabic
+     * diacritics and tatweel, Arabic letter variants and digits folded, French elisions, stop words,
+     * plural endings and the Arabic article removed.
+     */
+    static List<String> terms(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        String decomposed = Normalizer.normalize(text.toLowerCase(Locale.ROOT), Normalizer.Form.NFD);
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i < decomposed.length(); ) {
+            int c = decomposed.codePointAt(i);
+            i += Character.charCount(c);
+            if (Character.getType(c) == Character.NON_SPACING_MARK || c == TATWEEL) {
+                continue;
+            }
+            if (Character.isLetterOrDigit(c)) {
+                token.appendCodePoint(fold(c));
+            } else if ((c == '\'' || c == '’') && ELISIONS.contains(token.toString())) {
+                token.setLength(0);
+            } else {
+                addTerm(terms, token);
+            }
+        }
+        addTerm(terms, token);
+        return terms;
+    }
+
+    private static int fold(int c) {
+        if (Character.isDigit(c)) {
+            return '0' + Character.digit(c, 10);
+        }
+        return switch (c) {
+            case 'ٱ' -> 'ا';
+            case 'ة' -> 'ه';
+            case 'ى' -> 'ي';
+            default -> c;
+        };
+    }
+
+    private static void addTerm(List<String> terms, StringBuilder token) {
+        if (token.isEmpty()) {
+            return;
+        }
+        String term = token.toString();
+        token.setLength(0);
+        if (STOP_WORDS.contains(term)) {
+            return;
+        }
+        if (term.length() > 3 && (term.endsWith("s") || term.endsWith("x"))) {
+            term = term.substring(0, term.length() - 1);
+        } else if (term.length() > 3 && term.startsWith("ال")) {
+            term = term.substring(2);
+        }
+        terms.add(term);
+    }
+
+    /** Terms and "quoted phrases", all of which must match. */
+    record Query(List<String[]> phrases) {
+
+        static Query parse(String text) {
+            List<String[]> phrases = new ArrayList<>();
+            if (text != null) {
+                String[] parts = text.split("\"", -1);
+                for (int i = 0; i < parts.length; i++) {
+                    List<String> terms = terms(parts[i]);
+                    // Odd parts are between quotes, an unclosed quote runs to the end
+                    if (i % 2 == 1 && !terms.isEmpty()) {
+                        phrases.add(terms.toArray(String[]::new));
+                    } else {
+                        terms.forEach(term -> phrases.add(new String[] {term}));
+                    }
+                }
+            }
+            return new Query(phrases);
+        }
+    }
+
+    record Filter(Long stationId, Long lineId, Report.ReportStatus status, LocalDateTime from, LocalDateTime to) {
+
+        private boolean accepts(Document document) {
+            return (stationId == null || stationId.equals(document.stationId))
+                && (lineId == null || lineId.equals(document.lineId))
+                && (status == null || status == document.status)
+                && (from == null || !document.createdAt.isBefore(from))
+                && (to == null || document.createdAt.isBefore(to));
+        }
+    }
+
+    record Result(int total, List<Long> ids) {
+    }
+
+    // Equal scores rank the newest report first, then the highest id
+    private record Hit(long id, LocalDateTime createdAt, double score) {
+
+        static final Comparator<Hit> WORST_FIRST = Comparator.comparingDouble(Hit::score)
+            .thenComparing(Hit::createdAt, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparingLong(Hit::id);
+    }
+
+    private static final class Document {
+
+        private final long id;
+        private final String[] terms;
+        private final LocalDateTime createdAt;
+        private Report.ReportStatus status;
+        private Long stationId;
+        private Long lineId;
+
+        private Document(long id, String[] terms, Report.ReportStatus status, LocalDateTime createdAt, Long stationId, Long lineId) {
+            this.id = id;
+            this.terms = terms;
+            this.status = status;
+            this.createdAt = createdAt;
+            this.stationId = stationId;
+            this.lineId = lineId;
+        }
+    }
+
+    private static final class Postings {
+
+        private final String term;
+        private int[] ordinals = new int[2];
+        private int size;
+
+        private Postings(String term) {
+            this.term = term;
+        }
+
+        private void add(int ordinal) {
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+            }
+            ordinals[size++] = ordinal;
+        }
+    }
+}
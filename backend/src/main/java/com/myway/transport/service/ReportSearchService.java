@@ -0,0 +1,166 @@
+package com.myway.transport.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.myway.transport.dto.DomainEvent;
+import com.myway.transport.dto.ReportResponse;
+import com.myway.transport.dto.ReportSearchPage;
+import com.myway.transport.entity.Report;
+import com.myway.transport.repository.ReportRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Full-text search over report comments for moderators, answered from an in-memory inverted
+ * index. The index follows the report events of the outbox, written by every instance, and is
+ * rebuilt from the database periodically to compact it.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReportSearchService implements DomainEventSubscriber {
+
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final Set<DomainEvent.Type> REPORT_EVENTS = EnumSet.of(
+        DomainEvent.Type.REPORT_CREATED, DomainEvent.Type.REPORT_MODERATED, DomainEvent.Type.REPORT_DELETED);
+
+    private final ReportRepository reportRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskScheduler taskScheduler;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private ReportIndex index = new ReportIndex();
+    // Changes made while a rebuild reads the database, replayed onto the rebuilt index
+    private List<Consumer<ReportIndex>> changesDuringRebuild;
+    private volatile Future<?> startupRebuild;
+
+    // Loaded off the startup thread, searches answer from the report events until it is done
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildInBackground() {
+        startupRebuild = taskScheduler.schedule(this::rebuild, Instant.now());
+    }
+
+    Future<?> startupRebuild() {
+        return startupRebuild;
+    }
+
+    @Scheduled(initialDelayString = "${app.report-search.rebuild-ms:3600000}",
+               fixedDelayString = "${app.report-search.rebuild-ms:3600000}")
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            changesDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        ReportIndex rebuilt = new ReportIndex();
+        boolean loaded = false;
+        try {
+            transactionTemplate.executeWithoutResult(transaction -> {
+                try (Stream<Object[]> rows = reportRepository.streamSearchDocuments()) {
+                    rows.forEach(row -> rebuilt.add((Long) row[0], (String) row[1], (Report.ReportStatus) row[2],
+                        (LocalDateTime) row[3], (Long) row[4], (Long) row[5]));
+                }
+            });
+            loaded = true;
+        } finally {
+            lock.writeLock().lock();
+            try {
+                if (loaded) {
+                    changesDuringRebuild.forEach(change -> change.accept(rebuilt));
+                    index = rebuilt;
+                }
+                changesDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        log.info("Report search index rebuilt with {} commented reports", rebuilt.size());
+    }
+
+    @Override
+    public void onEvents(List<DomainEvent> events) {
+        List<DomainEvent> reportEvents = events.stream().filter(event -> REPORT_EVENTS.contains(event.getType())).toList();
+        if (!reportEvents.isEmpty()) {
+            apply(target -> reportEvents.forEach(event -> applyEvent(target, event)));
+        }
+    }
+
+    /**
+     * Reports whose comment contains every term and "quoted phrase" of the query, ranked by
+     * relevance, optionally restricted to a station, a line, a status and a creation period.
+     */
+    public ReportSearchPage search(String query, Long stationId, Long lineId, Report.ReportStatus status,
+                                   LocalDateTime from, LocalDateTime to, int page, int size) {
+        int pageSize = Math.min(Math.max(1, size), MAX_PAGE_SIZE);
+        int offset = Math.max(0, page) * pageSize;
+        ReportIndex.Query parsed = ReportIndex.Query.parse(query);
+        ReportIndex.Filter filter = new ReportIndex.Filter(stationId, lineId, status, from, to);
+        ReportIndex.Result result;
+        lock.readLock().lock();
+        try {
+            result = index.search(parsed, filter, offset, pageSize);
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (result.ids().isEmpty()) {
+            return ReportSearchPage.builder().reports(List.of()).total(result.total()).build();
+        }
+        Map<Long, ReportResponse> byId = reportRepository.findResponsesByIds(result.ids()).stream()
+            .collect(Collectors.toMap(ReportResponse::getId, Function.identity()));
+        // Reports deleted while their event waits in the outbox are left out
+        List<ReportResponse> reports = result.ids().stream().map(byId::get).filter(Objects::nonNull).toList();
+        return ReportSearchPage.builder().reports(reports).total(result.total()).build();
+    }
+
+    // Adding an indexed report or setting a status again changes nothing, events can be redelivered
+    private static void applyEvent(ReportIndex target, DomainEvent event) {
+        JsonNode payload = event.getPayload();
+        switch (event.getType()) {
+            case REPORT_CREATED -> target.add(event.getAggregateId(), payload.path("comment").asText(null),
+                Report.ReportStatus.valueOf(payload.path("status").asText()),
+                LocalDateTime.parse(payload.path("createdAt").asText()),
+                idOf(payload, "stationId"), idOf(payload, "lineId"));
+            case REPORT_MODERATED -> target.setStatus(event.getAggregateId(), Report.ReportStatus.valueOf(payload.path("status").asText()));
+            case REPORT_DELETED -> target.remove(event.getAggregateId());
+            default -> { }
+        }
+    }
+
+    private static Long idOf(JsonNode payload, String field) {
+        return payload.hasNonNull(field) ? payload.get(field).asLong() : null;
+    }
+
+    private void apply(Consumer<ReportIndex> change) {
+        lock.writeLock().lock();
+        try {
+            change.accept(index);
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
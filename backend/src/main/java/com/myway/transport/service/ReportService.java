@@ -1,5 +1,12 @@
 package com.myway.transport.service;
 
+import com.myway.transport.config.ReadYourWritesTracker;
+import com.myway.transport.dto.BatchReportRequest;
+import com.myway.transport.dto.BatchReportResponse;
+import com.myway.transport.dto.BulkModerationRequest;
+import com.myway.transport.dto.BulkModerationResponse;
+import com.myway.transport.dto.CrowdSample;
+import com.myway.transport.dto.DomainEvent;
 import com.myway.transport.dto.ReportRequest;
 import com.myway.transport.dto.ReportResponse;
 import com.myway.transport.entity.Report;
@@ -13,13 +20,33 @@ import com.myway.transport.repository.TransportLineRepository;
 import com.myway.transport.repository.UserRepository;
 import com.myway.transport.security.UserDetailsImpl;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -31,6 +58,16 @@ public class ReportService {
     private final UserRepository userRepository;
     private final StationRepository stationRepository;
     private final TransportLineRepository transportLineRepository;
+    private final Optional<ReadYourWritesTracker> readYourWritesTracker;
+    private final List<CrowdAggregate> crowdAggregates;
+    private final ModerationQueueService moderationQueueService;
+    private final OutboxService outboxService;
+    private final ReputationService reputationService;
+    private final JdbcTemplate jdbcTemplate;
+
+    // Reports buffered offline for longer than this no longer describe the current crowd
+    @Value("${app.reports.batch.max-age-hours:24}")
+    private long batchMaxAgeHours;
 
     @Transactional
     public ReportResponse createReport(ReportRequest request) {
@@ -60,40 +97,127 @@ public class ReportService {
         }
 
         Report savedReport = reportRepository.save(report);
-        return convertToResponse(savedReport);
+        readYourWritesTracker.ifPresent(tracker -> tracker.recordWrite(user.getId()));
+        publishCreated(savedReport.getId(), savedReport.getComment(), savedReport.getStatus(), savedReport.getCrowdLevel(),
+            savedReport.getCreatedAt(), user.getId(), request.getStationId(), request.getLineId());
+        ReportResponse response = convertToResponse(savedReport);
+        if (isApproved(savedReport)) {
+            CrowdSample sample = CrowdSample.of(savedReport);
+            afterCommit(() -> recordApproved(sample));
+        } else if (savedReport.getStatus() == Report.ReportStatus.PENDING) {
+            afterCommit(() -> moderationQueueService.add(response));
+        }
+        return response;
+    }
+
+    // One lookup per reference type and one batched insert, whatever the size of the batch
+    @Transactional
+    public BatchReportResponse createReports(List<BatchReportRequest.Item> items) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
+        Long userId = userDetails.getId();
+
+        Map<String, Long> knownIds = new HashMap<>();
+        reportRepository.findIdsByClientKeys(userId, items.stream().map(BatchReportRequest.Item::getClientKey).collect(Collectors.toSet()))
+            .forEach(row -> knownIds.put((String) row[0], (Long) row[1]));
+        Map<Long, Station> stations = findAllById(stationRepository::findAllById, items, BatchReportRequest.Item::getStationId, Station::getId);
+        Map<Long, TransportLine> lines = findAllById(transportLineRepository::findAllById, items, BatchReportRequest.Item::getLineId, TransportLine::getId);
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime oldest = now.minusHours(batchMaxAgeHours);
+        List<BatchReportResponse.Result> results = new ArrayList<>();
+        List<BatchReportRequest.Item> accepted = new ArrayList<>();
+        List<LocalDateTime> createdAts = new ArrayList<>();
+        // A key repeated within the batch refers to its first occurrence
+        Map<String, BatchReportResponse.Result> batchKeys = new HashMap<>();
+        for (BatchReportRequest.Item item : items) {
+            BatchReportResponse.Result result = BatchReportResponse.Result.builder().clientKey(item.getClientKey()).build();
+            results.add(result);
+            if (knownIds.containsKey(item.getClientKey()) || batchKeys.containsKey(item.getClientKey())) {
+                result.setOutcome(BatchReportResponse.Outcome.DUPLICATE);
+                result.setReportId(knownIds.get(item.getClientKey()));
+                continue;
+            }
+            // Device clocks may run ahead of the server
+            LocalDateTime createdAt = item.getReportedAt() == null || item.getReportedAt().isAfter(now) ? now : item.getReportedAt();
+            String error = null;
+            if (item.getStationId() != null && !stations.containsKey(item.getStationId())) {
+                error = "Station non trouvée";
+            } else if (item.getLineId() != null && !lines.containsKey(item.getLineId())) {
+                error = "Ligne non trouvée";
+            } else if (createdAt.isBefore(oldest)) {
+                error = "Signalement trop ancien";
+            }
+            if (error != null) {
+                result.setOutcome(BatchReportResponse.Outcome.REJECTED);
+                result.setError(error);
+                continue;
+            }
+            result.setOutcome(BatchReportResponse.Outcome.CREATED);
+            batchKeys.put(item.getClientKey(), result);
+            accepted.add(item);
+            createdAts.add(createdAt);
+        }
+
+        if (!accepted.isEmpty()) {
+            List<Long> ids = insertApproved(userId, accepted, createdAts);
+            List<CrowdSample> samples = new ArrayList<>(accepted.size());
+            for (int i = 0; i < accepted.size(); i++) {
+                BatchReportRequest.Item item = accepted.get(i);
+                batchKeys.get(item.getClientKey()).setReportId(ids.get(i));
+                publishCreated(ids.get(i), item.getComment(), Report.ReportStatus.APPROVED, item.getCrowdLevel(),
+                    createdAts.get(i), userId, item.getStationId(), item.getLineId());
+                CrowdSample sample = sample(userId, item, createdAts.get(i), stations);
+                sample.setReportId(ids.get(i));
+                samples.add(sample);
+            }
+            afterCommit(() -> samples.forEach(this::recordApproved));
+            readYourWritesTracker.ifPresent(tracker -> tracker.recordWrite(userId));
+        }
+        results.stream()
+            .filter(result -> result.getOutcome() == BatchReportResponse.Outcome.DUPLICATE && result.getReportId() == null)
+            .forEach(result -> result.setReportId(batchKeys.get(result.getClientKey()).getReportId()));
+        return BatchReportResponse.builder().results(results).build();
     }
 
     public List<ReportResponse> getReportsByStation(Long stationId) {
         LocalDateTime oneDayAgo = LocalDateTime.now().minusDays(1);
-        return reportRepository.findRecentApprovedReportsByStation(stationId, oneDayAgo)
-            .stream()
-            .map(this::convertToResponse)
-            .collect(Collectors.toList());
+        return reportRepository.findRecentApprovedResponsesByStation(stationId, oneDayAgo);
     }
 
     public List<ReportResponse> getReportsByLine(Long lineId) {
         LocalDateTime oneDayAgo = LocalDateTime.now().minusDays(1);
-        return reportRepository.findRecentApprovedReportsByLine(lineId, oneDayAgo)
+        return reportRepository.findRecentApprovedResponsesByLine(lineId, oneDayAgo);
+    }
+
+    /** Approved reports of the last day, at most perStation of them per station. */
+    public Map<Long, List<ReportResponse>> getLatestReportsByStations(Collection<Long> stationIds, int perStation) {
+        if (stationIds.isEmpty()) {
+            return Map.of();
+        }
+        LocalDateTime oneDayAgo = LocalDateTime.now().minusDays(1);
+        return reportRepository.findLatestApprovedResponsesByStations(stationIds, oneDayAgo, perStation)
             .stream()
-            .map(this::convertToResponse)
-            .collect(Collectors.toList());
+            .collect(Collectors.groupingBy(ReportResponse::getStationId));
+    }
+
+    public List<ReportResponse> getLatestUserReports(Long userId, int limit) {
+        return reportRepository.findLatestResponsesByUserId(userId, PageRequest.of(0, limit));
     }
 
     public List<ReportResponse> getUserReports() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
         
-        return reportRepository.findByUserId(userDetails.getId())
-            .stream()
-            .map(this::convertToResponse)
-            .collect(Collectors.toList());
+        return reportRepository.findResponsesByUserId(userDetails.getId());
     }
 
-    public List<ReportResponse> getPendingReports() {
-        return reportRepository.findPendingReportsOrderByCreatedAt()
-            .stream()
-            .map(this::convertToResponse)
-            .collect(Collectors.toList());
+    public List<ReportResponse> getPendingReports(ModerationQueueService.Order order, int page, int size) {
+        return moderationQueueService.getPage(order, page, size);
+    }
+
+    public int countPendingReports() {
+        return moderationQueueService.size();
     }
 
     @Transactional
@@ -104,22 +228,192 @@ public class ReportService {
         User moderator = userRepository.findById(userDetails.getId())
             .orElseThrow(() -> new ResourceNotFoundException("Modérateur non trouvé"));
 
-        Report report = reportRepository.findById(reportId)
+        Report report = reportRepository.findWithStationById(reportId)
             .orElseThrow(() -> new ResourceNotFoundException("Signalement non trouvé"));
 
+        boolean wasApproved = isApproved(report);
         report.setStatus(status);
         report.setModeratedAt(LocalDateTime.now());
         report.setModeratedBy(moderator);
 
-        Report updatedReport = reportRepository.save(report);
-        return convertToResponse(updatedReport);
+        reportRepository.save(report);
+        publishModerated(List.of(reportId), status);
+        CrowdSample sample = CrowdSample.of(report);
+        if (wasApproved && !isApproved(report)) {
+            afterCommit(() -> retractCrowd(sample));
+        } else if (!wasApproved && isApproved(report)) {
+            afterCommit(() -> recordApproved(sample));
+        }
+        ReportResponse response = reportRepository.findResponseById(reportId)
+            .orElseThrow(() -> new ResourceNotFoundException("Signalement non trouvé"));
+        if (status == Report.ReportStatus.PENDING) {
+            afterCommit(() -> moderationQueueService.add(response));
+        } else {
+            afterCommit(() -> moderationQueueService.remove(List.of(reportId)));
+        }
+        return response;
+    }
+
+    // Applies a whole batch with one locking select and one update per status, whatever its size
+    @Transactional
+    public BulkModerationResponse moderateReports(List<BulkModerationRequest.Decision> decisions) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
+        User moderator = userRepository.getReferenceById(userDetails.getId());
+
+        // The last decision wins when a report appears twice
+        Map<Long, Report.ReportStatus> statusById = new LinkedHashMap<>();
+        decisions.forEach(decision -> statusById.put(decision.getReportId(), decision.getStatus()));
+
+        Set<Long> pendingIds = new HashSet<>(reportRepository.lockPendingIds(statusById.keySet()));
+        List<Long> approvedIds = new ArrayList<>();
+        List<Long> rejectedIds = new ArrayList<>();
+        List<Long> skippedIds = new ArrayList<>();
+        statusById.forEach((reportId, status) -> {
+            if (!pendingIds.contains(reportId) || status == Report.ReportStatus.PENDING) {
+                skippedIds.add(reportId);
+            } else if (status == Report.ReportStatus.APPROVED) {
+                approvedIds.add(reportId);
+            } else {
+                rejectedIds.add(reportId);
+            }
+        });
+
+        LocalDateTime now = LocalDateTime.now();
+        if (!approvedIds.isEmpty()) {
+            reportRepository.updateModeration(approvedIds, Report.ReportStatus.APPROVED, now, moderator);
+            List<CrowdSample> samples = reportRepository.findCrowdSamplesByIds(approvedIds);
+            afterCommit(() -> samples.forEach(this::recordApproved));
+        }
+        if (!rejectedIds.isEmpty()) {
+            reportRepository.updateModeration(rejectedIds, Report.ReportStatus.REJECTED, now, moderator);
+        }
+
+        afterCommit(() -> {
+            moderationQueueService.remove(approvedIds);
+            moderationQueueService.remove(rejectedIds);
+        });
+        publishModerated(approvedIds, Report.ReportStatus.APPROVED);
+        publishModerated(rejectedIds, Report.ReportStatus.REJECTED);
+
+        return BulkModerationResponse.builder()
+            .approved(approvedIds.size())
+            .rejected(rejectedIds.size())
+            .skippedReportIds(skippedIds)
+            .build();
     }
 
     @Transactional
     public void deleteReport(Long reportId) {
-        Report report = reportRepository.findById(reportId)
+        Report report = reportRepository.findWithStationById(reportId)
             .orElseThrow(() -> new ResourceNotFoundException("Signalement non trouvé"));
         reportRepository.delete(report);
+        outboxService.publish(DomainEvent.Type.REPORT_DELETED, reportId, Map.of());
+        CrowdSample sample = CrowdSample.of(report);
+        boolean approved = isApproved(report);
+        afterCommit(() -> {
+            if (approved) {
+                retractCrowd(sample);
+            }
+            moderationQueueService.remove(List.of(reportId));
+        });
+    }
+
+    // Hibernate cannot batch inserts of IDENTITY ids, a JDBC batch sends them in one round trip
+    private List<Long> insertApproved(Long userId, List<BatchReportRequest.Item> items, List<LocalDateTime> createdAts) {
+        GeneratedKeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(
+                "INSERT INTO reports (crowd_level, status, comment, client_key, created_at, user_id, station_id, line_id) " +
+                "VALUES (?, 'APPROVED', ?, ?, ?, ?, ?, ?)", new String[] {"id"}),
+            new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement statement, int i) throws SQLException {
+                    BatchReportRequest.Item item = items.get(i);
+                    statement.setString(1, item.getCrowdLevel().name());
+                    statement.setString(2, item.getComment());
+                    statement.setString(3, item.getClientKey());
+                    statement.setTimestamp(4, Timestamp.valueOf(createdAts.get(i)));
+                    statement.setLong(5, userId);
+                    statement.setObject(6, item.getStationId());
+                    statement.setObject(7, item.getLineId());
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return items.size();
+                }
+            }, keys);
+        return keys.getKeyList().stream().map(row -> ((Number) row.get("id")).longValue()).toList();
+    }
+
+    private static <T> Map<Long, T> findAllById(Function<Set<Long>, List<T>> finder, List<BatchReportRequest.Item> items,
+                                                Function<BatchReportRequest.Item, Long> reference, Function<T, Long> id) {
+        Set<Long> ids = items.stream().map(reference).filter(Objects::nonNull).collect(Collectors.toSet());
+        return ids.isEmpty() ? Map.of() : finder.apply(ids).stream().collect(Collectors.toMap(id, Function.identity()));
+    }
+
+    private static CrowdSample sample(Long userId, BatchReportRequest.Item item, LocalDateTime createdAt, Map<Long, Station> stations) {
+        CrowdSample sample = new CrowdSample();
+        sample.setCrowdLevel(item.getCrowdLevel());
+        sample.setCreatedAt(createdAt);
+        sample.setLineId(item.getLineId());
+        sample.setUserId(userId);
+        Station station = stations.get(item.getStationId());
+        if (station != null) {
+            sample.setStationId(station.getId());
+            sample.setLatitude(station.getLatitude());
+            sample.setLongitude(station.getLongitude());
+        }
+        return sample;
+    }
+
+    private void publishCreated(Long reportId, String comment, Report.ReportStatus status, Report.CrowdLevel crowdLevel,
+                                LocalDateTime createdAt, Long userId, Long stationId, Long lineId) {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("comment", comment);
+        payload.put("status", status);
+        payload.put("crowdLevel", crowdLevel);
+        payload.put("createdAt", createdAt);
+        payload.put("userId", userId);
+        payload.put("stationId", stationId);
+        payload.put("lineId", lineId);
+        outboxService.publish(DomainEvent.Type.REPORT_CREATED, reportId, payload);
+    }
+
+    private void publishModerated(List<Long> reportIds, Report.ReportStatus status) {
+        reportIds.forEach(reportId -> outboxService.publish(DomainEvent.Type.REPORT_MODERATED, reportId, Map.of("status", status)));
+    }
+
+    private boolean isApproved(Report report) {
+        return report.getStatus() == Report.ReportStatus.APPROVED;
+    }
+
+    // An approved report is scored against the consensus before it becomes part of it
+    private void recordApproved(CrowdSample sample) {
+        reputationService.score(sample.getUserId(), sample);
+        recordCrowd(sample);
+    }
+
+    private void recordCrowd(CrowdSample sample) {
+        crowdAggregates.forEach(aggregate -> aggregate.record(sample));
+    }
+
+    private void retractCrowd(CrowdSample sample) {
+        crowdAggregates.forEach(aggregate -> aggregate.retract(sample));
+    }
+
+    // In-memory state only follows committed changes, a rolled back one never reaches it
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
     }
 
     private ReportResponse convertToResponse(Report report) {
@@ -131,6 +425,7 @@ public class ReportService {
             .createdAt(report.getCreatedAt())
             .moderatedAt(report.getModeratedAt())
             .userName(report.getUser().getName())
+            .stationId(report.getStation() != null ? report.getStation().getId() : null)
             .stationName(report.getStation() != null ? report.getStation().getName() : null)
             .lineName(report.getLine() != null ? report.getLine().getName() : null)
             .moderatedByName(report.getModeratedBy() != null ? report.getModeratedBy().getName() : null)
@@ -0,0 +1,156 @@
+package com.myway.transport.service;
+
+import com.myway.transport.dto.CrowdSample;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-user reputation, an exponentially weighted average of how far each of the user's
+ * station reports was from the station's consensus when it was made (1 = same level,
+ * 0 = FAIBLE against FORT). Scores live in memory and are written to users.reputation
+ * periodically; with several instances the last write wins.
+ *
+ * The consensus is the recency-weighted average level of the station's last hour from the
+ * other users, kept here as one crowd window per station minus one per station and reporter,
+ * so that repeating a report does not make a user agree with themselves.
+ */
+@Service
+@Slf4j
+public class ReputationService implements CrowdAggregate {
+
+    // Benefit of the doubt for users without scored reports
+    static final double INITIAL_SCORE = 0.75;
+    static final double MIN_WEIGHT = 0.1;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final double alpha;
+    private final int minConsensusReports;
+
+    private final Map<Long, CrowdWindow> stations = new ConcurrentHashMap<>();
+    private final Map<StationUser, CrowdWindow> reporters = new ConcurrentHashMap<>();
+    private final Map<Long, Double> scores = new ConcurrentHashMap<>();
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+
+    public ReputationService(JdbcTemplate jdbcTemplate,
+                             @Value("${app.reputation.alpha:0.1}") double alpha,
+                             @Value("${app.reputation.min-consensus-reports:3}") int minConsensusReports) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.alpha = alpha;
+        this.minConsensusReports = minConsensusReports;
+    }
+
+    @Override
+    public void record(CrowdSample sample) {
+        update(sample, 1);
+    }
+
+    @Override
+    public void retract(CrowdSample sample) {
+        update(sample, -1);
+    }
+
+    /**
+     * Scores a report reaching the crowd, on creation or approval, against the station's
+     * consensus, before the report itself is recorded. Reports without a station, approved
+     * once out of the window, or made while the station has too few recent reports from other
+     * users to form a consensus, leave the score unchanged.
+     */
+    public void score(Long userId, CrowdSample sample) {
+        if (userId == null || sample.getStationId() == null || sample.getCreatedAt() == null
+                || CrowdWindow.isExpired(CrowdWindow.toMillis(sample.getCreatedAt()))) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        CrowdWindow.Summary consensus = summarize(stations.get(sample.getStationId()), now)
+            .minus(summarize(reporters.get(new StationUser(sample.getStationId(), userId)), now));
+        if (consensus.count() < minConsensusReports) {
+            return;
+        }
+        double distance = Math.abs(CrowdWindow.levelValue(sample.getCrowdLevel()) - consensus.weightedSum() / consensus.weightSum());
+        double agreement = 1 - distance / 2;
+        scores.merge(userId, INITIAL_SCORE + alpha * (agreement - INITIAL_SCORE),
+            (score, ignored) -> score + alpha * (agreement - score));
+        dirty.add(userId);
+    }
+
+    public double getScore(Long userId) {
+        return userId == null ? INITIAL_SCORE : scores.getOrDefault(userId, INITIAL_SCORE);
+    }
+
+    /** Weight of the user's reports in crowd levels. */
+    public double getWeight(Long userId) {
+        return Math.max(MIN_WEIGHT, getScore(userId));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        jdbcTemplate.query("SELECT id, reputation FROM users WHERE reputation IS NOT NULL",
+            row -> { scores.putIfAbsent(row.getLong(1), row.getDouble(2)); });
+        log.info("Reputation loaded for {} users", scores.size());
+    }
+
+    @Scheduled(initialDelayString = "${app.reputation.persist-interval-ms:60000}",
+               fixedDelayString = "${app.reputation.persist-interval-ms:60000}")
+    public void persist() {
+        // Reporter windows without a report of the last hour are dropped
+        long now = System.currentTimeMillis();
+        reporters.values().removeIf(window -> window.summarize(now).count() == 0);
+
+        List<Object[]> rows = new ArrayList<>();
+        // A score changed after its id is taken is marked dirty again and written next time
+        for (Iterator<Long> ids = dirty.iterator(); ids.hasNext(); ) {
+            Long userId = ids.next();
+            ids.remove();
+            rows.add(new Object[] {scores.get(userId), userId});
+        }
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE users SET reputation = ? WHERE id = ?", rows);
+            log.debug("Persisted the reputation of {} users", rows.size());
+        }
+    }
+
+    @PreDestroy
+    public void persistOnShutdown() {
+        try {
+            persist();
+        } catch (RuntimeException e) {
+            log.warn("Could not persist reputation scores on shutdown", e);
+        }
+    }
+
+    private void update(CrowdSample sample, int delta) {
+        if (sample.getStationId() == null || sample.getCreatedAt() == null) {
+            return;
+        }
+        long millis = CrowdWindow.toMillis(sample.getCreatedAt());
+        if (CrowdWindow.isExpired(millis)) {
+            return;
+        }
+        int level = CrowdWindow.levelValue(sample.getCrowdLevel());
+        stations.computeIfAbsent(sample.getStationId(), key -> new CrowdWindow()).add(millis, level, delta);
+        if (sample.getUserId() != null) {
+            reporters.computeIfAbsent(new StationUser(sample.getStationId(), sample.getUserId()), key -> new CrowdWindow())
+                .add(millis, level, delta);
+        }
+    }
+
+    private static CrowdWindow.Summary summarize(CrowdWindow window, long nowMillis) {
+        return window == null ? CrowdWindow.Summary.EMPTY : window.summarize(nowMillis);
+    }
+
+    private record StationUser(Long stationId, Long userId) {
+    }
+}
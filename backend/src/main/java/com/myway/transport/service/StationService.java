@@ -1,6 +1,8 @@
 package com.myway.transport.service;
 
 import com.myway.transport.dto.CrowdLevelResponse;
+import com.myway.transport.dto.CrowdSample;
+import com.myway.transport.dto.DomainEvent;
 import com.myway.transport.dto.StationResponse;
 import com.myway.transport.entity.Report;
 import com.myway.transport.entity.Station;
@@ -9,11 +11,17 @@ import com.myway.transport.exception.ResourceNotFoundException;
 import com.myway.transport.repository.ReportRepository;
 import com.myway.transport.repository.StationRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -24,12 +32,11 @@ public class StationService {
     private final StationRepository stationRepository;
     private final ReportRepository reportRepository;
     private final CrowdPredictionService crowdPredictionService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OutboxService outboxService;
 
     public List<StationResponse> getAllStations() {
-        return stationRepository.findByIsActiveTrue()
-            .stream()
-            .map(this::convertToResponse)
-            .collect(Collectors.toList());
+        return convertToResponses(stationRepository.findByIsActiveTrue());
     }
 
     public StationResponse getStationById(Long id) {
@@ -39,26 +46,17 @@ public class StationService {
     }
 
     public List<StationResponse> searchStations(String name) {
-        return stationRepository.findByNameContainingIgnoreCase(name)
+        return convertToResponses(stationRepository.findByNameContainingIgnoreCase(name)
             .stream()
             .filter(Station::getIsActive)
-            .map(this::convertToResponse)
-            .collect(Collectors.toList());
-    }
-
-    public List<StationResponse> getStationsNearby(Double latitude, Double longitude, Double radius) {
-        return stationRepository.findStationsNearby(latitude, longitude, radius)
-            .stream()
-            .map(this::convertToResponse)
-            .collect(Collectors.toList());
+            .collect(Collectors.toList()));
     }
 
     public List<StationResponse> getStationsByType(Station.StationType type) {
-        return stationRepository.findByType(type)
+        return convertToResponses(stationRepository.findByType(type)
             .stream()
             .filter(Station::getIsActive)
-            .map(this::convertToResponse)
-            .collect(Collectors.toList());
+            .collect(Collectors.toList()));
     }
 
     public CrowdLevelResponse getStationCrowdLevel(Long stationId) {
@@ -83,10 +81,56 @@ public class StationService {
             .build();
     }
 
+    /** Active stations among the given ids, in the order of the ids. */
+    public List<StationResponse> getActiveStationsByIds(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Station> stations = stationRepository.findAllById(ids).stream()
+            .filter(Station::getIsActive)
+            .collect(Collectors.toMap(Station::getId, Function.identity()));
+        return convertToResponses(ids.stream().map(stations::get).filter(Objects::nonNull).collect(Collectors.toList()));
+    }
+
+    /**
+     * Crowd levels of several stations from one query over their week of reports, computed as
+     * getStationCrowdLevel does. Station names are left to the caller.
+     */
+    public Map<Long, CrowdLevelResponse> getStationCrowdLevels(Collection<Long> stationIds) {
+        if (stationIds.isEmpty()) {
+            return Map.of();
+        }
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime oneHourAgo = now.minusHours(1);
+        Map<Long, List<CrowdSample>> weekByStation = reportRepository
+            .findApprovedCrowdSamplesByStationsSince(stationIds, now.minusWeeks(1))
+            .stream()
+            .collect(Collectors.groupingBy(CrowdSample::getStationId));
+
+        Map<Long, CrowdLevelResponse> levels = new HashMap<>();
+        for (Long stationId : stationIds) {
+            List<CrowdSample> weekReports = weekByStation.getOrDefault(stationId, List.of());
+            List<CrowdSample> recentReports = weekReports.stream()
+                .filter(report -> !report.getCreatedAt().isBefore(oneHourAgo))
+                .collect(Collectors.toList());
+            levels.put(stationId, CrowdLevelResponse.builder()
+                .stationId(stationId)
+                .currentLevel(crowdPredictionService.calculateCurrentCrowdLevel(recentReports))
+                .predictedLevel(crowdPredictionService.predictCrowdLevel(weekReports, now.toLocalTime()))
+                .confidence(crowdPredictionService.calculateConfidence(recentReports.size()))
+                .lastUpdated(recentReports.isEmpty() ? null : recentReports.get(0).getCreatedAt())
+                .reportsCount(recentReports.size())
+                .build());
+        }
+        return levels;
+    }
+
     @Transactional
     public StationResponse createStation(Station station) {
         station.setIsActive(true);
         Station savedStation = stationRepository.save(station);
+        eventPublisher.publishEvent(NetworkChangedEvent.of(savedStation.getCity()));
+        outboxService.publish(DomainEvent.Type.STATION_CREATED, savedStation.getId(), cityPayload(savedStation.getCity()));
         return convertToResponse(savedStation);
     }
 
@@ -94,6 +138,7 @@ public class StationService {
     public StationResponse updateStation(Long id, Station stationDetails) {
         Station station = stationRepository.findById(id)
             .orElseThrow(() -> new ResourceNotFoundException("Station non trouvée avec l'ID: " + id));
+        String previousCity = station.getCity();
 
         station.setName(stationDetails.getName());
         station.setLatitude(stationDetails.getLatitude());
@@ -103,6 +148,10 @@ public class StationService {
         station.setCity(stationDetails.getCity());
 
         Station updatedStation = stationRepository.save(station);
+        eventPublisher.publishEvent(NetworkChangedEvent.of(previousCity, updatedStation.getCity()));
+        Map<String, Object> payload = cityPayload(updatedStation.getCity());
+        payload.put("previousCity", previousCity);
+        outboxService.publish(DomainEvent.Type.STATION_UPDATED, id, payload);
         return convertToResponse(updatedStation);
     }
 
@@ -112,16 +161,45 @@ public class StationService {
             .orElseThrow(() -> new ResourceNotFoundException("Station non trouvée avec l'ID: " + id));
         station.setIsActive(false);
         stationRepository.save(station);
+        eventPublisher.publishEvent(NetworkChangedEvent.of(station.getCity()));
+        outboxService.publish(DomainEvent.Type.STATION_DELETED, id, cityPayload(station.getCity()));
+    }
+
+    private static Map<String, Object> cityPayload(String city) {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("city", city);
+        return payload;
+    }
+
+    // Loads the recent reports of the whole listing in one query instead of one per station
+    private List<StationResponse> convertToResponses(List<Station> stations) {
+        if (stations.isEmpty()) {
+            return List.of();
+        }
+
+        List<Long> stationIds = stations.stream().map(Station::getId).collect(Collectors.toList());
+        LocalDateTime oneHourAgo = LocalDateTime.now().minusHours(1);
+        Map<Long, List<Report>> reportsByStation = reportRepository
+            .findRecentApprovedReportsByStations(stationIds, oneHourAgo)
+            .stream()
+            .collect(Collectors.groupingBy(report -> report.getStation().getId()));
+
+        return stations.stream()
+            .map(station -> convertToResponse(station, reportsByStation.getOrDefault(station.getId(), List.of())))
+            .collect(Collectors.toList());
     }
 
     private StationResponse convertToResponse(Station station) {
+        LocalDateTime oneHourAgo = LocalDateTime.now().minusHours(1);
+        return convertToResponse(station, reportRepository.findRecentApprovedReportsByStation(station.getId(), oneHourAgo));
+    }
+
+    private StationResponse convertToResponse(Station station, List<Report> recentReports) {
         List<String> lineNames = station.getLines() != null ? 
             station.getLines().stream()
                 .map(TransportLine::getName)
                 .collect(Collectors.toList()) : List.of();
 
-        LocalDateTime oneHourAgo = LocalDateTime.now().minusHours(1);
-        List<Report> recentReports = reportRepository.findRecentApprovedReportsByStation(station.getId(), oneHourAgo);
         Report.CrowdLevel currentLevel = calculateCurrentCrowdLevel(recentReports);
 
         return StationResponse.builder()
@@ -141,33 +219,6 @@ public class StationService {
     }
 
     private Report.CrowdLevel calculateCurrentCrowdLevel(List<Report> reports) {
-        if (reports.isEmpty()) {
-            return Report.CrowdLevel.MOYEN; // Default level
-        }
-
-        // Calculate weighted average based on report recency
-        double totalWeight = 0;
-        double weightedSum = 0;
-        LocalDateTime now = LocalDateTime.now();
-
-        for (Report report : reports) {
-            long minutesAgo = java.time.Duration.between(report.getCreatedAt(), now).toMinutes();
-            double weight = Math.max(0.1, 1.0 - (minutesAgo / 60.0)); // Decrease weight over time
-            
-            int levelValue = switch (report.getCrowdLevel()) {
-                case FAIBLE -> 1;
-                case MOYEN -> 2;
-                case FORT -> 3;
-            };
-            
-            weightedSum += levelValue * weight;
-            totalWeight += weight;
-        }
-
-        double averageLevel = weightedSum / totalWeight;
-        
-        if (averageLevel <= 1.5) return Report.CrowdLevel.FAIBLE;
-        if (averageLevel <= 2.5) return Report.CrowdLevel.MOYEN;
-        return Report.CrowdLevel.FORT;
+        return crowdPredictionService.calculateCurrentCrowdLevel(CrowdPredictionService.toSamples(reports));
     }
 }
@@ -0,0 +1,257 @@
+package com.myway.transport.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Cache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Fills the database with a city-scale synthetic network before the application reports ready.
+ * Rows are written with plain JDBC batches, the generated stations, lines and users are tagged
+ * with a "SYN" prefix so they are easy to recognize.
+ */
+@Component
+@ConditionalOnProperty(name = "app.synthetic.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class SyntheticDatasetGenerator implements ApplicationRunner {
+
+    // Bounding box of greater Casablanca
+    private static final double MIN_LATITUDE = 33.47;
+    private static final double MAX_LATITUDE = 33.65;
+    private static final double MIN_LONGITUDE = -7.72;
+    private static final double MAX_LONGITUDE = -7.45;
+
+    // "password", same hash as the seeded accounts in data.sql
+    private static final String PASSWORD_HASH = "$2a$10$92IXUNpkjO0rOQ5byMi.Ye4oKoEa3Ro9llC/.og/at2.uheWG/igi";
+
+    // Relative report volume per hour of day, with the morning and evening peaks
+    private static final double[] HOURLY_WEIGHTS = {
+        0.2, 0.1, 0.1, 0.1, 0.3, 1.0, 3.0, 9.0, 10.0, 6.0, 3.0, 2.5,
+        3.0, 3.0, 2.5, 3.0, 5.0, 9.0, 9.5, 6.0, 3.0, 2.0, 1.0, 0.5
+    };
+
+    private static final String[] COMMENTS = {
+        "Bus bondé", "Tramway plein à craquer", "Beaucoup d'attente", "Panne signalée",
+        "Peu de monde", "Affluence normale", "Retard important", "Station calme",
+        "Impossible de monter", "Climatisation en panne"
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Value("${app.synthetic.stations:3000}")
+    private int stationCount;
+
+    @Value("${app.synthetic.lines:300}")
+    private int lineCount;
+
+    @Value("${app.synthetic.stops-per-line:25}")
+    private int stopsPerLine;
+
+    @Value("${app.synthetic.users:20000}")
+    private int userCount;
+
+    @Value("${app.synthetic.reports:1000000}")
+    private int reportCount;
+
+    @Value("${app.synthetic.days:7}")
+    private int days;
+
+    @Value("${app.synthetic.batch-size:5000}")
+    private int batchSize;
+
+    @Value("${app.synthetic.seed:42}")
+    private long seed;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.currentTimeMillis();
+        SplittableRandom random = new SplittableRandom(seed);
+
+        long[] stationIds = insertStations(random);
+        long[] lineIds = insertLines(random);
+        long[][] lineStops = linkStations(random, stationIds, lineIds);
+        long[] userIds = insertUsers();
+        insertReports(random, lineIds, lineStops, userIds);
+
+        // Rows were written behind Hibernate's back, entities, collections and query results are all stale
+        entityManagerFactory.unwrap(Cache.class).evictAllRegions();
+
+        log.info("Synthetic dataset generated in {} ms: {} stations, {} lines, {} users, {} reports",
+            System.currentTimeMillis() - start, stationCount, lineCount, userCount, reportCount);
+    }
+
+    private long[] insertStations(SplittableRandom random) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        String sql = "INSERT INTO stations (name, latitude, longitude, type, city, is_active, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, true, ?, ?)";
+        List<Object[]> rows = new ArrayList<>(batchSize);
+        for (int i = 0; i < stationCount; i++) {
+            double latitude = MIN_LATITUDE + random.nextDouble() * (MAX_LATITUDE - MIN_LATITUDE);
+            double longitude = MIN_LONGITUDE + random.nextDouble() * (MAX_LONGITUDE - MIN_LONGITUDE);
+            String type = i % 10 == 0 ? "TRAMWAY" : i % 10 == 1 ? "MIXED" : "BUS";
+            rows.add(new Object[]{"SYN Station " + i, latitude, longitude, type, "Casablanca", now, now});
+            flushIfFull(rows, sql);
+        }
+        flush(rows, sql);
+        return selectIds("SELECT id FROM stations WHERE name LIKE 'SYN Station %' ORDER BY id");
+    }
+
+    private long[] insertLines(SplittableRandom random) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        String sql = "INSERT INTO transport_lines (name, type, color, description, is_active, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, true, ?, ?)";
+        List<Object[]> rows = new ArrayList<>(batchSize);
+        for (int i = 0; i < lineCount; i++) {
+            boolean tramway = i % 20 == 0;
+            String color = String.format("#%06X", random.nextInt(0x1000000));
+            rows.add(new Object[]{"SYN " + (tramway ? "T" : "L") + i, tramway ? "TRAMWAY" : "BUS", color,
+                "Ligne synthétique " + i, now, now});
+            flushIfFull(rows, sql);
+        }
+        flush(rows, sql);
+        return selectIds("SELECT id FROM transport_lines WHERE name LIKE 'SYN %' ORDER BY id");
+    }
+
+    // Each line walks the station list with its own stride, so lines overlap and share transfer stations
+    private long[][] linkStations(SplittableRandom random, long[] stationIds, long[] lineIds) {
+        String linkSql = "INSERT INTO line_stations (line_id, station_id) VALUES (?, ?)";
+        String stopSql = "INSERT INTO line_stops (line_id, station_id, direction, stop_sequence) VALUES (?, ?, ?, ?)";
+        long[][] lineStops = new long[lineIds.length][];
+        List<Object[]> links = new ArrayList<>(batchSize);
+        List<Object[]> stopRows = new ArrayList<>(batchSize);
+        int stops = Math.min(stopsPerLine, stationIds.length);
+        for (int line = 0; line < lineIds.length; line++) {
+            int first = random.nextInt(stationIds.length);
+            int step = 1 + random.nextInt(Math.max(1, stationIds.length / (stops * 4)));
+            lineStops[line] = new long[stops];
+            for (int stop = 0; stop < stops; stop++) {
+                long stationId = stationIds[(first + stop * step) % stationIds.length];
+                lineStops[line][stop] = stationId;
+                links.add(new Object[]{lineIds[line], stationId});
+                stopRows.add(new Object[]{lineIds[line], stationId, "OUTBOUND", stop + 1});
+                stopRows.add(new Object[]{lineIds[line], stationId, "INBOUND", stops - stop});
+                flushIfFull(links, linkSql);
+                flushIfFull(stopRows, stopSql);
+            }
+        }
+        flush(links, linkSql);
+        flush(stopRows, stopSql);
+        return lineStops;
+    }
+
+    private long[] insertUsers() {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        String sql = "INSERT INTO users (name, email, password, role, status, created_at, updated_at, search_name, search_email) " +
+            "VALUES (?, ?, ?, 'USER', 'ACTIVE', ?, ?, LOWER(?), LOWER(?))";
+        List<Object[]> rows = new ArrayList<>(batchSize);
+        for (int i = 0; i < userCount; i++) {
+            String name = "SYN Rider " + i;
+            String email = "rider" + i + "@synthetic.myway.ma";
+            rows.add(new Object[]{name, email, PASSWORD_HASH, now, now, name, email});
+            flushIfFull(rows, sql);
+        }
+        flush(rows, sql);
+        return selectIds("SELECT id FROM users WHERE email LIKE '%@synthetic.myway.ma' ORDER BY id");
+    }
+
+    private void insertReports(SplittableRandom random, long[] lineIds, long[][] lineStops, long[] userIds) {
+        String sql = "INSERT INTO reports (crowd_level, status, comment, created_at, user_id, station_id, line_id) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+        double[] cumulativeHours = cumulative(HOURLY_WEIGHTS);
+        LocalDate today = LocalDate.now();
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> rows = new ArrayList<>(batchSize);
+
+        for (int i = 0; i < reportCount; i++) {
+            // A few hub lines get most of the traffic
+            int line = (int) (lineIds.length * Math.pow(random.nextDouble(), 2));
+            long[] stops = lineStops[line];
+            long stationId = stops[random.nextInt(stops.length)];
+
+            int hour = pick(cumulativeHours, random.nextDouble());
+            LocalDateTime createdAt = today.minusDays(random.nextInt(Math.max(1, days)))
+                .atTime(hour, random.nextInt(60), random.nextInt(60));
+            if (createdAt.isAfter(now)) {
+                createdAt = createdAt.minusDays(1);
+            }
+
+            double status = random.nextDouble();
+            rows.add(new Object[]{
+                crowdLevelFor(hour, random),
+                status < 0.95 ? "APPROVED" : status < 0.99 ? "PENDING" : "REJECTED",
+                random.nextInt(5) == 0 ? COMMENTS[random.nextInt(COMMENTS.length)] : null,
+                Timestamp.valueOf(createdAt),
+                userIds[random.nextInt(userIds.length)],
+                stationId,
+                lineIds[line]
+            });
+            flushIfFull(rows, sql);
+            if ((i + 1) % 100_000 == 0) {
+                log.info("Synthetic reports: {}/{}", i + 1, reportCount);
+            }
+        }
+        flush(rows, sql);
+    }
+
+    private String crowdLevelFor(int hour, SplittableRandom random) {
+        double pressure = HOURLY_WEIGHTS[hour] / 10.0 + random.nextDouble() * 0.5 - 0.25;
+        if (pressure > 0.6) return "FORT";
+        if (pressure > 0.25) return "MOYEN";
+        return "FAIBLE";
+    }
+
+    private void flushIfFull(List<Object[]> rows, String sql) {
+        if (rows.size() >= batchSize) {
+            flush(rows, sql);
+        }
+    }
+
+    private void flush(List<Object[]> rows, String sql) {
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, rows);
+            rows.clear();
+        }
+    }
+
+    private long[] selectIds(String sql) {
+        return jdbcTemplate.queryForList(sql, Long.class).stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static double[] cumulative(double[] weights) {
+        double total = 0;
+        for (double weight : weights) {
+            total += weight;
+        }
+        double[] cumulative = new double[weights.length];
+        double sum = 0;
+        for (int i = 0; i < weights.length; i++) {
+            sum += weights[i];
+            cumulative[i] = sum / total;
+        }
+        return cumulative;
+    }
+
+    private static int pick(double[] cumulative, double value) {
+        for (int i = 0; i < cumulative.length; i++) {
+            if (value <= cumulative[i]) {
+                return i;
+            }
+        }
+        return cumulative.length - 1;
+    }
+}
@@ -0,0 +1,288 @@
+package com.myway.transport.service;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable timetable held in sorted primitive arrays. Departures are grouped by
+ * (station, line) key in a single array, each group sorted by time, so a query is a binary
+ * search per key followed by a forward scan. A departure costs 8 bytes and a trip 13 bytes.
+ */
+final class Timetable {
+
+    static final Timetable EMPTY = new Builder().build();
+
+    private static final int SECONDS_PER_DAY = 24 * 3600;
+
+    // Station id << 32 | line id, sorted; departures of key k are in [offsets[k], offsets[k + 1])
+    private final long[] keys;
+    private final int[] offsets;
+    // Seconds after the service day's midnight << 32 | trip index
+    private final long[] departures;
+    // GTFS times may run past midnight, up to this many extra days
+    private final int overnightDays;
+
+    private final int[] tripServices;
+    private final long[] tripDestinations;
+    private final byte[] tripDirections;
+
+    // Bit 0 is Monday
+    private final byte[] serviceDays;
+    private final long[] serviceStarts;
+    private final long[] serviceEnds;
+    // Service index << 32 | epoch day, sorted, with whether the service is added or removed that day
+    private final long[] exceptions;
+    private final boolean[] exceptionAdded;
+
+    private final Map<Long, String> stationNames;
+    private final Map<Long, String> lineNames;
+
+    record Departure(long lineId, long destinationId, int direction, LocalDateTime time) {
+    }
+
+    private Timetable(Builder builder, long[] keys, int[] offsets, long[] departures, int overnightDays) {
+        this.keys = keys;
+        this.offsets = offsets;
+        this.departures = departures;
+        this.overnightDays = overnightDays;
+        this.tripServices = Arrays.copyOf(builder.tripServices, builder.trips);
+        this.tripDestinations = Arrays.copyOf(builder.tripDestinations, builder.trips);
+        this.tripDirections = Arrays.copyOf(builder.tripDirections, builder.trips);
+        this.serviceDays = Arrays.copyOf(builder.serviceDays, builder.services.size());
+        this.serviceStarts = Arrays.copyOf(builder.serviceStarts, builder.services.size());
+        this.serviceEnds = Arrays.copyOf(builder.serviceEnds, builder.services.size());
+
+        long[] sortedExceptions = builder.exceptions.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+        this.exceptions = sortedExceptions;
+        this.exceptionAdded = new boolean[sortedExceptions.length];
+        for (int i = 0; i < sortedExceptions.length; i++) {
+            exceptionAdded[i] = builder.exceptions.get(sortedExceptions[i]);
+        }
+        this.stationNames = Map.copyOf(builder.stationNames);
+        this.lineNames = Map.copyOf(builder.lineNames);
+    }
+
+    int size() {
+        return departures.length;
+    }
+
+    String stationName(long stationId) {
+        return stationNames.get(stationId);
+    }
+
+    String lineName(long lineId) {
+        return lineNames.get(lineId);
+    }
+
+    /** Departures from the station between from and to inclusive, earliest first, optionally for one line. */
+    List<Departure> departures(long stationId, Long lineId, LocalDateTime from, LocalDateTime to, int limit) {
+        List<Departure> found = new ArrayList<>();
+        int key = lowerBound(keys, 0, keys.length, stationId << 32);
+        for (; key < keys.length && keys[key] >>> 32 == stationId; key++) {
+            long keyLine = keys[key] & 0xFFFFFFFFL;
+            if (lineId == null || lineId == keyLine) {
+                collect(key, keyLine, from, to, limit, found);
+            }
+        }
+        found.sort(Comparator.comparing(Departure::time));
+        return found.size() > limit ? found.subList(0, limit) : found;
+    }
+
+    // Each service day is scanned separately, at most limit departures are taken from each. A service day
+    // only adds departures after its midnight, the scan stops once limit departures before it are found.
+    private void collect(int key, long lineId, LocalDateTime from, LocalDateTime to, int limit, List<Departure> found) {
+        int collected = 0;
+        LocalDateTime latest = null;
+        for (LocalDate day = from.toLocalDate().minusDays(overnightDays); !day.isAfter(to.toLocalDate()); day = day.plusDays(1)) {
+            LocalDateTime midnight = day.atStartOfDay();
+            if (collected >= limit && latest.isBefore(midnight)) {
+                return;
+            }
+            long first = Math.max(0, Duration.between(midnight, from).getSeconds());
+            long last = Duration.between(midnight, to).getSeconds();
+            if (last < 0) {
+                continue;
+            }
+            int taken = 0;
+            for (int i = lowerBound(departures, offsets[key], offsets[key + 1], first << 32);
+                 i < offsets[key + 1] && taken < limit; i++) {
+                long seconds = departures[i] >>> 32;
+                if (seconds > last) {
+                    break;
+                }
+                int trip = (int) departures[i];
+                if (runs(tripServices[trip], day)) {
+                    LocalDateTime time = midnight.plusSeconds(seconds);
+                    found.add(new Departure(lineId, tripDestinations[trip], tripDirections[trip], time));
+                    taken++;
+                    collected++;
+                    if (latest == null || time.isAfter(latest)) {
+                        latest = time;
+                    }
+                }
+            }
+        }
+    }
+
+    private boolean runs(int service, LocalDate day) {
+        long epochDay = day.toEpochDay();
+        int exception = Arrays.binarySearch(exceptions, (long) service << 32 | epochDay);
+        if (exception >= 0) {
+            return exceptionAdded[exception];
+        }
+        return epochDay >= serviceStarts[service] && epochDay <= serviceEnds[service]
+            && (serviceDays[service] & 1 << (day.getDayOfWeek().getValue() - 1)) != 0;
+    }
+
+    private static int lowerBound(long[] values, int from, int to, long value) {
+        int low = from;
+        int high = to;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (values[middle] < value) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /** Collects a feed's trips and stop times, not thread-safe. */
+    static final class Builder {
+
+        private static final byte EVERY_DAY = 0x7F;
+
+        private final Map<String, Integer> services = new HashMap<>();
+        private byte[] serviceDays = new byte[16];
+        private long[] serviceStarts = new long[16];
+        private long[] serviceEnds = new long[16];
+        private final Map<Long, Boolean> exceptions = new HashMap<>();
+
+        private int trips;
+        private int[] tripServices = new int[1024];
+        private long[] tripDestinations = new long[1024];
+        private byte[] tripDirections = new byte[1024];
+
+        private int size;
+        private long[] entryKeys = new long[4096];
+        private long[] entries = new long[4096];
+        private int maxSeconds;
+
+        private final Map<Long, String> stationNames = new HashMap<>();
+        private final Map<Long, String> lineNames = new HashMap<>();
+
+        void service(String serviceId, boolean[] weekDays, LocalDate start, LocalDate end) {
+            int service = serviceIndex(serviceId, (byte) 0);
+            byte days = 0;
+            for (DayOfWeek day : DayOfWeek.values()) {
+                if (weekDays[day.getValue() - 1]) {
+                    days |= 1 << (day.getValue() - 1);
+                }
+            }
+            serviceDays[service] = days;
+            serviceStarts[service] = start.toEpochDay();
+            serviceEnds[service] = end.toEpochDay();
+        }
+
+        void serviceException(String serviceId, LocalDate date, boolean added) {
+            int service = serviceIndex(serviceId, (byte) 0);
+            exceptions.put((long) service << 32 | date.toEpochDay(), added);
+        }
+
+        /** Returns the index of a new trip. Trips of services missing from the calendar run every day. */
+        int trip(String serviceId, int direction) {
+            if (trips == tripServices.length) {
+                tripServices = Arrays.copyOf(tripServices, trips * 2);
+                tripDestinations = Arrays.copyOf(tripDestinations, trips * 2);
+                tripDirections = Arrays.copyOf(tripDirections, trips * 2);
+            }
+            tripServices[trips] = serviceIndex(serviceId, EVERY_DAY);
+            tripDirections[trips] = (byte) direction;
+            return trips++;
+        }
+
+        /** Adds a trip's stops in order. The last stop is its destination, not a departure. */
+        void tripStops(int trip, long lineId, long[] stations, int[] seconds) {
+            int last = stations.length - 1;
+            tripDestinations[trip] = stations[last];
+            for (int i = 0; i < last; i++) {
+                // Stops without a time are not timepoints
+                if (seconds[i] >= 0) {
+                    add(stations[i] << 32 | lineId, (long) seconds[i] << 32 | trip);
+                    maxSeconds = Math.max(maxSeconds, seconds[i]);
+                }
+            }
+        }
+
+        void stationName(long stationId, String name) {
+            stationNames.put(stationId, name);
+        }
+
+        void lineName(long lineId, String name) {
+            lineNames.put(lineId, name);
+        }
+
+        int departures() {
+            return size;
+        }
+
+        Timetable build() {
+            // Counting sort of the entries by key, then each key's departures by time
+            long[] keys = Arrays.stream(entryKeys, 0, size).sorted().distinct().toArray();
+            int[] offsets = new int[keys.length + 1];
+            int[] keyIndexes = new int[size];
+            for (int i = 0; i < size; i++) {
+                keyIndexes[i] = Arrays.binarySearch(keys, entryKeys[i]);
+                offsets[keyIndexes[i] + 1]++;
+            }
+            for (int k = 0; k < keys.length; k++) {
+                offsets[k + 1] += offsets[k];
+            }
+            long[] departures = new long[size];
+            int[] next = Arrays.copyOf(offsets, keys.length);
+            for (int i = 0; i < size; i++) {
+                departures[next[keyIndexes[i]]++] = entries[i];
+            }
+            for (int k = 0; k < keys.length; k++) {
+                Arrays.sort(departures, offsets[k], offsets[k + 1]);
+            }
+            return new Timetable(this, keys, offsets, departures, maxSeconds / SECONDS_PER_DAY);
+        }
+
+        private int serviceIndex(String serviceId, byte defaultDays) {
+            Integer service = services.get(serviceId);
+            if (service != null) {
+                return service;
+            }
+            service = services.size();
+            services.put(serviceId, service);
+            if (service == serviceDays.length) {
+                serviceDays = Arrays.copyOf(serviceDays, service * 2);
+                serviceStarts = Arrays.copyOf(serviceStarts, service * 2);
+                serviceEnds = Arrays.copyOf(serviceEnds, service * 2);
+            }
+            serviceDays[service] = defaultDays;
+            serviceStarts[service] = Long.MIN_VALUE;
+            serviceEnds[service] = Long.MAX_VALUE;
+            return service;
+        }
+
+        private void add(long key, long entry) {
+            if (size == entries.length) {
+                entryKeys = Arrays.copyOf(entryKeys, size * 2);
+                entries = Arrays.copyOf(entries, size * 2);
+            }
+            entryKeys[size] = key;
+            entries[size++] = entry;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.myway.transport.service;
+
+import com.myway.transport.dto.DeparturePage;
+import com.myway.transport.dto.DepartureResponse;
+import com.myway.transport.entity.LineStop;
+import com.myway.transport.exception.InvalidRequestException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Serves departures from the timetable of the last imported GTFS feed. A new feed is
+ * built aside and swapped in whole, readers keep the instance they started with.
+ */
+@Service
+@Slf4j
+public class TimetableService {
+
+    public static final int MAX_DEPARTURES = 200;
+    // How far ahead the next departures are looked for
+    private static final long NEXT_DEPARTURES_HOURS = 24;
+
+    private volatile Timetable timetable = Timetable.EMPTY;
+
+    @Value("${app.schedules.max-range-days:7}")
+    private long maxRangeDays;
+
+    void publish(Timetable timetable) {
+        this.timetable = timetable;
+        log.info("Timetable published with {} departures", timetable.size());
+    }
+
+    public List<DepartureResponse> getNextDepartures(Long stationId, Long lineId, LocalDateTime from, int limit) {
+        return getDepartures(stationId, lineId, from, from.plusHours(NEXT_DEPARTURES_HOURS), limit);
+    }
+
+    public List<DepartureResponse> getDepartures(Long stationId, Long lineId, LocalDateTime from, LocalDateTime to, int limit) {
+        if (to.isBefore(from)) {
+            return List.of();
+        }
+        return departures(stationId, lineId, from, to, Math.min(Math.max(1, limit), MAX_DEPARTURES));
+    }
+
+    // A range holding more than MAX_DEPARTURES is served in pages, each one tells where the next starts
+    public DeparturePage getDeparturePage(Long stationId, Long lineId, LocalDateTime from, LocalDateTime to) {
+        if (to.isBefore(from)) {
+            throw new InvalidRequestException("La fin de la plage horaire précède son début");
+        }
+        if (Duration.between(from, to).compareTo(Duration.ofDays(maxRangeDays)) > 0) {
+            throw new InvalidRequestException("La plage horaire ne peut dépasser " + maxRangeDays + " jours");
+        }
+        // One extra departure tells whether the range goes on
+        List<DepartureResponse> departures = departures(stationId, lineId, from, to, MAX_DEPARTURES + 1);
+        if (departures.size() <= MAX_DEPARTURES) {
+            return DeparturePage.builder().departures(departures).build();
+        }
+        // Departures sharing the time of the first one left out move to the next page, which starts at that time
+        LocalDateTime nextFrom = departures.get(MAX_DEPARTURES).getDepartureTime();
+        List<DepartureResponse> page = departures.stream()
+            .limit(MAX_DEPARTURES)
+            .filter(departure -> departure.getDepartureTime().isBefore(nextFrom))
+            .collect(Collectors.toList());
+        if (page.isEmpty()) {
+            // More than a page at a single time, the rest of that time is skipped
+            return DeparturePage.builder().departures(departures.subList(0, MAX_DEPARTURES)).nextFrom(nextFrom.plusSeconds(1)).build();
+        }
+        return DeparturePage.builder().departures(page).nextFrom(nextFrom).build();
+    }
+
+    private List<DepartureResponse> departures(Long stationId, Long lineId, LocalDateTime from, LocalDateTime to, int limit) {
+        Timetable current = timetable;
+        return current.departures(stationId, lineId, from, to, limit)
+            .stream()
+            .map(departure -> convertToResponse(current, departure))
+            .collect(Collectors.toList());
+    }
+
+    private DepartureResponse convertToResponse(Timetable timetable, Timetable.Departure departure) {
+        return DepartureResponse.builder()
+            .lineId(departure.lineId())
+            .lineName(timetable.lineName(departure.lineId()))
+            .direction(departure.direction() == 0 ? LineStop.Direction.OUTBOUND : LineStop.Direction.INBOUND)
+            .destinationId(departure.destinationId())
+            .destinationName(timetable.stationName(departure.destinationId()))
+            .departureTime(departure.time())
+            .build();
+    }
+}
@@ -0,0 +1,135 @@
+package com.myway.transport.service;
+
+import com.myway.transport.entity.RevokedToken;
+import com.myway.transport.repository.RevokedTokenRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Revoked JWTs, checked on every request from memory in constant time: single tokens by their
+ * id (logout) and all the tokens of a user issued up to a point in time (suspension).
+ *
+ * Revocations are stored in the database, other nodes pick them up on their next sync. An entry
+ * is forgotten once the tokens it revokes have expired, so memory follows the revocations of
+ * the last token lifetime.
+ */
+@Service
+@Slf4j
+public class TokenRevocationService {
+
+    // A revocation committed while a sync reads can carry an earlier time, the next syncs read it again
+    private static final Duration SYNC_OVERLAP = Duration.ofMinutes(1);
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration tokenLifetime;
+
+    // Token id to its expiry in epoch milliseconds
+    private final Map<String, Long> revokedTokens = new ConcurrentHashMap<>();
+    private final Map<Long, UserRevocation> revokedUsers = new ConcurrentHashMap<>();
+    private volatile LocalDateTime lastSync;
+
+    public TokenRevocationService(RevokedTokenRepository revokedTokenRepository,
+                                  TransactionTemplate transactionTemplate,
+                                  @Value("${app.jwt.expiration}") long tokenLifetimeMs) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.tokenLifetime = Duration.ofMillis(tokenLifetimeMs);
+    }
+
+    // Loaded before requests are served, a token revoked on another node is never accepted here
+    @PostConstruct
+    public void initialize() {
+        lastSync = LocalDateTime.now().minus(tokenLifetime);
+        sync();
+        log.info("Token revocations loaded: {} tokens, {} users", revokedTokens.size(), revokedUsers.size());
+    }
+
+    public boolean isRevoked(String tokenId, Long userId, Date issuedAt) {
+        if (tokenId != null && revokedTokens.containsKey(tokenId)) {
+            return true;
+        }
+        UserRevocation revocation = userId != null ? revokedUsers.get(userId) : null;
+        // Issue times are in whole seconds, a token issued in the second of the revocation is revoked too
+        return revocation != null && issuedAt != null && issuedAt.getTime() <= revocation.revokedAtMillis();
+    }
+
+    public void revokeToken(String tokenId, Long userId, Date expiresAt) {
+        RevokedToken revoked = revokedTokenRepository.save(RevokedToken.builder()
+            .jti(tokenId)
+            .userId(userId)
+            .revokedAt(LocalDateTime.now())
+            .expiresAt(toLocalDateTime(expiresAt.getTime()))
+            .build());
+        apply(revoked);
+    }
+
+    /** Revokes every token issued to the user so far, the user has to log in again. */
+    public void revokeUser(Long userId) {
+        LocalDateTime now = LocalDateTime.now();
+        RevokedToken revoked = revokedTokenRepository.save(RevokedToken.builder()
+            .userId(userId)
+            .revokedAt(now)
+            .expiresAt(now.plus(tokenLifetime))
+            .build());
+        // Applied at once, should the transaction roll back the user only has to log in again
+        apply(revoked);
+    }
+
+    @Scheduled(initialDelayString = "${app.jwt.revocation-sync-ms:5000}",
+               fixedDelayString = "${app.jwt.revocation-sync-ms:5000}")
+    public void sync() {
+        LocalDateTime now = LocalDateTime.now();
+        List<RevokedToken> revocations = transactionTemplate.execute(transaction ->
+            revokedTokenRepository.findByRevokedAtGreaterThanEqualAndExpiresAtAfter(lastSync.minus(SYNC_OVERLAP), now));
+        revocations.forEach(this::apply);
+        lastSync = now;
+
+        long nowMillis = System.currentTimeMillis();
+        revokedTokens.values().removeIf(expiresAtMillis -> expiresAtMillis <= nowMillis);
+        revokedUsers.values().removeIf(revocation -> revocation.expiresAtMillis() <= nowMillis);
+    }
+
+    @Scheduled(fixedDelayString = "${app.jwt.revocation-purge-ms:3600000}")
+    public void purge() {
+        Integer deleted = transactionTemplate.execute(transaction -> revokedTokenRepository.deleteExpired(LocalDateTime.now()));
+        if (deleted != null && deleted > 0) {
+            log.debug("Purged {} expired token revocations", deleted);
+        }
+    }
+
+    private void apply(RevokedToken revoked) {
+        long expiresAtMillis = toMillis(revoked.getExpiresAt());
+        if (revoked.getJti() != null) {
+            revokedTokens.put(revoked.getJti(), expiresAtMillis);
+        } else if (revoked.getUserId() != null) {
+            revokedUsers.merge(revoked.getUserId(),
+                new UserRevocation(toMillis(revoked.getRevokedAt()), expiresAtMillis),
+                (current, added) -> added.revokedAtMillis() > current.revokedAtMillis() ? added : current);
+        }
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime toLocalDateTime(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+
+    private record UserRevocation(long revokedAtMillis, long expiresAtMillis) {
+    }
+}
@@ -0,0 +1,204 @@
+package com.myway.transport.service;
+
+import com.myway.transport.dto.VehiclePositionResponse;
+import com.myway.transport.entity.Report;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Latest known position of each vehicle, in preallocated slots of primitive arrays. A vehicle
+ * gets a slot on its first update and keeps it, later updates overwrite the slot in place under
+ * its own lock, so steady-state ingest allocates nothing. Readers use optimistic reads.
+ * Vehicle ids are expected to be stable fleet numbers, the store holds at most capacity of them.
+ * Positions timed ahead of the clock beyond the allowed skew are refused, one would otherwise
+ * hide every later update of its vehicle.
+ */
+@Service
+public class VehiclePositionStore {
+
+    private static final double EARTH_RADIUS_KM = 6371;
+
+    private final int capacity;
+    private final long maxAgeMillis;
+    private final long maxSkewMillis;
+
+    private final ConcurrentHashMap<String, Integer> slots = new ConcurrentHashMap<>();
+    private final AtomicInteger allocated = new AtomicInteger();
+    private final StampedLock[] locks;
+    private final String[] vehicleIds;
+    private final long[] lineIds;
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final long[] timestamps;
+    // Percentage of capacity in use, -1 when the vehicle does not report it
+    private final byte[] occupancies;
+
+    public record OccupancySummary(int vehicles, int averageOccupancy) {
+
+        static final OccupancySummary EMPTY = new OccupancySummary(0, -1);
+
+        public Report.CrowdLevel level() {
+            return averageOccupancy < 0 ? null : crowdLevel(averageOccupancy);
+        }
+    }
+
+    public VehiclePositionStore(@Value("${app.vehicles.capacity:20000}") int capacity,
+                                @Value("${app.vehicles.max-age-seconds:120}") long maxAgeSeconds,
+                                @Value("${app.vehicles.max-clock-skew-seconds:30}") long maxSkewSeconds) {
+        this.capacity = capacity;
+        this.maxAgeMillis = maxAgeSeconds * 1000;
+        this.maxSkewMillis = maxSkewSeconds * 1000;
+        this.locks = new StampedLock[capacity];
+        this.vehicleIds = new String[capacity];
+        this.lineIds = new long[capacity];
+        this.latitudes = new double[capacity];
+        this.longitudes = new double[capacity];
+        this.timestamps = new long[capacity];
+        this.occupancies = new byte[capacity];
+        for (int i = 0; i < capacity; i++) {
+            locks[i] = new StampedLock();
+        }
+    }
+
+    /**
+     * Returns false when the update is older than the stored position, in the future, outside the
+     * coordinate ranges or when the store is full.
+     */
+    public boolean update(String vehicleId, long lineId, double latitude, double longitude, long timestamp, int occupancy) {
+        if (!(latitude >= -90 && latitude <= 90 && longitude >= -180 && longitude <= 180)
+                || timestamp > System.currentTimeMillis() + maxSkewMillis) {
+            return false;
+        }
+        Integer slot = slots.get(vehicleId);
+        if (slot == null) {
+            slot = allocate(vehicleId);
+            if (slot == null) {
+                return false;
+            }
+        }
+        StampedLock lock = locks[slot];
+        long stamp = lock.writeLock();
+        try {
+            if (timestamp < timestamps[slot]) {
+                return false;
+            }
+            vehicleIds[slot] = vehicleId;
+            lineIds[slot] = lineId;
+            latitudes[slot] = latitude;
+            longitudes[slot] = longitude;
+            timestamps[slot] = timestamp;
+            occupancies[slot] = (byte) occupancy;
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public List<VehiclePositionResponse> getVehiclesOnLine(long lineId) {
+        return find((line, latitude, longitude) -> line == lineId);
+    }
+
+    public List<VehiclePositionResponse> getVehiclesNear(double latitude, double longitude, double radiusKm) {
+        return find((line, vehicleLatitude, vehicleLongitude) ->
+            distanceKm(latitude, longitude, vehicleLatitude, vehicleLongitude) <= radiusKm);
+    }
+
+    /** Average occupancy of the recently seen vehicles of a line that report it. */
+    public OccupancySummary getLineOccupancy(long lineId) {
+        int vehicles = 0;
+        int total = 0;
+        for (VehiclePositionResponse vehicle : getVehiclesOnLine(lineId)) {
+            if (vehicle.getOccupancy() != null) {
+                vehicles++;
+                total += vehicle.getOccupancy();
+            }
+        }
+        return vehicles == 0 ? OccupancySummary.EMPTY : new OccupancySummary(vehicles, total / vehicles);
+    }
+
+    public int size() {
+        return allocated.get();
+    }
+
+    /** Occupancy percentage on the same three levels as the reports. */
+    public static Report.CrowdLevel crowdLevel(int occupancy) {
+        if (occupancy >= 75) {
+            return Report.CrowdLevel.FORT;
+        } else if (occupancy >= 40) {
+            return Report.CrowdLevel.MOYEN;
+        }
+        return Report.CrowdLevel.FAIBLE;
+    }
+
+    private Integer allocate(String vehicleId) {
+        return slots.computeIfAbsent(vehicleId, id -> {
+            // The counter stops at capacity, vehicles refused once the store is full do not move it
+            int slot = allocated.getAndUpdate(count -> count < capacity ? count + 1 : count);
+            return slot < capacity ? slot : null;
+        });
+    }
+
+    private interface PositionFilter {
+        boolean test(long lineId, double latitude, double longitude);
+    }
+
+    // Slots are filtered on a consistent snapshot of their primitives, only matches are copied out
+    private List<VehiclePositionResponse> find(PositionFilter filter) {
+        List<VehiclePositionResponse> vehicles = new ArrayList<>();
+        long oldest = System.currentTimeMillis() - maxAgeMillis;
+        int count = size();
+        for (int slot = 0; slot < count; slot++) {
+            StampedLock lock = locks[slot];
+            long stamp = lock.tryOptimisticRead();
+            String vehicleId = vehicleIds[slot];
+            long lineId = lineIds[slot];
+            double latitude = latitudes[slot];
+            double longitude = longitudes[slot];
+            long timestamp = timestamps[slot];
+            int occupancy = occupancies[slot];
+            if (!lock.validate(stamp)) {
+                stamp = lock.readLock();
+                try {
+                    vehicleId = vehicleIds[slot];
+                    lineId = lineIds[slot];
+                    latitude = latitudes[slot];
+                    longitude = longitudes[slot];
+                    timestamp = timestamps[slot];
+                    occupancy = occupancies[slot];
+                } finally {
+                    lock.unlockRead(stamp);
+                }
+            }
+            // A slot is allocated before its first write, until then it has no vehicle id
+            if (vehicleId == null || timestamp < oldest || !filter.test(lineId, latitude, longitude)) {
+                continue;
+            }
+            vehicles.add(VehiclePositionResponse.builder()
+                .vehicleId(vehicleId)
+                .lineId(lineId)
+                .latitude(latitude)
+                .longitude(longitude)
+                .timestamp(LocalDateTime.ofInstant(Instant.ofEpochMilli(timestamp), ZoneId.systemDefault()))
+                .occupancy(occupancy >= 0 ? occupancy : null)
+                .crowdLevel(occupancy >= 0 ? crowdLevel(occupancy) : null)
+                .build());
+        }
+        return vehicles;
+    }
+
+    private static double distanceKm(double latitude1, double longitude1, double latitude2, double longitude2) {
+        // Equirectangular approximation, accurate to well under a percent at city scale
+        double x = Math.toRadians(longitude2 - longitude1) * Math.cos(Math.toRadians((latitude1 + latitude2) / 2));
+        double y = Math.toRadians(latitude2 - latitude1);
+        return Math.sqrt(x * x + y * y) * EARTH_RADIUS_KM;
+    }
+}
@@ -0,0 +1,49 @@
+package com.myway.transport.service;
+
+import com.myway.transport.dto.VehicleIngestResponse;
+import com.myway.transport.dto.VehiclePositionRequest;
+import com.myway.transport.dto.VehiclePositionResponse;
+import com.myway.transport.entity.Station;
+import com.myway.transport.exception.ResourceNotFoundException;
+import com.myway.transport.repository.StationRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.ZoneId;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class VehicleService {
+
+    private final VehiclePositionStore vehiclePositionStore;
+    private final StationRepository stationRepository;
+
+    public VehicleIngestResponse ingestPositions(List<VehiclePositionRequest.Position> positions) {
+        ZoneId zone = ZoneId.systemDefault();
+        int accepted = 0;
+        for (VehiclePositionRequest.Position position : positions) {
+            boolean stored = vehiclePositionStore.update(position.getVehicleId(), position.getLineId(),
+                position.getLatitude(), position.getLongitude(),
+                position.getTimestamp().atZone(zone).toInstant().toEpochMilli(),
+                position.getOccupancy() != null ? position.getOccupancy() : -1);
+            if (stored) {
+                accepted++;
+            }
+        }
+        return VehicleIngestResponse.builder()
+            .accepted(accepted)
+            .ignored(positions.size() - accepted)
+            .build();
+    }
+
+    public List<VehiclePositionResponse> getVehiclesOnLine(Long lineId) {
+        return vehiclePositionStore.getVehiclesOnLine(lineId);
+    }
+
+    public List<VehiclePositionResponse> getVehiclesNearStation(Long stationId, Double radius) {
+        Station station = stationRepository.findById(stationId)
+            .orElseThrow(() -> new ResourceNotFoundException("Station non trouvée avec l'ID: " + stationId));
+        return vehiclePositionStore.getVehiclesNear(station.getLatitude(), station.getLongitude(), radius);
+    }
+}
@@ -1,8 +1,8 @@
 -- Insert test users
-INSERT INTO users (name, email, password, role, status, created_at, updated_at) VALUES
-('Admin User', 'admin@myway.com', '$2a$10$92IXUNpkjO0rOQ5byMi.Ye4oKoEa3Ro9llC/.og/at2.uheWG/igi', 'ADMIN', 'ACTIVE', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP),
-('Test User', 'user@myway.com', '$2a$10$92IXUNpkjO0rOQ5byMi.Ye4oKoEa3Ro9llC/.og/at2.uheWG/igi', 'USER', 'ACTIVE', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP),
-('John Doe', 'john@example.com', '$2a$10$92IXUNpkjO0rOQ5byMi.Ye4oKoEa3Ro9llC/.og/at2.uheWG/igi', 'USER', 'ACTIVE', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP);
+INSERT INTO users (name, email, password, role, status, created_at, updated_at, search_name, search_email) VALUES
+('Admin User', 'admin@myway.com', '$2a$10$92IXUNpkjO0rOQ5byMi.Ye4oKoEa3Ro9llC/.og/at2.uheWG/igi', 'ADMIN', 'ACTIVE', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 'admin user', 'admin@myway.com'),
+('Test User', 'user@myway.com', '$2a$10$92IXUNpkjO0rOQ5byMi.Ye4oKoEa3Ro9llC/.og/at2.uheWG/igi', 'USER', 'ACTIVE', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 'test user', 'user@myway.com'),
+('John Doe', 'john@example.com', '$2a$10$92IXUNpkjO0rOQ5byMi.Ye4oKoEa3Ro9llC/.og/at2.uheWG/igi', 'USER', 'ACTIVE', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 'john doe', 'john@example.com');
 
 -- Insert stations for Casablanca
 INSERT INTO stations (name, latitude, longitude, type, address, city, is_active, created_at, updated_at) VALUES
@@ -45,10 +45,56 @@ INSERT INTO line_stations (line_id, station_id) VALUES
 (5, 6), -- Gauthier
 (5, 2); -- Casa Voyageurs
 
+-- Ordered stops per line and direction
+INSERT INTO line_stops (line_id, station_id, direction, stop_sequence) VALUES
+-- T1 outbound
+(1, 8, 'OUTBOUND', 1),
+(1, 2, 'OUTBOUND', 2),
+(1, 6, 'OUTBOUND', 3),
+(1, 4, 'OUTBOUND', 4),
+-- T1 inbound
+(1, 4, 'INBOUND', 1),
+(1, 6, 'INBOUND', 2),
+(1, 2, 'INBOUND', 3),
+(1, 8, 'INBOUND', 4),
+-- T2 outbound
+(2, 7, 'OUTBOUND', 1),
+(2, 3, 'OUTBOUND', 2),
+(2, 1, 'OUTBOUND', 3),
+-- T2 inbound
+(2, 1, 'INBOUND', 1),
+(2, 3, 'INBOUND', 2),
+(2, 7, 'INBOUND', 3),
+-- L1 outbound
+(3, 3, 'OUTBOUND', 1),
+(3, 5, 'OUTBOUND', 2),
+(3, 6, 'OUTBOUND', 3),
+-- L1 inbound
+(3, 6, 'INBOUND', 1),
+(3, 5, 'INBOUND', 2),
+(3, 3, 'INBOUND', 3),
+-- L2 outbound
+(4, 5, 'OUTBOUND', 1),
+(4, 1, 'OUTBOUND', 2),
+-- L2 inbound
+(4, 1, 'INBOUND', 1),
+(4, 5, 'INBOUND', 2),
+-- L3 outbound
+(5, 6, 'OUTBOUND', 1),
+(5, 2, 'OUTBOUND', 2),
+-- L3 inbound
+(5, 2, 'INBOUND', 1),
+(5, 6, 'INBOUND', 2);
+
 -- Insert sample reports
 INSERT INTO reports (crowd_level, status, comment, created_at, user_id, station_id, line_id) VALUES
-('MOYEN', 'APPROVED', 'Affluence normale en matinée', CURRENT_TIMESTAMP - INTERVAL '2 HOUR', 2, 1, 2),
-('FORT', 'APPROVED', 'Très chargé aux heures de pointe', CURRENT_TIMESTAMP - INTERVAL '1 HOUR', 3, 2, 1),
-('FAIBLE', 'APPROVED', 'Peu de monde cet après-midi', CURRENT_TIMESTAMP - INTERVAL '30 MINUTE', 2, 3, 3),
-('FORT', 'APPROVED', 'Station bondée', CURRENT_TIMESTAMP - INTERVAL '15 MINUTE', 3, 4, 1),
-('MOYEN', 'PENDING', 'Affluence modérée', CURRENT_TIMESTAMP - INTERVAL '5 MINUTE', 2, 5, 4);
+('MOYEN', 'APPROVED', 'Affluence normale en matinée', CURRENT_TIMESTAMP - INTERVAL '2' HOUR, 2, 1, 2),
+('FORT', 'APPROVED', 'Très chargé aux heures de pointe', CURRENT_TIMESTAMP - INTERVAL '1' HOUR, 3, 2, 1),
+('FAIBLE', 'APPROVED', 'Peu de monde cet après-midi', CURRENT_TIMESTAMP - INTERVAL '30' MINUTE, 2, 3, 3),
+('FORT', 'APPROVED', 'Station bondée', CURRENT_TIMESTAMP - INTERVAL '15' MINUTE, 3, 4, 1),
+('MOYEN', 'PENDING', 'Affluence modérée', CURRENT_TIMESTAMP - INTERVAL '5' MINUTE, 2, 5, 4);
+
+-- Insert favourite stations
+INSERT INTO favorite_stations (user_id, station_id, created_at) VALUES
+(2, 1, CURRENT_TIMESTAMP),
+(2, 3, CURRENT_TIMESTAMP);
@@ -0,0 +1,69 @@
+package com.myway.transport.controller;
+
+import com.myway.transport.config.ReactiveReadServer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * The reactive read API must answer exactly like the servlet one.
+ */
+@SpringBootTest(properties = {
+    "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+    "spring.jpa.properties.hibernate.cache.use_query_cache=false",
+    "spring.jpa.show-sql=false",
+    "app.reactive.enabled=true",
+    "app.reactive.port=0"
+})
+@AutoConfigureMockMvc
+@DirtiesContext
+public class ReactiveStationApiTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ReactiveReadServer reactiveReadServer;
+
+    private WebTestClient client;
+
+    @BeforeEach
+    void setUp() {
+        client = WebTestClient.bindToServer().baseUrl("http://localhost:" + reactiveReadServer.getPort()).build();
+    }
+
+    @Test
+    void stationListingsMatchTheServletApi() throws Exception {
+        assertSameBody("/api/stations");
+        assertSameBody("/api/stations/search?name=casa");
+        assertSameBody("/api/stations/nearby?latitude=33.58&longitude=-7.61&radius=10");
+        assertSameBody("/api/stations/nearby?latitude=33.58&longitude=-7.61");
+    }
+
+    @Test
+    void crowdLevelMatchesTheServletApi() throws Exception {
+        assertSameBody("/api/stations/1/crowd-level");
+        assertSameBody("/api/stations/2/crowd-level");
+    }
+
+    @Test
+    void unknownStationIsNotFound() {
+        client.get().uri("/api/stations/999/crowd-level").exchange()
+            .expectStatus().isNotFound()
+            .expectBody().jsonPath("$.message").isEqualTo("Station non trouvée avec l'ID: 999");
+    }
+
+    private void assertSameBody(String uri) throws Exception {
+        String servlet = mockMvc.perform(get(uri)).andReturn().getResponse().getContentAsString();
+        client.get().uri(uri).exchange()
+            .expectStatus().isOk()
+            .expectBody().json(servlet, true);
+    }
+}
@@ -0,0 +1,93 @@
+package com.myway.transport.load;
+
+import com.myway.transport.config.ReactiveReadServer;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the same read-only station mix against the servlet API and the reactive API of one
+ * application, one after the other, at high concurrency.
+ * Run with: mvn test -Pload-test,reactive -Dtest=ReactiveReadLoadTest [-Dload.concurrency=512 -Dload.duration=60]
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "app.reactive.enabled=true",
+    "app.reactive.port=0",
+    "app.synthetic.enabled=true",
+    "app.synthetic.stations=${load.stations:3000}",
+    "app.synthetic.lines=${load.lines:300}",
+    "app.synthetic.users=${load.users:2000}",
+    "app.synthetic.reports=${load.reports:500000}",
+    "spring.jpa.show-sql=false",
+    "logging.level.com.myway.transport=INFO",
+    "logging.level.org.springframework.security=INFO"
+})
+public class ReactiveReadLoadTest {
+
+    // Greater Casablanca, same box as the generator
+    private static final double MIN_LATITUDE = 33.47;
+    private static final double MAX_LATITUDE = 33.65;
+    private static final double MIN_LONGITUDE = -7.72;
+    private static final double MAX_LONGITUDE = -7.45;
+
+    private static final String[] SEARCHES = {"casa", "voyageurs", "station 12", "station 250", "syn station 7"};
+
+    @LocalServerPort
+    private int servletPort;
+
+    @Autowired
+    private ReactiveReadServer reactiveReadServer;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void servletAgainstReactive() throws Exception {
+        long[] stationIds = jdbcTemplate.queryForList("SELECT id FROM stations WHERE is_active = true", Long.class)
+            .stream().mapToLong(Long::longValue).toArray();
+
+        LoadDriver.Report servlet = run("Servlet API (Tomcat + JPA)", "http://localhost:" + servletPort, stationIds);
+        LoadDriver.Report reactive = run("Reactive API (Netty + R2DBC)", "http://localhost:" + reactiveReadServer.getPort(), stationIds);
+
+        System.out.println(servlet.format());
+        System.out.println(reactive.format());
+        assertTrue(servlet.totalRequests() > 0 && reactive.totalRequests() > 0, "No request completed");
+        assertTrue(servlet.errorRate() < 0.01, "Servlet error rate too high: " + servlet.errorRate());
+        assertTrue(reactive.errorRate() < 0.01, "Reactive error rate too high: " + reactive.errorRate());
+    }
+
+    private static LoadDriver.Report run(String title, String baseUrl, long[] stationIds) throws InterruptedException {
+        List<LoadDriver.Scenario> mix = List.of(
+            new LoadDriver.Scenario("GET /nearby", 40, random -> get(baseUrl + String.format(
+                "/api/stations/nearby?latitude=%.5f&longitude=%.5f&radius=1.0",
+                MIN_LATITUDE + random.nextDouble() * (MAX_LATITUDE - MIN_LATITUDE),
+                MIN_LONGITUDE + random.nextDouble() * (MAX_LONGITUDE - MIN_LONGITUDE)))),
+            new LoadDriver.Scenario("GET /{id}/crowd-level", 40, random -> get(baseUrl
+                + "/api/stations/" + stationIds[random.nextInt(stationIds.length)] + "/crowd-level")),
+            new LoadDriver.Scenario("GET /search", 15, random -> get(baseUrl
+                + "/api/stations/search?name=" + SEARCHES[random.nextInt(SEARCHES.length)].replace(" ", "%20"))),
+            new LoadDriver.Scenario("GET /api/stations", 5, random -> get(baseUrl + "/api/stations"))
+        );
+
+        LoadDriver driver = new LoadDriver(
+            Integer.getInteger("load.concurrency", 512),
+            Duration.ofSeconds(Integer.getInteger("load.warmup", 15)),
+            Duration.ofSeconds(Integer.getInteger("load.duration", 60)));
+        return driver.run(title, mix);
+    }
+
+    private static HttpRequest get(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).GET().build();
+    }
+}
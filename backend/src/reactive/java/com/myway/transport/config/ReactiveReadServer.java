@@ -0,0 +1,91 @@
+package com.myway.transport.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.myway.transport.controller.ReactiveStationHandler;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.cors.reactive.CorsWebFilter;
+import org.springframework.web.cors.reactive.UrlBasedCorsConfigurationSource;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.server.adapter.WebHttpHandlerBuilder;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.util.List;
+
+/**
+ * Netty server for the reactive read API, on its own port next to the servlet container.
+ * Its event loop threads serve every request, none is held while the database answers.
+ * Only public GET endpoints are served, so no security filter chain is involved.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "app.reactive.enabled", havingValue = "true")
+public class ReactiveReadServer implements SmartLifecycle {
+
+    private final HttpHandler httpHandler;
+    private final int port;
+    private volatile DisposableServer server;
+
+    public ReactiveReadServer(ReactiveStationHandler stationHandler,
+                              ObjectMapper objectMapper,
+                              @Value("${app.reactive.port:8081}") int port,
+                              @Value("${app.cors.allowed-origins}") List<String> allowedOrigins) {
+        // The application's ObjectMapper, so both APIs write dates and enums the same way
+        HandlerStrategies strategies = HandlerStrategies.builder()
+            .codecs(codecs -> {
+                codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper));
+                codecs.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper));
+            })
+            .build();
+
+        CorsConfiguration cors = new CorsConfiguration();
+        cors.setAllowedOriginPatterns(allowedOrigins);
+        cors.setAllowedMethods(List.of("GET", "OPTIONS"));
+        cors.setAllowedHeaders(List.of("*"));
+        UrlBasedCorsConfigurationSource corsSource = new UrlBasedCorsConfigurationSource();
+        corsSource.registerCorsConfiguration("/**", cors);
+
+        this.httpHandler = WebHttpHandlerBuilder
+            .webHandler(RouterFunctions.toWebHandler(stationHandler.routes(), strategies))
+            .filter(new CorsWebFilter(corsSource))
+            .build();
+        this.port = port;
+    }
+
+    @Override
+    public void start() {
+        server = HttpServer.create()
+            .port(port)
+            .handle(new ReactorHttpHandlerAdapter(httpHandler))
+            .bindNow();
+        log.info("Reactive read API started on port {}", server.port());
+    }
+
+    @Override
+    public void stop() {
+        if (server != null) {
+            server.disposeNow();
+            server = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return server != null;
+    }
+
+    /** The bound port, resolved when 0 was configured. */
+    public int getPort() {
+        return server != null ? server.port() : port;
+    }
+}
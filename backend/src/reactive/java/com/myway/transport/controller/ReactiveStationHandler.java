@@ -0,0 +1,107 @@
+package com.myway.transport.controller;
+
+import com.myway.transport.dto.StationResponse;
+import com.myway.transport.exception.ErrorResponse;
+import com.myway.transport.exception.ResourceNotFoundException;
+import com.myway.transport.service.ReactiveStationService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+import static org.springframework.web.reactive.function.server.RequestPredicates.GET;
+import static org.springframework.web.reactive.function.server.RouterFunctions.route;
+
+/**
+ * Station reads of the reactive API, same paths, parameters and responses as StationController.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(name = "app.reactive.enabled", havingValue = "true")
+public class ReactiveStationHandler {
+
+    private final ReactiveStationService reactiveStationService;
+
+    public RouterFunction<ServerResponse> routes() {
+        return route(GET("/api/stations"), this::getAllStations)
+            .andRoute(GET("/api/stations/search"), this::searchStations)
+            .andRoute(GET("/api/stations/nearby"), this::getStationsNearby)
+            .andRoute(GET("/api/stations/{id}/crowd-level"), this::getStationCrowdLevel)
+            .filter((request, next) -> Mono.defer(() -> next.handle(request)).onErrorResume(this::handleError));
+    }
+
+    public Mono<ServerResponse> getAllStations(ServerRequest request) {
+        return ServerResponse.ok().body(reactiveStationService.getAllStations(), StationResponse.class);
+    }
+
+    public Mono<ServerResponse> searchStations(ServerRequest request) {
+        String name = requiredParam(request, "name");
+        return ServerResponse.ok().body(reactiveStationService.searchStations(name), StationResponse.class);
+    }
+
+    public Mono<ServerResponse> getStationsNearby(ServerRequest request) {
+        Double latitude = doubleParam(request, "latitude", null);
+        Double longitude = doubleParam(request, "longitude", null);
+        Double radius = doubleParam(request, "radius", 1.0);
+        return ServerResponse.ok().body(reactiveStationService.getStationsNearby(latitude, longitude, radius), StationResponse.class);
+    }
+
+    public Mono<ServerResponse> getStationCrowdLevel(ServerRequest request) {
+        Long id = parse(request.pathVariable("id"), "id");
+        // Resolved before the response is built, so an unknown station still gets its 404
+        return reactiveStationService.getStationCrowdLevel(id).flatMap(level -> ServerResponse.ok().bodyValue(level));
+    }
+
+    private Mono<ServerResponse> handleError(Throwable ex) {
+        if (ex instanceof ResourceNotFoundException) {
+            return error(HttpStatus.NOT_FOUND, "Resource Not Found", ex.getMessage());
+        }
+        if (ex instanceof ServerWebInputException input) {
+            return error(HttpStatus.BAD_REQUEST, "Bad Request", input.getReason());
+        }
+        log.error("Unexpected error occurred", ex);
+        return error(HttpStatus.INTERNAL_SERVER_ERROR, "Internal Server Error", "Une erreur inattendue s'est produite");
+    }
+
+    private static Mono<ServerResponse> error(HttpStatus status, String error, String message) {
+        return ServerResponse.status(status).bodyValue(ErrorResponse.builder()
+            .timestamp(LocalDateTime.now())
+            .status(status.value())
+            .error(error)
+            .message(message)
+            .build());
+    }
+
+    private static String requiredParam(ServerRequest request, String name) {
+        return request.queryParam(name)
+            .orElseThrow(() -> new ServerWebInputException("Paramètre obligatoire manquant: " + name));
+    }
+
+    private static Double doubleParam(ServerRequest request, String name, Double defaultValue) {
+        if (defaultValue != null && request.queryParam(name).isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Double.valueOf(requiredParam(request, name));
+        } catch (NumberFormatException e) {
+            throw new ServerWebInputException("Paramètre invalide: " + name);
+        }
+    }
+
+    private static Long parse(String value, String name) {
+        try {
+            return Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new ServerWebInputException("Paramètre invalide: " + name);
+        }
+    }
+}
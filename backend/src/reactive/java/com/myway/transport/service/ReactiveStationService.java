@@ -0,0 +1,151 @@
+package com.myway.transport.service;
+
+import com.myway.transport.dto.CrowdLevelResponse;
+import com.myway.transport.dto.CrowdSample;
+import com.myway.transport.dto.StationResponse;
+import com.myway.transport.entity.Report;
+import com.myway.transport.entity.Station;
+import com.myway.transport.exception.ResourceNotFoundException;
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Non-blocking counterpart of the StationService reads, on R2DBC. Responses are the same,
+ * crowd levels are computed by CrowdPredictionService from the same reports.
+ */
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.reactive.enabled", havingValue = "true")
+public class ReactiveStationService {
+
+    private static final String ACTIVE = "s.is_active = true";
+    private static final String NAME_CONTAINS = ACTIVE + " AND LOWER(s.name) LIKE :pattern ESCAPE '\\'";
+    private static final String NEARBY = ACTIVE + " AND (6371 * acos(cos(radians(:lat)) * cos(radians(s.latitude)) * " +
+        "cos(radians(s.longitude) - radians(:lng)) + sin(radians(:lat)) * sin(radians(s.latitude)))) < :radius";
+
+    private final DatabaseClient reactiveDatabaseClient;
+    private final CrowdPredictionService crowdPredictionService;
+
+    public Flux<StationResponse> getAllStations() {
+        return findStations(ACTIVE, Map.of());
+    }
+
+    public Flux<StationResponse> searchStations(String name) {
+        String pattern = "%" + name.toLowerCase().replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+        return findStations(NAME_CONTAINS, Map.of("pattern", pattern));
+    }
+
+    public Flux<StationResponse> getStationsNearby(Double latitude, Double longitude, Double radius) {
+        return findStations(NEARBY, Map.of("lat", latitude, "lng", longitude, "radius", radius));
+    }
+
+    public Mono<CrowdLevelResponse> getStationCrowdLevel(Long stationId) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime oneHourAgo = now.minusHours(1);
+
+        Mono<String> stationName = reactiveDatabaseClient.sql("SELECT name FROM stations WHERE id = :id")
+            .bind("id", stationId)
+            .map(row -> row.get("name", String.class))
+            .one()
+            .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Station non trouvée avec l'ID: " + stationId)));
+        // The week of history behind the prediction also holds the last hour
+        Mono<List<CrowdSample>> weekReports = reactiveDatabaseClient.sql(
+                "SELECT r.user_id, r.crowd_level, r.created_at FROM reports r " +
+                "WHERE r.station_id = :id AND r.status = 'APPROVED' AND r.created_at >= :since ORDER BY r.created_at DESC")
+            .bind("id", stationId)
+            .bind("since", now.minusWeeks(1))
+            .map(ReactiveStationService::toSample)
+            .all()
+            .collectList();
+
+        return Mono.zip(stationName, weekReports).map(result -> {
+            List<CrowdSample> recentReports = result.getT2().stream()
+                .filter(report -> !report.getCreatedAt().isBefore(oneHourAgo))
+                .toList();
+            return CrowdLevelResponse.builder()
+                .stationId(stationId)
+                .stationName(result.getT1())
+                .currentLevel(crowdPredictionService.calculateCurrentCrowdLevel(recentReports))
+                .predictedLevel(crowdPredictionService.predictCrowdLevel(result.getT2(), now.toLocalTime()))
+                .confidence(crowdPredictionService.calculateConfidence(recentReports.size()))
+                .lastUpdated(recentReports.isEmpty() ? null : recentReports.get(0).getCreatedAt())
+                .reportsCount(recentReports.size())
+                .build();
+        });
+    }
+
+    // Stations, their line names and their reports of the last hour are read concurrently, one statement each
+    private Flux<StationResponse> findStations(String where, Map<String, Object> parameters) {
+        String stationIds = "SELECT s.id FROM stations s WHERE " + where;
+
+        Mono<List<StationResponse>> stations = bind(reactiveDatabaseClient.sql(
+                "SELECT s.id, s.name, s.latitude, s.longitude, s.type, s.address, s.city, s.is_active, s.created_at " +
+                "FROM stations s WHERE " + where + " ORDER BY s.id"), parameters)
+            .map(ReactiveStationService::toResponse)
+            .all()
+            .collectList();
+        Mono<Map<Long, Collection<String>>> lineNames = bind(reactiveDatabaseClient.sql(
+                "SELECT ls.station_id, l.name FROM line_stations ls JOIN transport_lines l ON l.id = ls.line_id " +
+                "WHERE ls.station_id IN (" + stationIds + ")"), parameters)
+            .map(row -> Map.entry(row.get("station_id", Long.class), row.get("name", String.class)))
+            .all()
+            .collectMultimap(Map.Entry::getKey, Map.Entry::getValue);
+        Mono<Map<Long, Collection<CrowdSample>>> recentReports = bind(reactiveDatabaseClient.sql(
+                "SELECT r.station_id, r.user_id, r.crowd_level, r.created_at FROM reports r " +
+                "WHERE r.status = 'APPROVED' AND r.created_at >= :since AND r.station_id IN (" + stationIds + ")"), parameters)
+            .bind("since", LocalDateTime.now().minusHours(1))
+            .map(row -> Map.entry(row.get("station_id", Long.class), toSample(row)))
+            .all()
+            .collectMultimap(Map.Entry::getKey, Map.Entry::getValue);
+
+        return Mono.zip(stations, lineNames, recentReports).flatMapIterable(result -> {
+            for (StationResponse station : result.getT1()) {
+                List<CrowdSample> reports = new ArrayList<>(result.getT3().getOrDefault(station.getId(), List.of()));
+                station.setLineNames(new ArrayList<>(result.getT2().getOrDefault(station.getId(), List.of())));
+                station.setCurrentCrowdLevel(crowdPredictionService.calculateCurrentCrowdLevel(reports));
+                station.setRecentReportsCount(reports.size());
+            }
+            return result.getT1();
+        });
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bind(DatabaseClient.GenericExecuteSpec spec, Map<String, Object> parameters) {
+        for (Map.Entry<String, Object> parameter : parameters.entrySet()) {
+            spec = spec.bind(parameter.getKey(), parameter.getValue());
+        }
+        return spec;
+    }
+
+    private static StationResponse toResponse(Readable row) {
+        return StationResponse.builder()
+            .id(row.get("id", Long.class))
+            .name(row.get("name", String.class))
+            .latitude(row.get("latitude", Double.class))
+            .longitude(row.get("longitude", Double.class))
+            .type(Station.StationType.valueOf(row.get("type", String.class)))
+            .address(row.get("address", String.class))
+            .city(row.get("city", String.class))
+            .isActive(row.get("is_active", Boolean.class))
+            .createdAt(row.get("created_at", LocalDateTime.class))
+            .build();
+    }
+
+    private static CrowdSample toSample(Readable row) {
+        return CrowdSample.builder()
+            .userId(row.get("user_id", Long.class))
+            .crowdLevel(Report.CrowdLevel.valueOf(row.get("crowd_level", String.class)))
+            .createdAt(row.get("created_at", LocalDateTime.class))
+            .build();
+    }
+}
@@ -0,0 +1,119 @@
+package com.myway.transport.config;
+
+import com.myway.transport.security.UserDetailsImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ReplicaRoutingDataSourceTest {
+
+    private EmbeddedDatabase primary;
+    private EmbeddedDatabase replica;
+    private ReadYourWritesTracker tracker;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnlyTransaction;
+    private TransactionTemplate writeTransaction;
+
+    @BeforeEach
+    void setUp() {
+        primary = createDatabase("primary");
+        replica = createDatabase("replica");
+        tracker = new ReadYourWritesTracker(60_000);
+        useRouting(new ReplicaRoutingDataSource(primary, List.of(replica), tracker));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        primary.shutdown();
+        replica.shutdown();
+    }
+
+    @Test
+    void readOnlyTransactionsGoToReplica() {
+        assertEquals("replica", readOnlyTransaction.execute(status -> currentNode()));
+    }
+
+    @Test
+    void writeTransactionsStayOnPrimary() {
+        assertEquals("primary", writeTransaction.execute(status -> currentNode()));
+    }
+
+    @Test
+    void readsFallBackToPrimaryWhenReplicaIsDown() throws SQLException {
+        DataSource brokenReplica = mock(DataSource.class);
+        when(brokenReplica.getConnection()).thenThrow(new SQLException("replica unreachable"));
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, List.of(brokenReplica), tracker);
+        useRouting(routing);
+
+        assertEquals("primary", readOnlyTransaction.execute(status -> currentNode()));
+        assertEquals(0, routing.getHealthyReplicaCount());
+    }
+
+    @Test
+    void healthCheckRestoresRecoveredReplica() throws SQLException {
+        DataSource flakyReplica = mock(DataSource.class);
+        when(flakyReplica.getConnection())
+            .thenThrow(new SQLException("replica unreachable"))
+            .thenAnswer(invocation -> replica.getConnection());
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, List.of(flakyReplica), tracker);
+        useRouting(routing);
+
+        assertEquals("primary", readOnlyTransaction.execute(status -> currentNode()));
+        routing.checkReplicaHealth();
+
+        assertEquals(1, routing.getHealthyReplicaCount());
+        assertEquals("replica", readOnlyTransaction.execute(status -> currentNode()));
+    }
+
+    @Test
+    void userWhoJustWroteReadsFromPrimary() {
+        UserDetailsImpl user = new UserDetailsImpl(2L, "Test", "user@myway.com", "password", List.of());
+        SecurityContextHolder.getContext().setAuthentication(
+            new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+
+        tracker.recordWrite(2L);
+
+        assertEquals("primary", readOnlyTransaction.execute(status -> currentNode()));
+        assertFalse(tracker.isPinned(3L));
+    }
+
+    private void useRouting(ReplicaRoutingDataSource routing) {
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        writeTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    private String currentNode() {
+        return jdbcTemplate.queryForObject("SELECT name FROM node", String.class);
+    }
+
+    private static EmbeddedDatabase createDatabase(String name) {
+        EmbeddedDatabase database = new EmbeddedDatabaseBuilder()
+            .setType(EmbeddedDatabaseType.H2)
+            .setName(name + "-routing-test")
+            .build();
+        new JdbcTemplate(database).execute("CREATE TABLE node (name VARCHAR(20))");
+        new JdbcTemplate(database).update("INSERT INTO node (name) VALUES (?)", name);
+        return database;
+    }
+}
@@ -0,0 +1,167 @@
+package com.myway.transport.config;
+
+import com.myway.transport.entity.Station;
+import com.myway.transport.repository.StationRepository;
+import com.myway.transport.security.UserDetailsImpl;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.orm.jpa.hibernate.SpringImplicitNamingStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Same routing as {@link ReplicaRoutingDataSourceTest}, but through Spring Data repositories and the
+ * {@link JpaTransactionManager}, where the connection is only fetched once Hibernate runs its first query.
+ */
+@SpringJUnitConfig(ReplicaRoutingJpaTest.JpaConfig.class)
+@DirtiesContext
+public class ReplicaRoutingJpaTest {
+
+    @Autowired
+    private StationRepository stationRepository;
+
+    @Autowired
+    private ReadYourWritesTracker tracker;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EmbeddedDatabase primary;
+
+    @Autowired
+    private EmbeddedDatabase replica;
+
+    private Long stationId;
+
+    @BeforeEach
+    void setUp() {
+        stationRepository.deleteAll();
+        stationId = new TransactionTemplate(transactionManager).execute(status -> stationRepository.save(Station.builder()
+            .name("Gare du primaire")
+            .latitude(33.59)
+            .longitude(-7.61)
+            .type(Station.StationType.TRAMWAY)
+            .city("Casablanca")
+            .isActive(true)
+            .createdAt(LocalDateTime.now())
+            .build()).getId());
+
+        // The replica starts as a copy of the primary, then lags behind on the station name
+        JdbcTemplate replicaJdbc = new JdbcTemplate(replica);
+        replicaJdbc.execute("DROP ALL OBJECTS");
+        new JdbcTemplate(primary).queryForList("SCRIPT", String.class).forEach(replicaJdbc::execute);
+        replicaJdbc.update("UPDATE stations SET name = 'Gare du réplica' WHERE id = ?", stationId);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void readOnlyRepositoryReadsGoToReplica() {
+        assertEquals("Gare du réplica", stationRepository.findById(stationId).orElseThrow().getName());
+    }
+
+    @Test
+    void readsInsideWriteTransactionStayOnPrimary() {
+        String name = new TransactionTemplate(transactionManager)
+            .execute(status -> stationRepository.findById(stationId).orElseThrow().getName());
+
+        assertEquals("Gare du primaire", name);
+    }
+
+    @Test
+    void userWhoJustWroteReadsFromPrimary() {
+        UserDetailsImpl user = new UserDetailsImpl(2L, "Test", "user@myway.com", "password", List.of());
+        SecurityContextHolder.getContext().setAuthentication(
+            new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+
+        tracker.recordWrite(2L);
+
+        assertEquals("Gare du primaire", stationRepository.findById(stationId).orElseThrow().getName());
+    }
+
+    @Configuration
+    @EnableTransactionManagement
+    @EnableJpaRepositories(basePackageClasses = StationRepository.class, includeFilters =
+        @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = StationRepository.class))
+    static class JpaConfig {
+
+        @Bean
+        EmbeddedDatabase primary() {
+            return createDatabase("primary");
+        }
+
+        @Bean
+        EmbeddedDatabase replica() {
+            return createDatabase("replica");
+        }
+
+        @Bean
+        ReadYourWritesTracker readYourWritesTracker() {
+            return new ReadYourWritesTracker(60_000);
+        }
+
+        @Bean
+        DataSource dataSource(EmbeddedDatabase primary, EmbeddedDatabase replica, ReadYourWritesTracker tracker) {
+            return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primary, List.of(replica), tracker));
+        }
+
+        @Bean
+        LocalContainerEntityManagerFactoryBean entityManagerFactory(DataSource dataSource) {
+            LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+            factory.setDataSource(dataSource);
+            factory.setPackagesToScan(Station.class.getPackageName());
+            factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+            factory.setJpaPropertyMap(Map.of(
+                "hibernate.hbm2ddl.auto", "create",
+                "hibernate.cache.use_second_level_cache", "false",
+                "hibernate.physical_naming_strategy", CamelCaseToUnderscoresNamingStrategy.class.getName(),
+                "hibernate.implicit_naming_strategy", SpringImplicitNamingStrategy.class.getName()));
+            return factory;
+        }
+
+        @Bean
+        JpaTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+            return new JpaTransactionManager(entityManagerFactory);
+        }
+
+        private static EmbeddedDatabase createDatabase(String name) {
+            return new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .setName(name + "-jpa-routing-test")
+                .build();
+        }
+    }
+}
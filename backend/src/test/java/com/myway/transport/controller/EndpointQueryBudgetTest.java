@@ -0,0 +1,443 @@
+package com.myway.transport.controller;
+
+import com.jayway.jsonpath.JsonPath;
+import com.myway.transport.dto.GtfsImportStatus;
+import com.myway.transport.security.UserDetailsImpl;
+import com.myway.transport.service.GtfsImportService;
+import com.myway.transport.service.NetworkBundleService;
+import com.myway.transport.support.QueryBudget;
+import com.myway.transport.support.QueryBudgetExtension;
+import com.myway.transport.support.SqlStatementRecorder;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Statement budgets per endpoint, measured with the second-level cache disabled so they
+ * reflect the cold path. Listing budgets must not depend on the number of rows returned.
+ *
+ * Every statement sent to the data source during the request counts, including JdbcTemplate
+ * batches and the work of other threads. Each test runs in a transaction rolled back afterwards
+ * so that none sees the changes of another; what its commit would send is sent before that.
+ */
+@SpringBootTest(properties = {
+    "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+    "spring.jpa.properties.hibernate.cache.use_query_cache=false",
+    "spring.jpa.show-sql=false",
+    "app.vehicles.feeder-key=budget-test-key"
+})
+@AutoConfigureMockMvc
+@ExtendWith(QueryBudgetExtension.class)
+@Import(SqlStatementRecorder.class)
+@Transactional
+public class EndpointQueryBudgetTest {
+
+    private static final String STATION_JSON =
+        "{\"name\":\"Anfa\",\"latitude\":33.59,\"longitude\":-7.65,\"type\":\"BUS\",\"city\":\"Casablanca\"}";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private GtfsImportService gtfsImportService;
+
+    @Autowired
+    private NetworkBundleService networkBundleService;
+
+    // Runs before the budget is checked: the pending changes and the outbox batch
+    @AfterEach
+    void flushAsOnCommit() {
+        entityManager.flush();
+        TransactionSynchronizationUtils.triggerBeforeCommit(false);
+    }
+
+    // Station endpoints
+
+    @Test
+    @QueryBudget(3)
+    void getAllStations() throws Exception {
+        mockMvc.perform(get("/api/stations")).andExpect(status().isOk());
+    }
+
+    @Test
+    @QueryBudget(3)
+    void getStationById() throws Exception {
+        mockMvc.perform(get("/api/stations/2")).andExpect(status().isOk());
+    }
+
+    @Test
+    @QueryBudget(3)
+    void searchStations() throws Exception {
+        mockMvc.perform(get("/api/stations/search").param("name", "casa")).andExpect(status().isOk());
+    }
+
+    @Test
+    @QueryBudget(3)
+    void getStationsNearby() throws Exception {
+        mockMvc.perform(get("/api/stations/nearby")
+                .param("latitude", "33.58")
+                .param("longitude", "-7.61")
+                .param("radius", "10"))
+            .andExpect(status().isOk());
+    }
+
+    // The city's shard is loaded on first use, then served from memory
+    @Test
+    @QueryBudget(3)
+    void getStationsOfCity() throws Exception {
+        mockMvc.perform(get("/api/stations").param("city", "Casablanca")).andExpect(status().isOk());
+    }
+
+    @Test
+    @QueryBudget(3)
+    void searchStationsOfCity() throws Exception {
+        mockMvc.perform(get("/api/stations/search").param("name", "casa").param("city", "casablanca"))
+            .andExpect(status().isOk());
+    }
+
+    @Test
+    @QueryBudget(3)
+    void getStationsByType() throws Exception {
+        mockMvc.perform(get("/api/stations/type/BUS")).andExpect(status().isOk());
+    }
+
+    @Test
+    @QueryBudget(3)
+    void getStationCrowdLevel() throws Exception {
+        mockMvc.perform(get("/api/stations/2/crowd-level")).andExpect(status().isOk());
+    }
+
+    @Test
+    @QueryBudget(3)
+    void createStation() throws Exception {
+        mockMvc.perform(post("/api/stations").with(admin())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(STATION_JSON))
+            .andExpect(status().isOk());
+    }
+
+    @Test
+    @QueryBudget(5)
+    void updateStation() throws Exception {
+        mockMvc.perform(put("/api/stations/7").with(admin())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(STATION_JSON))
+            .andExpect(status().isOk());
+    }
+
+    @Test
+    @QueryBudget(3)
+    void deleteStation() throws Exception {
+        mockMvc.perform(delete("/api/stations/8").with(admin())).andExpect(status().isNoContent());
+    }
+
+    // Report endpoints
+
+    @Test
+    @QueryBudget(5)
+    void createReport() throws Exception {
+        mockMvc.perform(post("/api/reports").with(rider())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"crowdLevel\":\"FORT\",\"stationId\":1,\"lineId\":2}"))
+            .andExpect(status().isOk());
+    }
+
+    // One batched insert for the reports and one for their events, whatever the size of the batch
+    @Test
+    @QueryBudget(5)
+    void createReportsInBatch() throws Exception {
+        StringBuilder reports = new StringBuilder("{\"reports\":[");
+        for (int i = 0; i < 50; i++) {
+            reports.append(i == 0 ? "" : ",").append("{\"clientKey\":\"budget-").append(i)
+                .append("\",\"crowdLevel\":\"MOYEN\",\"stationId\":").append(1 + i % 5).append(",\"lineId\":").append(1 + i % 3).append('}');
+        }
+        mockMvc.perform(post("/api/reports/batch").with(rider())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(reports.append("]}").toString()))
+            .andExpect(status().isOk());
+    }
+
+    @Test
+    @QueryBudget(1)
+    void getReportsByStation() throws Exception {
+        mockMvc.perform(get("/api/reports/station/2").with(rider())).andExpect(status().isOk());
+    }
+
+    @Test
+    @QueryBudget(1)
+    void getReportsByLine() throws Exception {
+        mockMvc.perform(get("/api/reports/line/1").with(rider())).andExpect(status().isOk());
+    }
+
+    @Test
+    @QueryBudget(1)
+    void getUserReports() throws Exception {
+        mockMvc.perform(get("/api/reports/my-reports").with(rider())).andExpect(status().isOk());
+    }
+
+    @Test
+    @QueryBudget(0)
+    void getPendingReports() throws Exception {
+        mockMvc.perform(get("/api/reports/pending").with(admin())
+                .param("order", "STATION")
+                .param("size", "20"))
+            .andExpect(status().isOk());
+    }
+
+    @Test
+    @QueryBudget(5)
+    void moderateReport() throws Exception {
+        mockMvc.perform(put("/api/reports/5/moderate").with(admin()).param("status", "APPROVED"))
+            .andExpect(status().isOk());
+    }
+
+    @Test
+    @QueryBudget(4)
+    void moderateReportsInBulk() throws Exception {
+        StringBuilder decisions = new StringBuilder("{\"decisions\":[{\"reportId\":5,\"status\":\"APPROVED\"}");
+        for (long id = 100; id < 400; id++) {
+            decisions.append(",{\"reportId\":").append(id).append(",\"status\":\"REJECTED\"}");
+        }
+        mockMvc.perform(put("/api/reports/moderate").with(admin())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(decisions.append("]}").toString()))
+            .andExpect(status().isOk());
+    }
+
+    // Streamed from a single cursor, whatever the number of reports
+    @Test
+    @QueryBudget(1)
+    void exportReports() throws Exception {
+        MvcResult started = mockMvc.perform(get("/api/reports/export").with(admin()))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        mockMvc.perform(asyncDispatch(started)).andExpect(status().isOk());
+    }
+
+    @Test
+    @QueryBudget(3)
+    void deleteReport() throws Exception {
+        mockMvc.perform(delete("/api/reports/3").with(admin())).andExpect(status().isNoContent());
+    }
+
+    // Line endpoints
+
+    @Test
+    @QueryBudget(2)
+    void getLineStops() throws Exception {
+        mockMvc.perform(get("/api/lines/1/stops")).andExpect(status().isOk());
+    }
+
+    @Test
+    @QueryBudget(2)
+    void getLineCrowd() throws Exception {
+        mockMvc.perform(get("/api/lines/1/crowd").param("direction", "INBOUND")).andExpect(status().isOk());
+    }
+
+    // Crowd endpoints
+
+    @Test
+    @QueryBudget(0)
+    void getCrowdTile() throws Exception {
+        mockMvc.perform(get("/api/crowd/tiles/12/1961/1641")).andExpect(status().isOk());
+    }
+
+    // Network endpoints
+
+    @Test
+    @QueryBudget(0)
+    void getNetworkBundle() throws Exception {
+        mockMvc.perform(get("/api/network/bundle").header("Accept-Encoding", "gzip, br")).andExpect(status().isOk());
+    }
+
+    // Schedule endpoints
+
+    @Test
+    @QueryBudget(0)
+    void getNextDepartures() throws Exception {
+        mockMvc.perform(get("/api/schedules/stations/1/next").param("lineId", "1")).andExpect(status().isOk());
+    }
+
+    // Vehicle endpoints
+
+    @Test
+    @QueryBudget(0)
+    void ingestVehiclePositions() throws Exception {
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        mockMvc.perform(post("/api/vehicles/positions")
+                .header("X-Feeder-Key", "budget-test-key")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"positions\":[" +
+                    "{\"vehicleId\":\"T1-04\",\"lineId\":1,\"latitude\":33.589,\"longitude\":-7.590,\"timestamp\":\"" + now + "\",\"occupancy\":60}," +
+                    "{\"vehicleId\":\"T1-05\",\"lineId\":1,\"latitude\":33.595,\"longitude\":-7.610,\"timestamp\":\"" + now + "\"}]}"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.accepted").value(2));
+    }
+
+    @Test
+    @QueryBudget(0)
+    void getVehiclesOnLine() throws Exception {
+        mockMvc.perform(get("/api/vehicles/line/1")).andExpect(status().isOk());
+    }
+
+    // Admin endpoints
+
+    @Test
+    @QueryBudget(7)
+    void getAdminStats() throws Exception {
+        mockMvc.perform(get("/api/admin/stats").with(admin())).andExpect(status().isOk());
+    }
+
+    @Test
+    @QueryBudget(1)
+    void getUsers() throws Exception {
+        mockMvc.perform(get("/api/admin/users").with(admin())).andExpect(status().isOk());
+    }
+
+    @Test
+    @QueryBudget(2)
+    void searchUsers() throws Exception {
+        mockMvc.perform(get("/api/admin/users").with(admin())
+                .param("search", "jo").param("status", "ACTIVE").param("size", "1"))
+            .andExpect(status().isOk());
+    }
+
+    @Test
+    @QueryBudget(2)
+    void updateUserStatus() throws Exception {
+        mockMvc.perform(put("/api/admin/users/3/status").with(admin()).param("status", "ACTIVE"))
+            .andExpect(status().isOk());
+    }
+
+    // Counts the import run by the upload and the network bundle rebuilt after it, the inserts
+    // batched whatever the size of the feed. The import commits, so the context is not reused.
+    @Test
+    @QueryBudget(19)
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.AFTER_METHOD)
+    void importGtfsFeed() throws Exception {
+        String version = networkBundleService.getVersion();
+
+        String response = mockMvc.perform(multipart("/api/admin/imports/gtfs").file(gtfsFeed()).with(admin())
+                .param("city", "Budgetville"))
+            .andExpect(status().isAccepted())
+            .andReturn().getResponse().getContentAsString();
+
+        GtfsImportStatus status = gtfsImportService.getStatus(JsonPath.read(response, "$.id"));
+        long deadline = System.currentTimeMillis() + 10_000;
+        while ((!finished(status) || networkBundleService.getVersion().equals(version))
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(GtfsImportStatus.State.COMPLETED, status.getState(), status.getError());
+    }
+
+    // Ranked in memory, one statement loads the page of reports
+    @Test
+    @QueryBudget(1)
+    void searchReports() throws Exception {
+        mockMvc.perform(get("/api/admin/reports/search").with(admin())
+                .param("q", "bondée").param("status", "APPROVED"))
+            .andExpect(status().isOk());
+    }
+
+    // User endpoints
+
+    @Test
+    @QueryBudget(4)
+    void getFavoriteStations() throws Exception {
+        mockMvc.perform(get("/api/user/favorites").with(rider())).andExpect(status().isOk());
+    }
+
+    @Test
+    @QueryBudget(3)
+    void addFavoriteStation() throws Exception {
+        mockMvc.perform(put("/api/user/favorites/4").with(rider())).andExpect(status().isNoContent());
+    }
+
+    @Test
+    @QueryBudget(1)
+    void removeFavoriteStation() throws Exception {
+        mockMvc.perform(delete("/api/user/favorites/3").with(rider())).andExpect(status().isNoContent());
+    }
+
+    private static boolean finished(GtfsImportStatus status) {
+        return status.getState() == GtfsImportStatus.State.COMPLETED || status.getState() == GtfsImportStatus.State.FAILED;
+    }
+
+    private static MockMultipartFile gtfsFeed() throws IOException {
+        ByteArrayOutputStream feed = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(feed)) {
+            add(zip, "stops.txt", "stop_id,stop_name,stop_lat,stop_lon\n" +
+                "BV1,Budget A,33.60,-7.61\n" +
+                "BV2,Budget B,33.59,-7.60\n" +
+                "BV3,Budget C,33.58,-7.59\n");
+            add(zip, "routes.txt", "route_id,route_short_name,route_long_name,route_type\n" +
+                "BVR1,BV1,Budget tram,0\n" +
+                "BVR2,BV2,Budget bus,3\n");
+            add(zip, "calendar.txt", "service_id,monday,tuesday,wednesday,thursday,friday,saturday,sunday,start_date,end_date\n" +
+                "WK,1,1,1,1,1,0,0,20260101,20271231\n");
+            add(zip, "trips.txt", "route_id,service_id,trip_id,direction_id\n" +
+                "BVR1,WK,BV1-A,0\n" +
+                "BVR2,WK,BV2-A,1\n");
+            add(zip, "stop_times.txt", "trip_id,arrival_time,departure_time,stop_id,stop_sequence\n" +
+                "BV1-A,08:00:00,08:00:00,BV1,1\n" +
+                "BV1-A,08:05:00,08:05:00,BV2,2\n" +
+                "BV1-A,08:10:00,08:10:00,BV3,3\n" +
+                "BV2-A,09:00:00,09:00:00,BV3,1\n" +
+                "BV2-A,09:07:00,09:07:00,BV2,2\n");
+        }
+        return new MockMultipartFile("file", "budget.zip", "application/zip", feed.toByteArray());
+    }
+
+    private static void add(ZipOutputStream zip, String name, String content) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        zip.write(content.getBytes(StandardCharsets.UTF_8));
+        zip.closeEntry();
+    }
+
+    private static RequestPostProcessor admin() {
+        return principal(1L, "Admin User", "admin@myway.com", "ADMIN");
+    }
+
+    private static RequestPostProcessor rider() {
+        return principal(2L, "Test User", "user@myway.com", "USER");
+    }
+
+    private static RequestPostProcessor principal(Long id, String name, String email, String role) {
+        return user(new UserDetailsImpl(id, name, email, "password",
+            List.of(new SimpleGrantedAuthority("ROLE_" + role))));
+    }
+}
@@ -0,0 +1,123 @@
+package com.myway.transport.controller;
+
+import com.aayushatharva.brotli4j.decoder.Decoder;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.myway.transport.entity.Station;
+import com.myway.transport.service.NetworkBundleService;
+import com.myway.transport.service.StationService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayInputStream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+    "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+    "spring.jpa.properties.hibernate.cache.use_query_cache=false",
+    "spring.jpa.show-sql=false"
+})
+@AutoConfigureMockMvc
+@DirtiesContext
+public class NetworkBundleTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private NetworkBundleService networkBundleService;
+
+    @Autowired
+    private StationService stationService;
+
+    @Test
+    void servesTheBestEncodingTheClientAccepts() throws Exception {
+        MockHttpServletResponse plain = fetch("/api/network/bundle", null);
+        MockHttpServletResponse gzip = fetch("/api/network/bundle", "gzip, deflate");
+        MockHttpServletResponse brotli = fetch("/api/network/bundle", "gzip, deflate, br");
+
+        assertNull(plain.getHeader("Content-Encoding"));
+        assertEquals("gzip", gzip.getHeader("Content-Encoding"));
+        assertEquals("br", brotli.getHeader("Content-Encoding"));
+        assertEquals("gzip", fetch("/api/network/bundle", "br;q=0, gzip").getHeader("Content-Encoding"));
+
+        byte[] json = plain.getContentAsByteArray();
+        assertArrayEquals(json, new GZIPInputStream(new ByteArrayInputStream(gzip.getContentAsByteArray())).readAllBytes());
+        assertArrayEquals(json, Decoder.decompress(brotli.getContentAsByteArray()).getDecompressedData());
+        assertTrue(brotli.getContentAsByteArray().length < json.length);
+
+        JsonNode bundle = objectMapper.readTree(json);
+        assertEquals(networkBundleService.getVersion(), bundle.get("version").asText());
+        assertFalse(bundle.get("stations").isEmpty());
+        assertFalse(bundle.get("lines").get(0).get("stationIds").isEmpty());
+    }
+
+    @Test
+    void currentBundleIsRevalidatedAndVersionedOneIsImmutable() throws Exception {
+        String version = networkBundleService.getVersion();
+        MockHttpServletResponse current = fetch("/api/network/bundle", "gzip");
+
+        assertEquals("no-cache", current.getHeader("Cache-Control"));
+        assertEquals("/api/network/bundle/" + version, current.getHeader("Content-Location"));
+        assertTrue(current.getHeaders("Vary").contains("Accept-Encoding"));
+
+        mockMvc.perform(get("/api/network/bundle")
+                .header("Accept-Encoding", "gzip")
+                .header("If-None-Match", current.getHeader("ETag")))
+            .andExpect(status().isNotModified());
+
+        mockMvc.perform(get("/api/network/bundle/" + version))
+            .andExpect(status().isOk())
+            .andExpect(header().string("Cache-Control", "max-age=31536000, public, immutable"));
+        mockMvc.perform(get("/api/network/bundle/0123456789abcdef"))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void stationChangesPublishANewVersion() throws Exception {
+        String version = networkBundleService.getVersion();
+
+        stationService.createStation(Station.builder()
+            .name("Bundle Test")
+            .latitude(33.6)
+            .longitude(-7.6)
+            .type(Station.StationType.BUS)
+            .city("Casablanca")
+            .build());
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (networkBundleService.getVersion().equals(version) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertNotEquals(version, networkBundleService.getVersion());
+        assertTrue(new String(fetch("/api/network/bundle", null).getContentAsByteArray()).contains("Bundle Test"));
+
+        // The replaced version stays behind its immutable URL
+        MockHttpServletResponse replaced = fetch("/api/network/bundle/" + version, "gzip");
+        assertEquals("max-age=31536000, public, immutable", replaced.getHeader("Cache-Control"));
+        String json = new String(new GZIPInputStream(new ByteArrayInputStream(replaced.getContentAsByteArray())).readAllBytes());
+        assertEquals(version, objectMapper.readTree(json).get("version").asText());
+        assertFalse(json.contains("Bundle Test"));
+    }
+
+    private MockHttpServletResponse fetch(String uri, String acceptEncoding) throws Exception {
+        var request = get(uri);
+        if (acceptEncoding != null) {
+            request.header("Accept-Encoding", acceptEncoding);
+        }
+        return mockMvc.perform(request).andExpect(status().isOk()).andReturn().getResponse();
+    }
+}
@@ -0,0 +1,96 @@
+package com.myway.transport.controller;
+
+import com.myway.transport.security.UserDetailsImpl;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Exports read back against the database, the optional filters of the query compared with
+ * the same selection in SQL.
+ */
+@SpringBootTest(properties = {
+    "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+    "spring.jpa.properties.hibernate.cache.use_query_cache=false",
+    "spring.jpa.show-sql=false",
+    "app.reports.export.timeout-ms=120000"
+})
+@AutoConfigureMockMvc
+public class ReportExportTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void filtersThatAreLeftOutSelectEveryReport() throws Exception {
+        assertEquals(ids("SELECT id FROM reports ORDER BY id"), export(get("/api/reports/export")));
+    }
+
+    @Test
+    void filtersAreCombined() throws Exception {
+        assertEquals(ids("SELECT id FROM reports WHERE status = 'APPROVED' AND station_id = 1 ORDER BY id"),
+            export(get("/api/reports/export").param("status", "APPROVED").param("stationId", "1")));
+        assertEquals(ids("SELECT id FROM reports WHERE line_id = 1 ORDER BY id"),
+            export(get("/api/reports/export").param("lineId", "1")));
+        assertEquals(List.of(), export(get("/api/reports/export").param("lineId", "1").param("status", "PENDING")));
+    }
+
+    @Test
+    void periodIncludesItsStartOnly() throws Exception {
+        LocalDateTime from = jdbcTemplate.queryForObject("SELECT created_at FROM reports WHERE id = 2", LocalDateTime.class);
+        LocalDateTime to = jdbcTemplate.queryForObject("SELECT created_at FROM reports WHERE id = 4", LocalDateTime.class);
+
+        List<Long> exported = export(get("/api/reports/export").param("from", from.toString()).param("to", to.toString()));
+
+        assertEquals(ids("SELECT id FROM reports WHERE created_at >= ? AND created_at < ? ORDER BY id", from, to), exported);
+        assertTrue(exported.contains(2L));
+        assertFalse(exported.contains(4L));
+    }
+
+    @Test
+    void exportGetsItsOwnAsyncTimeout() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/reports/export").with(admin()))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        assertEquals(120_000, result.getRequest().getAsyncContext().getTimeout());
+    }
+
+    private List<Long> export(MockHttpServletRequestBuilder export) throws Exception {
+        MvcResult started = mockMvc.perform(export.with(admin())).andExpect(request().asyncStarted()).andReturn();
+        String csv = mockMvc.perform(asyncDispatch(started))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+        return Arrays.stream(csv.split("\n")).skip(1).map(row -> Long.valueOf(row.substring(0, row.indexOf(',')))).toList();
+    }
+
+    private List<Long> ids(String sql, Object... args) {
+        return jdbcTemplate.queryForList(sql, Long.class, args);
+    }
+
+    private static RequestPostProcessor admin() {
+        return user(new UserDetailsImpl(1L, "Admin User", "admin@myway.com", "password",
+            List.of(new SimpleGrantedAuthority("ROLE_ADMIN"))));
+    }
+}
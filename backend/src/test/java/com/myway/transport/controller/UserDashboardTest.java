@@ -0,0 +1,90 @@
+package com.myway.transport.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.myway.transport.security.UserDetailsImpl;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.StreamSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The dashboard against the database, through the per-station ranking and the crowd samples
+ * of the favourites. The rider of the seed data follows stations 1 and 3.
+ */
+@SpringBootTest(properties = {
+    "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+    "spring.jpa.properties.hibernate.cache.use_query_cache=false",
+    "spring.jpa.show-sql=false",
+    "app.dashboard.reports-per-station=2"
+})
+@AutoConfigureMockMvc
+public class UserDashboardTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void favoritesGetTheirLatestApprovedReportsAndCrowdLevel() throws Exception {
+        // Three more reports at station 1, newest last, and one that is not approved
+        for (int minutes : new int[] {50, 40, 20}) {
+            jdbcTemplate.update("INSERT INTO reports (crowd_level, status, comment, created_at, user_id, station_id, line_id) " +
+                "VALUES ('FORT', 'APPROVED', 'Quai plein', DATEADD('MINUTE', ?, CURRENT_TIMESTAMP), 3, 1, 2)", -minutes);
+        }
+        jdbcTemplate.update("INSERT INTO reports (crowd_level, status, created_at, user_id, station_id) " +
+            "VALUES ('FAIBLE', 'REJECTED', CURRENT_TIMESTAMP, 3, 1)");
+        List<Long> expected = jdbcTemplate.queryForList(
+            "SELECT id FROM reports WHERE station_id = 1 AND status = 'APPROVED' ORDER BY created_at DESC, id DESC LIMIT 2", Long.class);
+
+        JsonNode dashboard = objectMapper.readTree(mockMvc.perform(get("/api/user/dashboard").with(rider()))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString());
+
+        assertTrue(dashboard.get("complete").asBoolean());
+        Map<Long, JsonNode> favorites = new HashMap<>();
+        dashboard.get("favorites").forEach(favorite -> favorites.put(favorite.get("station").get("id").asLong(), favorite));
+        assertEquals(Set.of(1L, 3L), favorites.keySet());
+
+        assertEquals(expected, ids(favorites.get(1L).get("recentReports")));
+        assertEquals(List.of(3L), ids(favorites.get(3L).get("recentReports")));
+
+        JsonNode crowd = favorites.get(1L).get("crowdLevel");
+        assertEquals("FORT", crowd.get("currentLevel").asText());
+        assertEquals("Casa Port", crowd.get("stationName").asText());
+        assertFalse(crowd.get("lastUpdated").isNull());
+        assertEquals("FAIBLE", favorites.get(3L).get("crowdLevel").get("currentLevel").asText());
+
+        assertEquals(jdbcTemplate.queryForList("SELECT id FROM reports WHERE user_id = 2 ORDER BY created_at DESC, id DESC", Long.class),
+            ids(dashboard.get("myReports")));
+    }
+
+    private static List<Long> ids(JsonNode reports) {
+        return StreamSupport.stream(reports.spliterator(), false).map(report -> report.get("id").asLong()).toList();
+    }
+
+    private static RequestPostProcessor rider() {
+        return user(new UserDetailsImpl(2L, "Test User", "user@myway.com", "password",
+            List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+    }
+}
@@ -0,0 +1,203 @@
+package com.myway.transport.load;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Closed-loop HTTP load generator: a fixed number of workers each pick a weighted scenario,
+ * send it and wait for the response. Latencies recorded after the warm-up are reported
+ * per scenario with throughput and percentiles.
+ */
+public class LoadDriver {
+
+    private final HttpClient client;
+    private final int concurrency;
+    private final Duration warmup;
+    private final Duration duration;
+
+    public LoadDriver(int concurrency, Duration warmup, Duration duration) {
+        this.client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+        this.concurrency = concurrency;
+        this.warmup = warmup;
+        this.duration = duration;
+    }
+
+    public static class Scenario {
+        final String name;
+        final double weight;
+        final Function<SplittableRandom, HttpRequest> requestFactory;
+
+        public Scenario(String name, double weight, Function<SplittableRandom, HttpRequest> requestFactory) {
+            this.name = name;
+            this.weight = weight;
+            this.requestFactory = requestFactory;
+        }
+    }
+
+    public Report run(String title, List<Scenario> scenarios) throws InterruptedException {
+        double[] cumulative = new double[scenarios.size()];
+        double total = scenarios.stream().mapToDouble(scenario -> scenario.weight).sum();
+        double sum = 0;
+        for (int i = 0; i < scenarios.size(); i++) {
+            sum += scenarios.get(i).weight;
+            cumulative[i] = sum / total;
+        }
+
+        long measureFrom = System.nanoTime() + warmup.toNanos();
+        long measureUntil = measureFrom + duration.toNanos();
+        Recorder[][] recorders = new Recorder[concurrency][scenarios.size()];
+
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        for (int worker = 0; worker < concurrency; worker++) {
+            Recorder[] own = recorders[worker];
+            for (int i = 0; i < own.length; i++) {
+                own[i] = new Recorder();
+            }
+            SplittableRandom random = new SplittableRandom(worker);
+            workers.execute(() -> {
+                while (System.nanoTime() < measureUntil) {
+                    int index = pick(cumulative, random.nextDouble());
+                    HttpRequest request = scenarios.get(index).requestFactory.apply(random);
+                    long start = System.nanoTime();
+                    boolean ok;
+                    try {
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        ok = response.statusCode() < 400;
+                    } catch (Exception ex) {
+                        ok = false;
+                    }
+                    if (start >= measureFrom) {
+                        own[index].record(System.nanoTime() - start, ok);
+                    }
+                }
+            });
+        }
+        workers.shutdown();
+        workers.awaitTermination(warmup.plus(duration).plusMinutes(1).toMillis(), TimeUnit.MILLISECONDS);
+
+        Report report = new Report(title, duration);
+        for (int i = 0; i < scenarios.size(); i++) {
+            Recorder merged = new Recorder();
+            for (Recorder[] own : recorders) {
+                merged.merge(own[i]);
+            }
+            report.add(scenarios.get(i).name, merged);
+        }
+        return report;
+    }
+
+    private static int pick(double[] cumulative, double value) {
+        for (int i = 0; i < cumulative.length; i++) {
+            if (value <= cumulative[i]) {
+                return i;
+            }
+        }
+        return cumulative.length - 1;
+    }
+
+    static class Recorder {
+        private long[] latencies = new long[1024];
+        private int count;
+        private int errors;
+
+        void record(long latencyNanos, boolean ok) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latencyNanos;
+            if (!ok) {
+                errors++;
+            }
+        }
+
+        void merge(Recorder other) {
+            for (int i = 0; i < other.count; i++) {
+                record(other.latencies[i], true);
+            }
+            errors += other.errors;
+        }
+
+        long[] sorted() {
+            long[] values = Arrays.copyOf(latencies, count);
+            Arrays.sort(values);
+            return values;
+        }
+    }
+
+    public static class Report {
+        private final String title;
+        private final Duration duration;
+        private final List<String> names = new ArrayList<>();
+        private final List<Recorder> recorders = new ArrayList<>();
+
+        Report(String title, Duration duration) {
+            this.title = title;
+            this.duration = duration;
+        }
+
+        void add(String name, Recorder recorder) {
+            names.add(name);
+            recorders.add(recorder);
+        }
+
+        public long totalRequests() {
+            return recorders.stream().mapToLong(recorder -> recorder.count).sum();
+        }
+
+        public long totalErrors() {
+            return recorders.stream().mapToLong(recorder -> recorder.errors).sum();
+        }
+
+        public double throughput() {
+            return totalRequests() / (duration.toMillis() / 1000.0);
+        }
+
+        public double errorRate() {
+            long total = totalRequests();
+            return total == 0 ? 0 : (double) totalErrors() / total;
+        }
+
+        public String format() {
+            StringBuilder out = new StringBuilder()
+                .append("\n=== ").append(title).append(" ===\n")
+                .append(String.format("%-24s %9s %8s %9s %9s %9s %9s %9s%n",
+                    "scenario", "requests", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms"));
+            Recorder all = new Recorder();
+            for (int i = 0; i < names.size(); i++) {
+                out.append(line(names.get(i), recorders.get(i)));
+                all.merge(recorders.get(i));
+            }
+            out.append(line("TOTAL", all));
+            return out.toString();
+        }
+
+        private String line(String name, Recorder recorder) {
+            long[] values = recorder.sorted();
+            return String.format("%-24s %9d %8d %9.1f %9.2f %9.2f %9.2f %9.2f%n",
+                name, values.length, recorder.errors, values.length / (duration.toMillis() / 1000.0),
+                percentile(values, 0.50), percentile(values, 0.95), percentile(values, 0.99),
+                percentile(values, 1.0));
+        }
+
+        private static double percentile(long[] sorted, double quantile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(quantile * sorted.length) - 1;
+            return sorted[Math.max(0, index)] / 1_000_000.0;
+        }
+    }
+}
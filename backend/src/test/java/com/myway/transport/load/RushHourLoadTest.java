@@ -0,0 +1,114 @@
+package com.myway.transport.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Replays a Casablanca morning peak against a synthetic city-scale dataset.
+ * Run with: mvn test -Pload-test [-Dload.concurrency=64 -Dload.duration=60 -Dload.reports=1000000]
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "app.synthetic.enabled=true",
+    "app.synthetic.stations=${load.stations:3000}",
+    "app.synthetic.lines=${load.lines:300}",
+    "app.synthetic.users=${load.users:2000}",
+    "app.synthetic.reports=${load.reports:500000}",
+    "spring.jpa.show-sql=false",
+    "logging.level.com.myway.transport=INFO",
+    "logging.level.org.springframework.security=INFO"
+})
+public class RushHourLoadTest {
+
+    // Greater Casablanca, same box as the generator
+    private static final double MIN_LATITUDE = 33.47;
+    private static final double MAX_LATITUDE = 33.65;
+    private static final double MIN_LONGITUDE = -7.72;
+    private static final double MAX_LONGITUDE = -7.45;
+
+    private static final String[] CROWD_LEVELS = {"FAIBLE", "MOYEN", "FORT", "FORT"};
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void morningPeak() throws Exception {
+        String baseUrl = "http://localhost:" + port;
+        long[] stationIds = jdbcTemplate.queryForList("SELECT id FROM stations WHERE is_active = true", Long.class)
+            .stream().mapToLong(Long::longValue).toArray();
+        List<long[]> stops = jdbcTemplate.query("SELECT line_id, station_id FROM line_stations",
+            (rs, row) -> new long[]{rs.getLong(1), rs.getLong(2)});
+        List<String> tokens = login(baseUrl, Integer.getInteger("load.riders", 20));
+
+        List<LoadDriver.Scenario> mix = List.of(
+            new LoadDriver.Scenario("GET /nearby", 40, random -> get(baseUrl + String.format(
+                "/api/stations/nearby?latitude=%.5f&longitude=%.5f&radius=1.0",
+                MIN_LATITUDE + random.nextDouble() * (MAX_LATITUDE - MIN_LATITUDE),
+                MIN_LONGITUDE + random.nextDouble() * (MAX_LONGITUDE - MIN_LONGITUDE)))),
+            new LoadDriver.Scenario("GET /{id}/crowd-level", 30, random -> get(baseUrl
+                + "/api/stations/" + stationIds[random.nextInt(stationIds.length)] + "/crowd-level")),
+            new LoadDriver.Scenario("GET /api/stations", 10, random -> get(baseUrl + "/api/stations")),
+            new LoadDriver.Scenario("POST /api/reports", 20, random -> {
+                long[] stop = stops.get(random.nextInt(stops.size()));
+                String body = String.format("{\"crowdLevel\":\"%s\",\"stationId\":%d,\"lineId\":%d}",
+                    CROWD_LEVELS[random.nextInt(CROWD_LEVELS.length)], stop[1], stop[0]);
+                return HttpRequest.newBuilder(URI.create(baseUrl + "/api/reports"))
+                    .header("Authorization", "Bearer " + tokens.get(random.nextInt(tokens.size())))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+            })
+        );
+
+        LoadDriver driver = new LoadDriver(
+            Integer.getInteger("load.concurrency", 64),
+            Duration.ofSeconds(Integer.getInteger("load.warmup", 15)),
+            Duration.ofSeconds(Integer.getInteger("load.duration", 60)));
+        LoadDriver.Report report = driver.run("Casablanca morning peak", mix);
+
+        System.out.println(report.format());
+        assertTrue(report.totalRequests() > 0, "No request completed");
+        assertTrue(report.errorRate() < 0.01, "Error rate too high: " + report.errorRate());
+    }
+
+    private List<String> login(String baseUrl, int riders) throws Exception {
+        HttpClient client = HttpClient.newHttpClient();
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < riders; i++) {
+            String body = "{\"email\":\"rider" + i + "@synthetic.myway.ma\",\"password\":\"password\"}";
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/login"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build(),
+                HttpResponse.BodyHandlers.ofString());
+            tokens.add((String) objectMapper.readValue(response.body(), Map.class).get("token"));
+        }
+        return tokens;
+    }
+
+    private static HttpRequest get(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).GET().build();
+    }
+}
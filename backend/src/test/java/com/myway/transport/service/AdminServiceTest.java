@@ -0,0 +1,67 @@
+package com.myway.transport.service;
+
+import com.myway.transport.dto.AdminUserPage;
+import com.myway.transport.dto.AdminUserResponse;
+import com.myway.transport.entity.User;
+import com.myway.transport.repository.ReportRepository;
+import com.myway.transport.repository.StationRepository;
+import com.myway.transport.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class AdminServiceTest {
+
+    private UserRepository userRepository;
+    private AdminService adminService;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        adminService = new AdminService(userRepository, mock(StationRepository.class), mock(ReportRepository.class),
+            mock(TokenRevocationService.class));
+    }
+
+    @Test
+    void fullPageGivesTheCursorOfItsLastUser() {
+        when(userRepository.findUserPage(any(), any(), any(), any(), eq(4))).thenReturn(users(10, 9, 8, 7));
+
+        AdminUserPage page = adminService.getUsers(null, null, null, null, 3);
+
+        assertEquals(List.of(10L, 9L, 8L), page.getUsers().stream().map(AdminUserResponse::getId).toList());
+        assertEquals(8L, page.getNextCursor());
+    }
+
+    @Test
+    void lastPageHasNoCursor() {
+        when(userRepository.findUserPage(eq(8L), any(), any(), any(), anyInt())).thenReturn(users(7, 6));
+
+        AdminUserPage page = adminService.getUsers(null, null, null, 8L, 3);
+
+        assertEquals(2, page.getUsers().size());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void searchIsAnEscapedLowerCasePrefix() {
+        when(userRepository.findUserPage(any(), any(), any(), any(), anyInt())).thenReturn(List.of());
+
+        adminService.getUsers(User.Role.USER, User.UserStatus.ACTIVE, " Jo_n%", null, 1000);
+        adminService.getUsers(null, null, "  ", null, 0);
+
+        verify(userRepository).findUserPage(null, User.Role.USER, User.UserStatus.ACTIVE, "jo\\_n\\%%", AdminService.MAX_PAGE_SIZE + 1);
+        verify(userRepository).findUserPage(null, null, null, null, 2);
+    }
+
+    private static List<AdminUserResponse> users(long... ids) {
+        return LongStream.of(ids).mapToObj(id -> AdminUserResponse.builder().id(id).build()).toList();
+    }
+}
@@ -14,6 +14,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.DisabledException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -34,6 +35,8 @@ public class AuthServiceTest {
     private PasswordEncoder passwordEncoder;
     @Mock
     private JwtTokenProvider tokenProvider;
+    @Mock
+    private TokenRevocationService tokenRevocationService;
     @InjectMocks
     private AuthService authService;
 
@@ -76,6 +79,24 @@ public class AuthServiceTest {
         verify(userRepository).save(any(User.class));
     }
 
+    @Test
+    void loginIsRefusedToSuspendedUsers() {
+        AuthRequest request = new AuthRequest();
+        request.setEmail("test@example.com");
+        request.setPassword("password");
+        User user = User.builder()
+                .id(1L)
+                .email("test@example.com")
+                .role(User.Role.USER)
+                .status(User.UserStatus.SUSPENDED)
+                .build();
+        when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class))).thenReturn(mock(Authentication.class));
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(user));
+
+        assertThrows(DisabledException.class, () -> authService.login(request));
+        verify(tokenProvider, never()).generateToken(any());
+    }
+
     @Test
     void registerCreatesUserAndReturnsAuthResponse() {
         RegisterRequest request = new RegisterRequest();
@@ -0,0 +1,63 @@
+package com.myway.transport.service;
+
+import com.myway.transport.dto.StationResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Nearby searches through the city shards against the distance query they replaced, which
+ * read every active station of the table.
+ */
+@SpringBootTest(properties = {
+    "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+    "spring.jpa.properties.hibernate.cache.use_query_cache=false",
+    "spring.jpa.show-sql=false"
+})
+@DirtiesContext
+public class CityShardServiceTest {
+
+    private static final String NEARBY_SQL = "SELECT id FROM stations s WHERE s.is_active = true AND " +
+        "(6371 * acos(cos(radians(?)) * cos(radians(s.latitude)) * cos(radians(s.longitude) - radians(?)) + " +
+        "sin(radians(?)) * sin(radians(s.latitude)))) < ? ORDER BY id";
+
+    @Autowired
+    private CityShardService cityShardService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void nearbyStationsMatchTheDistanceQuery() {
+        station("Rabat Ville", 34.0136, -6.8326, " Rabat ", true);
+        station("Agdal", 33.9986, -6.8531, "rabat", true);
+        station("Mohammedia", 33.6866, -7.3830, "Mohammedia", true);
+        station("Ancienne gare", 33.5950, -7.6150, "Casablanca", false);
+        // Just around the corner of the Casablanca stations, on a cell border
+        station("Ain Diab", 33.5900, -7.6900, "Casablanca", true);
+        cityShardService.networkChanged(NetworkChangedEvent.all());
+
+        double[][] searches = {
+            {33.5900, -7.6100, 0.5}, {33.5900, -7.6100, 2}, {33.6000, -7.6000, 5}, {33.5731, -7.5999, 10},
+            {33.8000, -7.2000, 30}, {33.8000, -7.2000, 100}, {34.0000, -6.8400, 3}, {33.3000, -7.0000, 400},
+            {0.0, 0.0, 50}, {89.9, 10.0, 20}
+        };
+        for (double[] search : searches) {
+            List<Long> expected = jdbcTemplate.queryForList(NEARBY_SQL, Long.class, search[0], search[1], search[0], search[2]);
+            List<Long> found = cityShardService.getStationsNearby(search[0], search[1], search[2], null).stream()
+                .map(StationResponse::getId).sorted().toList();
+            assertEquals(expected, found, () -> "Around " + search[0] + ", " + search[1] + " within " + search[2] + " km");
+        }
+    }
+
+    private void station(String name, double latitude, double longitude, String city, boolean active) {
+        jdbcTemplate.update("INSERT INTO stations (name, latitude, longitude, type, city, is_active, created_at, updated_at) " +
+            "VALUES (?, ?, ?, 'BUS', ?, ?, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)", name, latitude, longitude, city, active);
+    }
+}
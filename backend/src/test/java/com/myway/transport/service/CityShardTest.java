@@ -0,0 +1,81 @@
+package com.myway.transport.service;
+
+import com.myway.transport.dto.CrowdSample;
+import com.myway.transport.dto.StationResponse;
+import com.myway.transport.entity.Report;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CityShardTest {
+
+    private static final String[] WORDS = {"Casa", "Port", "Gare", "Maârif", "Anfa", "Oasis", "Derb", "Sidi", "Place"};
+
+    @Test
+    void indexesFindWhatAFullScanFinds() {
+        Random random = new Random(42);
+        List<StationResponse> stations = new ArrayList<>();
+        for (long id = 500; id > 0; id--) {
+            stations.add(StationResponse.builder()
+                .id(id)
+                .name(WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " " + id)
+                .latitude(33.50 + random.nextDouble() * 0.15)
+                .longitude(-7.70 + random.nextDouble() * 0.20)
+                .build());
+        }
+        CityShard shard = new CityShard("casablanca", stations);
+
+        for (String query : List.of("ca", "CASA", "gare s", "maâ", "rif 1", "xyz", "asa p")) {
+            List<Long> expected = stations.stream()
+                .filter(station -> station.getName().toLowerCase().contains(query.toLowerCase()))
+                .map(StationResponse::getId).sorted().toList();
+            assertEquals(expected, ids(shard.search(query)), query);
+        }
+        for (double radius : new double[] {0.3, 1.0, 2.5, 50}) {
+            double latitude = 33.58;
+            double longitude = -7.61;
+            List<Long> expected = stations.stream()
+                .filter(station -> CityShard.distanceKm(latitude, longitude, station.getLatitude(), station.getLongitude()) < radius)
+                .map(StationResponse::getId).sorted().toList();
+            assertEquals(expected, ids(shard.nearby(latitude, longitude, radius)), "radius " + radius);
+        }
+    }
+
+    @Test
+    void reportsChangedWhileLoadingWinOverTheDatabaseRead() {
+        CityShard shard = new CityShard("casablanca", List.of(StationResponse.builder().id(1L).name("Casa Port").build()));
+        LocalDateTime now = LocalDateTime.now();
+
+        shard.record(sample(1L, 10L, now));
+        shard.retract(sample(1L, 11L, now));
+        shard.record(sample(99L, 12L, now));
+        shard.fill(List.of(sample(1L, 11L, now), sample(1L, 13L, now), sample(1L, 14L, now.minusHours(2))));
+
+        List<CrowdSample> recent = shard.recentReports(1L, now.minusHours(1));
+        assertEquals(List.of(10L, 13L), recent.stream().map(CrowdSample::getReportId).sorted().toList());
+        assertFalse(shard.contains(99L));
+
+        shard.retract(sample(1L, 10L, now));
+        shard.prune(now.minusHours(1));
+        assertEquals(List.of(13L), shard.recentReports(1L, now.minusHours(3)).stream().map(CrowdSample::getReportId).toList());
+    }
+
+    private static List<Long> ids(List<StationResponse> stations) {
+        return stations.stream().map(StationResponse::getId).toList();
+    }
+
+    private static CrowdSample sample(Long stationId, Long reportId, LocalDateTime createdAt) {
+        return CrowdSample.builder()
+            .stationId(stationId)
+            .reportId(reportId)
+            .userId(2L)
+            .crowdLevel(Report.CrowdLevel.FORT)
+            .createdAt(createdAt)
+            .build();
+    }
+}
@@ -0,0 +1,105 @@
+package com.myway.transport.service;
+
+import com.myway.transport.dto.CrowdSample;
+import com.myway.transport.entity.Report;
+import com.myway.transport.repository.ReportRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class CrowdSnapshotServiceTest {
+
+    private static final LocalDateTime CREATED_AT = LocalDateTime.now().minusMinutes(10).truncatedTo(ChronoUnit.MILLIS);
+
+    @TempDir
+    private Path directory;
+
+    private Path path;
+    private ReportRepository reportRepository;
+
+    @BeforeEach
+    void setUp() {
+        path = directory.resolve("crowd.snapshot");
+        reportRepository = mock(ReportRepository.class);
+    }
+
+    @Test
+    void restoresTheCheckpointAndReplaysOnlyWhatChangedSince() {
+        CrowdSnapshotService before = new CrowdSnapshotService(reportRepository, path.toString());
+        before.record(sample(1L, 1L, 33.59, -7.61));
+        before.record(sample(2L, 1L, 33.59, -7.61));
+        before.record(sample(3L, null, null, null));
+        before.retract(sample(1L, 1L, 33.59, -7.61));
+        before.loaded();
+        before.checkpoint();
+
+        when(reportRepository.findMaxId()).thenReturn(10L);
+        when(reportRepository.findApprovedCrowdSamplesChangedSince(any(), eq(3L), any()))
+            .thenReturn(List.of(sample(4L, 2L, 33.6, -7.62)));
+        when(reportRepository.findIdsUnapprovedSince(any())).thenReturn(List.of(2L));
+
+        List<CrowdSample> restored = new CrowdSnapshotService(reportRepository, path.toString()).restore().orElseThrow();
+
+        restored.sort(Comparator.comparing(CrowdSample::getReportId));
+        assertEquals(List.of(3L, 4L), restored.stream().map(CrowdSample::getReportId).toList());
+        assertEquals(sample(3L, null, null, null), restored.get(0));
+        verify(reportRepository, never()).findApprovedCrowdSamplesSince(any());
+    }
+
+    @Test
+    void ignoresCorruptedStaleOrForeignSnapshots() throws IOException {
+        CrowdSnapshotService service = new CrowdSnapshotService(reportRepository, path.toString());
+        assertTrue(service.restore().isEmpty());
+
+        CrowdSnapshotService.write(path, new CrowdSnapshotService.Checkpoint(
+            System.currentTimeMillis(), 5L, List.of(sample(5L, 1L, 33.59, -7.61))));
+        when(reportRepository.findMaxId()).thenReturn(4L);
+        assertTrue(service.restore().isEmpty(), "the database does not have report 5");
+
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[CrowdSnapshotService.HEADER_BYTES + 3] ^= 1;
+        Files.write(path, bytes);
+        when(reportRepository.findMaxId()).thenReturn(10L);
+        assertTrue(service.restore().isEmpty(), "checksum mismatch");
+
+        CrowdSnapshotService.write(path, new CrowdSnapshotService.Checkpoint(
+            System.currentTimeMillis() - CrowdWindow.LENGTH.toMillis(), 5L, List.of()));
+        assertTrue(service.restore().isEmpty(), "older than the window");
+    }
+
+    @Test
+    void noCheckpointIsWrittenBeforeTheAggregatesAreLoaded() {
+        CrowdSnapshotService service = new CrowdSnapshotService(reportRepository, path.toString());
+        service.record(sample(1L, 1L, 33.59, -7.61));
+
+        service.checkpoint();
+
+        assertFalse(Files.exists(path));
+    }
+
+    private static CrowdSample sample(Long reportId, Long stationId, Double latitude, Double longitude) {
+        return CrowdSample.builder()
+            .reportId(reportId)
+            .stationId(stationId)
+            .latitude(latitude)
+            .longitude(longitude)
+            .lineId(reportId % 2 == 0 ? 7L : null)
+            .userId(2L)
+            .crowdLevel(Report.CrowdLevel.FORT)
+            .createdAt(CREATED_AT)
+            .build();
+    }
+}
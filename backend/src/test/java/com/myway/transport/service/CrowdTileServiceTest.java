@@ -0,0 +1,81 @@
+package com.myway.transport.service;
+
+import com.myway.transport.dto.CrowdSample;
+import com.myway.transport.dto.CrowdTile;
+import com.myway.transport.entity.Report;
+import com.myway.transport.exception.ResourceNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CrowdTileServiceTest {
+
+    // Casa Voyageurs falls in tile 12/1961/1641, cell 218 of a 16x16 grid
+    private static final double LATITUDE = 33.5892;
+    private static final double LONGITUDE = -7.5903;
+
+    private CrowdTileService crowdTileService;
+
+    @BeforeEach
+    void setUp() {
+        crowdTileService = new CrowdTileService(10, 16, 16);
+    }
+
+    @Test
+    void recordedReportsAreAggregatedInTheirCell() {
+        crowdTileService.record(sample(Report.CrowdLevel.FORT, LocalDateTime.now()));
+        crowdTileService.record(sample(Report.CrowdLevel.FORT, LocalDateTime.now().minusMinutes(20)));
+
+        ByteBuffer payload = ByteBuffer.wrap(crowdTileService.getTile(12, 1961, 1641).getPayload());
+
+        assertEquals(1, payload.get());
+        assertEquals(16, payload.get());
+        assertEquals(1, payload.getShort());
+        assertEquals(218, payload.getShort());
+        assertEquals(2, payload.getShort());
+        assertEquals(255, payload.get() & 0xFF);
+    }
+
+    @Test
+    void reportsOutsideTheWindowAreIgnored() {
+        crowdTileService.record(sample(Report.CrowdLevel.FORT, LocalDateTime.now().minusHours(2)));
+
+        assertEquals(4, crowdTileService.getTile(12, 1961, 1641).getPayload().length);
+    }
+
+    @Test
+    void retractedReportsLeaveTheTileAndChangeItsEtag() {
+        CrowdSample sample = sample(Report.CrowdLevel.MOYEN, LocalDateTime.now());
+        crowdTileService.record(sample);
+        CrowdTile before = crowdTileService.getTile(14, 7846, 6567);
+
+        crowdTileService.retract(sample);
+        CrowdTile after = crowdTileService.getTile(14, 7846, 6567);
+
+        assertEquals(9, before.getPayload().length);
+        assertEquals(4, after.getPayload().length);
+        assertNotEquals(before.getEtag(), after.getEtag());
+    }
+
+    @Test
+    void unchangedTilesKeepTheirEtag() {
+        crowdTileService.record(sample(Report.CrowdLevel.FAIBLE, LocalDateTime.now()));
+
+        assertEquals(crowdTileService.getTile(12, 1961, 1641).getEtag(),
+            crowdTileService.getTile(12, 1961, 1641).getEtag());
+    }
+
+    @Test
+    void zoomLevelsOutsideTheServedRangeAreRejected() {
+        assertThrows(ResourceNotFoundException.class, () -> crowdTileService.getTile(8, 122, 102));
+        assertThrows(ResourceNotFoundException.class, () -> crowdTileService.getTile(12, 4096, 0));
+    }
+
+    private static CrowdSample sample(Report.CrowdLevel level, LocalDateTime createdAt) {
+        return new CrowdSample(1L, 1L, LATITUDE, LONGITUDE, level, createdAt, null, null);
+    }
+}
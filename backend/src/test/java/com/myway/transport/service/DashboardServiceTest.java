@@ -0,0 +1,123 @@
+package com.myway.transport.service;
+
+import com.myway.transport.dto.CrowdLevelResponse;
+import com.myway.transport.dto.DashboardResponse;
+import com.myway.transport.dto.ReportResponse;
+import com.myway.transport.dto.StationResponse;
+import com.myway.transport.security.UserDetailsImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class DashboardServiceTest {
+
+    private FavoriteStationService favoriteStationService;
+    private StationService stationService;
+    private ReportService reportService;
+    private DashboardService dashboardService;
+
+    @BeforeEach
+    void setUp() {
+        favoriteStationService = mock(FavoriteStationService.class);
+        stationService = mock(StationService.class);
+        reportService = mock(ReportService.class);
+        dashboardService = dashboardService(4, 16);
+
+        UserDetailsImpl user = new UserDetailsImpl(2L, "Test User", "user@myway.com", "password", List.of());
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(user, null, List.of()));
+
+        when(favoriteStationService.getFavoriteStationIds(2L)).thenReturn(List.of(3L, 1L));
+        when(stationService.getActiveStationsByIds(List.of(3L, 1L))).thenReturn(List.of(station(3L, "Place Mohammed V"), station(1L, "Casa Port")));
+        when(stationService.getStationCrowdLevels(List.of(3L, 1L))).thenReturn(Map.of(
+            3L, CrowdLevelResponse.builder().stationId(3L).build(),
+            1L, CrowdLevelResponse.builder().stationId(1L).build()));
+        when(reportService.getLatestReportsByStations(List.of(3L, 1L), 5))
+            .thenReturn(Map.of(3L, List.of(ReportResponse.builder().id(7L).stationId(3L).build())));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        dashboardService.destroy();
+    }
+
+    @Test
+    void composesFavoritesInTheirOrderWithTheUsersReports() {
+        when(reportService.getLatestUserReports(2L, 20)).thenReturn(List.of(ReportResponse.builder().id(9L).build()));
+
+        DashboardResponse dashboard = dashboardService.getDashboard();
+
+        assertTrue(dashboard.getComplete());
+        assertEquals(List.of(3L, 1L), dashboard.getFavorites().stream().map(favorite -> favorite.getStation().getId()).toList());
+        assertEquals("Place Mohammed V", dashboard.getFavorites().get(0).getCrowdLevel().getStationName());
+        assertEquals(7L, dashboard.getFavorites().get(0).getRecentReports().get(0).getId());
+        assertTrue(dashboard.getFavorites().get(1).getRecentReports().isEmpty());
+        assertEquals(9L, dashboard.getMyReports().get(0).getId());
+    }
+
+    @Test
+    void partOverTheBudgetIsLeftOut() {
+        when(reportService.getLatestUserReports(eq(2L), anyInt())).thenAnswer(invocation -> {
+            Thread.sleep(5_000);
+            return List.of();
+        });
+
+        long start = System.currentTimeMillis();
+        DashboardResponse dashboard = dashboardService.getDashboard();
+
+        assertTrue(System.currentTimeMillis() - start < 2_000);
+        assertFalse(dashboard.getComplete());
+        assertTrue(dashboard.getMyReports().isEmpty());
+        assertEquals(2, dashboard.getFavorites().size());
+        verify(stationService).getStationCrowdLevels(any());
+    }
+
+    @Test
+    void partsBeyondTheQueueAreLeftOutAndLatePartsInterrupted() throws InterruptedException {
+        dashboardService.destroy();
+        dashboardService = dashboardService(1, 1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        when(reportService.getLatestUserReports(eq(2L), anyInt())).thenAnswer(invocation -> {
+            try {
+                Thread.sleep(5_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return List.of();
+        });
+
+        long start = System.currentTimeMillis();
+        DashboardResponse dashboard = dashboardService.getDashboard();
+
+        // The user's reports hold the only thread, the stations wait and the other parts are rejected
+        assertTrue(System.currentTimeMillis() - start < 2_000);
+        assertFalse(dashboard.getComplete());
+        assertTrue(dashboard.getFavorites().isEmpty());
+        verify(stationService, never()).getStationCrowdLevels(any());
+        verify(reportService, never()).getLatestReportsByStations(any(), anyInt());
+        assertTrue(interrupted.await(1, TimeUnit.SECONDS));
+    }
+
+    private DashboardService dashboardService(int threads, int queueCapacity) {
+        return new DashboardService(favoriteStationService, stationService, reportService,
+            mock(PlatformTransactionManager.class), threads, queueCapacity, 500, 5, 20);
+    }
+
+    private static StationResponse station(Long id, String name) {
+        return StationResponse.builder().id(id).name(name).build();
+    }
+}
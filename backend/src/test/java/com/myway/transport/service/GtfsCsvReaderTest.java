@@ -0,0 +1,52 @@
+package com.myway.transport.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GtfsCsvReaderTest {
+
+    @Test
+    void readsColumnsByHeaderName() throws IOException {
+        GtfsCsvReader reader = reader("stop_id,stop_name,stop_lat\r\nS1,Casa Port,33.6069\r\nS2,Maarif,33.5731\r\n");
+
+        assertTrue(reader.next());
+        assertEquals("S1", reader.get("stop_id"));
+        assertEquals("33.6069", reader.get("stop_lat"));
+        assertTrue(reader.next());
+        assertEquals("Maarif", reader.get("stop_name"));
+        assertFalse(reader.next());
+    }
+
+    @Test
+    void handlesQuotesEmbeddedSeparatorsAndLineBreaks() throws IOException {
+        GtfsCsvReader reader = reader("stop_id,stop_name,stop_desc\n" +
+            "S1,\"Boulevard \"\"Zerktouni\"\", Maarif\",\"ligne 1\nligne 2\"\n");
+
+        assertTrue(reader.next());
+        assertEquals("Boulevard \"Zerktouni\", Maarif", reader.get("stop_name"));
+        assertEquals("ligne 1\nligne 2", reader.get("stop_desc"));
+    }
+
+    @Test
+    void treatsEmptyAndMissingValuesAsNull() throws IOException {
+        GtfsCsvReader reader = reader("﻿stop_id,location_type,parent_station\nS1,,\nS2\n\n");
+
+        assertTrue(reader.hasColumn("stop_id"));
+        assertTrue(reader.next());
+        assertEquals("S1", reader.get("stop_id"));
+        assertNull(reader.get("location_type"));
+        assertNull(reader.get("wheelchair_boarding"));
+        assertTrue(reader.next());
+        assertNull(reader.get("parent_station"));
+        assertFalse(reader.next());
+    }
+
+    private static GtfsCsvReader reader(String content) throws IOException {
+        return new GtfsCsvReader(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+    }
+}
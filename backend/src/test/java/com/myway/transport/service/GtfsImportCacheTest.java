@@ -0,0 +1,90 @@
+package com.myway.transport.service;
+
+import com.myway.transport.dto.GtfsImportStatus;
+import com.myway.transport.dto.LineStopResponse;
+import com.myway.transport.entity.LineStop;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Runs with the second-level and query caches of application.properties. Without an embedded Tomcat
+// no handler is registered for classpath: URLs, the Ehcache configuration is found by its resource name.
+@SpringBootTest(properties = {
+    "spring.jpa.properties.hibernate.javax.cache.uri=ehcache.xml",
+    "spring.jpa.show-sql=false"
+})
+@DirtiesContext
+public class GtfsImportCacheTest {
+
+    @Autowired
+    private GtfsImportService gtfsImportService;
+
+    @Autowired
+    private LineService lineService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void lineStopsReadBeforeAnImportAreNotServedAfterIt() throws IOException {
+        importFeed(feed("first.zip", "C1", "C2"));
+        Long lineId = jdbcTemplate.queryForObject("SELECT id FROM transport_lines WHERE external_id = 'RC'", Long.class);
+        assertEquals(List.of("Arrêt C1", "Arrêt C2"), stationNames(lineId));
+
+        importFeed(feed("second.zip", "C2", "C3"));
+
+        assertEquals(List.of("Arrêt C2", "Arrêt C3"), stationNames(lineId));
+    }
+
+    private List<String> stationNames(Long lineId) {
+        return lineService.getLineStops(lineId, LineStop.Direction.OUTBOUND).stream()
+            .map(LineStopResponse::getStationName)
+            .toList();
+    }
+
+    private void importFeed(Path feed) {
+        GtfsImportStatus status = new GtfsImportStatus("test", feed.getFileName().toString());
+        gtfsImportService.importFeed(feed, "Casablanca", status);
+        assertEquals(GtfsImportStatus.State.COMPLETED, status.getState(), status.getError());
+    }
+
+    private Path feed(String name, String from, String to) throws IOException {
+        Path feed = directory.resolve(name);
+        try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(feed))) {
+            add(zip, "stops.txt", "stop_id,stop_name,stop_lat,stop_lon\n" +
+                "C1,Arrêt C1,33.60,-7.61\n" +
+                "C2,Arrêt C2,33.59,-7.60\n" +
+                "C3,Arrêt C3,33.58,-7.59\n");
+            add(zip, "routes.txt", "route_id,route_short_name,route_type\nRC,Ligne cache,3\n");
+            add(zip, "calendar.txt", "service_id,monday,tuesday,wednesday,thursday,friday,saturday,sunday,start_date,end_date\n" +
+                "WK,1,1,1,1,1,0,0,20260101,20271231\n");
+            add(zip, "trips.txt", "route_id,service_id,trip_id,direction_id\nRC,WK,RC-A,0\n");
+            add(zip, "stop_times.txt", "trip_id,arrival_time,departure_time,stop_id,stop_sequence\n" +
+                "RC-A,08:00:00,08:00:00," + from + ",1\n" +
+                "RC-A,08:05:00,08:05:00," + to + ",2\n");
+        }
+        return feed;
+    }
+
+    private static void add(ZipOutputStream zip, String name, String content) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        zip.write(content.getBytes(StandardCharsets.UTF_8));
+        zip.closeEntry();
+    }
+}
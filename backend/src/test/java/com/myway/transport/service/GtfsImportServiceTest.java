@@ -0,0 +1,232 @@
+package com.myway.transport.service;
+
+import com.myway.transport.dto.DepartureResponse;
+import com.myway.transport.dto.GtfsImportStatus;
+import com.myway.transport.entity.LineStop;
+import com.myway.transport.exception.ResourceNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+    "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+    "spring.jpa.properties.hibernate.cache.use_query_cache=false",
+    "spring.jpa.show-sql=false"
+})
+@DirtiesContext
+public class GtfsImportServiceTest {
+
+    @Autowired
+    private GtfsImportService gtfsImportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TimetableService timetableService;
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void importsStationsLinesAndOrderedStops() throws IOException {
+        GtfsImportStatus status = importFeed(feed());
+
+        assertEquals(GtfsImportStatus.State.COMPLETED, status.getState(), status.getError());
+        assertEquals(3, status.getStations());
+        assertEquals(2, status.getLines());
+
+        // The platform is merged into its parent station
+        assertEquals(3, count("SELECT COUNT(*) FROM stations WHERE external_id LIKE 'G%'"));
+        assertEquals("TRAMWAY", jdbcTemplate.queryForObject(
+            "SELECT type FROM stations WHERE external_id = 'G1'", String.class));
+        assertEquals("MIXED", jdbcTemplate.queryForObject(
+            "SELECT type FROM stations WHERE external_id = 'G2'", String.class));
+
+        // T1 already exists in data.sql, the imported route keeps its id in the name
+        assertEquals("T1 (R1)", jdbcTemplate.queryForObject(
+            "SELECT name FROM transport_lines WHERE external_id = 'R1'", String.class));
+        assertEquals(List.of("G1", "G2", "G3"), stops("R1", "OUTBOUND"));
+        assertEquals(List.of("G3", "G2", "G1"), stops("R1", "INBOUND"));
+        assertEquals(List.of("G2", "G3"), stops("R2", "OUTBOUND"));
+        assertEquals(List.of("G3", "G2"), stops("R2", "INBOUND"), "R2 has no direction_id, inbound is reversed");
+    }
+
+    @Test
+    void publishesTheFeedTimetable() throws IOException {
+        GtfsImportStatus status = importFeed(feed());
+
+        assertEquals(5, status.getDepartures());
+        long stationId = count("SELECT id FROM stations WHERE external_id = 'G2'");
+        // 2026-10-19 is a Monday
+        List<DepartureResponse> departures = timetableService.getNextDepartures(stationId, null,
+            LocalDateTime.of(2026, 10, 19, 8, 0), 10);
+
+        assertEquals(List.of(LocalDateTime.of(2026, 10, 19, 8, 5), LocalDateTime.of(2026, 10, 19, 9, 10),
+            LocalDateTime.of(2026, 10, 19, 10, 0)), departures.stream().map(DepartureResponse::getDepartureTime).toList());
+        assertEquals("Gare C", departures.get(0).getDestinationName());
+        assertEquals(LineStop.Direction.INBOUND, departures.get(1).getDirection());
+        assertEquals("Gare A", departures.get(1).getDestinationName());
+        assertEquals("B9", departures.get(2).getLineName());
+        assertTrue(timetableService.getNextDepartures(stationId, null, LocalDateTime.of(2026, 10, 24, 0, 0), 10)
+            .stream().allMatch(departure -> "B9".equals(departure.getLineName())), "Weekday trips do not run on Saturday");
+    }
+
+    @Test
+    void reimportingAFeedUpdatesRowsInPlace() throws IOException {
+        Path feed = feed();
+        importFeed(feed);
+        long stations = count("SELECT COUNT(*) FROM stations");
+        long links = count("SELECT COUNT(*) FROM line_stations");
+
+        GtfsImportStatus status = importFeed(feed);
+
+        assertEquals(GtfsImportStatus.State.COMPLETED, status.getState(), status.getError());
+        assertEquals(stations, count("SELECT COUNT(*) FROM stations"));
+        assertEquals(links, count("SELECT COUNT(*) FROM line_stations"));
+    }
+
+    @Test
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.AFTER_METHOD)
+    void externalIdsAreScopedToTheCityOfTheFeed() throws IOException {
+        Path feed = feed();
+        importFeed(feed);
+        long casablancaStation = count("SELECT id FROM stations WHERE city = 'Casablanca' AND external_id = 'G1'");
+
+        GtfsImportStatus status = importFeed(feed, "Rabat");
+
+        assertEquals(GtfsImportStatus.State.COMPLETED, status.getState(), status.getError());
+        assertEquals(3, count("SELECT COUNT(*) FROM stations WHERE city = 'Rabat' AND external_id LIKE 'G%'"));
+        assertEquals(3, count("SELECT COUNT(*) FROM stations WHERE city = 'Casablanca' AND external_id LIKE 'G%'"));
+        assertEquals(casablancaStation, count("SELECT id FROM stations WHERE city = 'Casablanca' AND external_id = 'G1'"));
+        assertEquals(2, count("SELECT COUNT(*) FROM transport_lines WHERE external_id = 'R1'"));
+        assertEquals("T1 (R1, Rabat)", jdbcTemplate.queryForObject(
+            "SELECT name FROM transport_lines WHERE city = 'Rabat' AND external_id = 'R1'", String.class));
+        assertEquals(0, count("SELECT COUNT(*) FROM line_stations ls JOIN stations s ON s.id = ls.station_id " +
+            "JOIN transport_lines l ON l.id = ls.line_id WHERE s.city <> l.city"), "Lines only serve stations of their city");
+    }
+
+    @Test
+    void stopTimesNotGroupedByTripFailTheImport() throws IOException {
+        GtfsImportStatus status = importFeed(feed("trip_id,arrival_time,departure_time,stop_id,stop_sequence\n" +
+            "T1-A,08:00:00,08:00:00,G1,1\n" +
+            "B9-A,10:00:00,10:00:00,G2,1\n" +
+            "T1-A,08:05:00,08:05:00,G2-P1,2\n"));
+
+        assertEquals(GtfsImportStatus.State.FAILED, status.getState());
+        assertTrue(status.getError().contains("T1-A reprend à la ligne 4"), status.getError());
+    }
+
+    @Test
+    void missingFilesFailTheImport() throws IOException {
+        Path feed = directory.resolve("empty.zip");
+        try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(feed))) {
+            add(zip, "stops.txt", "stop_id,stop_name,stop_lat,stop_lon\nX1,Nowhere,33.5,-7.6\n");
+        }
+
+        GtfsImportStatus status = importFeed(feed);
+
+        assertEquals(GtfsImportStatus.State.FAILED, status.getState());
+        assertTrue(status.getError().contains("routes.txt"));
+        assertEquals(0, count("SELECT COUNT(*) FROM stations WHERE external_id = 'X1'"), "The import is rolled back");
+    }
+
+    @Test
+    void onlyFinishedImportsAreForgotten() {
+        GtfsImportStatus running = gtfsImportService.register(new GtfsImportStatus("running", "running.zip"));
+        running.setState(GtfsImportStatus.State.RUNNING);
+        GtfsImportStatus queued = gtfsImportService.register(new GtfsImportStatus("queued", "queued.zip"));
+        List<GtfsImportStatus> finished = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            GtfsImportStatus status = gtfsImportService.register(new GtfsImportStatus("finished-" + i, "feed.zip"));
+            status.setState(i % 2 == 0 ? GtfsImportStatus.State.COMPLETED : GtfsImportStatus.State.FAILED);
+            finished.add(status);
+        }
+
+        assertSame(running, gtfsImportService.getStatus("running"));
+        assertSame(queued, gtfsImportService.getStatus("queued"));
+        // Each new import is still queued when it is registered, the oldest finished ones made room
+        assertThrows(ResourceNotFoundException.class, () -> gtfsImportService.getStatus("finished-6"));
+        for (GtfsImportStatus status : finished.subList(7, 25)) {
+            assertSame(status, gtfsImportService.getStatus(status.getId()));
+        }
+    }
+
+    private GtfsImportStatus importFeed(Path feed) {
+        return importFeed(feed, "Casablanca");
+    }
+
+    private GtfsImportStatus importFeed(Path feed, String city) {
+        GtfsImportStatus status = new GtfsImportStatus("test", feed.getFileName().toString());
+        gtfsImportService.importFeed(feed, city, status);
+        return status;
+    }
+
+    private Path feed() throws IOException {
+        return feed("trip_id,arrival_time,departure_time,stop_id,stop_sequence\n" +
+            "T1-A,08:00:00,08:00:00,G1,1\n" +
+            "T1-A,08:05:00,08:05:00,G2-P1,2\n" +
+            "T1-A,08:10:00,08:10:00,G3,3\n" +
+            "T1-B,09:10:00,09:10:00,G2-P1,2\n" +
+            "T1-B,09:00:00,09:00:00,G3,1\n" +
+            "T1-B,09:20:00,09:20:00,G1,3\n" +
+            "B9-A,10:00:00,10:00:00,G2,1\n" +
+            "B9-A,10:07:00,10:07:00,G3,2\n");
+    }
+
+    private Path feed(String stopTimes) throws IOException {
+        Path feed = directory.resolve("feed.zip");
+        try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(feed))) {
+            add(zip, "stops.txt", "stop_id,stop_name,stop_lat,stop_lon,location_type,parent_station\n" +
+                "G1,Gare A,33.60,-7.61,,\n" +
+                "G2,\"Gare B, centre\",33.59,-7.60,1,\n" +
+                "G2-P1,Quai 1,33.59,-7.60,0,G2\n" +
+                "G3,Gare C,33.58,-7.59,0,\n" +
+                "E1,Entrée,33.58,-7.59,2,G3\n");
+            add(zip, "routes.txt", "route_id,route_short_name,route_long_name,route_type,route_color\n" +
+                "R1,T1,Tram test,0,FF0000\n" +
+                "R2,B9,Bus test,3,\n");
+            add(zip, "calendar.txt", "service_id,monday,tuesday,wednesday,thursday,friday,saturday,sunday,start_date,end_date\n" +
+                "WK,1,1,1,1,1,0,0,20260101,20271231\n");
+            add(zip, "trips.txt", "route_id,service_id,trip_id,direction_id\n" +
+                "R1,WK,T1-A,0\n" +
+                "R1,WK,T1-B,1\n" +
+                "R2,ALL,B9-A,\n");
+            add(zip, "stop_times.txt", stopTimes);
+        }
+        return feed;
+    }
+
+    private List<String> stops(String routeId, String direction) {
+        return jdbcTemplate.queryForList("SELECT s.external_id FROM line_stops ls " +
+            "JOIN stations s ON s.id = ls.station_id JOIN transport_lines l ON l.id = ls.line_id " +
+            "WHERE l.external_id = ? AND ls.direction = ? ORDER BY ls.stop_sequence", String.class, routeId, direction);
+    }
+
+    private long count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+
+    private static void add(ZipOutputStream zip, String name, String content) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        OutputStream output = zip;
+        output.write(content.getBytes(StandardCharsets.UTF_8));
+        zip.closeEntry();
+    }
+}
@@ -0,0 +1,88 @@
+package com.myway.transport.service;
+
+import com.myway.transport.dto.ReportResponse;
+import com.myway.transport.repository.ReportRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ModerationQueueServiceTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 3, 1, 8, 0);
+
+    private ReportRepository reportRepository;
+    private ModerationQueueService moderationQueueService;
+
+    @BeforeEach
+    void setUp() {
+        reportRepository = mock(ReportRepository.class);
+        moderationQueueService = new ModerationQueueService(reportRepository);
+    }
+
+    @Test
+    void stationsWithTheMostPendingReportsComeFirst() {
+        moderationQueueService.add(pending(1L, 7L, 0));
+        moderationQueueService.add(pending(2L, 4L, 1));
+        moderationQueueService.add(pending(3L, 4L, 2));
+        moderationQueueService.add(pending(4L, 9L, 3));
+        moderationQueueService.add(pending(5L, 9L, 4));
+        moderationQueueService.add(pending(6L, 7L, 5));
+        moderationQueueService.add(pending(7L, 4L, 6));
+
+        assertEquals(List.of(2L, 3L, 7L, 1L, 6L, 4L, 5L), ids(ModerationQueueService.Order.STATION, 0, 10));
+        assertEquals(List.of(1L, 6L, 4L), ids(ModerationQueueService.Order.STATION, 1, 3));
+        assertEquals(List.of(5L), ids(ModerationQueueService.Order.STATION, 2, 3));
+
+        // Station 4 drops behind the stations with two reports
+        moderationQueueService.remove(List.of(3L, 7L));
+        assertEquals(List.of(1L, 6L, 4L, 5L, 2L), ids(ModerationQueueService.Order.STATION, 0, 10));
+        assertEquals(List.of(1L, 2L, 4L, 5L, 6L), ids(ModerationQueueService.Order.OLDEST, 0, 10));
+    }
+
+    @Test
+    void changesMadeWhileReloadingAreKept() {
+        moderationQueueService.add(pending(1L, 7L, 0));
+        moderationQueueService.add(pending(2L, 7L, 1));
+        when(reportRepository.findPendingResponsesOrderByCreatedAt()).thenAnswer(invocation -> {
+            List<ReportResponse> read = List.of(pending(2L, 7L, 1), pending(3L, 4L, 2));
+            // Committed after the database was read
+            moderationQueueService.remove(List.of(2L));
+            moderationQueueService.add(pending(4L, 4L, 3));
+            return read;
+        });
+
+        moderationQueueService.reload();
+
+        assertEquals(List.of(3L, 4L), ids(ModerationQueueService.Order.STATION, 0, 10));
+        assertEquals(2, moderationQueueService.size());
+
+        // Changes are no longer recorded once the reload is done
+        when(reportRepository.findPendingResponsesOrderByCreatedAt()).thenReturn(List.of(pending(5L, 4L, 4)));
+        moderationQueueService.reload();
+        assertEquals(List.of(5L), ids(ModerationQueueService.Order.OLDEST, 0, 10));
+    }
+
+    @Test
+    void failedReloadKeepsTheQueue() {
+        moderationQueueService.add(pending(1L, 7L, 0));
+        when(reportRepository.findPendingResponsesOrderByCreatedAt()).thenThrow(new IllegalStateException("base indisponible"));
+
+        assertThrows(IllegalStateException.class, moderationQueueService::reload);
+        moderationQueueService.add(pending(2L, 7L, 1));
+
+        assertEquals(List.of(1L, 2L), ids(ModerationQueueService.Order.OLDEST, 0, 10));
+    }
+
+    private List<Long> ids(ModerationQueueService.Order order, int page, int size) {
+        return moderationQueueService.getPage(order, page, size).stream().map(ReportResponse::getId).toList();
+    }
+
+    private static ReportResponse pending(Long id, Long stationId, int minutes) {
+        return ReportResponse.builder().id(id).stationId(stationId).createdAt(START.plusMinutes(minutes)).build();
+    }
+}
@@ -0,0 +1,130 @@
+package com.myway.transport.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.myway.transport.dto.DomainEvent;
+import com.myway.transport.entity.OutboxEvent;
+import com.myway.transport.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+public class OutboxDispatcherTest {
+
+    private final List<OutboxEvent> outbox = new ArrayList<>();
+    private final List<List<Long>> delivered = new ArrayList<>();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private OutboxEventRepository outboxEventRepository;
+    private boolean failing;
+    private long poisonId;
+
+    @BeforeEach
+    void setUp() {
+        outboxEventRepository = mock(OutboxEventRepository.class);
+        when(outboxEventRepository.findByIdGreaterThanOrderById(anyLong(), any(Pageable.class))).thenAnswer(invocation -> {
+            long afterId = invocation.getArgument(0);
+            Pageable page = invocation.getArgument(1);
+            return outbox.stream().filter(event -> event.getId() > afterId).limit(page.getPageSize()).toList();
+        });
+        when(outboxEventRepository.countByIdGreaterThan(anyLong())).thenAnswer(invocation -> {
+            long afterId = invocation.getArgument(0);
+            return outbox.stream().filter(event -> event.getId() > afterId).count();
+        });
+    }
+
+    @Test
+    void deliversOrderedBatchesAtLeastOnce() {
+        outbox.add(event(1));
+        OutboxDispatcher dispatcher = dispatcher(60_000);
+        for (long id = 2; id <= 7; id++) {
+            outbox.add(event(id));
+        }
+
+        failing = true;
+        dispatcher.dispatch();
+        assertEquals(1.0, meterRegistry.counter("outbox.dispatch.failures").count());
+        assertEquals(6.0, meterRegistry.get("outbox.lag.events").gauge().value());
+
+        failing = false;
+        dispatcher.dispatch();
+        // Events before startup are not delivered, the failed batch is delivered again one event at a time
+        assertEquals(List.of(List.of(2L, 3L, 4L), List.of(2L), List.of(3L), List.of(4L), List.of(5L, 6L, 7L)), delivered);
+        assertEquals(0.0, meterRegistry.get("outbox.lag.events").gauge().value());
+        assertEquals(6.0, meterRegistry.counter("outbox.events.dispatched").count());
+    }
+
+    @Test
+    void waitsForAMissingIdUntilTheGapTimesOut() {
+        OutboxDispatcher waiting = dispatcher(60_000);
+        outbox.addAll(List.of(event(1), event(2), event(4)));
+        waiting.dispatch();
+        assertEquals(List.of(List.of(1L, 2L)), delivered);
+        assertEquals(1.0, meterRegistry.get("outbox.lag.events").gauge().value());
+
+        outbox.add(2, event(3));
+        waiting.dispatch();
+        assertEquals(List.of(3L, 4L), delivered.get(1));
+
+        delivered.clear();
+        outbox.clear();
+        OutboxDispatcher skipping = dispatcher(0);
+        outbox.addAll(List.of(event(5), event(7)));
+        skipping.dispatch();
+        assertEquals(List.of(List.of(5L, 7L)), delivered);
+    }
+
+    @Test
+    void skipsAnEventThatKeepsFailingAfterIsolatingIt() {
+        OutboxDispatcher dispatcher = dispatcher(60_000);
+        for (long id = 1; id <= 6; id++) {
+            outbox.add(event(id));
+        }
+        outbox.get(4).setPayload("{not json");
+        poisonId = 2;
+
+        for (int poll = 0; poll < 5; poll++) {
+            dispatcher.dispatch();
+        }
+
+        // The batch fails, then 1 is delivered alone, 2 fails twice and is skipped, and so does 5 which cannot be read
+        assertEquals(List.of(List.of(1L, 2L, 3L), List.of(1L), List.of(2L), List.of(2L), List.of(3L), List.of(4L), List.of(6L)),
+            delivered);
+        assertEquals(2.0, meterRegistry.counter("outbox.events.skipped").count());
+        assertEquals(0.0, meterRegistry.get("outbox.lag.events").gauge().value());
+    }
+
+    private OutboxDispatcher dispatcher(long gapTimeoutMs) {
+        DomainEventSubscriber subscriber = events -> delivered.add(events.stream().map(DomainEvent::getId).toList());
+        DomainEventSubscriber second = events -> {
+            if (failing || events.stream().anyMatch(event -> event.getId() == poisonId)) {
+                throw new IllegalStateException("unavailable");
+            }
+        };
+        when(outboxEventRepository.findMaxId()).thenReturn(outbox.isEmpty() ? null : outbox.get(outbox.size() - 1).getId());
+        OutboxDispatcher dispatcher = new OutboxDispatcher(outboxEventRepository, List.of(subscriber, second), new ObjectMapper(),
+            new TransactionTemplate(mock(PlatformTransactionManager.class)), meterRegistry, 3, 2, gapTimeoutMs, 24);
+        dispatcher.initialize();
+        return dispatcher;
+    }
+
+    private static OutboxEvent event(long id) {
+        return OutboxEvent.builder()
+            .id(id)
+            .eventType(DomainEvent.Type.REPORT_MODERATED)
+            .aggregateId(id)
+            .payload("{\"status\":\"APPROVED\"}")
+            .createdAt(LocalDateTime.now())
+            .build();
+    }
+}
@@ -0,0 +1,154 @@
+package com.myway.transport.service;
+
+import com.myway.transport.dto.DomainEvent;
+import com.myway.transport.dto.ReportRequest;
+import com.myway.transport.dto.ReportResponse;
+import com.myway.transport.dto.ReportSearchPage;
+import com.myway.transport.entity.OutboxEvent;
+import com.myway.transport.entity.Report;
+import com.myway.transport.repository.OutboxEventRepository;
+import com.myway.transport.security.UserDetailsImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Outbox writes against the database, and the report events read back by the search index.
+ * The dispatcher is only run by the tests.
+ */
+@SpringBootTest(properties = {
+    "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+    "spring.jpa.properties.hibernate.cache.use_query_cache=false",
+    "app.outbox.poll-ms=3600000",
+    "app.report-search.rebuild-ms=3600000"
+})
+public class OutboxServiceTest {
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private OutboxDispatcher outboxDispatcher;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private ReportSearchService reportSearchService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void waitForTheSearchIndex() throws Exception {
+        // A report created while the startup rebuild reads the database would be indexed without its event
+        reportSearchService.startupRebuild().get(30, TimeUnit.SECONDS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void insertsTheEventsOfATransactionWhenItCommits() {
+        long before = maxId();
+
+        transactionTemplate.executeWithoutResult(transaction -> {
+            outboxService.publish(DomainEvent.Type.REPORT_MODERATED, 1L, Map.of("status", "APPROVED"));
+            outboxService.publish(DomainEvent.Type.REPORT_DELETED, 2L, Map.of());
+            // Nothing is written before the commit
+            assertEquals(before, maxId());
+        });
+
+        List<OutboxEvent> events = eventsAfter(before);
+        assertEquals(List.of(DomainEvent.Type.REPORT_MODERATED, DomainEvent.Type.REPORT_DELETED),
+            events.stream().map(OutboxEvent::getEventType).toList());
+        assertEquals(List.of(1L, 2L), events.stream().map(OutboxEvent::getAggregateId).toList());
+        assertEquals("{\"status\":\"APPROVED\"}", events.get(0).getPayload());
+    }
+
+    @Test
+    void writesNothingWhenTheTransactionRollsBack() {
+        long before = maxId();
+
+        transactionTemplate.executeWithoutResult(transaction -> {
+            outboxService.publish(DomainEvent.Type.REPORT_DELETED, 3L, Map.of());
+            transaction.setRollbackOnly();
+        });
+        // The next transaction gets its own list
+        transactionTemplate.executeWithoutResult(transaction ->
+            outboxService.publish(DomainEvent.Type.REPORT_DELETED, 4L, Map.of()));
+
+        assertEquals(List.of(4L), eventsAfter(before).stream().map(OutboxEvent::getAggregateId).toList());
+    }
+
+    @Test
+    void refusesEventsOutsideATransaction() {
+        assertThrows(IllegalStateException.class,
+            () -> outboxService.publish(DomainEvent.Type.REPORT_DELETED, 5L, Map.of()));
+    }
+
+    @Test
+    void searchFollowsTheReportEvents() {
+        authenticate(2L, "user@myway.com");
+        ReportRequest request = new ReportRequest();
+        request.setCrowdLevel(Report.CrowdLevel.FORT);
+        request.setComment("Escalator en panne côté quai nord");
+        request.setStationId(1L);
+        ReportResponse created = reportService.createReport(request);
+
+        assertEquals(0, search("escalator", null).getTotal());
+        outboxDispatcher.dispatch();
+        ReportSearchPage found = search("\"escalator en panne\"", Report.ReportStatus.APPROVED);
+        assertEquals(List.of(created.getId()), found.getReports().stream().map(ReportResponse::getId).toList());
+        assertEquals(1L, found.getReports().get(0).getStationId());
+
+        authenticate(1L, "admin@myway.com");
+        reportService.moderateReport(created.getId(), Report.ReportStatus.REJECTED);
+        outboxDispatcher.dispatch();
+        assertEquals(0, search("escalator", Report.ReportStatus.APPROVED).getTotal());
+        assertEquals(1, search("escalator", Report.ReportStatus.REJECTED).getTotal());
+
+        reportService.deleteReport(created.getId());
+        outboxDispatcher.dispatch();
+        assertEquals(0, search("escalator", null).getTotal());
+    }
+
+    private ReportSearchPage search(String query, Report.ReportStatus status) {
+        return reportSearchService.search(query, null, null, status, null, null, 0, 20);
+    }
+
+    private long maxId() {
+        Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM outbox_events", Long.class);
+        return maxId != null ? maxId : 0;
+    }
+
+    private List<OutboxEvent> eventsAfter(long id) {
+        return outboxEventRepository.findByIdGreaterThanOrderById(id, PageRequest.of(0, 10));
+    }
+
+    private static void authenticate(Long id, String email) {
+        UserDetailsImpl user = new UserDetailsImpl(id, email, email, "password", List.of());
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(user, null, List.of()));
+    }
+}
@@ -0,0 +1,73 @@
+package com.myway.transport.service;
+
+import com.myway.transport.dto.ProfilingStatus;
+import com.myway.transport.dto.ProfilingSummary;
+import com.myway.transport.exception.ResourceNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProfilingServiceTest {
+
+    @TempDir
+    private Path directory;
+
+    private ProfilingService profilingService;
+
+    @BeforeEach
+    void setUp() {
+        profilingService = new ProfilingService(directory.toString(), 60, 300, 10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        profilingService.destroy();
+    }
+
+    @Test
+    void recordsOneBoundedSessionAndSummarizesIt() {
+        assertThrows(ResourceNotFoundException.class, profilingService::getRecording);
+        assertEquals(ProfilingStatus.State.RUNNING, profilingService.start("profile", 30L).getState());
+        assertThrows(IllegalStateException.class, () -> profilingService.start("default", 30L));
+        assertThrows(IllegalStateException.class, profilingService::getRecording);
+
+        busyWork();
+        ProfilingStatus stopped = profilingService.stop();
+
+        assertEquals(ProfilingStatus.State.STOPPED, stopped.getState());
+        assertTrue(Files.exists(profilingService.getRecording()));
+        assertTrue(stopped.getRecordingBytes() > 0);
+        ProfilingSummary summary = profilingService.getSummary(5);
+        assertTrue(summary.getExecutionSamples() > 0);
+        assertTrue(summary.getHotMethods().size() <= 5);
+        assertTrue(summary.getApplicationHotMethods().stream()
+            .anyMatch(entry -> entry.getMethod().equals(ProfilingServiceTest.class.getName() + ".busyWork")));
+    }
+
+    @Test
+    void rejectsUnknownProfilesAndUnboundedDurations() {
+        assertThrows(IllegalArgumentException.class, () -> profilingService.start("unknown", 10L));
+        assertThrows(IllegalArgumentException.class, () -> profilingService.start("default", 301L));
+        assertThrows(IllegalArgumentException.class, () -> profilingService.start("default", 0L));
+        assertEquals(ProfilingStatus.State.IDLE, profilingService.status().getState());
+    }
+
+    private static void busyWork() {
+        long end = System.currentTimeMillis() + 1500;
+        List<String> sink = new ArrayList<>();
+        while (System.currentTimeMillis() < end) {
+            sink.add(Long.toHexString(System.nanoTime()));
+            if (sink.size() > 10_000) {
+                sink.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.myway.transport.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.myway.transport.dto.ReportResponse;
+import com.myway.transport.entity.Report;
+import com.myway.transport.repository.ReportRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class ReportExportServiceTest {
+
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2026, 10, 19, 8, 15);
+
+    private ReportRepository reportRepository;
+    private ReportExportService reportExportService;
+
+    @BeforeEach
+    void setUp() {
+        reportRepository = mock(ReportRepository.class);
+        ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        reportExportService = new ReportExportService(reportRepository, objectMapper);
+    }
+
+    @Test
+    void csvQuotesFieldsOnlyWhenNeeded() throws IOException {
+        ReportResponse report = report();
+        report.setComment("Très chargé, \"comme d'habitude\"\nquai 2");
+        when(reportRepository.streamResponsesForExport(any(), any(), any(), any(), any())).thenReturn(Stream.of(report));
+
+        String csv = export(ReportExportService.Format.CSV);
+
+        assertEquals("id,createdAt,status,crowdLevel,stationId,stationName,lineName,userName,moderatedAt,moderatedByName,comment\n" +
+            "7,2026-10-19T08:15:00,APPROVED,FORT,2,Casa Voyageurs,T1,John Doe,,," +
+            "\"Très chargé, \"\"comme d'habitude\"\"\nquai 2\"\n", csv);
+    }
+
+    @Test
+    void csvNeutralizesFormulasAndFormatsDatesAlike() throws IOException {
+        ReportResponse formula = report();
+        formula.setComment("=HYPERLINK(\"http://example.com\")");
+        formula.setModeratedAt(CREATED_AT.plusSeconds(42).plusNanos(123_000));
+        formula.setModeratedByName("@admin");
+        ReportResponse tab = report();
+        tab.setComment("\t-1");
+        when(reportRepository.streamResponsesForExport(any(), any(), any(), any(), any())).thenReturn(Stream.of(formula, tab));
+
+        String[] rows = export(ReportExportService.Format.CSV).split("\n");
+
+        assertEquals("7,2026-10-19T08:15:00,APPROVED,FORT,2,Casa Voyageurs,T1,John Doe,2026-10-19T08:15:42,'@admin," +
+            "\"'=HYPERLINK(\"\"http://example.com\"\")\"", rows[1]);
+        assertTrue(rows[2].endsWith(",'\t-1"));
+    }
+
+    @Test
+    void ndjsonWritesOneReportPerLine() throws IOException {
+        when(reportRepository.streamResponsesForExport(any(), any(), any(), any(), any()))
+            .thenReturn(Stream.of(report(), report()));
+
+        String[] lines = export(ReportExportService.Format.NDJSON).split("\n", -1);
+
+        assertEquals(3, lines.length);
+        assertTrue(lines[0].startsWith("{\"id\":7,\"crowdLevel\":\"FORT\""));
+        assertTrue(lines[1].startsWith("{\"id\":7,"));
+        assertEquals("", lines[2]);
+    }
+
+    @Test
+    void filtersArePassedToTheQuery() throws IOException {
+        when(reportRepository.streamResponsesForExport(any(), any(), any(), any(), any())).thenReturn(Stream.empty());
+
+        reportExportService.exportReports(ReportExportService.Format.CSV, CREATED_AT, null, 2L, null,
+            Report.ReportStatus.APPROVED, new ByteArrayOutputStream());
+
+        verify(reportRepository).streamResponsesForExport(eq(CREATED_AT), isNull(), eq(2L), isNull(), eq(Report.ReportStatus.APPROVED));
+    }
+
+    private String export(ReportExportService.Format format) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        reportExportService.exportReports(format, null, null, null, null, null, output);
+        return output.toString(StandardCharsets.UTF_8);
+    }
+
+    private static ReportResponse report() {
+        return ReportResponse.builder()
+            .id(7L)
+            .crowdLevel(Report.CrowdLevel.FORT)
+            .status(Report.ReportStatus.APPROVED)
+            .createdAt(CREATED_AT)
+            .userName("John Doe")
+            .stationId(2L)
+            .stationName("Casa Voyageurs")
+            .lineName("T1")
+            .build();
+    }
+}
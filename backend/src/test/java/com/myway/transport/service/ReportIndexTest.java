@@ -0,0 +1,76 @@
+package com.myway.transport.service;
+
+import com.myway.transport.entity.Report;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReportIndexTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.now();
+    private static final ReportIndex.Filter ALL = new ReportIndex.Filter(null, null, null, null, null);
+
+    @Test
+    void normalizesFrenchAndArabicTheSameWayForCommentsAndQueries() {
+        assertEquals(List.of("station", "bondee", "attente"), ReportIndex.terms("Stations BONDÉES, l’attente!"));
+        assertEquals(ReportIndex.terms("ازدحام في المحطة"), ReportIndex.terms("إزدحامٌ في محطه"));
+        assertEquals(List.of("12"), ReportIndex.terms("١٢"));
+
+        ReportIndex index = new ReportIndex();
+        index.add(1L, "Rame bondée à la Gare", Report.ReportStatus.APPROVED, NOW, 1L, 1L);
+        index.add(2L, "Panne, la rame est bloquée", Report.ReportStatus.APPROVED, NOW, 2L, 1L);
+        index.add(3L, "Panne de rame, panne de climatisation", Report.ReportStatus.PENDING, NOW.minusDays(2), 2L, 2L);
+        index.add(4L, "الترام مزدحم جدا", Report.ReportStatus.APPROVED, NOW, 3L, 1L);
+
+        assertEquals(List.of(1L), search(index, "BONDEES", ALL));
+        assertEquals(List.of(4L), search(index, "ترام", ALL));
+        // Two occurrences in a comment of the same length rank higher
+        assertEquals(List.of(3L, 2L), search(index, "pannes rame", ALL));
+        assertEquals(List.of(2L), search(index, "\"rame est bloquée\"", ALL));
+        assertEquals(List.of(), search(index, "\"bloquée rame\"", ALL));
+        assertEquals(List.of(), search(index, "panne inconnu", ALL));
+        assertEquals(List.of(), search(index, "la de", ALL));
+    }
+
+    @Test
+    void equalScoresAndDatesRankTheHighestIdFirst() {
+        ReportIndex index = new ReportIndex();
+        index.add(1L, "Retard du bus", Report.ReportStatus.APPROVED, NOW, 1L, 1L);
+        index.add(2L, "Retard du bus", Report.ReportStatus.APPROVED, NOW, 1L, 1L);
+        index.add(3L, "Retard du bus", Report.ReportStatus.APPROVED, NOW.minusMinutes(1), 1L, 1L);
+
+        assertEquals(List.of(2L, 1L, 3L), search(index, "retard", ALL));
+    }
+
+    @Test
+    void appliesFiltersAndFollowsModerationAndDeletion() {
+        ReportIndex index = new ReportIndex();
+        for (long id = 1; id <= 30; id++) {
+            index.add(id, "Bagarre près du quai " + id, id % 2 == 0 ? Report.ReportStatus.APPROVED : Report.ReportStatus.PENDING,
+                NOW.minusHours(id), id % 3, id % 5);
+        }
+
+        assertEquals(30, index.search(ReportIndex.Query.parse("bagarre"), ALL, 0, 0).total());
+        // Equal scores, newest report first, paged
+        assertEquals(List.of(3L, 4L, 5L), index.search(ReportIndex.Query.parse("bagarre quai"), ALL, 2, 3).ids());
+        assertEquals(List.of(6L, 12L, 18L),
+            search(index, "bagarre", new ReportIndex.Filter(0L, null, Report.ReportStatus.APPROVED, NOW.minusHours(20), NOW.minusHours(5))));
+
+        index.setStatus(3L, Report.ReportStatus.APPROVED);
+        index.remove(30L);
+        index.add(31L, null, Report.ReportStatus.APPROVED, NOW, 1L, 1L);
+        ReportIndex.Filter approved = new ReportIndex.Filter(null, null, Report.ReportStatus.APPROVED, null, null);
+        ReportIndex.Result result = index.search(ReportIndex.Query.parse("bagarre"), approved, 0, 2);
+        assertEquals(15, result.total());
+        assertEquals(List.of(2L, 3L), result.ids());
+        assertTrue(search(index, "bagarre", approved).contains(3L));
+        assertEquals(29, index.size());
+    }
+
+    private static List<Long> search(ReportIndex index, String query, ReportIndex.Filter filter) {
+        return index.search(ReportIndex.Query.parse(query), filter, 0, 100).ids();
+    }
+}
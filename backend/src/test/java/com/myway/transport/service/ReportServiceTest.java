@@ -0,0 +1,250 @@
+package com.myway.transport.service;
+
+import com.myway.transport.config.ReadYourWritesTracker;
+import com.myway.transport.dto.BatchReportRequest;
+import com.myway.transport.dto.BatchReportResponse;
+import com.myway.transport.dto.BulkModerationRequest;
+import com.myway.transport.dto.CrowdSample;
+import com.myway.transport.dto.ReportRequest;
+import com.myway.transport.dto.ReportResponse;
+import com.myway.transport.entity.Report;
+import com.myway.transport.entity.Station;
+import com.myway.transport.entity.User;
+import com.myway.transport.repository.ReportRepository;
+import com.myway.transport.repository.StationRepository;
+import com.myway.transport.repository.TransportLineRepository;
+import com.myway.transport.repository.UserRepository;
+import com.myway.transport.security.UserDetailsImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.stubbing.Answer;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class ReportServiceTest {
+
+    private ReportRepository reportRepository;
+    private UserRepository userRepository;
+    private StationRepository stationRepository;
+    private CrowdAggregate crowdAggregate;
+    private ModerationQueueService moderationQueueService;
+    private ReputationService reputationService;
+    private JdbcTemplate jdbcTemplate;
+    private ReportService reportService;
+    // Values bound to each inserted row by the batch insert
+    private final List<Map<Integer, Object>> insertedRows = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        reportRepository = mock(ReportRepository.class);
+        userRepository = mock(UserRepository.class);
+        stationRepository = mock(StationRepository.class);
+        crowdAggregate = mock(CrowdAggregate.class);
+        moderationQueueService = mock(ModerationQueueService.class);
+        reputationService = mock(ReputationService.class);
+        jdbcTemplate = mock(JdbcTemplate.class);
+        reportService = new ReportService(reportRepository, userRepository, stationRepository,
+            mock(TransportLineRepository.class), Optional.of(mock(ReadYourWritesTracker.class)), List.of(crowdAggregate),
+            moderationQueueService, mock(OutboxService.class), reputationService, jdbcTemplate);
+        ReflectionTestUtils.setField(reportService, "batchMaxAgeHours", 24L);
+
+        authenticate(2L);
+        when(userRepository.findById(any())).thenAnswer(invocation -> Optional.of(user(invocation.getArgument(0))));
+        when(stationRepository.findById(3L)).thenReturn(Optional.of(station()));
+        when(stationRepository.findAllById(any())).thenAnswer(invocation ->
+            invocation.<Set<Long>>getArgument(0).contains(3L) ? List.of(station()) : List.of());
+        when(jdbcTemplate.batchUpdate(any(PreparedStatementCreator.class), any(BatchPreparedStatementSetter.class), any(KeyHolder.class)))
+            .thenAnswer(invocation -> insertBatch(invocation.getArgument(1), invocation.getArgument(2)));
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void createdReportReachesTheCrowdOnceCommitted() {
+        when(reportRepository.save(any())).thenAnswer(invocation -> {
+            Report report = invocation.getArgument(0);
+            report.setId(40L);
+            report.setCreatedAt(LocalDateTime.now());
+            return report;
+        });
+        ReportRequest request = new ReportRequest();
+        request.setCrowdLevel(Report.CrowdLevel.FORT);
+        request.setStationId(3L);
+
+        reportService.createReport(request);
+        verifyNoInteractions(crowdAggregate, reputationService);
+
+        TransactionSynchronizationUtils.triggerAfterCommit();
+        verify(reputationService).score(any(), argThat(sample -> sample.getReportId() == 40L));
+        verify(crowdAggregate).record(argThat(sample -> sample.getStationId() == 3L));
+    }
+
+    @Test
+    void rolledBackModerationLeavesTheQueueAndTheCrowdAlone() {
+        authenticate(1L);
+        Report report = Report.builder().id(5L).status(Report.ReportStatus.PENDING).crowdLevel(Report.CrowdLevel.MOYEN)
+            .user(user(2L)).station(station()).createdAt(LocalDateTime.now()).build();
+        when(reportRepository.findWithStationById(5L)).thenReturn(Optional.of(report));
+        when(reportRepository.findResponseById(5L)).thenReturn(Optional.of(ReportResponse.builder().id(5L).build()));
+
+        reportService.moderateReport(5L, Report.ReportStatus.APPROVED);
+        TransactionSynchronizationUtils.invokeAfterCompletion(
+            TransactionSynchronizationManager.getSynchronizations(), TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        verifyNoInteractions(crowdAggregate, moderationQueueService);
+    }
+
+    @Test
+    void approvedReportsAreScoredBeforeReachingTheCrowd() {
+        authenticate(1L);
+        Report report = Report.builder().id(5L).status(Report.ReportStatus.PENDING).crowdLevel(Report.CrowdLevel.MOYEN)
+            .user(user(2L)).station(station()).createdAt(LocalDateTime.now()).build();
+        when(reportRepository.findWithStationById(5L)).thenReturn(Optional.of(report));
+        when(reportRepository.findResponseById(5L)).thenReturn(Optional.of(ReportResponse.builder().id(5L).build()));
+        when(reportRepository.lockPendingIds(any())).thenReturn(List.of(6L));
+        when(reportRepository.findCrowdSamplesByIds(List.of(6L))).thenReturn(List.of(
+            new CrowdSample(3L, null, 33.59, -7.6, Report.CrowdLevel.FORT, LocalDateTime.now(), 4L, 6L)));
+
+        reportService.moderateReport(5L, Report.ReportStatus.APPROVED);
+        reportService.moderateReports(List.of(new BulkModerationRequest.Decision(6L, Report.ReportStatus.APPROVED)));
+        TransactionSynchronizationUtils.triggerAfterCommit();
+
+        InOrder inOrder = inOrder(reputationService, crowdAggregate);
+        inOrder.verify(reputationService).score(eq(2L), argThat(sample -> sample.getReportId() == 5L));
+        inOrder.verify(crowdAggregate).record(argThat(sample -> sample.getReportId() == 5L));
+        inOrder.verify(reputationService).score(eq(4L), argThat(sample -> sample.getReportId() == 6L));
+        inOrder.verify(crowdAggregate).record(argThat(sample -> sample.getReportId() == 6L));
+    }
+
+    @Test
+    void repeatedKeysReferToTheReportAlreadyMade() {
+        when(reportRepository.findIdsByClientKeys(eq(2L), any())).thenReturn(List.<Object[]>of(new Object[] {"envoye", 12L}));
+
+        BatchReportResponse response = reportService.createReports(List.of(
+            item("nouveau", 3L, null), item("envoye", 3L, null), item("nouveau", 3L, null)));
+
+        assertEquals(List.of(BatchReportResponse.Outcome.CREATED, BatchReportResponse.Outcome.DUPLICATE,
+            BatchReportResponse.Outcome.DUPLICATE), outcomes(response));
+        assertEquals(List.of(100L, 12L, 100L), reportIds(response));
+        assertEquals(1, insertedRows.size());
+        assertEquals("nouveau", insertedRows.get(0).get(3));
+    }
+
+    @Test
+    void unknownStationsAndOldReportsAreRejected() {
+        LocalDateTime now = LocalDateTime.now();
+        BatchReportResponse response = reportService.createReports(List.of(
+            item("inconnue", 99L, null), item("ancien", 3L, now.minusHours(25)), item("recent", 3L, now.minusHours(23))));
+
+        assertEquals(List.of(BatchReportResponse.Outcome.REJECTED, BatchReportResponse.Outcome.REJECTED,
+            BatchReportResponse.Outcome.CREATED), outcomes(response));
+        assertEquals("Station non trouvée", response.getResults().get(0).getError());
+        assertEquals("Signalement trop ancien", response.getResults().get(1).getError());
+        assertEquals(Arrays.asList(null, null, 100L), reportIds(response));
+        assertEquals(Timestamp.valueOf(now.minusHours(23)), insertedRows.get(0).get(4));
+    }
+
+    @Test
+    void reportsFromTheFutureAreDatedWhenReceived() {
+        LocalDateTime before = LocalDateTime.now();
+        reportService.createReports(List.of(item("avance", 3L, before.plusHours(2)), item("sans-date", 3L, null)));
+        LocalDateTime after = LocalDateTime.now();
+
+        for (Map<Integer, Object> row : insertedRows) {
+            LocalDateTime createdAt = ((Timestamp) row.get(4)).toLocalDateTime();
+            assertFalse(createdAt.isBefore(before));
+            assertFalse(createdAt.isAfter(after));
+        }
+    }
+
+    @Test
+    void generatedKeysAreGivenInBatchOrder() {
+        BatchReportResponse response = reportService.createReports(List.of(
+            item("premier", 3L, null), item("rejete", 99L, null), item("second", null, null)));
+
+        assertEquals(Arrays.asList(100L, null, 101L), reportIds(response));
+        assertEquals(List.of("premier", "second"), insertedRows.stream().map(row -> row.get(3)).toList());
+
+        TransactionSynchronizationUtils.triggerAfterCommit();
+        verify(reputationService).score(any(), argThat(sample -> sample.getReportId() == 100L && sample.getStationId() == 3L));
+        verify(reputationService).score(any(), argThat(sample -> sample.getReportId() == 101L && sample.getStationId() == null));
+    }
+
+    // Binds every row of the batch and returns keys from 100 on
+    private int[] insertBatch(BatchPreparedStatementSetter setter, KeyHolder keys) throws Exception {
+        for (int i = 0; i < setter.getBatchSize(); i++) {
+            Map<Integer, Object> row = new HashMap<>();
+            PreparedStatement statement = mock(PreparedStatement.class);
+            doAnswer(bind(row)).when(statement).setString(anyInt(), any());
+            doAnswer(bind(row)).when(statement).setTimestamp(anyInt(), any());
+            doAnswer(bind(row)).when(statement).setObject(anyInt(), any());
+            setter.setValues(statement, i);
+            insertedRows.add(row);
+            keys.getKeyList().add(Map.of("id", 100L + i));
+        }
+        return new int[setter.getBatchSize()];
+    }
+
+    private static Answer<Void> bind(Map<Integer, Object> row) {
+        return invocation -> {
+            row.put(invocation.getArgument(0), invocation.getArgument(1));
+            return null;
+        };
+    }
+
+    private static BatchReportRequest.Item item(String clientKey, Long stationId, LocalDateTime reportedAt) {
+        return new BatchReportRequest.Item(clientKey, Report.CrowdLevel.MOYEN, null, stationId, null, reportedAt);
+    }
+
+    private static List<BatchReportResponse.Outcome> outcomes(BatchReportResponse response) {
+        return response.getResults().stream().map(BatchReportResponse.Result::getOutcome).toList();
+    }
+
+    private static List<Long> reportIds(BatchReportResponse response) {
+        return response.getResults().stream().map(BatchReportResponse.Result::getReportId).toList();
+    }
+
+    private static void authenticate(Long userId) {
+        UserDetailsImpl user = new UserDetailsImpl(userId, "Test User", "user@myway.com", "password", List.of());
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(user, null, List.of()));
+    }
+
+    private static User user(Long id) {
+        return User.builder().id(id).name("Test User").build();
+    }
+
+    private static Station station() {
+        return Station.builder().id(3L).name("Place Mohammed V").latitude(33.59).longitude(-7.6).build();
+    }
+}
@@ -0,0 +1,104 @@
+package com.myway.transport.service;
+
+import com.myway.transport.dto.CrowdSample;
+import com.myway.transport.entity.Report;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class ReputationServiceTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private ReputationService reputationService;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        reputationService = new ReputationService(jdbcTemplate, 0.5, 3);
+        for (int i = 0; i < 3; i++) {
+            reputationService.record(sample(Report.CrowdLevel.FORT));
+        }
+    }
+
+    @Test
+    void agreeingWithTheConsensusRaisesTheScore() {
+        reputationService.score(1L, sample(Report.CrowdLevel.FORT));
+
+        assertEquals(0.875, reputationService.getScore(1L), 1e-9);
+    }
+
+    @Test
+    void contradictingTheConsensusLowersTheWeight() {
+        for (int i = 0; i < 10; i++) {
+            reputationService.score(2L, sample(Report.CrowdLevel.FAIBLE));
+        }
+
+        assertTrue(reputationService.getScore(2L) < 0.01);
+        assertEquals(ReputationService.MIN_WEIGHT, reputationService.getWeight(2L));
+        assertEquals(ReputationService.INITIAL_SCORE, reputationService.getWeight(3L));
+    }
+
+    @Test
+    void stationsWithoutConsensusLeaveTheScoreUnchanged() {
+        CrowdSample elsewhere = sample(Report.CrowdLevel.FAIBLE);
+        elsewhere.setStationId(2L);
+        reputationService.score(1L, elsewhere);
+        reputationService.retract(sample(Report.CrowdLevel.FORT));
+        reputationService.score(1L, sample(Report.CrowdLevel.FAIBLE));
+
+        assertEquals(ReputationService.INITIAL_SCORE, reputationService.getScore(1L));
+    }
+
+    @Test
+    void repeatingReportsDoesNotMakeTheConsensus() {
+        for (int i = 0; i < 5; i++) {
+            CrowdSample own = sample(Report.CrowdLevel.FAIBLE);
+            own.setUserId(4L);
+            reputationService.score(4L, own);
+            reputationService.record(own);
+        }
+
+        // Scored against the other users' FORT reports only, never against their own FAIBLE ones
+        assertTrue(reputationService.getScore(4L) < ReputationService.INITIAL_SCORE / 2);
+
+        CrowdSample quiet = sample(Report.CrowdLevel.FAIBLE);
+        quiet.setUserId(5L);
+        quiet.setStationId(2L);
+        for (int i = 0; i < 5; i++) {
+            reputationService.score(5L, quiet);
+            reputationService.record(quiet);
+        }
+        assertEquals(ReputationService.INITIAL_SCORE, reputationService.getScore(5L));
+    }
+
+    @Test
+    void onlyChangedScoresArePersisted() {
+        reputationService.score(1L, sample(Report.CrowdLevel.FORT));
+
+        reputationService.persist();
+        reputationService.persist();
+
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.captor();
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), rows.capture());
+        assertEquals(1, rows.getValue().size());
+        // Reports are weighted by age, the score is only equal within rounding
+        assertEquals(0.875, (Double) rows.getValue().get(0)[0], 1e-9);
+        assertEquals(1L, rows.getValue().get(0)[1]);
+    }
+
+    private static CrowdSample sample(Report.CrowdLevel level) {
+        return CrowdSample.builder()
+            .stationId(1L)
+            .crowdLevel(level)
+            .createdAt(LocalDateTime.now())
+            .build();
+    }
+}
@@ -0,0 +1,76 @@
+package com.myway.transport.service;
+
+import com.myway.transport.dto.DeparturePage;
+import com.myway.transport.dto.DepartureResponse;
+import com.myway.transport.exception.InvalidRequestException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TimetableServiceTest {
+
+    // A Monday
+    private static final LocalDate MONDAY = LocalDate.of(2026, 10, 19);
+    private static final boolean[] EVERY_DAY = {true, true, true, true, true, true, true};
+
+    private static final long LINE = 1;
+    private static final long GARE = 10;
+    private static final long TERMINUS = 11;
+
+    private TimetableService timetableService;
+
+    @BeforeEach
+    void setUp() {
+        timetableService = new TimetableService();
+        ReflectionTestUtils.setField(timetableService, "maxRangeDays", 7L);
+
+        // 151 departures a day, one a minute from 06:00 to 08:29 and a second one at 06:48
+        Timetable.Builder builder = new Timetable.Builder();
+        builder.service("ALL", EVERY_DAY, MONDAY, MONDAY.plusMonths(1));
+        for (int minute = 0; minute < 150; minute++) {
+            addDeparture(builder, 6 * 3600 + minute * 60);
+        }
+        addDeparture(builder, 6 * 3600 + 48 * 60);
+        timetableService.publish(builder.build());
+    }
+
+    @Test
+    void reversedOrOverlongRangesAreRejected() {
+        assertThrows(InvalidRequestException.class, () -> timetableService.getDeparturePage(GARE, null,
+            MONDAY.atTime(8, 0), MONDAY.atTime(7, 0)));
+        assertThrows(InvalidRequestException.class, () -> timetableService.getDeparturePage(GARE, null,
+            MONDAY.atTime(8, 0), MONDAY.plusDays(7).atTime(8, 1)));
+        assertEquals(151, timetableService.getDeparturePage(GARE, null,
+            MONDAY.atTime(0, 0), MONDAY.atTime(23, 59)).getDepartures().size());
+    }
+
+    @Test
+    void crowdedRangesAreServedInPages() {
+        LocalDateTime to = MONDAY.plusDays(1).atTime(23, 59);
+        List<DepartureResponse> departures = new ArrayList<>();
+        DeparturePage page = timetableService.getDeparturePage(GARE, null, MONDAY.atTime(0, 0), to);
+        departures.addAll(page.getDepartures());
+
+        // The 201st departure is the second one at 06:48 on Tuesday, both open the next page
+        assertEquals(MONDAY.plusDays(1).atTime(6, 48), page.getNextFrom());
+        assertEquals(TimetableService.MAX_DEPARTURES - 1, page.getDepartures().size());
+
+        page = timetableService.getDeparturePage(GARE, null, page.getNextFrom(), to);
+        departures.addAll(page.getDepartures());
+
+        assertNull(page.getNextFrom());
+        assertEquals(302, departures.size());
+        assertEquals(MONDAY.plusDays(1).atTime(8, 29), departures.get(301).getDepartureTime());
+    }
+
+    private static void addDeparture(Timetable.Builder builder, int departure) {
+        builder.tripStops(builder.trip("ALL", 0), LINE, new long[]{GARE, TERMINUS}, new int[]{departure, departure + 600});
+    }
+}
@@ -0,0 +1,95 @@
+package com.myway.transport.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TimetableTest {
+
+    // A Monday
+    private static final LocalDate MONDAY = LocalDate.of(2026, 10, 19);
+    private static final boolean[] WEEKDAYS = {true, true, true, true, true, false, false};
+
+    private static final long LINE_T1 = 1;
+    private static final long LINE_B9 = 2;
+    private static final long GARE = 10;
+    private static final long CENTRE = 11;
+    private static final long TERMINUS = 12;
+
+    @Test
+    void nextDeparturesAreSortedAcrossLines() {
+        Timetable timetable = timetable();
+
+        List<Timetable.Departure> departures = timetable.departures(GARE, null, MONDAY.atTime(7, 55), MONDAY.atTime(23, 59), 3);
+
+        assertEquals(List.of(MONDAY.atTime(8, 0), MONDAY.atTime(8, 5), MONDAY.atTime(8, 10)),
+            departures.stream().map(Timetable.Departure::time).toList());
+        assertEquals(List.of(LINE_T1, LINE_B9, LINE_T1), departures.stream().map(Timetable.Departure::lineId).toList());
+        assertEquals(TERMINUS, departures.get(0).destinationId());
+    }
+
+    @Test
+    void departuresCanBeFilteredByLineAndWindow() {
+        Timetable timetable = timetable();
+
+        List<Timetable.Departure> departures = timetable.departures(GARE, LINE_T1, MONDAY.atTime(8, 0), MONDAY.atTime(8, 30), 100);
+
+        assertEquals(4, departures.size());
+        assertTrue(departures.stream().allMatch(departure -> departure.lineId() == LINE_T1));
+    }
+
+    @Test
+    void serviceDaysAndExceptionsAreApplied() {
+        Timetable timetable = timetable();
+
+        // Weekday service does not run on Saturday, the holiday removes Wednesday
+        assertTrue(timetable.departures(GARE, LINE_T1, MONDAY.plusDays(5).atTime(0, 0), MONDAY.plusDays(5).atTime(23, 59), 10).isEmpty());
+        assertTrue(timetable.departures(GARE, LINE_T1, MONDAY.plusDays(2).atTime(0, 0), MONDAY.plusDays(2).atTime(23, 59), 10).isEmpty());
+        assertFalse(timetable.departures(GARE, LINE_T1, MONDAY.plusDays(1).atTime(0, 0), MONDAY.plusDays(1).atTime(23, 59), 10).isEmpty());
+    }
+
+    @Test
+    void tripsPastMidnightBelongToThePreviousServiceDay() {
+        Timetable timetable = timetable();
+
+        List<Timetable.Departure> departures = timetable.departures(GARE, LINE_B9, MONDAY.plusDays(1).atTime(0, 0),
+            MONDAY.plusDays(1).atTime(1, 0), 10);
+
+        assertEquals(List.of(MONDAY.plusDays(1).atTime(0, 30)), departures.stream().map(Timetable.Departure::time).toList());
+    }
+
+    @Test
+    void aWeekLongRangeStopsAtTheEarliestDepartures() {
+        List<Timetable.Departure> departures = timetable().departures(GARE, LINE_T1, MONDAY.atTime(8, 15),
+            MONDAY.plusDays(7).atTime(8, 15), 3);
+
+        assertEquals(List.of(MONDAY.atTime(8, 20), MONDAY.atTime(8, 30), MONDAY.atTime(8, 40)),
+            departures.stream().map(Timetable.Departure::time).toList());
+    }
+
+    @Test
+    void terminusIsNotADeparture() {
+        assertTrue(timetable().departures(TERMINUS, null, MONDAY.atTime(0, 0), MONDAY.atTime(23, 59), 10).isEmpty());
+        assertTrue(Timetable.EMPTY.departures(GARE, null, LocalDateTime.now(), LocalDateTime.now().plusHours(1), 10).isEmpty());
+    }
+
+    private static Timetable timetable() {
+        Timetable.Builder builder = new Timetable.Builder();
+        builder.service("WK", WEEKDAYS, MONDAY, MONDAY.plusMonths(1));
+        builder.serviceException("WK", MONDAY.plusDays(2), false);
+
+        // T1 every 10 minutes from 08:00 to 08:50, B9 at 08:05 and past midnight, every day
+        for (int minute = 50; minute >= 0; minute -= 10) {
+            int trip = builder.trip("WK", 0);
+            int departure = 8 * 3600 + minute * 60;
+            builder.tripStops(trip, LINE_T1, new long[]{GARE, CENTRE, TERMINUS}, new int[]{departure, departure + 300, departure + 600});
+        }
+        builder.tripStops(builder.trip("NIGHT", 1), LINE_B9, new long[]{GARE, TERMINUS}, new int[]{24 * 3600 + 1800, 24 * 3600 + 2400});
+        builder.tripStops(builder.trip("NIGHT", 1), LINE_B9, new long[]{GARE, CENTRE, TERMINUS}, new int[]{8 * 3600 + 300, -1, 8 * 3600 + 900});
+        return builder.build();
+    }
+}
@@ -0,0 +1,65 @@
+package com.myway.transport.service;
+
+import com.myway.transport.entity.RevokedToken;
+import com.myway.transport.repository.RevokedTokenRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class TokenRevocationServiceTest {
+
+    private static final long LIFETIME_MS = 86_400_000L;
+
+    private RevokedTokenRepository revokedTokenRepository;
+    private TokenRevocationService tokenRevocationService;
+
+    @BeforeEach
+    void setUp() {
+        revokedTokenRepository = mock(RevokedTokenRepository.class);
+        when(revokedTokenRepository.save(any(RevokedToken.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        tokenRevocationService = new TokenRevocationService(revokedTokenRepository,
+            new TransactionTemplate(mock(PlatformTransactionManager.class)), LIFETIME_MS);
+        tokenRevocationService.initialize();
+    }
+
+    @Test
+    void loggedOutTokenIsRevokedAlone() {
+        Date issuedAt = new Date(System.currentTimeMillis() - 60_000);
+        tokenRevocationService.revokeToken("jti-1", 2L, new Date(System.currentTimeMillis() + LIFETIME_MS));
+
+        assertTrue(tokenRevocationService.isRevoked("jti-1", 2L, issuedAt));
+        assertFalse(tokenRevocationService.isRevoked("jti-2", 2L, issuedAt));
+        verify(revokedTokenRepository).save(any(RevokedToken.class));
+    }
+
+    @Test
+    void suspensionRevokesTheTokensIssuedBeforeIt() {
+        tokenRevocationService.revokeUser(3L);
+
+        assertTrue(tokenRevocationService.isRevoked("jti-1", 3L, new Date(System.currentTimeMillis() - 60_000)));
+        assertFalse(tokenRevocationService.isRevoked("jti-2", 3L, new Date(System.currentTimeMillis() + 2_000)));
+        assertFalse(tokenRevocationService.isRevoked("jti-1", 4L, new Date(System.currentTimeMillis() - 60_000)));
+    }
+
+    @Test
+    void revocationsOfOtherNodesArePickedUpAndForgottenOnceExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        when(revokedTokenRepository.findByRevokedAtGreaterThanEqualAndExpiresAtAfter(any(), any())).thenReturn(List.of(
+            RevokedToken.builder().jti("remote").userId(2L).revokedAt(now).expiresAt(now.plusHours(1)).build(),
+            RevokedToken.builder().jti("expiring").userId(2L).revokedAt(now).expiresAt(now.minusSeconds(1)).build()));
+
+        tokenRevocationService.sync();
+
+        assertTrue(tokenRevocationService.isRevoked("remote", 2L, new Date()));
+        assertFalse(tokenRevocationService.isRevoked("expiring", 2L, new Date()));
+    }
+}
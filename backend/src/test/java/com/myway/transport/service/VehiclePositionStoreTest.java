@@ -0,0 +1,99 @@
+package com.myway.transport.service;
+
+import com.myway.transport.dto.VehiclePositionResponse;
+import com.myway.transport.entity.Report;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VehiclePositionStoreTest {
+
+    // Casa Voyageurs
+    private static final double LATITUDE = 33.5892;
+    private static final double LONGITUDE = -7.5903;
+
+    private VehiclePositionStore store;
+    private long now;
+
+    @BeforeEach
+    void setUp() {
+        store = new VehiclePositionStore(3, 120, 30);
+        now = System.currentTimeMillis();
+    }
+
+    @Test
+    void onlyTheLatestPositionIsKept() {
+        assertTrue(store.update("T1-04", 1, LATITUDE, LONGITUDE, now - 10_000, 20));
+        assertTrue(store.update("T1-04", 1, LATITUDE + 0.01, LONGITUDE, now, 80));
+        assertFalse(store.update("T1-04", 1, LATITUDE, LONGITUDE, now - 5_000, 10), "Late updates are ignored");
+
+        List<VehiclePositionResponse> vehicles = store.getVehiclesOnLine(1);
+
+        assertEquals(1, vehicles.size());
+        assertEquals(LATITUDE + 0.01, vehicles.get(0).getLatitude());
+        assertEquals(80, vehicles.get(0).getOccupancy());
+        assertEquals(Report.CrowdLevel.FORT, vehicles.get(0).getCrowdLevel());
+    }
+
+    @Test
+    void vehiclesAreFoundByLineAndDistance() {
+        store.update("T1-04", 1, LATITUDE, LONGITUDE, now, -1);
+        store.update("B9-12", 2, LATITUDE + 0.003, LONGITUDE, now, -1);
+        store.update("B9-13", 2, LATITUDE + 0.05, LONGITUDE, now, -1);
+
+        assertEquals(List.of("B9-12", "B9-13"), store.getVehiclesOnLine(2).stream().map(VehiclePositionResponse::getVehicleId).toList());
+        assertEquals(List.of("T1-04", "B9-12"), store.getVehiclesNear(LATITUDE, LONGITUDE, 0.5).stream()
+            .map(VehiclePositionResponse::getVehicleId).toList());
+        assertNull(store.getVehiclesOnLine(1).get(0).getOccupancy());
+    }
+
+    @Test
+    void stalePositionsAreNotServed() {
+        store.update("T1-04", 1, LATITUDE, LONGITUDE, now - 300_000, 50);
+
+        assertTrue(store.getVehiclesOnLine(1).isEmpty());
+        assertEquals(0, store.getLineOccupancy(1).vehicles());
+    }
+
+    @Test
+    void lineOccupancyAveragesReportingVehicles() {
+        store.update("T1-04", 1, LATITUDE, LONGITUDE, now, 30);
+        store.update("T1-05", 1, LATITUDE, LONGITUDE, now, 60);
+        store.update("T1-06", 1, LATITUDE, LONGITUDE, now, -1);
+
+        VehiclePositionStore.OccupancySummary occupancy = store.getLineOccupancy(1);
+
+        assertEquals(2, occupancy.vehicles());
+        assertEquals(45, occupancy.averageOccupancy());
+        assertEquals(Report.CrowdLevel.MOYEN, occupancy.level());
+        assertNull(store.getLineOccupancy(2).level());
+    }
+
+    @Test
+    void vehiclesBeyondCapacityAreRejected() {
+        store.update("A", 1, LATITUDE, LONGITUDE, now, -1);
+        store.update("B", 1, LATITUDE, LONGITUDE, now, -1);
+        store.update("C", 1, LATITUDE, LONGITUDE, now, -1);
+
+        assertFalse(store.update("D", 1, LATITUDE, LONGITUDE, now, -1));
+        assertFalse(store.update("E", 1, LATITUDE, LONGITUDE, now, -1));
+        assertTrue(store.update("A", 1, LATITUDE, LONGITUDE, now + 1000, -1));
+        assertEquals(3, store.size());
+    }
+
+    @Test
+    void positionsAheadOfTheClockOrOutOfRangeAreRejected() {
+        assertFalse(store.update("T1-04", 1, LATITUDE, LONGITUDE, now + 3_600_000, -1));
+        assertFalse(store.update("T1-04", 1, 91, LONGITUDE, now, -1));
+        assertFalse(store.update("T1-04", 1, LATITUDE, -180.5, now, -1));
+        assertFalse(store.update("T1-04", 1, Double.NaN, LONGITUDE, now, -1));
+        assertEquals(0, store.size());
+
+        // Within the allowed skew, and later updates are still taken
+        assertTrue(store.update("T1-04", 1, LATITUDE, LONGITUDE, now + 10_000, -1));
+        assertTrue(store.update("T1-04", 1, LATITUDE, LONGITUDE, now + 15_000, -1));
+    }
+}
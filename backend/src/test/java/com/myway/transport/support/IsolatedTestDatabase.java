@@ -0,0 +1,37 @@
+package com.myway.transport.support;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Gives every test application context its own in-memory database. Contexts are cached across
+ * test classes, and with a shared one the create-drop of a context starting or closing removed
+ * the tables under the scheduled tasks of the others.
+ */
+public class IsolatedTestDatabase implements EnvironmentPostProcessor {
+
+    private static final String SHARED_NAME = "testdb";
+
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+        String name = SHARED_NAME + "-" + UUID.randomUUID();
+        Map<String, Object> properties = new HashMap<>();
+        rename(environment, "spring.datasource.url", "mem:" + SHARED_NAME, "mem:" + name, properties);
+        rename(environment, "app.reactive.r2dbc.url", "mem:///" + SHARED_NAME, "mem:///" + name, properties);
+        environment.getPropertySources().addFirst(new MapPropertySource("isolatedTestDatabase", properties));
+    }
+
+    private static void rename(ConfigurableEnvironment environment, String property, String shared, String isolated,
+                               Map<String, Object> properties) {
+        String url = environment.getProperty(property);
+        if (url != null && url.contains(shared)) {
+            properties.put(property, url.replace(shared, isolated));
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.myway.transport.support;
+
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Fails a {@link QueryBudget} test when it runs more statements than its budget,
+ * listing the offending SQL grouped by statement so N+1 patterns stand out.
+ */
+public class QueryBudgetExtension implements BeforeEachCallback, AfterEachCallback {
+
+    @Override
+    public void beforeEach(ExtensionContext context) {
+        if (findBudget(context) != null) {
+            SqlStatementRecorder.start();
+        }
+    }
+
+    @Override
+    public void afterEach(ExtensionContext context) {
+        QueryBudget budget = findBudget(context);
+        if (budget == null) {
+            return;
+        }
+
+        List<String> statements = SqlStatementRecorder.stop();
+        if (statements.size() > budget.value()) {
+            fail(buildReport(context.getDisplayName(), budget.value(), statements));
+        }
+    }
+
+    private QueryBudget findBudget(ExtensionContext context) {
+        return context.getTestMethod().map(method -> method.getAnnotation(QueryBudget.class)).orElse(null);
+    }
+
+    private String buildReport(String testName, int budget, List<String> statements) {
+        Map<String, Integer> countsBySql = new LinkedHashMap<>();
+        statements.forEach(sql -> countsBySql.merge(sql, 1, Integer::sum));
+
+        StringBuilder report = new StringBuilder()
+            .append(testName).append(" executed ").append(statements.size())
+            .append(" statements, budget is ").append(budget).append(":\n");
+        countsBySql.forEach((sql, count) -> report.append(String.format("  %3dx %s%n", count, sql)));
+        return report.toString();
+    }
+}
@@ -0,0 +1,58 @@
+package com.myway.transport.support;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Records the statements sent through the application data source while recording is active,
+ * whichever thread runs them and whether they come from Hibernate or JdbcTemplate. A JDBC batch
+ * is one round trip and recorded once. Scheduled tasks run on their own and are left out.
+ * Registered with @Import, it wraps the "dataSource" bean.
+ */
+public class SqlStatementRecorder implements BeanPostProcessor, QueryExecutionListener {
+
+    private static final String SCHEDULER_THREAD_PREFIX = "scheduling-";
+
+    private static volatile List<String> statements;
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && "dataSource".equals(beanName)) {
+            return ProxyDataSourceBuilder.create(dataSource).name("query-budget").listener(this).build();
+        }
+        return bean;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execution, List<QueryInfo> queries) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execution, List<QueryInfo> queries) {
+        List<String> recording = statements;
+        if (recording == null || Thread.currentThread().getName().startsWith(SCHEDULER_THREAD_PREFIX)) {
+            return;
+        }
+        String sql = queries.stream().map(QueryInfo::getQuery).distinct().collect(Collectors.joining("; "));
+        recording.add(execution.isBatch() ? "[batch] " + sql : sql);
+    }
+
+    public static void start() {
+        statements = Collections.synchronizedList(new ArrayList<>());
+    }
+
+    public static List<String> stop() {
+        List<String> recorded = statements;
+        statements = null;
+        return recorded != null ? List.copyOf(recorded) : List.of();
+    }
+}